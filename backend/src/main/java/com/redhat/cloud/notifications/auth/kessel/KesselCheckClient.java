@@ -118,6 +118,16 @@ public class KesselCheckClient {
         return grpcClient;
     }
 
+    // Used by the tests to send the checks to an in-process Kessel stub.
+    void useChannel(ManagedChannel channel) {
+        ManagedChannel oldGrpcChannel = grpcChannel;
+        grpcClient = KesselInventoryServiceGrpc.newBlockingStub(channel);
+        grpcChannel = channel;
+        if (oldGrpcChannel != null) {
+            oldGrpcChannel.shutdown();
+        }
+    }
+
     @Retry(maxRetries = 3, delay = 100, retryOn = KesselTransientException.class)
     public CheckResponse check(CheckRequest request) {
         try {
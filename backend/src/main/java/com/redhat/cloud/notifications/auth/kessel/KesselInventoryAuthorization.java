@@ -6,14 +6,19 @@ import com.redhat.cloud.notifications.auth.principal.rhid.RhIdentity;
 import com.redhat.cloud.notifications.config.BackendConfig;
 import com.redhat.cloud.notifications.ingress.RecipientsAuthorizationCriterion;
 import com.redhat.cloud.notifications.routers.SecurityContextUtil;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
 import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.ForbiddenException;
 import jakarta.ws.rs.core.SecurityContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.project_kessel.api.inventory.v1beta2.Allowed;
 import org.project_kessel.api.inventory.v1beta2.CheckForUpdateRequest;
 import org.project_kessel.api.inventory.v1beta2.CheckForUpdateResponse;
@@ -23,7 +28,16 @@ import org.project_kessel.api.inventory.v1beta2.ReporterReference;
 import org.project_kessel.api.inventory.v1beta2.ResourceReference;
 import org.project_kessel.api.inventory.v1beta2.SubjectReference;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @ApplicationScoped
 public class KesselInventoryAuthorization {
@@ -54,6 +68,23 @@ public class KesselInventoryAuthorization {
      * Represents the counter name to count lookup resources requests.
      */
     public static final String KESSEL_METRICS_LIST_INTEGRATIONS_COUNTER_NAME = "notifications.kessel.inventory.list.integrations.count";
+    /**
+     * Represents the distribution summary name to measure the number of
+     * permission checks needed by a single bulk check.
+     */
+    public static final String KESSEL_METRICS_PERMISSION_CHECK_FAN_OUT_NAME = "notifications.kessel.inventory.permission.check.fan-out";
+    /**
+     * Represents the key for the tag which tells whether the fan-out counts
+     * the distinct resources or the calls actually sent to Kessel.
+     */
+    public static final String KESSEL_METRICS_TAG_FAN_OUT_KEY = "checks";
+    public static final String FAN_OUT_TAG_RESOURCES = "resources";
+    public static final String FAN_OUT_TAG_KESSEL_CALLS = "kessel-calls";
+    /**
+     * Represents the name of the cache holding the recent answers of the
+     * bulk permission checks.
+     */
+    public static final String RESOURCE_PERMISSION_CACHE_NAME = "kessel-resource-permission";
 
     protected static final String COUNTER_TAG_FAILURES = "failures";
     protected static final String COUNTER_TAG_REQUEST_RESULT = "result";
@@ -68,6 +99,26 @@ public class KesselInventoryAuthorization {
     @Inject
     BackendConfig backendConfig;
 
+    @Inject
+    @CacheName(RESOURCE_PERMISSION_CACHE_NAME)
+    Cache resourcePermissionCache;
+
+    @ConfigProperty(name = "notifications.kessel.bulk-check.max-concurrency", defaultValue = "8")
+    int bulkCheckMaxConcurrency;
+
+    private DistributionSummary resourcesFanOut;
+    private DistributionSummary kesselCallsFanOut;
+
+    @PostConstruct
+    void initMetrics() {
+        resourcesFanOut = DistributionSummary.builder(KESSEL_METRICS_PERMISSION_CHECK_FAN_OUT_NAME)
+            .tags(KESSEL_METRICS_TAG_FAN_OUT_KEY, FAN_OUT_TAG_RESOURCES)
+            .register(meterRegistry);
+        kesselCallsFanOut = DistributionSummary.builder(KESSEL_METRICS_PERMISSION_CHECK_FAN_OUT_NAME)
+            .tags(KESSEL_METRICS_TAG_FAN_OUT_KEY, FAN_OUT_TAG_KESSEL_CALLS)
+            .register(meterRegistry);
+    }
+
     /**
      * Checks if the subject on the security context has permission on the
      * given resource. Throws
@@ -182,6 +233,76 @@ public class KesselInventoryAuthorization {
     public boolean hasPermissionOnResource(final SecurityContext securityContext, final RecipientsAuthorizationCriterion authorizationCriterion) {
         // Identify the subject.
         final RhIdentity identity = SecurityContextUtil.extractRhIdentity(securityContext);
+        try {
+            return this.checkPermission(identity, authorizationCriterion);
+        } catch (final Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the subject on the security context has permission on each of
+     * the given resources. The distinct resources are checked concurrently,
+     * and the answers are cached for a short time across requests so that
+     * the same subject loading several pages doesn't trigger the same checks
+     * again. The checks that fail are treated as denied and never cached.
+     * @param securityContext the security context to extract the subject from.
+     * @param authorizationCriteria the authorization criteria, which may
+     *                              contain duplicates.
+     * @return whether the user has access to the resource of each distinct
+     * criterion.
+     */
+    public Map<RecipientsAuthorizationCriterion, Boolean> hasPermissionOnResources(final SecurityContext securityContext, final Collection<RecipientsAuthorizationCriterion> authorizationCriteria) {
+        // Identify the subject.
+        final RhIdentity identity = SecurityContextUtil.extractRhIdentity(securityContext);
+        final Set<RecipientsAuthorizationCriterion> distinctCriteria = new HashSet<>(authorizationCriteria);
+        final AtomicInteger kesselCalls = new AtomicInteger();
+
+        final Map<RecipientsAuthorizationCriterion, Future<Boolean>> futures = new HashMap<>();
+        if (!distinctCriteria.isEmpty()) {
+            final int threads = Math.min(distinctCriteria.size(), this.bulkCheckMaxConcurrency);
+            // Closing the executor waits for all the checks to complete.
+            try (ExecutorService executor = Executors.newFixedThreadPool(threads, Thread.ofVirtual().name("kessel-bulk-check-", 0).factory())) {
+                for (final RecipientsAuthorizationCriterion criterion : distinctCriteria) {
+                    futures.put(criterion, executor.submit(() -> this.getCachedPermission(identity, criterion, kesselCalls)));
+                }
+            }
+        }
+
+        this.resourcesFanOut.record(distinctCriteria.size());
+        this.kesselCallsFanOut.record(kesselCalls.get());
+
+        final Map<RecipientsAuthorizationCriterion, Boolean> permissions = new HashMap<>();
+        futures.forEach((criterion, future) -> permissions.put(criterion, future.resultNow()));
+        return permissions;
+    }
+
+    private boolean getCachedPermission(final RhIdentity identity, final RecipientsAuthorizationCriterion criterion, final AtomicInteger kesselCalls) {
+        final ResourcePermissionKey key = new ResourcePermissionKey(
+            identity.getOrgId(),
+            identity.getUserId(),
+            criterion.getRelation(),
+            criterion.getType().getNamespace(),
+            criterion.getType().getName(),
+            criterion.getId()
+        );
+        try {
+            return this.resourcePermissionCache.<ResourcePermissionKey, Boolean>get(key, k -> {
+                kesselCalls.incrementAndGet();
+                return this.checkPermission(identity, criterion);
+            }).await().indefinitely();
+        } catch (final Exception e) {
+            // The failure was already logged by the check.
+            return false;
+        }
+    }
+
+    /**
+     * Checks the permission of the subject on the resource of the given
+     * criterion.
+     * @throws RuntimeException if Kessel could not be queried.
+     */
+    private boolean checkPermission(final RhIdentity identity, final RecipientsAuthorizationCriterion authorizationCriterion) {
         final String permission = authorizationCriterion.getRelation();
         final String resourceType = authorizationCriterion.getType().toString();
         final String resourceId = authorizationCriterion.getId();
@@ -205,7 +326,7 @@ public class KesselInventoryAuthorization {
                 identity, permission, resourceType, resourceId
             );
             meterRegistry.counter(KESSEL_METRICS_PERMISSION_CHECK_COUNTER_NAME, Tags.of(COUNTER_TAG_REQUEST_RESULT, COUNTER_TAG_FAILURES)).increment();
-            return false;
+            throw e;
         } finally {
             // Stop the timer.
             permissionCheckTimer.stop(this.meterRegistry.timer(KESSEL_METRICS_PERMISSION_CHECK_TIMER_NAME, Tags.of(KESSEL_METRICS_TAG_PERMISSION_KEY, permission, Constants.KESSEL_METRICS_TAG_RESOURCE_TYPE_KEY, authorizationCriterion.getType().getName())));
@@ -313,4 +434,7 @@ public class KesselInventoryAuthorization {
             throw new IllegalArgumentException(String.format("Resource/permission pair unsupported for Kessel check: %s/%s", resourceType, permission));
         }
     }
+
+    private record ResourcePermissionKey(String orgId, String userId, String permission, String resourceNamespace, String resourceType, String resourceId) {
+    }
 }
@@ -0,0 +1,36 @@
+package com.redhat.cloud.notifications.db;
+
+import jakarta.ws.rs.BadRequestException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Position of the last event of an event log page, used to fetch the following page without an offset. It is exposed
+ * to the API clients as an opaque token.
+ */
+public record EventLogCursor(LocalDateTime created, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((created + SEPARATOR + id).getBytes(UTF_8));
+    }
+
+    public static EventLogCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new BadRequestException("Invalid 'cursor' query parameter");
+            }
+            return new EventLogCursor(LocalDateTime.parse(decoded.substring(0, separatorIndex)), UUID.fromString(decoded.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid 'cursor' query parameter", e);
+        }
+    }
+}
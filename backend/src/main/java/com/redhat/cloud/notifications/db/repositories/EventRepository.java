@@ -1,6 +1,7 @@
 package com.redhat.cloud.notifications.db.repositories;
 
 import com.redhat.cloud.notifications.Severity;
+import com.redhat.cloud.notifications.db.EventLogCursor;
 import com.redhat.cloud.notifications.db.Query;
 import com.redhat.cloud.notifications.db.Sort;
 import com.redhat.cloud.notifications.models.CompositeEndpointType;
@@ -14,6 +15,7 @@ import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
@@ -150,11 +152,11 @@ public class EventRepository {
     public List<Event> getEvents(String orgId, boolean useNormalized, Set<UUID> bundleIds, Set<UUID> appIds, String eventTypeDisplayName,
                                       LocalDate startDate, LocalDate endDate, Set<EndpointType> endpointTypes, Set<CompositeEndpointType> compositeEndpointTypes,
                                       Set<Boolean> invocationResults, boolean fetchNotificationHistory, Set<NotificationStatus> status, Set<Severity> severities, Query query,
-                                      Optional<List<UUID>> uuidToExclude, boolean includeEventsWithAuthCriterion) {
+                                      Optional<EventLogCursor> cursor, Optional<List<UUID>> uuidToExclude, boolean includeEventsWithAuthCriterion) {
 
         Optional<Sort> sort = Sort.getSort(query, "created:DESC", Event.getSortFields(useNormalized));
 
-        List<UUID> eventIds = getEventIds(orgId, useNormalized, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, query, uuidToExclude, includeEventsWithAuthCriterion);
+        List<UUID> eventIds = getEventIds(orgId, useNormalized, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, query, cursor, uuidToExclude, includeEventsWithAuthCriterion);
         if (eventIds.isEmpty()) {
             return new ArrayList<>();
         }
@@ -211,12 +213,44 @@ public class EventRepository {
                       Set<CompositeEndpointType> compositeEndpointTypes, Set<Boolean> invocationResults,
                       Set<NotificationStatus> status, Set<Severity> severities, Optional<List<UUID>> uuidToExclude, Boolean includeEventsWithAuthCriterion) {
 
+        String hql = buildCountHql("SELECT COUNT(*)", useNormalized, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, uuidToExclude, includeEventsWithAuthCriterion);
+
+        TypedQuery<Long> query = entityManager.createQuery(hql, Long.class);
+        setQueryParams(query, orgId, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, uuidToExclude);
+
+        return query.getSingleResult();
+    }
+
+    /**
+     * Counts the events like {@link #count} does, but stops counting once the given threshold is exceeded. On orgs
+     * with millions of events, this reads at most {@code threshold + 1} index entries instead of all of them.
+     * @return the exact count if it is lower than or equal to the threshold, {@code threshold + 1} otherwise
+     */
+    public long countUpTo(String orgId, boolean useNormalized, Set<UUID> bundleIds, Set<UUID> appIds, String eventTypeDisplayName,
+                          LocalDate startDate, LocalDate endDate, Set<EndpointType> endpointTypes,
+                          Set<CompositeEndpointType> compositeEndpointTypes, Set<Boolean> invocationResults,
+                          Set<NotificationStatus> status, Set<Severity> severities, Optional<List<UUID>> uuidToExclude, Boolean includeEventsWithAuthCriterion, int threshold) {
+
+        String hql = buildCountHql("SELECT e.id", useNormalized, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, uuidToExclude, includeEventsWithAuthCriterion);
+
+        TypedQuery<UUID> query = entityManager.createQuery(hql, UUID.class);
+        setQueryParams(query, orgId, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, uuidToExclude);
+        query.setMaxResults(threshold + 1);
+
+        return query.getResultList().size();
+    }
+
+    private String buildCountHql(String select, boolean useNormalized, Set<UUID> bundleIds, Set<UUID> appIds, String eventTypeDisplayName,
+                                 LocalDate startDate, LocalDate endDate, Set<EndpointType> endpointTypes,
+                                 Set<CompositeEndpointType> compositeEndpointTypes, Set<Boolean> invocationResults,
+                                 Set<NotificationStatus> status, Set<Severity> severities, Optional<List<UUID>> uuidToExclude, Boolean includeEventsWithAuthCriterion) {
+
         // Calculate once for reuse
         boolean bundlesNotEmpty = bundleIds != null && !bundleIds.isEmpty();
         boolean applicationsNotEmpty = appIds != null && !appIds.isEmpty();
         boolean eventTypeNameNotEmpty = eventTypeDisplayName != null;
 
-        String hql = "SELECT COUNT(*) FROM Event e ";
+        String hql = select + " FROM Event e ";
 
         // Add selective JOINs for normalized approach - only join what we need
         if (useNormalized && (bundlesNotEmpty || applicationsNotEmpty || eventTypeNameNotEmpty)) {
@@ -233,25 +267,25 @@ public class EventRepository {
 
         hql += "WHERE e.orgId = :orgId";
 
-        hql = addHqlConditions(hql, useNormalized, bundlesNotEmpty, applicationsNotEmpty, eventTypeNameNotEmpty, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, uuidToExclude, includeEventsWithAuthCriterion);
-
-        TypedQuery<Long> query = entityManager.createQuery(hql, Long.class);
-        setQueryParams(query, orgId, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, uuidToExclude);
-
-        return query.getSingleResult();
+        return addHqlConditions(hql, useNormalized, bundlesNotEmpty, applicationsNotEmpty, eventTypeNameNotEmpty, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, uuidToExclude, includeEventsWithAuthCriterion);
     }
 
     private String getOrderBy(Sort sort) {
         if (!sort.getSortColumn().equals("e.created")) {
             return " " + sort.getSortQuery() + ", e.created DESC";
         } else {
-            return " " + sort.getSortQuery();
+            /*
+             * The event ID makes the order deterministic, which the cursor pagination relies on. Its direction is the
+             * opposite of the creation date one so that the order matches the ix_event_org_id_created_id index.
+             */
+            return " " + sort.getSortQuery() + ", e.id " + (sort.getSortOrder() == Sort.Order.DESC ? "ASC" : "DESC");
         }
     }
 
     private List<UUID> getEventIds(String orgId, boolean useNormalized, Set<UUID> bundleIds, Set<UUID> appIds, String eventTypeDisplayName,
                                         LocalDate startDate, LocalDate endDate, Set<EndpointType> endpointTypes, Set<CompositeEndpointType> compositeEndpointTypes,
-                                        Set<Boolean> invocationResults, Set<NotificationStatus> status, Set<Severity> severities, Query query, Optional<List<UUID>> uuidToExclude, boolean includeEventsWithAuthCriterion) {
+                                        Set<Boolean> invocationResults, Set<NotificationStatus> status, Set<Severity> severities, Query query, Optional<EventLogCursor> cursor,
+                                        Optional<List<UUID>> uuidToExclude, boolean includeEventsWithAuthCriterion) {
         boolean bundlesNotEmpty = bundleIds != null && !bundleIds.isEmpty();
         boolean applicationsNotEmpty = appIds != null && !appIds.isEmpty();
         boolean eventTypeNameNotEmpty = eventTypeDisplayName != null;
@@ -283,17 +317,38 @@ public class EventRepository {
 
         hql = addHqlConditions(hql, useNormalized, bundlesNotEmpty, applicationsNotEmpty, eventTypeNameNotEmpty, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, uuidToExclude, includeEventsWithAuthCriterion);
 
+        if (cursor.isPresent()) {
+            if (sort.isEmpty() || !sort.get().getSortColumn().equals("e.created")) {
+                throw new BadRequestException("The 'cursor' query parameter can only be used when the events are sorted by creation date");
+            }
+            /*
+             * Seeks the position of the cursor in the index instead of skipping the previous pages. The first condition
+             * is redundant, but PostgreSQL can't use the OR condition alone as an index bound.
+             */
+            if (sort.get().getSortOrder() == Sort.Order.DESC) {
+                hql += " AND e.created <= :cursorCreated AND (e.created < :cursorCreated OR e.id > :cursorId)";
+            } else {
+                hql += " AND e.created >= :cursorCreated AND (e.created > :cursorCreated OR e.id < :cursorId)";
+            }
+        }
+
         if (sort.isPresent()) {
             hql += getOrderBy(sort.get());
         }
 
         TypedQuery<UUID> typedQuery = entityManager.createQuery(hql, UUID.class);
         setQueryParams(typedQuery, orgId, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, endpointTypes, compositeEndpointTypes, invocationResults, status, severities, uuidToExclude);
+        if (cursor.isPresent()) {
+            typedQuery.setParameter("cursorCreated", Timestamp.valueOf(cursor.get().created()));
+            typedQuery.setParameter("cursorId", cursor.get().id());
+        }
 
         Query.Limit limit = query.getLimit();
 
         typedQuery.setMaxResults(limit.getLimit());
-        typedQuery.setFirstResult(limit.getOffset());
+        if (cursor.isEmpty()) {
+            typedQuery.setFirstResult(limit.getOffset());
+        }
 
         return typedQuery.getResultList();
     }
@@ -5,6 +5,7 @@ import com.redhat.cloud.notifications.config.BackendConfig;
 import com.redhat.cloud.notifications.db.Query;
 import com.redhat.cloud.notifications.db.repositories.DrawerNotificationRepository;
 import com.redhat.cloud.notifications.db.repositories.EventRepository;
+import com.redhat.cloud.notifications.ingress.RecipientsAuthorizationCriterion;
 import com.redhat.cloud.notifications.models.DrawerEntryPayload;
 import com.redhat.cloud.notifications.routers.handlers.event.EventAuthorizationCriterion;
 import com.redhat.cloud.notifications.routers.models.Meta;
@@ -32,7 +33,6 @@ import org.jboss.resteasy.reactive.RestQuery;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -161,17 +161,13 @@ public class DrawerResource {
                 orgId, useNormalized, subscribedEventTypes, startDate, endDate
             );
 
-        Map<Integer, Boolean> criterionResultCache = new HashMap<>();
+        // The distinct criteria are checked concurrently, and recently checked ones are answered from a cache.
+        Map<RecipientsAuthorizationCriterion, Boolean> permissions = kesselInventoryAuthorization.hasPermissionOnResources(
+            securityContext,
+            listEventsAuthCriterion.stream().map(EventAuthorizationCriterion::authorizationCriterion).toList()
+        );
         for (EventAuthorizationCriterion eventAuthorizationCriterion : listEventsAuthCriterion) {
-            int criterionHashCode = eventAuthorizationCriterion.authorizationCriterion().hashCode();
-            if (!criterionResultCache.containsKey(criterionHashCode)) {
-                criterionResultCache.put(criterionHashCode,
-                    kesselInventoryAuthorization.hasPermissionOnResource(
-                        securityContext,
-                        eventAuthorizationCriterion.authorizationCriterion()
-                    ));
-            }
-            if (!criterionResultCache.get(criterionHashCode)) {
+            if (!permissions.get(eventAuthorizationCriterion.authorizationCriterion())) {
                 Log.infof("%s is not visible for current user", eventAuthorizationCriterion.id());
                 uuidToExclude.add(eventAuthorizationCriterion.id());
             }
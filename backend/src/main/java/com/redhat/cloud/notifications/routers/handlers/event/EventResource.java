@@ -5,6 +5,7 @@ import com.redhat.cloud.notifications.auth.ConsoleIdentityProvider;
 import com.redhat.cloud.notifications.auth.annotation.Authorization;
 import com.redhat.cloud.notifications.auth.kessel.KesselInventoryAuthorization;
 import com.redhat.cloud.notifications.config.BackendConfig;
+import com.redhat.cloud.notifications.db.EventLogCursor;
 import com.redhat.cloud.notifications.db.Query;
 import com.redhat.cloud.notifications.db.repositories.EventRepository;
 import com.redhat.cloud.notifications.models.CompositeEndpointType;
@@ -32,6 +33,7 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.SecurityContext;
 import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
@@ -80,6 +82,10 @@ public class EventResource {
     @Inject
     MeterRegistry meterRegistry;
 
+    // Above that number of events, the estimated counts are not exact.
+    @ConfigProperty(name = "notifications.event-log.estimated-count.threshold", defaultValue = "10000")
+    int estimatedCountThreshold;
+
     private Timer normalizedTimer;
     private Timer denormalizedTimer;
 
@@ -99,6 +105,21 @@ public class EventResource {
         description = "Number of items per page, if not specified " + DEFAULT_RESULTS_PER_PAGE + " is used.",
         schema = @Schema(type = SchemaType.INTEGER, defaultValue = DEFAULT_RESULTS_PER_PAGE + "")
     )
+    @Parameter(
+        name = "cursorPagination",
+        in = ParameterIn.QUERY,
+        description = "If true, the next page link contains a cursor instead of an offset. Cursor pagination is faster than offset pagination on deep pages but it requires the events to be sorted by creation date."
+    )
+    @Parameter(
+        name = "cursor",
+        in = ParameterIn.QUERY,
+        description = "Opaque position returned in the next page link when the cursor pagination is used. It cannot be combined with an offset."
+    )
+    @Parameter(
+        name = "estimateCount",
+        in = ParameterIn.QUERY,
+        description = "If true, the events are only counted up to a threshold. Above that threshold, the count is a lower bound and the response meta is flagged as estimated."
+    )
     @Authorization(legacyRBACRole = ConsoleIdentityProvider.RBAC_READ_NOTIFICATIONS_EVENTS, workspacePermissions = EVENTS_VIEW)
     public Page<EventLogEntry> getEvents(@Context SecurityContext securityContext, @Context UriInfo uriInfo,
                                          @RestQuery Set<UUID> bundleIds, @RestQuery Set<UUID> appIds,
@@ -106,7 +127,8 @@ public class EventResource {
                                          @RestQuery Set<String> endpointTypes, @RestQuery Set<Boolean> invocationResults,
                                          @RestQuery Set<EventLogEntryActionStatus> status, @RestQuery Set<Severity> severities,
                                          @BeanParam @Valid Query query,
-                                         @RestQuery boolean includeDetails, @RestQuery boolean includePayload, @RestQuery boolean includeActions) {
+                                         @RestQuery boolean includeDetails, @RestQuery boolean includePayload, @RestQuery boolean includeActions,
+                                         @RestQuery boolean cursorPagination, @RestQuery String cursor, @RestQuery boolean estimateCount) {
         Set<EndpointType> basicTypes = Collections.emptySet();
         Set<CompositeEndpointType> compositeTypes = Collections.emptySet();
         Set<NotificationStatus> notificationStatusSet = status == null ? Set.of() : toNotificationStatus(status);
@@ -129,6 +151,12 @@ public class EventResource {
             }
         }
 
+        boolean useCursor = cursorPagination || cursor != null;
+        if (useCursor && query.getLimit().getOffset() > 0) {
+            throw new BadRequestException("The 'offset' and 'pageNumber' query parameters cannot be used with the cursor pagination");
+        }
+        Optional<EventLogCursor> eventLogCursor = cursor == null ? Optional.empty() : Optional.of(EventLogCursor.decode(cursor));
+
         String orgId = getOrgId(securityContext);
         boolean useNormalizedQueries = backendConfig.isNormalizedQueriesEnabled(orgId);
         Timer.Sample timerSample = Timer.start(meterRegistry);
@@ -154,18 +182,27 @@ public class EventResource {
                 if (uuidToExclude.isEmpty()) {
                     uuidToExclude = null;
                 }
-                events = eventRepository.getEvents(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, includeActions, notificationStatusSet, severities, query, Optional.ofNullable(uuidToExclude), true);
-                count = eventRepository.count(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, notificationStatusSet, severities, Optional.ofNullable(uuidToExclude), true);
+                events = eventRepository.getEvents(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, includeActions, notificationStatusSet, severities, query, eventLogCursor, Optional.ofNullable(uuidToExclude), true);
+                if (estimateCount) {
+                    count = eventRepository.countUpTo(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, notificationStatusSet, severities, Optional.ofNullable(uuidToExclude), true, estimatedCountThreshold);
+                } else {
+                    count = eventRepository.count(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, notificationStatusSet, severities, Optional.ofNullable(uuidToExclude), true);
+                }
             } else {
-                events = eventRepository.getEvents(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, includeActions, notificationStatusSet, severities, query, Optional.empty(), false);
-                count = eventRepository.count(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, notificationStatusSet, severities, Optional.empty(), false);
+                events = eventRepository.getEvents(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, includeActions, notificationStatusSet, severities, query, eventLogCursor, Optional.empty(), false);
+                if (estimateCount) {
+                    count = eventRepository.countUpTo(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, notificationStatusSet, severities, Optional.empty(), false, estimatedCountThreshold);
+                } else {
+                    count = eventRepository.count(orgId, useNormalizedQueries, bundleIds, appIds, eventTypeDisplayName, startDate, endDate, basicTypes, compositeTypes, invocationResults, notificationStatusSet, severities, Optional.empty(), false);
+                }
             }
+            boolean countExceedsThreshold = estimateCount && count > estimatedCountThreshold;
 
             if (events.isEmpty()) {
                 Meta meta = new Meta();
                 meta.setCount(0L);
 
-                Map<String, String> links = PageLinksBuilder.build(uriInfo, 0, query);
+                Map<String, String> links = useCursor ? PageLinksBuilder.buildWithCursor(uriInfo, query, Optional.empty()) : PageLinksBuilder.build(uriInfo, 0, query);
 
                 Page<EventLogEntry> page = new Page<>();
                 page.setData(new ArrayList<>());
@@ -211,9 +248,31 @@ public class EventResource {
             }).collect(Collectors.toList());
 
             Meta meta = new Meta();
-            meta.setCount(count);
+            Map<String, String> links;
+            if (countExceedsThreshold) {
+                meta.setCount((long) estimatedCountThreshold);
+                meta.setEstimated(true);
+            } else {
+                meta.setCount(count);
+                if (estimateCount) {
+                    meta.setEstimated(false);
+                }
+            }
 
-            Map<String, String> links = PageLinksBuilder.build(uriInfo, count, query);
+            if (useCursor) {
+                Optional<String> nextCursor = Optional.empty();
+                if (events.size() == query.getLimit().getLimit()) {
+                    Event lastEvent = events.getLast();
+                    nextCursor = Optional.of(new EventLogCursor(lastEvent.getCreated(), lastEvent.getId()).encode());
+                }
+                links = PageLinksBuilder.buildWithCursor(uriInfo, query, nextCursor);
+            } else if (countExceedsThreshold) {
+                // The real count is unknown, the links must still allow reaching the page that follows this one.
+                Query.Limit limit = query.getLimit();
+                links = PageLinksBuilder.build(uriInfo, Math.max(count, limit.getOffset() + limit.getLimit() + 1L), query);
+            } else {
+                links = PageLinksBuilder.build(uriInfo, count, query);
+            }
 
             Page<EventLogEntry> page = new Page<>();
             page.setData(eventLogEntries);
@@ -8,6 +8,7 @@ import jakarta.ws.rs.core.UriInfo;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class PageLinksBuilder {
 
@@ -37,6 +38,30 @@ public class PageLinksBuilder {
         return buildLinks(baseBuilder, count, limit, currentOffset);
     }
 
+    /**
+     * Builds the links of a page fetched with a cursor. The last and previous pages links are not available because
+     * a cursor only knows about the position of the last event of the current page.
+     */
+    public static Map<String, String> buildWithCursor(UriInfo uriInfo, Query query, Optional<String> nextCursor) {
+        UriBuilder baseBuilder = UriBuilder.fromPath(uriInfo.getPath());
+
+        MultivaluedMap<String, String> queryParams = uriInfo.getQueryParameters();
+        for (Map.Entry<String, List<String>> entry : queryParams.entrySet()) {
+            for (String value : entry.getValue()) {
+                baseBuilder.queryParam(entry.getKey(), value);
+            }
+        }
+
+        baseBuilder.replaceQueryParam("limit", query.getLimit().getLimit())
+            .replaceQueryParam("cursorPagination", true)
+            .replaceQueryParam("cursor");
+
+        Map<String, String> links = new HashMap<>();
+        links.put("first", baseBuilder.clone().toTemplate());
+        nextCursor.ifPresent(cursor -> links.put("next", baseBuilder.clone().replaceQueryParam("cursor", cursor).toTemplate()));
+        return links;
+    }
+
     public static Map<String, String> build(String apiPath, long count, long limit, long currentOffset) {
         UriBuilder baseBuilder = UriBuilder.fromPath(apiPath)
                 .queryParam("limit", limit);
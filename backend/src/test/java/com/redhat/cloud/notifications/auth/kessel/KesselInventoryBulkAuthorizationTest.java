@@ -0,0 +1,225 @@
+package com.redhat.cloud.notifications.auth.kessel;
+
+import com.redhat.cloud.notifications.auth.kessel.permission.WorkspacePermission;
+import com.redhat.cloud.notifications.auth.principal.ConsolePrincipal;
+import com.redhat.cloud.notifications.auth.principal.rhid.RhIdPrincipal;
+import com.redhat.cloud.notifications.auth.principal.rhid.RhIdentity;
+import com.redhat.cloud.notifications.ingress.RecipientsAuthorizationCriterion;
+import com.redhat.cloud.notifications.ingress.Type;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.SecurityContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.project_kessel.api.inventory.v1beta2.Allowed;
+import org.project_kessel.api.inventory.v1beta2.CheckRequest;
+import org.project_kessel.api.inventory.v1beta2.CheckResponse;
+import org.project_kessel.api.inventory.v1beta2.KesselInventoryServiceGrpc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.redhat.cloud.notifications.auth.kessel.KesselInventoryAuthorization.FAN_OUT_TAG_KESSEL_CALLS;
+import static com.redhat.cloud.notifications.auth.kessel.KesselInventoryAuthorization.FAN_OUT_TAG_RESOURCES;
+import static com.redhat.cloud.notifications.auth.kessel.KesselInventoryAuthorization.KESSEL_METRICS_PERMISSION_CHECK_FAN_OUT_NAME;
+import static com.redhat.cloud.notifications.auth.kessel.KesselInventoryAuthorization.KESSEL_METRICS_TAG_FAN_OUT_KEY;
+import static com.redhat.cloud.notifications.auth.kessel.KesselInventoryAuthorization.RESOURCE_PERMISSION_CACHE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends the bulk permission checks to an in-process stub of the Kessel
+ * inventory service.
+ */
+@QuarkusTest
+public class KesselInventoryBulkAuthorizationTest {
+
+    private static final String ALLOWED_RESOURCE_PREFIX = "allowed-";
+    private static final long CHECK_DURATION_MS = 100;
+
+    @Inject
+    KesselCheckClient checkClient;
+
+    @Inject
+    KesselInventoryAuthorization kesselAuthorization;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    @CacheName(RESOURCE_PERMISSION_CACHE_NAME)
+    Cache resourcePermissionCache;
+
+    private Server server;
+    private ManagedChannel channel;
+    private final Map<String, AtomicInteger> checksPerSubjectAndResource = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlightChecks = new AtomicInteger();
+    private final AtomicInteger maxInFlightChecks = new AtomicInteger();
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+            .addService(new KesselInventoryServiceStub())
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+        checkClient.useChannel(channel);
+    }
+
+    @AfterEach
+    void afterEach() {
+        resourcePermissionCache.invalidateAll().await().indefinitely();
+        // The client recreates its channel to the real Kessel instance once this one is shut down.
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    /**
+     * Tests that the distinct resources are checked concurrently, once each,
+     * and that the answers are cached for the next requests of the user.
+     */
+    @Test
+    void testBulkCheck() {
+        final SecurityContext securityContext = initMockedSecurityContextWithRhIdentity("user-1");
+
+        final List<RecipientsAuthorizationCriterion> criteria = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            criteria.add(buildCriterion(ALLOWED_RESOURCE_PREFIX + i));
+            criteria.add(buildCriterion("denied-" + i));
+            // Duplicates are only checked once.
+            criteria.add(buildCriterion(ALLOWED_RESOURCE_PREFIX + i));
+        }
+
+        final double resourcesBefore = getFanOutTotal(FAN_OUT_TAG_RESOURCES);
+        final double kesselCallsBefore = getFanOutTotal(FAN_OUT_TAG_KESSEL_CALLS);
+
+        final Map<RecipientsAuthorizationCriterion, Boolean> permissions = kesselAuthorization.hasPermissionOnResources(securityContext, criteria);
+
+        assertEquals(10, permissions.size());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(permissions.get(buildCriterion(ALLOWED_RESOURCE_PREFIX + i)));
+            assertFalse(permissions.get(buildCriterion("denied-" + i)));
+        }
+        assertEquals(10, checksPerSubjectAndResource.size());
+        checksPerSubjectAndResource.values().forEach(checks -> assertEquals(1, checks.get()));
+        assertTrue(maxInFlightChecks.get() > 1, "The checks were not sent concurrently");
+
+        // The same user loads the drawer again: the answers come from the cache.
+        final Map<RecipientsAuthorizationCriterion, Boolean> cachedPermissions = kesselAuthorization.hasPermissionOnResources(securityContext, criteria);
+        assertEquals(permissions, cachedPermissions);
+        checksPerSubjectAndResource.values().forEach(checks -> assertEquals(1, checks.get()));
+
+        assertEquals(20, getFanOutTotal(FAN_OUT_TAG_RESOURCES) - resourcesBefore);
+        assertEquals(10, getFanOutTotal(FAN_OUT_TAG_KESSEL_CALLS) - kesselCallsBefore);
+    }
+
+    /**
+     * Tests that the cached answers of a user are not given to another user.
+     */
+    @Test
+    void testCacheIsPerUser() {
+        final List<RecipientsAuthorizationCriterion> criteria = List.of(buildCriterion(ALLOWED_RESOURCE_PREFIX + "workspace"));
+
+        kesselAuthorization.hasPermissionOnResources(initMockedSecurityContextWithRhIdentity("user-1"), criteria);
+        kesselAuthorization.hasPermissionOnResources(initMockedSecurityContextWithRhIdentity("user-2"), criteria);
+        kesselAuthorization.hasPermissionOnResources(initMockedSecurityContextWithRhIdentity("user-1"), criteria);
+
+        assertEquals(Set.of("user-1/allowed-workspace", "user-2/allowed-workspace"), checksPerSubjectAndResource.keySet());
+        checksPerSubjectAndResource.values().forEach(checks -> assertEquals(1, checks.get()));
+    }
+
+    /**
+     * Tests that a failed check is treated as denied and is not cached.
+     */
+    @Test
+    void testFailedCheckIsNotCached() {
+        final SecurityContext securityContext = initMockedSecurityContextWithRhIdentity("user-1");
+        final List<RecipientsAuthorizationCriterion> criteria = List.of(buildCriterion("failing-workspace"));
+
+        assertFalse(kesselAuthorization.hasPermissionOnResources(securityContext, criteria).get(criteria.getFirst()));
+        assertFalse(kesselAuthorization.hasPermissionOnResources(securityContext, criteria).get(criteria.getFirst()));
+
+        assertEquals(2, checksPerSubjectAndResource.get("user-1/failing-workspace").get());
+    }
+
+    private double getFanOutTotal(final String checks) {
+        return meterRegistry.get(KESSEL_METRICS_PERMISSION_CHECK_FAN_OUT_NAME)
+            .tag(KESSEL_METRICS_TAG_FAN_OUT_KEY, checks)
+            .summary()
+            .totalAmount();
+    }
+
+    private static RecipientsAuthorizationCriterion buildCriterion(final String workspaceId) {
+        final RecipientsAuthorizationCriterion authorizationCriterion = new RecipientsAuthorizationCriterion();
+        authorizationCriterion.setId(workspaceId);
+        authorizationCriterion.setRelation(WorkspacePermission.EVENTS_VIEW.getKesselPermissionName());
+        final Type t = new Type();
+        t.setNamespace("rbac");
+        t.setName("workspace");
+        authorizationCriterion.setType(t);
+        return authorizationCriterion;
+    }
+
+    private static SecurityContext initMockedSecurityContextWithRhIdentity(final String userId) {
+        final SecurityContext mockedSecurityContext = Mockito.mock(SecurityContext.class);
+
+        final RhIdentity identity = Mockito.mock(RhIdentity.class);
+        Mockito.when(identity.getName()).thenReturn("Red Hat user");
+        Mockito.when(identity.getOrgId()).thenReturn("org-id");
+        Mockito.when(identity.getUserId()).thenReturn(userId);
+
+        final ConsolePrincipal<?> principal = new RhIdPrincipal(identity);
+        Mockito.when(mockedSecurityContext.getUserPrincipal()).thenReturn(principal);
+        return mockedSecurityContext;
+    }
+
+    /**
+     * Allows the resources which identifier starts with
+     * {@link #ALLOWED_RESOURCE_PREFIX}, fails for the "failing-workspace"
+     * resource, and records the checks it receives.
+     */
+    private class KesselInventoryServiceStub extends KesselInventoryServiceGrpc.KesselInventoryServiceImplBase {
+
+        @Override
+        public void check(final CheckRequest request, final StreamObserver<CheckResponse> responseObserver) {
+            final String subject = request.getSubject().getResource().getResourceId();
+            final String resourceId = request.getObject().getResourceId();
+            checksPerSubjectAndResource.computeIfAbsent(subject.substring(subject.lastIndexOf('/') + 1) + "/" + resourceId, key -> new AtomicInteger()).incrementAndGet();
+
+            maxInFlightChecks.accumulateAndGet(inFlightChecks.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(CHECK_DURATION_MS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlightChecks.decrementAndGet();
+            }
+
+            if ("failing-workspace".equals(resourceId)) {
+                responseObserver.onError(Status.PERMISSION_DENIED.asRuntimeException());
+                return;
+            }
+            final Allowed allowed = resourceId.startsWith(ALLOWED_RESOURCE_PREFIX) ? Allowed.ALLOWED_TRUE : Allowed.ALLOWED_FALSE;
+            responseObserver.onNext(CheckResponse.newBuilder().setAllowed(allowed).build());
+            responseObserver.onCompleted();
+        }
+    }
+}
@@ -258,6 +258,26 @@ public class EventRepositoryDrawerTest extends DbIsolatedTest {
         assertEquals(0, result.size(), "Should return empty list when no matching events");
     }
 
+    @Test
+    void testGetDrawerEventsWithCriterion_ReadsPreExtractedCriterion() {
+        RecipientsAuthorizationCriterion preExtractedCriterion = EventPayloadTestHelper.buildRecipientsAuthorizationCriterion();
+        preExtractedCriterion.setId("pre-extracted-id");
+        // The payload doesn't carry the criterion, so it can only come from the event row.
+        Event event = createDrawerEventWithPreExtractedCriterion(DEFAULT_ORG_ID, preExtractedCriterion);
+
+        List<EventAuthorizationCriterion> result = eventRepository.getDrawerEventsWithCriterion(
+            DEFAULT_ORG_ID, false, Set.of(event.getEventType().getId()), null, null
+        );
+
+        assertEquals(1, result.size());
+        assertEquals(event.getId(), result.get(0).id());
+        RecipientsAuthorizationCriterion criterion = result.get(0).authorizationCriterion();
+        assertEquals("pre-extracted-id", criterion.getId());
+        assertEquals(preExtractedCriterion.getRelation(), criterion.getRelation());
+        assertEquals(preExtractedCriterion.getType().getNamespace(), criterion.getType().getNamespace());
+        assertEquals(preExtractedCriterion.getType().getName(), criterion.getType().getName());
+    }
+
     @Transactional
     Event createDrawerEventWithAuthCriterion(String orgId) {
         return createDrawerEventWithAuthCriterion(orgId, "bundle1", "app1", "event-type-1");
@@ -334,6 +354,36 @@ public class EventRepositoryDrawerTest extends DbIsolatedTest {
         return event;
     }
 
+    @Transactional
+    Event createDrawerEventWithPreExtractedCriterion(String orgId, RecipientsAuthorizationCriterion criterion) {
+        String uniqueSuffix = "-" + UUID.randomUUID().toString().substring(0, 8);
+        Bundle bundle = resourceHelpers.createBundle("bundle-pre-extracted" + uniqueSuffix, "Bundle Pre Extracted");
+        Application app = resourceHelpers.createApplication(bundle.getId(), "app-pre-extracted" + uniqueSuffix, "App Pre Extracted");
+        EventType eventType = resourceHelpers.createEventType(app.getId(), "event-type-pre-extracted" + uniqueSuffix, "EventType Pre Extracted", "description");
+
+        eventType.setIncludedInDrawer(true);
+        entityManager.merge(eventType);
+
+        Action action = EventPayloadTestHelper.buildValidAction(orgId, bundle.getName(), app.getName(), eventType.getName());
+
+        Event event = new Event();
+        event.setOrgId(orgId);
+        event.setEventType(eventType);
+        event.setBundleId(bundle.getId());
+        event.setBundleDisplayName(bundle.getDisplayName());
+        event.setApplicationId(app.getId());
+        event.setApplicationDisplayName(app.getDisplayName());
+        event.setEventTypeDisplayName(eventType.getDisplayName());
+        event.setCreated(LocalDateTime.now());
+        event.setPayload(Parser.encode(action));
+        event.setRenderedDrawerNotification("Rendered notification");
+        event.setHasAuthorizationCriterion(true);
+        event.setRecipientsAuthorizationCriterion(criterion);
+
+        entityManager.persist(event);
+        return event;
+    }
+
     @Transactional
     Event createNonDrawerEventWithAuthCriterion(String orgId) {
         String uniqueSuffix = "-" + UUID.randomUUID().toString().substring(0, 8);
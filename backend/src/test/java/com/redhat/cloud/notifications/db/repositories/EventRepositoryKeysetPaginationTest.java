@@ -0,0 +1,142 @@
+package com.redhat.cloud.notifications.db.repositories;
+
+import com.redhat.cloud.notifications.TestLifecycleManager;
+import com.redhat.cloud.notifications.db.DbIsolatedTest;
+import com.redhat.cloud.notifications.db.EventLogCursor;
+import com.redhat.cloud.notifications.db.Query;
+import com.redhat.cloud.notifications.db.ResourceHelpers;
+import com.redhat.cloud.notifications.models.Application;
+import com.redhat.cloud.notifications.models.Bundle;
+import com.redhat.cloud.notifications.models.Event;
+import com.redhat.cloud.notifications.models.EventType;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the query plans of the event log queries on an org with millions of events. The plans are checked with
+ * hand-written SQL queries equivalent to the HQL queries built by {@link EventRepository}. This test is slow, it only
+ * runs with the {@code performance-tests} Maven profile.
+ */
+@QuarkusTest
+@Tag("performance")
+@QuarkusTestResource(TestLifecycleManager.class)
+public class EventRepositoryKeysetPaginationTest extends DbIsolatedTest {
+
+    private static final String ORG_ID = "keyset-pagination-org";
+    private static final int SYNTHETIC_EVENTS = 2_000_000;
+    private static final int DEEP_POSITION = 1_500_000;
+
+    @Inject
+    EventRepository eventRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    ResourceHelpers resourceHelpers;
+
+    @Test
+    void testEventLogQueriesUseIndexes() {
+        Bundle bundle = resourceHelpers.createBundle("keyset-bundle", "Keyset Bundle");
+        Application app = resourceHelpers.createApplication(bundle.getId(), "keyset-app", "Keyset Application");
+        EventType eventType1 = resourceHelpers.createEventType(app.getId(), "keyset-event-type-1");
+        EventType eventType2 = resourceHelpers.createEventType(app.getId(), "keyset-event-type-2");
+        insertSyntheticEvents(bundle, app, eventType1, eventType2);
+
+        // First page of the event log.
+        String firstPagePlan = explain("SELECT e.id FROM event e WHERE e.org_id = :orgId AND e.has_authorization_criterion = false " +
+            "ORDER BY e.created DESC, e.id ASC LIMIT 20", Optional.empty());
+        assertIndexScanWithoutSort(firstPagePlan);
+
+        // Deep page of the event log, the cursor seeks its position in the index instead of skipping the previous rows.
+        EventLogCursor cursor = getCursorAt(DEEP_POSITION);
+        String deepPagePlan = explain("SELECT e.id FROM event e WHERE e.org_id = :orgId AND e.has_authorization_criterion = false " +
+            "AND e.created <= :cursorCreated AND (e.created < :cursorCreated OR e.id > :cursorId) " +
+            "ORDER BY e.created DESC, e.id ASC LIMIT 20", Optional.of(cursor));
+        assertIndexScanWithoutSort(deepPagePlan);
+
+        // Events with an authorization criterion, filtered by the event types the user is subscribed to.
+        String authorizationCriterionPlan = explain("SELECT e.id FROM event e WHERE e.org_id = :orgId AND e.rendered_drawer_notification IS NOT NULL " +
+            "AND e.event_type_id IN ('" + eventType1.getId() + "') AND e.has_authorization_criterion = true", Optional.empty());
+        assertTrue(authorizationCriterionPlan.contains("ix_event_org_type_auth"), authorizationCriterionPlan);
+
+        // The repository returns the events that follow the cursor in the index order.
+        List<Event> events = eventRepository.getEvents(ORG_ID, false, null, null, null, null, null, Set.of(), Set.of(), null, false, Set.of(), null,
+            new Query(), Optional.of(cursor), Optional.empty(), false);
+        assertEquals(getCursorAt(DEEP_POSITION + 1).id(), events.getFirst().getId());
+        assertEquals(getCursorAt(DEEP_POSITION + events.size()).id(), events.getLast().getId());
+
+        // The estimated count stops reading the events once the threshold is exceeded.
+        assertEquals(1001L, eventRepository.countUpTo(ORG_ID, false, null, null, null, null, null, Set.of(), Set.of(), null, Set.of(), null, Optional.empty(), false, 1000));
+    }
+
+    @Transactional
+    void insertSyntheticEvents(Bundle bundle, Application app, EventType eventType1, EventType eventType2) {
+        // One event out of 100 has an authorization criterion and a rendered drawer notification.
+        entityManager.createNativeQuery("INSERT INTO event (id, org_id, bundle_id, bundle_display_name, application_id, application_display_name, " +
+                "event_type_id, event_type_display_name, created, has_authorization_criterion, rendered_drawer_notification, severity) " +
+                "SELECT gen_random_uuid(), :orgId, :bundleId, :bundleDisplayName, :appId, :appDisplayName, " +
+                "CASE WHEN i % 2 = 0 THEN :eventType1 ELSE :eventType2 END, 'Keyset event type', " +
+                // Groups of 10 events share the same creation date.
+                "LOCALTIMESTAMP - make_interval(secs => i / 10), i % 100 = 0, CASE WHEN i % 100 = 0 THEN 'drawer' END, 'MODERATE' " +
+                "FROM generate_series(1, :rows) AS i")
+            .setParameter("orgId", ORG_ID)
+            .setParameter("bundleId", bundle.getId())
+            .setParameter("bundleDisplayName", bundle.getDisplayName())
+            .setParameter("appId", app.getId())
+            .setParameter("appDisplayName", app.getDisplayName())
+            .setParameter("eventType1", eventType1.getId())
+            .setParameter("eventType2", eventType2.getId())
+            .setParameter("rows", SYNTHETIC_EVENTS)
+            .executeUpdate();
+        entityManager.createNativeQuery("ANALYZE event").executeUpdate();
+    }
+
+    /*
+     * Returns the position of the event at the given 1-based rank in the event log order, ignoring the events with an
+     * authorization criterion like the repository does.
+     */
+    @Transactional
+    EventLogCursor getCursorAt(int rank) {
+        Object[] row = (Object[]) entityManager.createNativeQuery("SELECT created, id FROM event WHERE org_id = :orgId AND has_authorization_criterion = false " +
+                "ORDER BY created DESC, id ASC OFFSET :offset LIMIT 1")
+            .setParameter("orgId", ORG_ID)
+            .setParameter("offset", rank - 1)
+            .getSingleResult();
+        return new EventLogCursor(((Timestamp) row[0]).toLocalDateTime(), (UUID) row[1]);
+    }
+
+    @Transactional
+    String explain(String sql, Optional<EventLogCursor> cursor) {
+        jakarta.persistence.Query query = entityManager.createNativeQuery("EXPLAIN " + sql)
+            .setParameter("orgId", ORG_ID);
+        if (cursor.isPresent()) {
+            query.setParameter("cursorCreated", Timestamp.valueOf(cursor.get().created()));
+            query.setParameter("cursorId", cursor.get().id());
+        }
+        List<?> plan = query.getResultList();
+        return plan.stream().map(String::valueOf).collect(Collectors.joining("\n"));
+    }
+
+    private static void assertIndexScanWithoutSort(String plan) {
+        assertTrue(plan.contains("ix_event_org_id_created_id"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+        assertFalse(plan.contains("Seq Scan on event"), plan);
+    }
+}
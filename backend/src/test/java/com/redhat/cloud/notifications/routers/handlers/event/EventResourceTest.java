@@ -13,6 +13,7 @@ import com.redhat.cloud.notifications.auth.kessel.permission.WorkspacePermission
 import com.redhat.cloud.notifications.auth.rbac.workspace.WorkspaceUtils;
 import com.redhat.cloud.notifications.config.BackendConfig;
 import com.redhat.cloud.notifications.db.DbIsolatedTest;
+import com.redhat.cloud.notifications.db.EventLogCursor;
 import com.redhat.cloud.notifications.db.ResourceHelpers;
 import com.redhat.cloud.notifications.db.repositories.EndpointRepository;
 import com.redhat.cloud.notifications.ingress.Action;
@@ -55,8 +56,11 @@ import org.project_kessel.api.inventory.v1beta2.CheckRequest;
 import org.project_kessel.api.inventory.v1beta2.CheckResponse;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -89,6 +93,7 @@ import static java.lang.Boolean.TRUE;
 import static java.time.ZoneOffset.UTC;
 import static java.util.UUID.randomUUID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -1398,5 +1403,88 @@ public class EventResourceTest extends DbIsolatedTest {
         endpointRepository.deleteEndpoint(DEFAULT_ORG_ID, endpoint.getId());
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testCursorPagination(boolean useNormalizedQueries) {
+        when(backendConfig.isNormalizedQueriesEnabled(anyString())).thenReturn(useNormalizedQueries);
+        Header defaultIdentityHeader = mockRbac(DEFAULT_ACCOUNT_ID, DEFAULT_ORG_ID, DEFAULT_USER, FULL_ACCESS);
+
+        Bundle bundle = resourceHelpers.createBundle("test-bundle", "Test Bundle");
+        Application app = resourceHelpers.createApplication(bundle.getId(), "test-app", "Test Application");
+        EventType eventType = resourceHelpers.createEventType(app.getId(), "test-event-type", "Test Event Type", "Test Event Type");
+
+        // Three of these events share the same creation date, the cursor must not skip or repeat any of them.
+        LocalDateTime created = NOW.withNano(0);
+        List<UUID> expectedIds = new ArrayList<>();
+        expectedIds.add(createEvent(DEFAULT_ACCOUNT_ID, DEFAULT_ORG_ID, bundle, app, eventType, created.plusMinutes(1)).getId());
+        expectedIds.addAll(
+            List.of(
+                createEvent(DEFAULT_ACCOUNT_ID, DEFAULT_ORG_ID, bundle, app, eventType, created).getId(),
+                createEvent(DEFAULT_ACCOUNT_ID, DEFAULT_ORG_ID, bundle, app, eventType, created).getId(),
+                createEvent(DEFAULT_ACCOUNT_ID, DEFAULT_ORG_ID, bundle, app, eventType, created).getId()
+            // PostgreSQL compares the UUIDs as unsigned bytes, which matches the order of their string representations.
+            ).stream().sorted(Comparator.comparing(UUID::toString)).toList()
+        );
+        expectedIds.add(createEvent(DEFAULT_ACCOUNT_ID, DEFAULT_ORG_ID, bundle, app, eventType, created.minusMinutes(1)).getId());
+
+        List<UUID> actualIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            RequestSpecification request = given()
+                .header(defaultIdentityHeader)
+                .param("limit", 2)
+                .param("cursorPagination", true)
+                .param("estimateCount", true);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            Page<EventLogEntry> page = request
+                .when().get(PATH)
+                .then()
+                .statusCode(HttpStatus.SC_OK)
+                .contentType(JSON)
+                .extract().body().as(new TypeRef<>() {
+                });
+
+            assertEquals(5, page.getMeta().getCount());
+            assertFalse(page.getMeta().getEstimated());
+            assertFalse(page.getLinks().containsKey("last"));
+            page.getData().forEach(entry -> actualIds.add(entry.getId()));
+
+            String next = page.getLinks().get("next");
+            cursor = next == null ? null : next.replaceAll(".*[?&]cursor=([^&]+).*", "$1");
+        } while (cursor != null);
+
+        assertEquals(expectedIds, actualIds);
+    }
+
+    @Test
+    void testCursorPaginationInvalidParams() {
+        Header defaultIdentityHeader = mockRbac(DEFAULT_ACCOUNT_ID, DEFAULT_ORG_ID, DEFAULT_USER, FULL_ACCESS);
+
+        // The cursor pagination can't be combined with an offset.
+        given()
+            .header(defaultIdentityHeader)
+            .param("cursorPagination", true)
+            .param("offset", 20)
+            .when().get(PATH)
+            .then()
+            .statusCode(HttpStatus.SC_BAD_REQUEST);
 
+        // The cursor pagination requires a sort by creation date.
+        given()
+            .header(defaultIdentityHeader)
+            .param("cursor", new EventLogCursor(NOW, randomUUID()).encode())
+            .param("sort_by", "bundle:asc")
+            .when().get(PATH)
+            .then()
+            .statusCode(HttpStatus.SC_BAD_REQUEST);
+
+        given()
+            .header(defaultIdentityHeader)
+            .param("cursor", "not a cursor")
+            .when().get(PATH)
+            .then()
+            .statusCode(HttpStatus.SC_BAD_REQUEST);
+    }
 }
@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+#
+# Builds the benchmarks module and runs the JMH benchmarks. The results are written as JSON to the file given with
+# RESULTS_FILE (default: benchmarks/target/jmh-results.json), so that two runs can be compared.
+#
+# Usage:
+#   benchmarks/run-benchmarks.sh                                 # all benchmarks
+#   benchmarks/run-benchmarks.sh EmailPayloadAggregatorBenchmark # benchmarks matching a regexp
+#   benchmarks/run-benchmarks.sh RecipientsResolver -p usersCount=10000 -f 1 -wi 1 -i 3
+#
+# Any argument is passed to JMH as is, run with -h to list the JMH options.
+
+set -euo pipefail
+
+BENCHMARKS_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+ROOT_DIR="$(dirname "${BENCHMARKS_DIR}")"
+RESULTS_FILE="${RESULTS_FILE:-${BENCHMARKS_DIR}/target/jmh-results.json}"
+
+if [[ "${SKIP_BUILD:-false}" != "true" ]]; then
+    "${ROOT_DIR}/mvnw" -B -q -f "${ROOT_DIR}/pom.xml" -P benchmarks -pl benchmarks -am -DskipTests package
+fi
+
+mkdir -p "$(dirname "${RESULTS_FILE}")"
+java -jar "${BENCHMARKS_DIR}/target/benchmarks.jar" -rf json -rff "${RESULTS_FILE}" "$@"
+echo "JMH results written to ${RESULTS_FILE}"
@@ -0,0 +1,90 @@
+package com.redhat.cloud.notifications.benchmarks;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Loads the payload fixtures from {@code src/main/resources/fixtures} and derives synthetic event streams from them.
+ */
+public final class Fixtures {
+
+    // The values of these fields are made distinct in the synthetic event streams, see vary(JsonObject, int).
+    private static final Set<String> VARYING_FIELDS = Set.of(
+        "advisory_name", "display_name", "host_id", "id", "inventory_id", "policy_id", "reported_cve", "rule_id"
+    );
+
+    private Fixtures() {
+    }
+
+    public static String read(String fixture) {
+        try (InputStream inputStream = Fixtures.class.getClassLoader().getResourceAsStream("fixtures/" + fixture)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Fixture not found: " + fixture);
+            }
+            return new String(inputStream.readAllBytes(), UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds a synthetic stream of email aggregation payloads from the given fixture. The fixture payloads are used
+     * in a round-robin fashion and the identifiers they contain take up to {@code distinctValues} different values.
+     */
+    public static List<JsonObject> aggregationStream(String application, int size, int distinctValues) {
+        JsonArray templates = new JsonArray(read("aggregations/" + application + ".json"));
+        List<JsonObject> stream = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            stream.add(vary(templates.getJsonObject(i % templates.size()), i % distinctValues));
+        }
+        return stream;
+    }
+
+    /**
+     * Returns a copy of the given payload where the identifier fields are suffixed with the given variant.
+     */
+    public static JsonObject vary(JsonObject payload, int variant) {
+        JsonObject copy = payload.copy();
+        for (String field : copy.fieldNames()) {
+            // The source only contains the display names of the bundle, application and event type.
+            if (!"source".equals(field) && copy.getValue(field) instanceof JsonObject jsonObject) {
+                varyObject(jsonObject, variant);
+            } else if (copy.getValue(field) instanceof JsonArray jsonArray) {
+                varyArray(jsonArray, variant);
+            }
+        }
+        return copy;
+    }
+
+    private static void varyObject(JsonObject object, int variant) {
+        for (String field : object.fieldNames()) {
+            Object value = object.getValue(field);
+            if (value instanceof JsonObject jsonObject) {
+                varyObject(jsonObject, variant);
+            } else if (value instanceof JsonArray jsonArray) {
+                varyArray(jsonArray, variant);
+            } else if (value instanceof String string && VARYING_FIELDS.contains(field)) {
+                object.put(field, string + "-" + variant);
+            }
+        }
+    }
+
+    private static void varyArray(JsonArray array, int variant) {
+        for (Object value : array) {
+            if (value instanceof JsonObject jsonObject) {
+                varyObject(jsonObject, variant);
+            } else if (value instanceof JsonArray jsonArray) {
+                varyArray(jsonArray, variant);
+            }
+        }
+    }
+}
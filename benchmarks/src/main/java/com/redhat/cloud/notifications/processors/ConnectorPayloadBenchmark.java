@@ -0,0 +1,97 @@
+package com.redhat.cloud.notifications.processors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cloud.notifications.benchmarks.Fixtures;
+import com.redhat.cloud.notifications.events.EventWrapperAction;
+import com.redhat.cloud.notifications.ingress.Parser;
+import com.redhat.cloud.notifications.models.Event;
+import com.redhat.cloud.notifications.processors.camel.CamelNotification;
+import com.redhat.cloud.notifications.transformers.BaseTransformer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the processors build and encode a connector payload from the event data, with the former string round
+ * trip ({@code encode()} then {@code readValue}) and from the JSON tree of the event. The {@code camel*} benchmarks
+ * build a complete Camel payload, the {@code drawer*} benchmarks only convert the event data into the maps used by the
+ * drawer template. Run with {@code -prof gc} to compare the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectorPayloadBenchmark {
+
+    private final BaseTransformer baseTransformer = new BaseTransformer();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID endpointId = UUID.randomUUID();
+
+    private Event event;
+
+    @Setup
+    public void setup() {
+        event = new Event();
+        event.setOrgId("12345");
+        event.setBundleDisplayName("Red Hat Enterprise Linux");
+        event.setApplicationDisplayName("Advisor");
+        event.setEventTypeDisplayName("New recommendation");
+        event.setEventWrapper(new EventWrapperAction(Parser.decode(Fixtures.read("advisor-action.json"))));
+        baseTransformer.toSharedJsonObject(event);
+    }
+
+    @Benchmark
+    public int camelFromStringRoundTrip() throws JsonProcessingException {
+        JsonObject data = baseTransformer.toJsonObject(event);
+        return encode(buildCamelNotification(objectMapper.readValue(data.encode(), Map.class)));
+    }
+
+    @Benchmark
+    public int camelFromJsonTree() {
+        JsonObject data = baseTransformer.toJsonObject(event);
+        return encode(buildCamelNotification(data.getMap()));
+    }
+
+    @Benchmark
+    public Map<?, ?> drawerFromStringRoundTrip() throws JsonProcessingException {
+        return objectMapper.readValue(baseTransformer.toSharedJsonObject(event).encode(), Map.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> drawerFromJsonTree() {
+        return DatabindCodec.mapper().convertValue(baseTransformer.toSharedJsonObject(event), Map.class);
+    }
+
+    private static CamelNotification buildCamelNotification(Map<String, Object> eventData) {
+        CamelNotification notification = new CamelNotification();
+        notification.webhookUrl = "https://foo.bar";
+        notification.eventData = eventData;
+        return notification;
+    }
+
+    // Encodes the payload the way ConnectorSender does.
+    private int encode(CamelNotification notification) {
+        JsonObject payload = JsonObject.mapFrom(notification);
+        payload.put("org_id", event.getOrgId());
+        payload.put("endpoint_id", endpointId);
+        try (SerializedPayload serializedPayload = SerializedPayload.of(payload)) {
+            return serializedPayload.size();
+        }
+    }
+}
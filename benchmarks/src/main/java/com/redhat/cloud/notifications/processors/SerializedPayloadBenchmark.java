@@ -0,0 +1,88 @@
+package com.redhat.cloud.notifications.processors;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link ConnectorSender} gets the size of a payload, from {@code toString().getBytes()} and from a
+ * {@link SerializedPayload}, for payloads from 2 KB to 200 KB. The {@code stored*} benchmarks also get the contents
+ * stored in the {@code payload_details} table, as the payloads over the Kafka limit are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializedPayloadBenchmark {
+
+    @Param({"2", "20", "200"})
+    public int payloadKiloBytes;
+
+    private JsonObject payload;
+
+    @Setup
+    public void setup() {
+        payload = new JsonObject()
+            .put("org_id", "12345")
+            .put("endpoint_id", UUID.randomUUID())
+            .put("application", "advisor")
+            .put("event_type", "new-recommendation");
+        JsonArray events = new JsonArray();
+        payload.put("events", events);
+        // Each event takes about 200 bytes once encoded.
+        for (int i = 0; i < payloadKiloBytes * 5; i++) {
+            events.add(new JsonObject()
+                .put("metadata", new JsonObject())
+                .put("payload", new JsonObject()
+                    .put("rule_id", "rule-" + i)
+                    .put("rule_description", "Décalage horaire détecté sur le système " + i)
+                    .put("total_risk", i % 4)
+                    .put("has_incident", i % 2 == 0)));
+        }
+    }
+
+    @Benchmark
+    public int sizeFromToStringGetBytes() {
+        return payload.toString().getBytes().length;
+    }
+
+    @Benchmark
+    public int sizeFromSerializedPayload() {
+        try (SerializedPayload serializedPayload = SerializedPayload.of(payload)) {
+            return serializedPayload.size();
+        }
+    }
+
+    @Benchmark
+    public String storedFromToStringGetBytes() {
+        if (payload.toString().getBytes().length > 0) {
+            return payload.encode();
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String storedFromSerializedPayload() {
+        try (SerializedPayload serializedPayload = SerializedPayload.of(payload)) {
+            if (serializedPayload.size() > 0) {
+                return serializedPayload.toString();
+            }
+            return null;
+        }
+    }
+}
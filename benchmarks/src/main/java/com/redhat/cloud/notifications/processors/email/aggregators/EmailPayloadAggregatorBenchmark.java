@@ -0,0 +1,81 @@
+package com.redhat.cloud.notifications.processors.email.aggregators;
+
+import com.redhat.cloud.notifications.benchmarks.Fixtures;
+import com.redhat.cloud.notifications.models.EmailAggregation;
+import com.redhat.cloud.notifications.models.EventAggregationCriterion;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates a synthetic stream of events with each {@link AbstractEmailPayloadAggregator} subclass, the same way the
+ * daily digest does it for one recipient. The Ansible aggregator is not benchmarked because it does not support the
+ * aggregation yet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailPayloadAggregatorBenchmark {
+
+    @Param({"advisor", "application-services", "compliance", "errata-notifications", "inventory", "patch", "resource-optimization", "vulnerability"})
+    String application;
+
+    @Param({"100", "1000"})
+    int eventsCount;
+
+    // Number of distinct systems, rules, advisories... in the stream.
+    @Param({"50"})
+    int distinctValues;
+
+    private EventAggregationCriterion aggregationKey;
+    private List<JsonObject> payloads;
+    private List<EmailAggregation> aggregations;
+
+    @Setup
+    public void setup() {
+        payloads = Fixtures.aggregationStream(application, eventsCount, distinctValues);
+        String orgId = payloads.getFirst().getString("org_id");
+        String bundle = payloads.getFirst().getString("bundle");
+        aggregationKey = new EventAggregationCriterion(orgId, UUID.randomUUID(), UUID.randomUUID(), bundle, application);
+    }
+
+    /*
+     * The aggregators keep references to the payloads they receive, so each invocation needs fresh copies, like the
+     * ones that are read from the DB.
+     */
+    @Setup(Level.Invocation)
+    public void copyPayloads() {
+        aggregations = new ArrayList<>(payloads.size());
+        for (JsonObject payload : payloads) {
+            aggregations.add(new EmailAggregation(aggregationKey.getOrgId(), aggregationKey.getBundle(), application, payload.copy(), null, null));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> aggregate() {
+        AbstractEmailPayloadAggregator aggregator = EmailPayloadAggregatorFactory.by(aggregationKey, null, null);
+        for (EmailAggregation aggregation : aggregations) {
+            aggregator.aggregate(aggregation);
+        }
+        return aggregator.getContext();
+    }
+}
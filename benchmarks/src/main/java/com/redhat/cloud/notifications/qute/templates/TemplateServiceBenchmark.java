@@ -0,0 +1,136 @@
+package com.redhat.cloud.notifications.qute.templates;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cloud.notifications.benchmarks.Fixtures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.qute.Engine;
+import io.quarkus.qute.ReflectionValueResolver;
+import io.quarkus.qute.TemplateLocator;
+import io.quarkus.qute.Variant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.redhat.cloud.notifications.qute.templates.IntegrationType.DRAWER;
+import static com.redhat.cloud.notifications.qute.templates.IntegrationType.EMAIL_BODY;
+import static com.redhat.cloud.notifications.qute.templates.mapping.Rhel.ADVISOR_APP_NAME;
+import static com.redhat.cloud.notifications.qute.templates.mapping.Rhel.ADVISOR_NEW_RECOMMENDATION;
+import static com.redhat.cloud.notifications.qute.templates.mapping.Rhel.BUNDLE_NAME;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures the compilation and the rendering of the templates from {@code common-template}. The Qute engine is built
+ * without Quarkus, so the template extensions are not available and their calls are rendered as {@code NOT_FOUND}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateServiceBenchmark {
+
+    private static final TemplateDefinition DRAWER_TEMPLATE = new TemplateDefinition(DRAWER, BUNDLE_NAME, ADVISOR_APP_NAME, ADVISOR_NEW_RECOMMENDATION);
+    private static final TemplateDefinition EMAIL_TEMPLATE = new TemplateDefinition(EMAIL_BODY, BUNDLE_NAME, ADVISOR_APP_NAME, ADVISOR_NEW_RECOMMENDATION);
+    private static final String INLINE_TEMPLATE = "{data.context.display_name} has {data.events.size} new recommendations:\n"
+        + "{#each data.events}- {it.payload.rule_description} (risk: {it.payload.total_risk})\n{/each}";
+
+    private Engine engine;
+    private TemplateService templateService;
+    private Map<String, Object> data;
+
+    @Setup
+    public void setup() throws Exception {
+        engine = Engine.builder()
+            .addDefaults()
+            .addValueResolver(new ReflectionValueResolver())
+            .addLocator(new ClasspathTemplateLocator())
+            .removeStandaloneLines(true)
+            .strictRendering(false)
+            .build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        templateService = new TemplateService(engine, objectMapper, new SimpleMeterRegistry());
+        templateService.init();
+        data = objectMapper.readValue(Fixtures.read("advisor-action.json"), Map.class);
+    }
+
+    @Benchmark
+    public String compileEmailTemplate() {
+        engine.clearTemplates();
+        return templateService.getTemplateId(EMAIL_TEMPLATE);
+    }
+
+    @Benchmark
+    public String renderDrawerTemplate() {
+        return templateService.renderTemplate(DRAWER_TEMPLATE, data);
+    }
+
+    @Benchmark
+    public String renderEmailTemplate() {
+        return templateService.renderTemplateWithCustomDataMap(EMAIL_TEMPLATE, Map.of("data", data));
+    }
+
+    @Benchmark
+    public String renderInlineTemplate() {
+        return templateService.renderTemplateWithCustomDataMap(INLINE_TEMPLATE, Map.of("data", data));
+    }
+
+    /*
+     * Parses the inline template on every call, which is what renderInlineTemplate did before the parsed templates
+     * were cached.
+     */
+    @Benchmark
+    public String parseAndRenderInlineTemplate() {
+        return engine.parse(INLINE_TEMPLATE).data("data", data).render().trim();
+    }
+
+    /*
+     * Quarkus resolves the template identifiers without their file extension, such as email/Common/insightsEmailBody.
+     */
+    private static final class ClasspathTemplateLocator implements TemplateLocator {
+
+        private static final List<String> SUFFIXES = List.of("", ".html", ".md", ".txt", ".json");
+
+        @Override
+        public Optional<TemplateLocation> locate(String id) {
+            for (String suffix : SUFFIXES) {
+                URL resource = getClass().getClassLoader().getResource("templates/" + id + suffix);
+                if (resource != null) {
+                    return Optional.of(new TemplateLocation() {
+                        @Override
+                        public Reader read() {
+                            try {
+                                return new InputStreamReader(resource.openStream(), UTF_8);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+
+                        @Override
+                        public Optional<Variant> getVariant() {
+                            return Optional.empty();
+                        }
+                    });
+                }
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.redhat.cloud.notifications.recipients.resolver;
+
+import com.redhat.cloud.notifications.recipients.config.RecipientsResolverConfig;
+import com.redhat.cloud.notifications.recipients.model.RecipientSettings;
+import com.redhat.cloud.notifications.recipients.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the set filtering performed by {@link RecipientsResolver#findRecipients} once the users were fetched. The
+ * external services are replaced with a fixed list of users and Kessel is disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dorg.jboss.logging.provider=jdk"})
+public class RecipientsResolverBenchmark {
+
+    private static final String ORG_ID = "11789772";
+
+    @Param({"10000", "100000", "500000"})
+    int usersCount;
+
+    // Share of the users who subscribed (opt-in event types) or unsubscribed (opt-out event types).
+    @Param({"0.05"})
+    double subscriptionRatio;
+
+    private final RecipientsResolver recipientsResolver = new RecipientsResolver();
+
+    private Set<RecipientSettings> allUsers;
+    private Set<RecipientSettings> requestUsers;
+    private Set<String> subscriptions;
+
+    @Setup
+    public void setup() {
+        // The recipients are logged at the INFO level, this would otherwise dominate the measurements.
+        Logger.getLogger(RecipientsResolver.class.getName()).setLevel(Level.WARNING);
+
+        List<User> users = new ArrayList<>(usersCount);
+        subscriptions = new HashSet<>();
+        Set<String> requestUsernames = new HashSet<>();
+        int subscriptionModulo = (int) Math.round(1 / subscriptionRatio);
+        for (int i = 0; i < usersCount; i++) {
+            User user = new User();
+            user.setId(UUID.randomUUID().toString());
+            user.setUsername("User-" + i);
+            user.setEmail("user-" + i + "@example.com");
+            user.setAdmin(i % 100 == 0);
+            users.add(user);
+            if (i % subscriptionModulo == 0) {
+                subscriptions.add(user.getUsername());
+            }
+            if (i % 10 == 0) {
+                requestUsernames.add(user.getUsername());
+            }
+        }
+
+        recipientsResolver.recipientsResolverConfig = new RecipientsResolverConfig();
+        recipientsResolver.fetchingUsers = new FetchUsersFromExternalServices() {
+            @Override
+            public List<User> getUsers(String orgId, boolean adminsOnly) {
+                return users;
+            }
+
+            @Override
+            public List<User> getGroupUsers(String orgId, boolean adminOnly, UUID groupId) {
+                return users;
+            }
+        };
+
+        allUsers = Set.of(new RecipientSettings(false, false, null, null));
+        requestUsers = Set.of(new RecipientSettings(false, false, null, requestUsernames));
+    }
+
+    @Benchmark
+    public Set<User> subscribedByDefault() {
+        return recipientsResolver.findRecipients(ORG_ID, allUsers, Set.of(), subscriptions, true);
+    }
+
+    @Benchmark
+    public Set<User> notSubscribedByDefault() {
+        return recipientsResolver.findRecipients(ORG_ID, allUsers, subscriptions, Set.of(), false);
+    }
+
+    @Benchmark
+    public Set<User> requestUsersIntersection() {
+        return recipientsResolver.findRecipients(ORG_ID, requestUsers, Set.of(), subscriptions, true);
+    }
+}
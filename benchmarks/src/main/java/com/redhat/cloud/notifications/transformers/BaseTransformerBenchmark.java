@@ -0,0 +1,82 @@
+package com.redhat.cloud.notifications.transformers;
+
+import com.redhat.cloud.event.parser.ConsoleCloudEventParser;
+import com.redhat.cloud.notifications.benchmarks.Fixtures;
+import com.redhat.cloud.notifications.events.EventWrapper;
+import com.redhat.cloud.notifications.events.EventWrapperAction;
+import com.redhat.cloud.notifications.events.EventWrapperCloudEvent;
+import com.redhat.cloud.notifications.ingress.Parser;
+import com.redhat.cloud.notifications.models.Event;
+import com.redhat.cloud.notifications.models.NotificationsConsoleCloudEvent;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BaseTransformer#toJsonObject(Event)}. The {@code transform*} benchmarks reset the event wrapper before
+ * each call, which also discards the memoized JSON view of the event, so every call performs the full transformation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseTransformerBenchmark {
+
+    private final BaseTransformer baseTransformer = new BaseTransformer();
+
+    private EventWrapper<?, ?> actionWrapper;
+    private EventWrapper<?, ?> cloudEventWrapper;
+    private Event actionEvent;
+    private Event cloudEvent;
+
+    @Setup
+    public void setup() {
+        actionWrapper = new EventWrapperAction(Parser.decode(Fixtures.read("advisor-action.json")));
+        cloudEventWrapper = new EventWrapperCloudEvent(new ConsoleCloudEventParser().fromJsonString(Fixtures.read("advisor-cloudevent.json"), NotificationsConsoleCloudEvent.class));
+        actionEvent = buildEvent(actionWrapper);
+        cloudEvent = buildEvent(cloudEventWrapper);
+    }
+
+    @Benchmark
+    public JsonObject transformAction() {
+        actionEvent.setEventWrapper(actionWrapper);
+        return baseTransformer.toJsonObject(actionEvent);
+    }
+
+    @Benchmark
+    public JsonObject transformCloudEvent() {
+        cloudEvent.setEventWrapper(cloudEventWrapper);
+        return baseTransformer.toJsonObject(cloudEvent);
+    }
+
+    @Benchmark
+    public JsonObject memoizedCopy() {
+        return baseTransformer.toJsonObject(actionEvent);
+    }
+
+    @Benchmark
+    public JsonObject memoizedShared() {
+        return baseTransformer.toSharedJsonObject(actionEvent);
+    }
+
+    private static Event buildEvent(EventWrapper<?, ?> eventWrapper) {
+        Event event = new Event();
+        event.setBundleDisplayName("Red Hat Enterprise Linux");
+        event.setApplicationDisplayName("Advisor");
+        event.setEventTypeDisplayName("New recommendation");
+        event.setEventWrapper(eventWrapper);
+        return event;
+    }
+}
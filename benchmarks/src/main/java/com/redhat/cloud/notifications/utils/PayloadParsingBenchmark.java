@@ -0,0 +1,97 @@
+package com.redhat.cloud.notifications.utils;
+
+import com.redhat.cloud.event.parser.ConsoleCloudEventParser;
+import com.redhat.cloud.notifications.benchmarks.Fixtures;
+import com.redhat.cloud.notifications.events.PayloadFormat;
+import com.redhat.cloud.notifications.ingress.Action;
+import com.redhat.cloud.notifications.ingress.Parser;
+import com.redhat.cloud.notifications.models.NotificationsConsoleCloudEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the parsers used on the ingress path. The last benchmark reproduces what happens when a Console Cloud Event
+ * is received: the payload is first parsed as an {@link Action} and only parsed as a Cloud Event once that failed.
+ * The {@code *AfterSniffing} benchmarks measure the current ingress path, where {@link PayloadFormat} picks the parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadParsingBenchmark {
+
+    private final ActionParser actionParser = new ActionParser();
+    private final ConsoleCloudEventParser cloudEventParser = new ConsoleCloudEventParser();
+
+    private String action;
+    private String cloudEvent;
+
+    @Setup
+    public void setup() {
+        action = Fixtures.read("advisor-action.json");
+        cloudEvent = Fixtures.read("advisor-cloudevent.json");
+    }
+
+    @Benchmark
+    public Action parserDecode() {
+        return Parser.decode(action);
+    }
+
+    @Benchmark
+    public Action actionParser() {
+        return actionParser.fromJsonString(action);
+    }
+
+    @Benchmark
+    public NotificationsConsoleCloudEvent cloudEventParser() {
+        return cloudEventParser.fromJsonString(cloudEvent, NotificationsConsoleCloudEvent.class);
+    }
+
+    @Benchmark
+    public NotificationsConsoleCloudEvent cloudEventParserAfterActionParserFailure() {
+        try {
+            actionParser.fromJsonString(cloudEvent);
+            throw new IllegalStateException("The Cloud Event fixture should not be a valid action");
+        } catch (ActionParsingException e) {
+            return cloudEventParser.fromJsonString(cloudEvent, NotificationsConsoleCloudEvent.class);
+        }
+    }
+
+    @Benchmark
+    public PayloadFormat sniffAction() {
+        return PayloadFormat.sniff(action);
+    }
+
+    @Benchmark
+    public PayloadFormat sniffCloudEvent() {
+        return PayloadFormat.sniff(cloudEvent);
+    }
+
+    @Benchmark
+    public Action actionParserAfterSniffing() {
+        if (PayloadFormat.sniff(action) == PayloadFormat.CLOUD_EVENT) {
+            throw new IllegalStateException("The action fixture should not be sniffed as a Cloud Event");
+        }
+        return actionParser.fromJsonString(action);
+    }
+
+    @Benchmark
+    public NotificationsConsoleCloudEvent cloudEventParserAfterSniffing() {
+        if (PayloadFormat.sniff(cloudEvent) != PayloadFormat.CLOUD_EVENT) {
+            throw new IllegalStateException("The Cloud Event fixture should be sniffed as a Cloud Event");
+        }
+        return cloudEventParser.fromJsonString(cloudEvent, NotificationsConsoleCloudEvent.class);
+    }
+}
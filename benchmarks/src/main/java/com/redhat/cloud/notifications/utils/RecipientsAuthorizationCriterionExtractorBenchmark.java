@@ -0,0 +1,93 @@
+package com.redhat.cloud.notifications.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cloud.notifications.benchmarks.Fixtures;
+import com.redhat.cloud.notifications.events.EventWrapperAction;
+import com.redhat.cloud.notifications.ingress.Parser;
+import com.redhat.cloud.notifications.ingress.RecipientsAuthorizationCriterion;
+import com.redhat.cloud.notifications.models.EmailAggregation;
+import com.redhat.cloud.notifications.models.Event;
+import com.redhat.cloud.notifications.transformers.BaseTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RecipientsAuthorizationCriterionExtractor#extract(Event)} from a raw Action or CloudEvent payload (the
+ * criterion is read with a streaming parser), from an event that was already parsed (the criterion is read from the
+ * JSON view of the event) and from an event whose criterion was already extracted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipientsAuthorizationCriterionExtractorBenchmark {
+
+    private final RecipientsAuthorizationCriterionExtractor extractor = new RecipientsAuthorizationCriterionExtractor();
+
+    private String payload;
+    private String cloudEventPayload;
+    private EventWrapperAction eventWrapper;
+    private Event parsedEvent;
+    private Event memoizedEvent;
+    private EmailAggregation emailAggregation;
+
+    @Setup
+    public void setup() {
+        extractor.baseTransformer = new BaseTransformer();
+        extractor.objectMapper = new ObjectMapper();
+        extractor.actionParser = new ActionParser();
+
+        payload = Fixtures.read("advisor-action.json");
+        cloudEventPayload = Fixtures.read("advisor-cloudevent.json");
+        eventWrapper = new EventWrapperAction(Parser.decode(payload));
+        parsedEvent = new Event();
+        memoizedEvent = new Event();
+        memoizedEvent.setEventWrapper(eventWrapper);
+        extractor.extract(memoizedEvent);
+
+        emailAggregation = new EmailAggregation();
+        emailAggregation.setPayload(extractor.baseTransformer.toJsonObject(memoizedEvent));
+    }
+
+    @Benchmark
+    public RecipientsAuthorizationCriterion extractFromRawPayload() {
+        Event event = new Event();
+        event.setPayload(payload);
+        return extractor.extract(event);
+    }
+
+    @Benchmark
+    public RecipientsAuthorizationCriterion extractFromRawCloudEventPayload() {
+        Event event = new Event();
+        event.setPayload(cloudEventPayload);
+        return extractor.extract(event);
+    }
+
+    @Benchmark
+    public RecipientsAuthorizationCriterion extractFromParsedEvent() {
+        parsedEvent.setEventWrapper(eventWrapper);
+        return extractor.extract(parsedEvent);
+    }
+
+    @Benchmark
+    public RecipientsAuthorizationCriterion extractFromMemoizedEvent() {
+        return extractor.extract(memoizedEvent);
+    }
+
+    @Benchmark
+    public RecipientsAuthorizationCriterion extractFromEmailAggregation() {
+        return extractor.extract(emailAggregation);
+    }
+}
@@ -11,6 +11,8 @@ import com.redhat.cloud.notifications.qute.templates.mapping.OpenShift;
 import com.redhat.cloud.notifications.qute.templates.mapping.Rhel;
 import com.redhat.cloud.notifications.qute.templates.mapping.SecureEmailTemplates;
 import com.redhat.cloud.notifications.qute.templates.mapping.SubscriptionServices;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.logging.Log;
 import io.quarkus.qute.Engine;
 import io.quarkus.qute.Template;
@@ -20,8 +22,18 @@ import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Startup
 @ApplicationScoped
@@ -29,6 +41,15 @@ public class TemplateService {
 
     private static final String SECURED_EMAIL_TEMPLATES = "notifications.use-secured-email-templates.enabled";
     private static final String DEFAULT_TEMPLATE = "notifications.use-default-template";
+    private static final String PARSED_TEMPLATES_MAX_SIZE = "notifications.parsed-templates.max-size";
+    private static final String PARSED_TEMPLATES_MAX_CONTENT_LENGTH = "notifications.parsed-templates.max-content-length";
+    // The definitions looked up after the startup are bounded by the event types, this only guards against a leak.
+    private static final int RESOLVED_TEMPLATE_PATHS_MAX_SIZE = 100_000;
+
+    public static final String PARSED_TEMPLATES_HIT_COUNTER_NAME = "notifications.parsed-templates.hit";
+    public static final String PARSED_TEMPLATES_MISS_COUNTER_NAME = "notifications.parsed-templates.miss";
+    public static final String PARSED_TEMPLATES_EVICTION_COUNTER_NAME = "notifications.parsed-templates.eviction";
+    public static final String PARSED_TEMPLATES_SIZE_GAUGE_NAME = "notifications.parsed-templates.size";
 
     // Only used in special environments.
     @ConfigProperty(name = SECURED_EMAIL_TEMPLATES, defaultValue = "false")
@@ -38,15 +59,49 @@ public class TemplateService {
     @ConfigProperty(name = DEFAULT_TEMPLATE, defaultValue = "false")
     boolean defaultEmailTemplateEnabled;
 
+    @ConfigProperty(name = PARSED_TEMPLATES_MAX_SIZE, defaultValue = "500")
+    int parsedTemplatesMaxSize = 500;
+
+    // Sum of the lengths of the cached templates contents, which is roughly proportional to the memory they use.
+    @ConfigProperty(name = PARSED_TEMPLATES_MAX_CONTENT_LENGTH, defaultValue = "5000000")
+    long parsedTemplatesMaxContentLength = 5_000_000;
+
     final Engine engine;
 
     final ObjectMapper objectMapper;
 
     Map<TemplateDefinition, String> templatesConfigMap = new HashMap<>();
 
-    public TemplateService(Engine engine, ObjectMapper objectMapper) {
+    /*
+     * Resolution table of the template definitions: the template file path of each definition, after the fallbacks on
+     * the application, the integration type and the GA version, or an empty value if no template exists. It is rebuilt
+     * each time templatesConfigMap is loaded.
+     */
+    private volatile Map<TemplateDefinition, Optional<String>> resolvedTemplatePaths = new ConcurrentHashMap<>();
+
+    /*
+     * Templates parsed from a content rather than loaded from a file, keyed by the SHA-256 of their content. Changing
+     * a template content changes its key, so the outdated entries are never used again and are evicted first. This
+     * map is in access order and it is guarded by its own lock.
+     */
+    private final Map<String, ParsedTemplate> parsedTemplates = new LinkedHashMap<>(16, 0.75F, true);
+    private long parsedTemplatesContentLength;
+
+    private final Counter parsedTemplatesHitCounter;
+    private final Counter parsedTemplatesMissCounter;
+    private final Counter parsedTemplatesEvictionCounter;
+
+    public TemplateService(Engine engine, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.engine = engine;
         this.objectMapper = objectMapper;
+        parsedTemplatesHitCounter = meterRegistry.counter(PARSED_TEMPLATES_HIT_COUNTER_NAME);
+        parsedTemplatesMissCounter = meterRegistry.counter(PARSED_TEMPLATES_MISS_COUNTER_NAME);
+        parsedTemplatesEvictionCounter = meterRegistry.counter(PARSED_TEMPLATES_EVICTION_COUNTER_NAME);
+        meterRegistry.gauge(PARSED_TEMPLATES_SIZE_GAUGE_NAME, parsedTemplates, templates -> {
+            synchronized (templates) {
+                return templates.size();
+            }
+        });
     }
 
     private String buildTemplateFilePath(TemplateDefinition templateDefinition, String templateFileName) {
@@ -74,6 +129,7 @@ public class TemplateService {
             }
         }
         checkTemplatesConsistency();
+        buildResolutionTable();
     }
 
     public boolean isSecuredEmailTemplatesEnabled() {
@@ -100,16 +156,69 @@ public class TemplateService {
     }
 
     /**
-     * This method will load the Qute Template Instance according Template Definition parameters.
+     * Loads the Qute template of the given template definition. The template file path is looked up from the resolution
+     * table, see {@link #findTemplatePath(TemplateDefinition)}.
+     * @param templateDefinition the template definition
+     * @return the template
+     *
+     * @throws TemplateNotFoundException
+     */
+    private Template compileTemplate(final TemplateDefinition templateDefinition) throws TemplateNotFoundException {
+        final String filePath = findTemplatePath(templateDefinition);
+        if (filePath == null) {
+            // The last definition of the fallback chain is reported, as it was before the resolution table existed.
+            throw new TemplateNotFoundException(new TemplateDefinition(templateDefinition.integrationType(), null, null, null));
+        }
+        // ask Qute to load the template instance from its file path, such as drawer/Policies/policyTriggeredBody.md
+        return engine.getTemplate(filePath);
+    }
+
+    /**
+     * Builds the resolution table from {@link #templatesConfigMap}. It contains every template definition of the map,
+     * along with its application and integration type fallbacks, in both their beta and GA versions.
+     */
+    void buildResolutionTable() {
+        Map<TemplateDefinition, Optional<String>> table = new ConcurrentHashMap<>();
+        for (TemplateDefinition templateDefinition : templatesConfigMap.keySet()) {
+            for (boolean isBetaVersion : new boolean[] {false, true}) {
+                List.of(
+                    new TemplateDefinition(templateDefinition.integrationType(), templateDefinition.bundle(), templateDefinition.application(), templateDefinition.eventType(), isBetaVersion),
+                    new TemplateDefinition(templateDefinition.integrationType(), templateDefinition.bundle(), templateDefinition.application(), null, isBetaVersion),
+                    new TemplateDefinition(templateDefinition.integrationType(), null, null, null, isBetaVersion)
+                ).forEach(definition -> table.computeIfAbsent(definition, key -> Optional.ofNullable(resolveTemplatePath(key))));
+            }
+        }
+        resolvedTemplatePaths = table;
+    }
+
+    /**
+     * Returns the template file path of the given template definition with a single lookup of the resolution table.
+     * The definitions which are not part of the table yet, such as the event types without a dedicated template, are
+     * resolved once and then added to the table.
+     * @param templateDefinition the template definition
+     * @return the template file path or {@code null} if there is no template for the given definition
+     */
+    String findTemplatePath(final TemplateDefinition templateDefinition) {
+        final Map<TemplateDefinition, Optional<String>> table = resolvedTemplatePaths;
+        Optional<String> path = table.get(templateDefinition);
+        if (path == null) {
+            path = Optional.ofNullable(resolveTemplatePath(templateDefinition));
+            if (table.size() < RESOLVED_TEMPLATE_PATHS_MAX_SIZE) {
+                table.put(templateDefinition, path);
+            }
+        }
+        return path.orElse(null);
+    }
+
+    /**
+     * Resolves the template file path of the given template definition.
      * If the template for the selected event type can't be found,
      * it will look for a generic template defined for the selected application,
      * it can't be found, it will look for a generic/system template defined for the selected integration type
      * @param originalTemplateDefinition the template definition
-     * @return the template instance
-     *
-     * @throws TemplateNotFoundException
+     * @return the template file path or {@code null} if there is no template for the given definition
      */
-    private Template compileTemplate(final TemplateDefinition originalTemplateDefinition) throws TemplateNotFoundException {
+    String resolveTemplatePath(final TemplateDefinition originalTemplateDefinition) {
 
         // try to find template path with full config parameters
         String path = templatesConfigMap.get(originalTemplateDefinition);
@@ -148,15 +257,13 @@ public class TemplateService {
                             originalTemplateDefinition.application(),
                             originalTemplateDefinition.eventType(),
                             false);
-                        return compileTemplate(templateGaVersion);
+                        return resolveTemplatePath(templateGaVersion);
                     }
-                    throw new TemplateNotFoundException(templateDefinition);
+                    return null;
                 }
             }
         }
-        final String filePath = buildTemplateFilePath(templateDefinition, templatesConfigMap.get(templateDefinition));
-        // ask Qute to load the template instance from its file path, such as drawer/Policies/policyTriggeredBody.md
-        return engine.getTemplate(filePath);
+        return buildTemplateFilePath(templateDefinition, path);
     }
 
     public String renderTemplate(final TemplateDefinition config, final Map<String, Object> action) {
@@ -173,12 +280,54 @@ public class TemplateService {
     }
 
     public String renderTemplateWithCustomDataMap(final String templateContent, final Map<String, Object> additionalContext) {
-        return engine.parse(templateContent)
+        return getParsedTemplate(templateContent)
             .data(additionalContext)
             .render()
             .trim();
     }
 
+    Template getParsedTemplate(final String templateContent) {
+        final String key = hash(templateContent);
+        synchronized (parsedTemplates) {
+            ParsedTemplate parsedTemplate = parsedTemplates.get(key);
+            if (parsedTemplate != null) {
+                parsedTemplatesHitCounter.increment();
+                return parsedTemplate.template();
+            }
+        }
+
+        parsedTemplatesMissCounter.increment();
+        // The parsing happens outside the lock, two threads may parse the same content concurrently.
+        Template template = engine.parse(templateContent);
+        if (templateContent.length() <= parsedTemplatesMaxContentLength) {
+            synchronized (parsedTemplates) {
+                ParsedTemplate previous = parsedTemplates.put(key, new ParsedTemplate(template, templateContent.length()));
+                if (previous != null) {
+                    parsedTemplatesContentLength -= previous.contentLength();
+                }
+                parsedTemplatesContentLength += templateContent.length();
+
+                // The least recently used templates are evicted first.
+                Iterator<ParsedTemplate> iterator = parsedTemplates.values().iterator();
+                while ((parsedTemplates.size() > parsedTemplatesMaxSize || parsedTemplatesContentLength > parsedTemplatesMaxContentLength) && iterator.hasNext()) {
+                    parsedTemplatesContentLength -= iterator.next().contentLength();
+                    iterator.remove();
+                    parsedTemplatesEvictionCounter.increment();
+                }
+            }
+        }
+        return template;
+    }
+
+    private static String hash(String templateContent) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(templateContent.getBytes(UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform implementation is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
     public String getTemplateId(final TemplateDefinition config) {
         return compileTemplate(config).getId();
     }
@@ -189,11 +338,9 @@ public class TemplateService {
     }
 
     public boolean isValidTemplateDefinition(final TemplateDefinition config) {
-        try {
-            compileTemplate(config);
-        } catch (TemplateNotFoundException e) {
-            return false;
-        }
-        return true;
+        return findTemplatePath(config) != null;
+    }
+
+    private record ParsedTemplate(Template template, int contentLength) {
     }
 }
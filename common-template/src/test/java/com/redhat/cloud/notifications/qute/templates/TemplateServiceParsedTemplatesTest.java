@@ -0,0 +1,94 @@
+package com.redhat.cloud.notifications.qute.templates;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.qute.Engine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.redhat.cloud.notifications.qute.templates.TemplateService.PARSED_TEMPLATES_EVICTION_COUNTER_NAME;
+import static com.redhat.cloud.notifications.qute.templates.TemplateService.PARSED_TEMPLATES_HIT_COUNTER_NAME;
+import static com.redhat.cloud.notifications.qute.templates.TemplateService.PARSED_TEMPLATES_MISS_COUNTER_NAME;
+import static com.redhat.cloud.notifications.qute.templates.TemplateService.PARSED_TEMPLATES_SIZE_GAUGE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TemplateServiceParsedTemplatesTest {
+
+    private static final String TEMPLATE = "Hello {name}!";
+
+    private MeterRegistry registry;
+    private TemplateService templateService;
+
+    @BeforeEach
+    void beforeEach() {
+        registry = new SimpleMeterRegistry();
+        templateService = new TemplateService(Engine.builder().addDefaults().build(), new ObjectMapper(), registry);
+    }
+
+    @Test
+    void testTemplateIsParsedOnce() {
+        assertEquals("Hello Alice!", templateService.renderTemplateWithCustomDataMap(TEMPLATE, Map.of("name", "Alice")));
+        // The cached template is rendered with the new data.
+        assertEquals("Hello Bob!", templateService.renderTemplateWithCustomDataMap(TEMPLATE, Map.of("name", "Bob")));
+        assertSame(templateService.getParsedTemplate(TEMPLATE), templateService.getParsedTemplate(new String(TEMPLATE)));
+
+        assertCounters(1, 3, 0);
+        assertEquals(1, registry.get(PARSED_TEMPLATES_SIZE_GAUGE_NAME).gauge().value());
+    }
+
+    @Test
+    void testChangedTemplateIsParsedAgain() {
+        assertEquals("Hello Alice!", templateService.renderTemplateWithCustomDataMap(TEMPLATE, Map.of("name", "Alice")));
+        assertEquals("Goodbye Alice!", templateService.renderTemplateWithCustomDataMap("Goodbye {name}!", Map.of("name", "Alice")));
+        assertCounters(2, 0, 0);
+    }
+
+    @Test
+    void testLeastRecentlyUsedTemplateIsEvicted() {
+        templateService.parsedTemplatesMaxSize = 2;
+
+        templateService.getParsedTemplate("{a}");
+        templateService.getParsedTemplate("{b}");
+        templateService.getParsedTemplate("{a}");
+        templateService.getParsedTemplate("{c}");
+        assertCounters(3, 1, 1);
+
+        // {b} was evicted, {a} was not.
+        templateService.getParsedTemplate("{a}");
+        templateService.getParsedTemplate("{b}");
+        assertCounters(4, 2, 2);
+    }
+
+    @Test
+    void testMaxContentLength() {
+        templateService.parsedTemplatesMaxContentLength = 5;
+
+        // This template is too large to be cached.
+        templateService.getParsedTemplate(TEMPLATE);
+        templateService.getParsedTemplate(TEMPLATE);
+        assertCounters(2, 0, 0);
+
+        templateService.getParsedTemplate("{a}");
+        templateService.getParsedTemplate("{b}");
+        assertCounters(4, 0, 1);
+    }
+
+    @Test
+    void testInvalidTemplateIsNotCached() {
+        assertThrows(RuntimeException.class, () -> templateService.getParsedTemplate("{#if}"));
+        assertThrows(RuntimeException.class, () -> templateService.getParsedTemplate("{#if}"));
+        assertCounters(2, 0, 0);
+        assertEquals(0, registry.get(PARSED_TEMPLATES_SIZE_GAUGE_NAME).gauge().value());
+    }
+
+    private void assertCounters(int misses, int hits, int evictions) {
+        assertEquals(misses, registry.get(PARSED_TEMPLATES_MISS_COUNTER_NAME).counter().count());
+        assertEquals(hits, registry.get(PARSED_TEMPLATES_HIT_COUNTER_NAME).counter().count());
+        assertEquals(evictions, registry.get(PARSED_TEMPLATES_EVICTION_COUNTER_NAME).counter().count());
+    }
+}
@@ -0,0 +1,100 @@
+package com.redhat.cloud.notifications.qute.templates;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cloud.notifications.qute.templates.mapping.AnsibleAutomationPlatform;
+import com.redhat.cloud.notifications.qute.templates.mapping.Console;
+import com.redhat.cloud.notifications.qute.templates.mapping.DefaultInstantEmailTemplates;
+import com.redhat.cloud.notifications.qute.templates.mapping.DefaultTemplates;
+import com.redhat.cloud.notifications.qute.templates.mapping.OpenShift;
+import com.redhat.cloud.notifications.qute.templates.mapping.Rhel;
+import com.redhat.cloud.notifications.qute.templates.mapping.SecureEmailTemplates;
+import com.redhat.cloud.notifications.qute.templates.mapping.SubscriptionServices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.qute.Engine;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TemplateServiceResolutionTableTest {
+
+    private static final String UNKNOWN = "unknown";
+
+    static Stream<Arguments> mappings() {
+        return Stream.of(
+            Arguments.of("AnsibleAutomationPlatform", AnsibleAutomationPlatform.templatesMap),
+            Arguments.of("Console", Console.templatesMap),
+            Arguments.of("DefaultInstantEmailTemplates", DefaultInstantEmailTemplates.templatesMap),
+            Arguments.of("DefaultTemplates", DefaultTemplates.templatesMap),
+            Arguments.of("OpenShift", OpenShift.templatesMap),
+            Arguments.of("Rhel", Rhel.templatesMap),
+            Arguments.of("SecureEmailTemplates", SecureEmailTemplates.templatesMap),
+            Arguments.of("SubscriptionServices", SubscriptionServices.templatesMap)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("mappings")
+    void testResolutionTableMatchesFallbackChain(String mappingName, Map<TemplateDefinition, String> mapping) {
+        TemplateService templateService = new TemplateService(Engine.builder().addDefaults().build(), new ObjectMapper(), new SimpleMeterRegistry());
+        // The default templates are the last step of the fallback chain of every mapping.
+        templateService.templatesConfigMap.putAll(DefaultTemplates.templatesMap);
+        templateService.templatesConfigMap.putAll(mapping);
+        templateService.buildResolutionTable();
+
+        Set<TemplateDefinition> lookups = new LinkedHashSet<>();
+        for (TemplateDefinition templateDefinition : mapping.keySet()) {
+            for (IntegrationType integrationType : IntegrationType.values()) {
+                for (boolean isBetaVersion : new boolean[] {false, true}) {
+                    String bundle = templateDefinition.bundle();
+                    String application = templateDefinition.application();
+                    String eventType = templateDefinition.eventType();
+                    lookups.add(new TemplateDefinition(integrationType, bundle, application, eventType, isBetaVersion));
+                    lookups.add(new TemplateDefinition(integrationType, bundle, application, UNKNOWN, isBetaVersion));
+                    lookups.add(new TemplateDefinition(integrationType, bundle, application, null, isBetaVersion));
+                    lookups.add(new TemplateDefinition(integrationType, bundle, UNKNOWN, eventType, isBetaVersion));
+                    lookups.add(new TemplateDefinition(integrationType, UNKNOWN, application, eventType, isBetaVersion));
+                    lookups.add(new TemplateDefinition(integrationType, null, null, null, isBetaVersion));
+                }
+            }
+        }
+
+        for (TemplateDefinition lookup : lookups) {
+            String expected = resolveWithFallbackChain(templateService.templatesConfigMap, lookup);
+            // The second lookup of a definition which was not precomputed is served by the table.
+            for (int i = 0; i < 2; i++) {
+                assertEquals(expected, templateService.findTemplatePath(lookup), mappingName + ": " + lookup);
+                assertEquals(expected != null, templateService.isValidTemplateDefinition(lookup), mappingName + ": " + lookup);
+            }
+        }
+    }
+
+    /*
+     * The fallback chain that TemplateService walked on each lookup before the resolution table existed: event type,
+     * application, integration type, then the same steps with the GA version of a beta definition.
+     */
+    private static String resolveWithFallbackChain(Map<TemplateDefinition, String> templatesConfigMap, TemplateDefinition original) {
+        TemplateDefinition[] chain = {
+            original,
+            new TemplateDefinition(original.integrationType(), original.bundle(), original.application(), null, original.isBetaVersion()),
+            new TemplateDefinition(original.integrationType(), null, null, null, original.isBetaVersion())
+        };
+        for (TemplateDefinition templateDefinition : chain) {
+            String fileName = templatesConfigMap.get(templateDefinition);
+            if (fileName != null) {
+                return templateDefinition.integrationType().getRootFolder() + File.separator + fileName;
+            }
+        }
+        if (original.isBetaVersion()) {
+            return resolveWithFallbackChain(templatesConfigMap, new TemplateDefinition(original.integrationType(), original.bundle(), original.application(), original.eventType(), false));
+        }
+        return null;
+    }
+}
@@ -2,6 +2,8 @@ package com.redhat.cloud.notifications.models;
 
 import com.redhat.cloud.notifications.Severity;
 import com.redhat.cloud.notifications.events.EventWrapper;
+import com.redhat.cloud.notifications.ingress.RecipientsAuthorizationCriterion;
+import io.vertx.core.json.JsonObject;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Enumerated;
@@ -15,6 +17,8 @@ import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
@@ -91,6 +95,11 @@ public class Event {
     @NotNull
     private boolean hasAuthorizationCriterion = false;
 
+    // Extracted from the payload at ingress, null for the events persisted before the column was added.
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(updatable = false)
+    private RecipientsAuthorizationCriterion recipientsAuthorizationCriterion;
+
     private String payload;
 
     private String renderedDrawerNotification;
@@ -104,6 +113,18 @@ public class Event {
     @Transient
     private EventWrapper<?, ?> eventWrapper;
 
+    // Memoized by BaseTransformer, reset whenever one of the transformed fields or the severity changes.
+    @Transient
+    private volatile JsonObject transformedEvent;
+
+    // Memoized by RecipientsAuthorizationCriterionExtractor, reset whenever the payload or the event wrapper changes.
+    @Transient
+    private volatile RecipientsAuthorizationCriterion extractedAuthorizationCriterion;
+
+    // Written after extractedAuthorizationCriterion, which may be null once extracted if the event has no criterion.
+    @Transient
+    private volatile boolean authorizationCriterionExtracted;
+
     private UUID externalId;
 
     public Event() { }
@@ -210,6 +231,7 @@ public class Event {
 
     public void setBundleDisplayName(String bundleDisplayName) {
         this.bundleDisplayName = bundleDisplayName;
+        transformedEvent = null;
     }
 
     public UUID getApplicationId() {
@@ -226,6 +248,7 @@ public class Event {
 
     public void setApplicationDisplayName(String applicationDisplayName) {
         this.applicationDisplayName = applicationDisplayName;
+        transformedEvent = null;
     }
 
     public EventType getEventType() {
@@ -242,6 +265,7 @@ public class Event {
 
     public void setEventTypeDisplayName(String eventTypeDisplayName) {
         this.eventTypeDisplayName = eventTypeDisplayName;
+        transformedEvent = null;
     }
 
     public Set<NotificationHistory> getHistoryEntries() {
@@ -258,6 +282,7 @@ public class Event {
 
     public void setPayload(String payload) {
         this.payload = payload;
+        resetExtractedAuthorizationCriterion();
     }
 
     public EventWrapper<?, ?> getEventWrapper() {
@@ -266,6 +291,16 @@ public class Event {
 
     public void setEventWrapper(EventWrapper<?, ?> eventWrapper) {
         this.eventWrapper = eventWrapper;
+        transformedEvent = null;
+        resetExtractedAuthorizationCriterion();
+    }
+
+    public JsonObject getTransformedEvent() {
+        return transformedEvent;
+    }
+
+    public void setTransformedEvent(JsonObject transformedEvent) {
+        this.transformedEvent = transformedEvent;
     }
 
     public String getRenderedDrawerNotification() {
@@ -290,6 +325,7 @@ public class Event {
 
     public void setSeverity(Severity severity) {
         this.severity = severity;
+        transformedEvent = null;
     }
 
     @NotNull
@@ -301,6 +337,32 @@ public class Event {
         this.hasAuthorizationCriterion = hasAuthorizationCriterion;
     }
 
+    public RecipientsAuthorizationCriterion getRecipientsAuthorizationCriterion() {
+        return recipientsAuthorizationCriterion;
+    }
+
+    public void setRecipientsAuthorizationCriterion(RecipientsAuthorizationCriterion recipientsAuthorizationCriterion) {
+        this.recipientsAuthorizationCriterion = recipientsAuthorizationCriterion;
+    }
+
+    public boolean isAuthorizationCriterionExtracted() {
+        return authorizationCriterionExtracted;
+    }
+
+    public RecipientsAuthorizationCriterion getExtractedAuthorizationCriterion() {
+        return extractedAuthorizationCriterion;
+    }
+
+    public void setExtractedAuthorizationCriterion(RecipientsAuthorizationCriterion extractedAuthorizationCriterion) {
+        this.extractedAuthorizationCriterion = extractedAuthorizationCriterion;
+        authorizationCriterionExtracted = true;
+    }
+
+    private void resetExtractedAuthorizationCriterion() {
+        authorizationCriterionExtracted = false;
+        extractedAuthorizationCriterion = null;
+    }
+
     public LocalDateTime getTimestamp() {
         // Timestamp of when the event occurred. This field is required in the JSON payload sent to the platform.ingress.notifications Kafka topic.
         return eventWrapper.getTimestamp();
@@ -1,6 +1,7 @@
 package com.redhat.cloud.notifications.routers.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.NotNull;
 
@@ -10,6 +11,10 @@ public class Meta {
     @NotNull
     private Long count;
 
+    // Only set when the count was estimated on request, true if the count is a lower bound.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean estimated;
+
     public Meta() {
 
     }
@@ -25,4 +30,12 @@ public class Meta {
     public void setCount(Long count) {
         this.count = count;
     }
+
+    public Boolean getEstimated() {
+        return estimated;
+    }
+
+    public void setEstimated(Boolean estimated) {
+        this.estimated = estimated;
+    }
 }
@@ -9,7 +9,6 @@ import com.redhat.cloud.notifications.models.NotificationsConsoleCloudEvent;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -32,11 +31,32 @@ public class BaseTransformer {
     public static final String RECIPIENTS_AUTHORIZATION_CRITERION = "recipients_authorization_criterion";
 
     /**
-     * Transforms the given event into a {@link JsonObject}.
+     * Transforms the given event into a {@link JsonObject}. The transformation is only computed once per event, the
+     * returned object is a copy that can be modified by the caller.
      * @param event the {@link Event} to transform.
      * @return a {@link JsonObject} containing the given event data.
      */
     public JsonObject toJsonObject(final Event event) {
+        return toSharedJsonObject(event).copy();
+    }
+
+    /**
+     * Transforms the given event into a {@link JsonObject}. The transformation is only computed once per event and the
+     * returned object is shared by all callers: it must never be modified. Use {@link #toJsonObject(Event)} when the
+     * result needs to be modified.
+     * @param event the {@link Event} to transform.
+     * @return a shared {@link JsonObject} containing the given event data.
+     */
+    public JsonObject toSharedJsonObject(final Event event) {
+        JsonObject transformedEvent = event.getTransformedEvent();
+        if (transformedEvent == null) {
+            transformedEvent = transform(event);
+            event.setTransformedEvent(transformedEvent);
+        }
+        return transformedEvent;
+    }
+
+    private JsonObject transform(final Event event) {
         EventWrapper<?, ?> eventWrapper = event.getEventWrapper();
         if (eventWrapper instanceof EventWrapperAction) {
             JsonObject message = new JsonObject();
@@ -53,7 +73,8 @@ public class BaseTransformer {
                     EVENTS,
                     new JsonArray(
                             action.getEvents().stream().map(
-                                    eventItem -> Map.of(
+                                    // Unlike Map.of, whose iteration order changes from one JVM to another, the keys order is stable.
+                                    eventItem -> JsonObject.of(
                                             METADATA, JsonObject.mapFrom(eventItem.getMetadata()),
                                             PAYLOAD, JsonObject.mapFrom(eventItem.getPayload())
                                     )
@@ -1,5 +1,7 @@
 package com.redhat.cloud.notifications.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.cloud.event.parser.ConsoleCloudEventParser;
 import com.redhat.cloud.event.parser.exceptions.ConsoleCloudEventParsingException;
@@ -17,11 +19,16 @@ import io.vertx.core.json.JsonObject;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.io.IOException;
+
 import static com.redhat.cloud.notifications.transformers.BaseTransformer.RECIPIENTS_AUTHORIZATION_CRITERION;
 
 @ApplicationScoped
 public class RecipientsAuthorizationCriterionExtractor {
 
+    // Top-level field which is only part of the CloudEvent payloads.
+    private static final String CLOUD_EVENT_SPEC_VERSION = "specversion";
+
     @Inject
     BaseTransformer baseTransformer;
 
@@ -33,11 +40,36 @@ public class RecipientsAuthorizationCriterionExtractor {
 
     ConsoleCloudEventParser cloudEventParser = new ConsoleCloudEventParser();
 
+    /**
+     * Extracts the recipients authorization criterion of an event. The result is memoized on the event, so the payload
+     * is only read once no matter how many processors need the criterion.
+     * @param event the event
+     * @return the criterion, or {@code null} if the event doesn't have any
+     */
     public RecipientsAuthorizationCriterion extract(Event event) {
+        if (event.isAuthorizationCriterionExtracted()) {
+            return event.getExtractedAuthorizationCriterion();
+        }
+        RecipientsAuthorizationCriterion extracted = extractWithoutMemo(event);
+        event.setExtractedAuthorizationCriterion(extracted);
+        return extracted;
+    }
+
+    private RecipientsAuthorizationCriterion extractWithoutMemo(Event event) {
+        if (null != event.getRecipientsAuthorizationCriterion()) {
+            // The criterion was extracted at ingress and loaded with the event row.
+            return event.getRecipientsAuthorizationCriterion();
+        }
         if (null == event.getEventWrapper()) {
+            if (null != event.getPayload()) {
+                StreamedCriterion streamed = readFromPayload(event.getPayload());
+                if (streamed.read()) {
+                    return streamed.criterion();
+                }
+            }
             event.setEventWrapper(getEventWrapper(event.getPayload()));
         }
-        return extract(baseTransformer.toJsonObject(event));
+        return extract(baseTransformer.toSharedJsonObject(event));
     }
 
     public RecipientsAuthorizationCriterion extract(EmailAggregation emailAggregation) {
@@ -55,6 +87,47 @@ public class RecipientsAuthorizationCriterionExtractor {
         return null;
     }
 
+    /*
+     * Reads the criterion from the top-level fields of a persisted payload without parsing the whole Action or
+     * CloudEvent. The payloads were validated at ingress, so their schema isn't checked again. The payload has to be
+     * parsed and transformed instead when it isn't a JSON object, when the criterion can't be read or when it comes
+     * with a CloudEvent, since a CloudEvent doesn't expose it to the transformed event.
+     */
+    private StreamedCriterion readFromPayload(String payload) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return StreamedCriterion.NOT_READ;
+            }
+            RecipientsAuthorizationCriterion criterion = null;
+            boolean cloudEvent = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+                if (RECIPIENTS_AUTHORIZATION_CRITERION.equals(fieldName) && valueToken != JsonToken.VALUE_NULL) {
+                    criterion = objectMapper.readValue(parser, RecipientsAuthorizationCriterion.class);
+                } else {
+                    if (CLOUD_EVENT_SPEC_VERSION.equals(fieldName)) {
+                        cloudEvent = true;
+                    }
+                    parser.skipChildren();
+                }
+            }
+            if (cloudEvent && null != criterion) {
+                return StreamedCriterion.NOT_READ;
+            }
+            return new StreamedCriterion(true, criterion);
+        } catch (IOException e) {
+            // The full parsing will either fail the same way or log the error.
+            return StreamedCriterion.NOT_READ;
+        }
+    }
+
+    // The criterion read from a payload, which may be null, is only meaningful when the payload could be read.
+    private record StreamedCriterion(boolean read, RecipientsAuthorizationCriterion criterion) {
+
+        private static final StreamedCriterion NOT_READ = new StreamedCriterion(false, null);
+    }
+
     private EventWrapper<?, ?> getEventWrapper(String payload) {
         try {
             Action action = actionParser.fromJsonString(payload);
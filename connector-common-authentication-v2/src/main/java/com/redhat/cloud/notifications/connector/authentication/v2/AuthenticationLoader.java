@@ -11,10 +11,14 @@ import io.quarkus.logging.Log;
 import io.vertx.core.json.JsonObject;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import java.util.Optional;
 
+import static jakarta.ws.rs.core.Response.Status.FORBIDDEN;
+import static jakarta.ws.rs.core.Response.Status.UNAUTHORIZED;
+
 @ApplicationScoped
 public class AuthenticationLoader {
 
@@ -41,6 +45,9 @@ public class AuthenticationLoader {
     @Inject
     ObjectMapper objectMapper;
 
+    @Inject
+    SourcesSecretsCache sourcesSecretsCache;
+
     public Optional<AuthenticationResult> fetchAuthenticationData(String orgId, JsonObject authenticationData) {
         if (authenticationData == null) {
             return Optional.empty();
@@ -48,17 +55,45 @@ public class AuthenticationLoader {
         AuthenticationRequest secretRequest = objectMapper.convertValue(authenticationData, AuthenticationRequest.class);
         validate(secretRequest);
 
-        Log.debugf("Calling Sources to retrieve a secret [orgId=%s, secretId=%d]", orgId, secretRequest.secretId);
+        SourcesSecretResponse sourcesSecretResponse;
+        if (connectorConfig.isSourcesSecretsCacheEnabled(orgId)) {
+            sourcesSecretResponse = sourcesSecretsCache.get(orgId, secretRequest.secretId, () -> fetchSecret(orgId, secretRequest.secretId));
+        } else {
+            sourcesSecretResponse = fetchSecret(orgId, secretRequest.secretId);
+        }
+
+        return Optional.of(new AuthenticationResult(sourcesSecretResponse, secretRequest.authenticationType));
+    }
+
+    /**
+     * Evicts the cached secret referenced by the given authentication data if the target of a notification rejected it.
+     * The secret may have been rotated in Sources since it was cached, so it will be fetched again for the next
+     * notification.
+     */
+    public void evictIfRejected(String orgId, JsonObject authenticationData, WebApplicationException e) {
+        int status = e.getResponse().getStatus();
+        if (authenticationData == null || (status != UNAUTHORIZED.getStatusCode() && status != FORBIDDEN.getStatusCode())) {
+            return;
+        }
+        AuthenticationRequest secretRequest = objectMapper.convertValue(authenticationData, AuthenticationRequest.class);
+        if (secretRequest.secretId != null) {
+            Log.debugf("Evicting a secret rejected by the target [orgId=%s, secretId=%d, status=%d]", orgId, secretRequest.secretId, status);
+            sourcesSecretsCache.evict(orgId, secretRequest.secretId);
+        }
+    }
+
+    private SourcesSecretResponse fetchSecret(String orgId, long secretId) {
+        Log.debugf("Calling Sources to retrieve a secret [orgId=%s, secretId=%d]", orgId, secretId);
 
         Timer.Sample timer = Timer.start(meterRegistry);
         SourcesSecretResponse sourcesSecretResponse;
         try {
             if (connectorConfig.isSourcesOidcAuthEnabled(orgId)) {
                 Log.debug("Using OIDC Sources client");
-                sourcesSecretResponse = sourcesOidcClient.getById(orgId, secretRequest.secretId);
+                sourcesSecretResponse = sourcesOidcClient.getById(orgId, secretId);
             } else {
                 Log.debug("Using PSK Sources client");
-                sourcesSecretResponse = sourcesPskClient.getById(orgId, sourcesApiPsk, secretRequest.secretId);
+                sourcesSecretResponse = sourcesPskClient.getById(orgId, sourcesApiPsk, secretId);
             }
         } finally {
             timer.stop(meterRegistry.timer(SOURCES_TIMER));
@@ -73,8 +108,7 @@ public class AuthenticationLoader {
             throw new IllegalStateException("Invalid secret: password is missing");
         }
 
-        return Optional.of(new AuthenticationResult(sourcesSecretResponse, secretRequest.authenticationType));
-
+        return sourcesSecretResponse;
     }
 
     static void validate(AuthenticationRequest secretRequest) {
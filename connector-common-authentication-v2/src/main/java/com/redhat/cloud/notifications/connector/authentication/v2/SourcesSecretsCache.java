@@ -0,0 +1,167 @@
+package com.redhat.cloud.notifications.connector.authentication.v2;
+
+import com.redhat.cloud.notifications.connector.authentication.v2.sources.SourcesSecretResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Per-pod cache of the secrets retrieved from Sources, keyed by org ID and secret ID. The entries expire after a fixed
+ * delay. An entry read shortly before its expiration is reloaded in the background, so that the connector doesn't wait
+ * for Sources while a burst of notifications targets the same endpoint. Concurrent misses on the same key share a
+ * single call to Sources and the failed calls are never cached.
+ */
+@ApplicationScoped
+public class SourcesSecretsCache {
+
+    public static final String HIT_COUNTER_NAME = "sources.secrets.cache.hit";
+    public static final String MISS_COUNTER_NAME = "sources.secrets.cache.miss";
+    public static final String EVICTION_COUNTER_NAME = "sources.secrets.cache.eviction";
+    public static final String SIZE_GAUGE_NAME = "sources.secrets.cache.size";
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "notifications.connector.authentication.secrets-cache.max-size", defaultValue = "10000")
+    int maxSize;
+
+    @ConfigProperty(name = "notifications.connector.authentication.secrets-cache.expire-after-write", defaultValue = "PT10M")
+    Duration expireAfterWrite;
+
+    // An entry read within that delay before its expiration is reloaded in the background.
+    @ConfigProperty(name = "notifications.connector.authentication.secrets-cache.refresh-ahead", defaultValue = "PT2M")
+    Duration refreshAhead;
+
+    private final Map<SecretKey, SecretEntry> entries = new ConcurrentHashMap<>();
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter evictionCounter;
+
+    @PostConstruct
+    void init() {
+        hitCounter = registry.counter(HIT_COUNTER_NAME);
+        missCounter = registry.counter(MISS_COUNTER_NAME);
+        evictionCounter = registry.counter(EVICTION_COUNTER_NAME);
+        registry.gauge(SIZE_GAUGE_NAME, entries, Map::size);
+    }
+
+    /**
+     * Returns the cached secret or loads it with the given loader. The loader is expected to throw an exception if the
+     * secret is invalid, so that an invalid secret is never cached.
+     */
+    SourcesSecretResponse get(String orgId, long secretId, Supplier<SourcesSecretResponse> loader) {
+        SecretKey key = new SecretKey(orgId, secretId);
+        Instant now = Instant.now();
+
+        if (!entries.containsKey(key) && entries.size() >= maxSize) {
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            if (entries.size() >= maxSize) {
+                // The cache is full of valid entries, the secret is loaded without being cached.
+                missCounter.increment();
+                return loader.get();
+            }
+        }
+
+        SecretEntry candidate = new SecretEntry();
+        SecretEntry entry = entries.compute(key, (k, existing) -> existing != null && !existing.isExpired(now) ? existing : candidate);
+        if (entry == candidate) {
+            missCounter.increment();
+            return load(key, entry, loader);
+        }
+
+        hitCounter.increment();
+        if (entry.shouldRefresh(now) && entry.refreshing.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("sources-secret-refresh").start(() -> refresh(key, entry, loader));
+        }
+        return await(entry);
+    }
+
+    void evict(String orgId, long secretId) {
+        if (entries.remove(new SecretKey(orgId, secretId)) != null) {
+            evictionCounter.increment();
+        }
+    }
+
+    void invalidateAll() {
+        entries.clear();
+    }
+
+    private SourcesSecretResponse load(SecretKey key, SecretEntry entry, Supplier<SourcesSecretResponse> loader) {
+        try {
+            SourcesSecretResponse secret = loader.get();
+            entry.complete(secret);
+            return secret;
+        } catch (RuntimeException | Error e) {
+            // The callers waiting for this entry will get the same exception and the next caller will try again.
+            entries.remove(key, entry);
+            entry.secret.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void refresh(SecretKey key, SecretEntry entry, Supplier<SourcesSecretResponse> loader) {
+        try {
+            SecretEntry refreshed = new SecretEntry();
+            refreshed.complete(loader.get());
+            // If the entry was evicted in the meantime, the refreshed secret can't be trusted.
+            entries.replace(key, entry, refreshed);
+        } catch (RuntimeException e) {
+            // The entry remains usable until it expires and the refresh will be attempted again on the next hit.
+            Log.warnf(e, "Sources secret refresh failed [orgId=%s, secretId=%d]", key.orgId(), key.secretId());
+        } finally {
+            // Also released when the loader throws an Error, otherwise the entry would never be refreshed again.
+            entry.refreshing.set(false);
+        }
+    }
+
+    private static SourcesSecretResponse await(SecretEntry entry) {
+        try {
+            return entry.secret.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record SecretKey(String orgId, long secretId) {
+    }
+
+    private final class SecretEntry {
+
+        private final CompletableFuture<SourcesSecretResponse> secret = new CompletableFuture<>();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        // Remains null while the secret is being loaded.
+        private volatile Instant loaded;
+
+        private void complete(SourcesSecretResponse value) {
+            loaded = Instant.now();
+            secret.complete(value);
+        }
+
+        private boolean isExpired(Instant now) {
+            Instant loadedAt = loaded;
+            return loadedAt != null && !loadedAt.plus(expireAfterWrite).isAfter(now);
+        }
+
+        private boolean shouldRefresh(Instant now) {
+            Instant loadedAt = loaded;
+            return loadedAt != null && !loadedAt.plus(expireAfterWrite).minus(refreshAhead).isAfter(now);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.redhat.cloud.notifications.connector.authentication.v2;
+
+import com.redhat.cloud.notifications.connector.authentication.v2.sources.OidcServerMockResource;
+import com.redhat.cloud.notifications.connector.authentication.v2.sources.SourcesServerMockResource;
+import com.redhat.cloud.notifications.connector.v2.ConnectorConfig;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.redhat.cloud.notifications.connector.authentication.v2.sources.SourcesServerMockResource.SLOW_SECRET_ID;
+import static com.redhat.cloud.notifications.connector.authentication.v2.sources.SourcesServerMockResource.getWireMockServer;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+@QuarkusTestResource(OidcServerMockResource.class)
+@QuarkusTestResource(SourcesServerMockResource.class)
+public class AuthenticationLoaderSecretsCacheTest {
+
+    private static final String ORG_ID = "secrets-cache-org";
+    private static final long SECRET_ID = 123L;
+    private static final int CONCURRENT_CALLS = 20;
+
+    @Inject
+    AuthenticationLoader authenticationLoader;
+
+    @Inject
+    SourcesSecretsCache sourcesSecretsCache;
+
+    @InjectMock
+    ConnectorConfig connectorConfig;
+
+    @BeforeEach
+    void beforeEach() {
+        when(connectorConfig.isSourcesOidcAuthEnabled(anyString())).thenReturn(true);
+        when(connectorConfig.isSourcesSecretsCacheEnabled(anyString())).thenReturn(true);
+        getWireMockServer().resetRequests();
+    }
+
+    @AfterEach
+    void afterEach() {
+        sourcesSecretsCache.invalidateAll();
+    }
+
+    @Test
+    void testConcurrentCallsShareOneSourcesCall() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CALLS);
+        try {
+            List<Future<Optional<AuthenticationResult>>> results = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CALLS; i++) {
+                results.add(executor.submit(() -> authenticationLoader.fetchAuthenticationData(ORG_ID, buildAuthentication(SLOW_SECRET_ID))));
+            }
+            for (Future<Optional<AuthenticationResult>> result : results) {
+                assertEquals("test-password", result.get(10, SECONDS).orElseThrow().password);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The calls made after the secret was loaded are served from the cache.
+        authenticationLoader.fetchAuthenticationData(ORG_ID, buildAuthentication(SLOW_SECRET_ID));
+        assertSourcesCalls(1, SLOW_SECRET_ID);
+    }
+
+    @Test
+    void testEvictionWhenTheTargetRejectsTheSecret() {
+        JsonObject authentication = buildAuthentication(SECRET_ID);
+        authenticationLoader.fetchAuthenticationData(ORG_ID, authentication);
+        authenticationLoader.fetchAuthenticationData(ORG_ID, authentication);
+        assertSourcesCalls(1, SECRET_ID);
+
+        // A server error from the target doesn't mean that the secret is wrong.
+        authenticationLoader.evictIfRejected(ORG_ID, authentication, new WebApplicationException(500));
+        authenticationLoader.fetchAuthenticationData(ORG_ID, authentication);
+        assertSourcesCalls(1, SECRET_ID);
+
+        authenticationLoader.evictIfRejected(ORG_ID, authentication, new WebApplicationException(401));
+        authenticationLoader.fetchAuthenticationData(ORG_ID, authentication);
+        assertSourcesCalls(2, SECRET_ID);
+
+        authenticationLoader.evictIfRejected(ORG_ID, authentication, new WebApplicationException(403));
+        authenticationLoader.fetchAuthenticationData(ORG_ID, authentication);
+        assertSourcesCalls(3, SECRET_ID);
+    }
+
+    @Test
+    void testSecretsAreNotSharedBetweenOrgs() {
+        authenticationLoader.fetchAuthenticationData(ORG_ID, buildAuthentication(SECRET_ID));
+        authenticationLoader.fetchAuthenticationData("another-org", buildAuthentication(SECRET_ID));
+        assertSourcesCalls(2, SECRET_ID);
+    }
+
+    @Test
+    void testCacheDisabled() {
+        when(connectorConfig.isSourcesSecretsCacheEnabled(anyString())).thenReturn(false);
+        authenticationLoader.fetchAuthenticationData(ORG_ID, buildAuthentication(SECRET_ID));
+        authenticationLoader.fetchAuthenticationData(ORG_ID, buildAuthentication(SECRET_ID));
+        assertSourcesCalls(2, SECRET_ID);
+    }
+
+    private static void assertSourcesCalls(int expected, long secretId) {
+        getWireMockServer().verify(exactly(expected), getRequestedFor(urlEqualTo("/internal/v2.0/secrets/" + secretId)));
+    }
+
+    private static JsonObject buildAuthentication(long secretId) {
+        return new JsonObject()
+            .put("type", AuthenticationType.SECRET_TOKEN.name())
+            .put("secretId", secretId);
+    }
+}
@@ -0,0 +1,105 @@
+package com.redhat.cloud.notifications.connector.authentication.v2;
+
+import com.redhat.cloud.notifications.connector.authentication.v2.sources.SourcesSecretResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SourcesSecretsCacheTest {
+
+    private static final String ORG_ID = "org-id";
+
+    private SourcesSecretsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void beforeEach() {
+        cache = new SourcesSecretsCache();
+        cache.registry = new SimpleMeterRegistry();
+        cache.maxSize = 2;
+        cache.expireAfterWrite = Duration.ofMinutes(10);
+        cache.refreshAhead = Duration.ZERO;
+        cache.init();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testRefreshAhead() {
+        // Every hit triggers a refresh.
+        cache.refreshAhead = cache.expireAfterWrite;
+
+        assertEquals("password-1", cache.get(ORG_ID, 1L, loader()).password);
+        // The hit doesn't wait for the refresh.
+        assertEquals("password-1", cache.get(ORG_ID, 1L, loader()).password);
+        await().until(() -> !"password-1".equals(cache.get(ORG_ID, 1L, loader()).password));
+    }
+
+    @Test
+    void testRefreshAfterFailedRefresh() {
+        assertEquals("password-1", cache.get(ORG_ID, 1L, loader()).password);
+
+        cache.refreshAhead = cache.expireAfterWrite;
+        Supplier<SourcesSecretResponse> failingLoader = () -> {
+            loads.incrementAndGet();
+            throw new StackOverflowError();
+        };
+        // The refresh fails in the background, the cached secret is still returned.
+        assertEquals("password-1", cache.get(ORG_ID, 1L, failingLoader).password);
+        await().until(() -> loads.get() == 2);
+
+        // The failed refresh doesn't prevent the next ones.
+        await().until(() -> !"password-1".equals(cache.get(ORG_ID, 1L, loader()).password));
+    }
+
+    @Test
+    void testExpiration() {
+        cache.expireAfterWrite = Duration.ZERO;
+
+        assertEquals("password-1", cache.get(ORG_ID, 1L, loader()).password);
+        assertEquals("password-2", cache.get(ORG_ID, 1L, loader()).password);
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        Supplier<SourcesSecretResponse> failingLoader = () -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("Invalid secret: password is missing");
+        };
+
+        assertThrows(IllegalStateException.class, () -> cache.get(ORG_ID, 1L, failingLoader));
+        assertThrows(IllegalStateException.class, () -> cache.get(ORG_ID, 1L, failingLoader));
+        assertEquals(2, loads.get());
+        assertEquals("password-3", cache.get(ORG_ID, 1L, loader()).password);
+    }
+
+    @Test
+    void testMaxSize() {
+        cache.get(ORG_ID, 1L, loader());
+        cache.get(ORG_ID, 2L, loader());
+        // The cache is full, this secret is not cached.
+        cache.get(ORG_ID, 3L, loader());
+        cache.get(ORG_ID, 3L, loader());
+        assertEquals(4, loads.get());
+
+        cache.evict(ORG_ID, 1L);
+        cache.get(ORG_ID, 3L, loader());
+        cache.get(ORG_ID, 3L, loader());
+        assertEquals(5, loads.get());
+    }
+
+    private Supplier<SourcesSecretResponse> loader() {
+        return () -> {
+            SourcesSecretResponse secret = new SourcesSecretResponse();
+            secret.password = "password-" + loads.incrementAndGet();
+            return secret;
+        };
+    }
+}
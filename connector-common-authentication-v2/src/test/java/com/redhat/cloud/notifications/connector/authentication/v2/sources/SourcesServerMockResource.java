@@ -12,8 +12,14 @@ import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 
 public class SourcesServerMockResource implements QuarkusTestResourceLifecycleManager {
 
+    public static final long SLOW_SECRET_ID = 200001L;
+
     private static WireMockServer wireMockServer;
 
+    public static WireMockServer getWireMockServer() {
+        return wireMockServer;
+    }
+
     @Override
     public Map<String, String> start() {
 
@@ -91,6 +97,21 @@ public class SourcesServerMockResource implements QuarkusTestResourceLifecycleMa
                     }
                     """)));
 
+        // Secret ID 200001 - Slow response (for concurrent load testing)
+        wireMockServer.stubFor(get(urlEqualTo("/internal/v2.0/secrets/" + SLOW_SECRET_ID))
+            .atPriority(1)
+            .withHeader("Authorization", equalTo("Bearer " + OidcServerMockResource.TEST_ACCESS_TOKEN))
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withFixedDelay(500)
+                .withHeader("Content-Type", "application/json")
+                .withBody("""
+                    {
+                      "username": "test-username",
+                      "password": "test-password"
+                    }
+                    """)));
+
         // Mock Sources getById endpoint - Generic success case for any secret ID with valid auth
         // Priority 5 (lower priority) to match after specific error cases
         wireMockServer.stubFor(get(urlMatching("/internal/v2.0/secrets/[0-9]+"))
@@ -44,6 +44,7 @@ public class ConnectorConfig {
      * Sources API integration, this feature toggle can be removed entirely along with all PSK-related code.
      */
     private String sourcesOidcAuthToggle;
+    private String sourcesSecretsCacheToggle;
 
     @ConfigProperty(name = UNLEASH, defaultValue = "false")
     @Deprecated(forRemoval = true, since = "To be removed when we're done migrating to Unleash in all environments")
@@ -64,6 +65,7 @@ public class ConnectorConfig {
     @PostConstruct
     void postConstruct() {
         sourcesOidcAuthToggle = toggleRegistry.register("sources-oidc-auth", true);
+        sourcesSecretsCacheToggle = toggleRegistry.register("sources-secrets-cache", true);
     }
 
     public void log() {
@@ -79,6 +81,7 @@ public class ConnectorConfig {
         config.put(SUPPORTED_CONNECTOR_HEADERS, supportedConnectorHeaders);
         config.put(UNLEASH, unleashEnabled);
         config.put(sourcesOidcAuthToggle, isSourcesOidcAuthEnabled(null));
+        config.put(sourcesSecretsCacheToggle, isSourcesSecretsCacheEnabled(null));
         return config;
     }
 
@@ -98,4 +101,13 @@ public class ConnectorConfig {
             return false;
         }
     }
+
+    public boolean isSourcesSecretsCacheEnabled(String orgId) {
+        if (unleashEnabled) {
+            UnleashContext unleashContext = UnleashContextBuilder.buildUnleashContextWithOrgId(orgId);
+            return unleash.isEnabled(sourcesSecretsCacheToggle, unleashContext, false);
+        } else {
+            return false;
+        }
+    }
 }
@@ -18,6 +18,7 @@ import org.eclipse.microprofile.reactive.messaging.Incoming;
 import org.eclipse.microprofile.reactive.messaging.Message;
 
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.StreamSupport;
 
@@ -92,22 +93,38 @@ public class MessageConsumer {
         }
 
         Timer.Sample sample = Timer.start(meterRegistry);
+        Log.debugf("Processing %s", message.getPayload());
+
+        // Handle the message using the connector-specific handler
+        return messageHandler.handleAsync(cloudEventMetadata)
+            .handle((additionalConnectorDetails, failure) -> {
+                onHandled(cloudEventMetadata, additionalConnectorDetails, failure, startTime, sample);
+                return null;
+            })
+            .thenCompose(unused -> message.ack());
+    }
+
+    private void onHandled(IncomingCloudEventMetadata<JsonObject> cloudEventMetadata, HandledMessageDetails additionalConnectorDetails, Throwable failure, long startTime, Timer.Sample sample) {
         boolean success = false;
         try {
-            Log.debugf("Processing %s", message.getPayload());
-
-            // Handle the message using the connector-specific handler
-            HandledMessageDetails additionalConnectorDetails = messageHandler.handle(cloudEventMetadata);
-
-            // Send success response back to engine
-            outgoingMessageSender.sendSuccess(cloudEventMetadata, additionalConnectorDetails, startTime);
-            success = true;
+            if (failure == null) {
+                // Send success response back to engine
+                outgoingMessageSender.sendSuccess(cloudEventMetadata, additionalConnectorDetails, startTime);
+                success = true;
+            }
         } catch (Exception e) {
-            Log.errorf(e, "Error processing message: %s", e.getMessage());
-            HandledExceptionDetails processedExceptionDetails = exceptionProcessor.processException(e, cloudEventMetadata);
+            failure = e;
+        }
+
+        try {
+            if (!success) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                Log.errorf(cause, "Error processing message: %s", cause.getMessage());
+                HandledExceptionDetails processedExceptionDetails = exceptionProcessor.processException(cause, cloudEventMetadata);
 
-            // Send failure response back to engine
-            outgoingMessageSender.sendFailure(cloudEventMetadata, processedExceptionDetails, startTime);
+                // Send failure response back to engine
+                outgoingMessageSender.sendFailure(cloudEventMetadata, processedExceptionDetails, startTime);
+            }
         } finally {
             sample.stop(handlerDurationTimer);
             if (success) {
@@ -116,7 +133,6 @@ public class MessageConsumer {
                 failedCounter.increment();
             }
         }
-        return message.ack();
     }
 
     public Optional<String> extractConnectorHeader(Message<JsonObject> message) {
@@ -8,6 +8,9 @@ import io.vertx.core.json.JsonObject;
 import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 import static com.redhat.cloud.notifications.connector.v2.ConnectorConfig.BASE_CONFIG_PRIORITY;
 
 @ApplicationScoped
@@ -19,4 +22,16 @@ public class MessageHandler {
         Log.info("Test implementation of MessageHandler for unit testing");
         return new HandledMessageDetails("Ok");
     }
+
+    /**
+     * Handles the message without holding a connector thread until it is delivered. Override this method in the
+     * connectors which deliver several messages at once, the default implementation delegates to {@link #handle}.
+     */
+    public CompletionStage<HandledMessageDetails> handleAsync(IncomingCloudEventMetadata<JsonObject> incomingCloudEvent) {
+        try {
+            return CompletableFuture.completedFuture(handle(incomingCloudEvent));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
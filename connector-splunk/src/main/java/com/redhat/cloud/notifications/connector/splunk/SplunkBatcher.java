@@ -0,0 +1,145 @@
+package com.redhat.cloud.notifications.connector.splunk;
+
+import com.redhat.cloud.notifications.connector.splunk.config.SplunkConnectorConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Groups the payloads sent to the same Splunk HEC endpoint with the same token into a single request. Splunk HEC
+ * accepts concatenated events in one body, so a batch is sent as soon as it reaches the max number of events or bytes,
+ * or when the linger delay that started with its first payload is over. Each payload gets the outcome of the request
+ * that contained it.
+ */
+@ApplicationScoped
+public class SplunkBatcher {
+
+    public static final String BATCH_SIZE_SUMMARY_NAME = "notifications.connector.splunk.batch.size";
+
+    @Inject
+    @RestClient
+    SplunkRestClient splunkRestClient;
+
+    @Inject
+    SplunkConnectorConfig connectorConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Map<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+    private ScheduledExecutorService lingerScheduler;
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    void init() {
+        lingerScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("splunk-batch-linger").daemon().factory());
+        batchSizeSummary = DistributionSummary.builder(BATCH_SIZE_SUMMARY_NAME)
+            .description("Number of notifications sent to Splunk in a single request")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lingerScheduler.shutdownNow();
+        // The pending batches are sent before the connector stops so that their messages get a reply.
+        for (BatchKey key : List.copyOf(batches.keySet())) {
+            Batch batch = batches.remove(key);
+            if (batch != null) {
+                post(key, batch);
+            }
+        }
+    }
+
+    /**
+     * Adds a payload to the batch of the given endpoint.
+     * @return a future completed with the HTTP status of the request that contained the payload
+     */
+    public CompletableFuture<Integer> submit(String targetUrl, String authorizationHeader, String payload) {
+        BatchKey key = new BatchKey(targetUrl, authorizationHeader);
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        int payloadBytes = payload.getBytes(UTF_8).length;
+
+        List<Batch> completedBatches = new ArrayList<>(2);
+        batches.compute(key, (k, batch) -> {
+            if (batch != null && batch.bytes + payloadBytes > connectorConfig.getBatchMaxBytes()) {
+                completedBatches.add(batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = newBatch(k);
+            }
+            batch.add(payload, payloadBytes, result);
+            if (batch.results.size() >= connectorConfig.getBatchMaxEvents() || batch.bytes >= connectorConfig.getBatchMaxBytes()) {
+                completedBatches.add(batch);
+                return null;
+            }
+            return batch;
+        });
+
+        for (Batch batch : completedBatches) {
+            send(key, batch);
+        }
+        return result;
+    }
+
+    private Batch newBatch(BatchKey key) {
+        Batch batch = new Batch();
+        batch.linger = lingerScheduler.schedule(() -> {
+            if (batches.remove(key, batch)) {
+                send(key, batch);
+            }
+        }, connectorConfig.getBatchLinger().toMillis(), MILLISECONDS);
+        return batch;
+    }
+
+    private void send(BatchKey key, Batch batch) {
+        batch.linger.cancel(false);
+        // The linger scheduler and the connector threads must not wait for Splunk.
+        Thread.ofVirtual().name("splunk-batch-sender").start(() -> post(key, batch));
+    }
+
+    private void post(BatchKey key, Batch batch) {
+        batchSizeSummary.record(batch.results.size());
+        try (Response response = splunkRestClient.post(key.authorizationHeader(), key.targetUrl(), batch.body.toString())) {
+            int status = response.getStatus();
+            batch.results.forEach(result -> result.complete(status));
+        } catch (RuntimeException e) {
+            batch.results.forEach(result -> result.completeExceptionally(e));
+        }
+    }
+
+    private record BatchKey(String targetUrl, String authorizationHeader) {
+    }
+
+    // A batch is only modified while its key is locked by ConcurrentHashMap#compute.
+    private static final class Batch {
+
+        private final StringBuilder body = new StringBuilder();
+        private final List<CompletableFuture<Integer>> results = new ArrayList<>();
+        private int bytes;
+        private ScheduledFuture<?> linger;
+
+        private void add(String payload, int payloadBytes, CompletableFuture<Integer> result) {
+            body.append(payload);
+            bytes += payloadBytes;
+            results.add(result);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.redhat.cloud.notifications.connector.splunk;
 
 import com.redhat.cloud.notifications.connector.authentication.v2.AuthenticationLoader;
 import com.redhat.cloud.notifications.connector.authentication.v2.AuthenticationResult;
+import com.redhat.cloud.notifications.connector.splunk.config.SplunkConnectorConfig;
 import com.redhat.cloud.notifications.connector.v2.MessageHandler;
 import com.redhat.cloud.notifications.connector.v2.http.models.HandledHttpMessageDetails;
 import com.redhat.cloud.notifications.connector.v2.models.HandledMessageDetails;
@@ -25,6 +26,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -56,9 +59,66 @@ public class SplunkMessageHandler extends MessageHandler {
     @Inject
     Validator validator;
 
+    @Inject
+    SplunkConnectorConfig connectorConfig;
+
+    @Inject
+    SplunkBatcher splunkBatcher;
+
     @Override
     public HandledMessageDetails handle(final IncomingCloudEventMetadata<JsonObject> incomingCloudEvent) {
+        return deliver(incomingCloudEvent, prepareDelivery(incomingCloudEvent));
+    }
+
+    private HandledMessageDetails deliver(final IncomingCloudEventMetadata<JsonObject> incomingCloudEvent, final SplunkDelivery delivery) {
+        HandledHttpMessageDetails handledMessageDetails = new HandledHttpMessageDetails();
+        handledMessageDetails.targetUrl = delivery.targetUrl();
+
+        try (Response response = splunkRestClient.post(delivery.authorizationHeader(), delivery.targetUrl(), delivery.payload())) {
+            handledMessageDetails.httpStatus = response.getStatus();
+        } catch (WebApplicationException e) {
+            authenticationLoader.evictIfRejected(delivery.notification().getOrgId(), delivery.notification().metadata.getJsonObject(AUTHENTICATION_KEY), e);
+            throw e;
+        }
+
+        logDelivery(incomingCloudEvent, delivery);
+
+        return handledMessageDetails;
+    }
+
+    /**
+     * When batching is enabled, the payload is sent to Splunk with the payloads of other messages targeting the same
+     * endpoint and the connector thread is released without waiting for the request to complete.
+     */
+    @Override
+    public CompletionStage<HandledMessageDetails> handleAsync(final IncomingCloudEventMetadata<JsonObject> incomingCloudEvent) {
 
+        final SplunkDelivery delivery;
+        try {
+            delivery = prepareDelivery(incomingCloudEvent);
+            if (!connectorConfig.isSplunkBatchingEnabled(delivery.notification().getOrgId())) {
+                return CompletableFuture.completedFuture(deliver(incomingCloudEvent, delivery));
+            }
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return splunkBatcher.submit(delivery.targetUrl(), delivery.authorizationHeader(), delivery.payload())
+            .whenComplete((httpStatus, failure) -> {
+                if (failure instanceof WebApplicationException e) {
+                    authenticationLoader.evictIfRejected(delivery.notification().getOrgId(), delivery.notification().metadata.getJsonObject(AUTHENTICATION_KEY), e);
+                }
+            })
+            .thenApply(httpStatus -> {
+                HandledHttpMessageDetails handledMessageDetails = new HandledHttpMessageDetails();
+                handledMessageDetails.targetUrl = delivery.targetUrl();
+                handledMessageDetails.httpStatus = httpStatus;
+                logDelivery(incomingCloudEvent, delivery);
+                return handledMessageDetails;
+            });
+    }
+
+    private SplunkDelivery prepareDelivery(final IncomingCloudEventMetadata<JsonObject> incomingCloudEvent) {
         if (incomingCloudEvent.getData() == null) {
             throw new IllegalStateException("CloudEvent data is null");
         }
@@ -69,19 +129,12 @@ public class SplunkMessageHandler extends MessageHandler {
 
         final String authorizationHeader = fetchAndCheckSplunkAuthorizationHeader(notification);
 
-        String payload = buildSplunkPayload(notification);
-
-        HandledHttpMessageDetails handledMessageDetails = new HandledHttpMessageDetails();
-        handledMessageDetails.targetUrl = targetUrl;
-
-        try (Response response = splunkRestClient.post(authorizationHeader, targetUrl, payload)) {
-            handledMessageDetails.httpStatus = response.getStatus();
-        }
+        return new SplunkDelivery(notification, targetUrl, authorizationHeader, buildSplunkPayload(notification));
+    }
 
+    private static void logDelivery(IncomingCloudEventMetadata<JsonObject> incomingCloudEvent, SplunkDelivery delivery) {
         Log.infof("Delivered event %s (orgId %s account %s) to %s",
-            incomingCloudEvent.getId(), notification.getOrgId(), notification.accountId, targetUrl);
-
-        return handledMessageDetails;
+            incomingCloudEvent.getId(), delivery.notification().getOrgId(), delivery.notification().accountId, delivery.targetUrl());
     }
 
     private SplunkNotification getAndValidateSplunkNotificationFormat(final IncomingCloudEventMetadata<JsonObject> incomingCloudEvent) {
@@ -196,4 +249,7 @@ public class SplunkMessageHandler extends MessageHandler {
         result.put(EVENT_KEY, payload);
         return result;
     }
+
+    private record SplunkDelivery(SplunkNotification notification, String targetUrl, String authorizationHeader, String payload) {
+    }
 }
@@ -0,0 +1,70 @@
+package com.redhat.cloud.notifications.connector.splunk.config;
+
+import com.redhat.cloud.notifications.connector.v2.http.HttpConnectorConfig;
+import com.redhat.cloud.notifications.unleash.UnleashContextBuilder;
+import io.getunleash.UnleashContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ApplicationScoped
+public class SplunkConnectorConfig extends HttpConnectorConfig {
+
+    private static final String BATCH_MAX_EVENTS = "notifications.connector.splunk.batch.max-events";
+    private static final String BATCH_MAX_BYTES = "notifications.connector.splunk.batch.max-bytes";
+    private static final String BATCH_LINGER = "notifications.connector.splunk.batch.linger";
+
+    @ConfigProperty(name = BATCH_MAX_EVENTS, defaultValue = "50")
+    int batchMaxEvents;
+
+    // Splunk HEC rejects the requests bigger than its max_content_length setting, which can be as low as 1 MB.
+    @ConfigProperty(name = BATCH_MAX_BYTES, defaultValue = "1000000")
+    int batchMaxBytes;
+
+    @ConfigProperty(name = BATCH_LINGER, defaultValue = "PT0.2S")
+    Duration batchLinger;
+
+    private String toggleSplunkBatching;
+
+    @PostConstruct
+    void splunkConnectorPostConstruct() {
+        toggleSplunkBatching = toggleRegistry.register("splunk-batching", true);
+    }
+
+    @Override
+    protected Map<String, Object> getLoggedConfiguration() {
+        Map<String, Object> config = super.getLoggedConfiguration();
+
+        config.put(BATCH_MAX_EVENTS, batchMaxEvents);
+        config.put(BATCH_MAX_BYTES, batchMaxBytes);
+        config.put(BATCH_LINGER, batchLinger);
+        config.put(toggleSplunkBatching, isSplunkBatchingEnabled(""));
+
+        return config;
+    }
+
+    public int getBatchMaxEvents() {
+        return batchMaxEvents;
+    }
+
+    public int getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    public Duration getBatchLinger() {
+        return batchLinger;
+    }
+
+    public boolean isSplunkBatchingEnabled(String orgId) {
+        if (unleashEnabled) {
+            UnleashContext unleashContext = UnleashContextBuilder.buildUnleashContextWithOrgId(orgId);
+
+            return unleash.isEnabled(toggleSplunkBatching, unleashContext, false);
+        } else {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.redhat.cloud.notifications.connector.splunk;
+
+import com.redhat.cloud.notifications.connector.splunk.config.SplunkConnectorConfig;
+import com.redhat.cloud.notifications.connector.v2.TestLifecycleManager;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+@QuarkusTestResource(TestLifecycleManager.class)
+class SplunkBatcherTest {
+
+    private static final String TARGET_URL = "https://splunk.example.com/services/collector/event";
+
+    @Inject
+    SplunkBatcher splunkBatcher;
+
+    @Inject
+    SplunkConnectorConfig connectorConfig;
+
+    @InjectMock
+    @RestClient
+    SplunkRestClient splunkRestClient;
+
+    @BeforeEach
+    void beforeEach() {
+        Response response = mock(Response.class);
+        when(response.getStatus()).thenReturn(200);
+        when(splunkRestClient.post(anyString(), anyString(), anyString())).thenReturn(response);
+    }
+
+    @Test
+    void testPayloadsAreSentTogether() throws Exception {
+        List<CompletableFuture<Integer>> results = List.of(
+            splunkBatcher.submit(TARGET_URL, "Splunk token", "{\"event\":1}"),
+            splunkBatcher.submit(TARGET_URL, "Splunk token", "{\"event\":2}"),
+            splunkBatcher.submit(TARGET_URL, "Splunk token", "{\"event\":3}")
+        );
+
+        for (CompletableFuture<Integer> result : results) {
+            assertEquals(200, result.get(5, SECONDS));
+        }
+        verify(splunkRestClient, times(1)).post("Splunk token", TARGET_URL, "{\"event\":1}{\"event\":2}{\"event\":3}");
+    }
+
+    @Test
+    void testBatchesAreKeyedByEndpointAndToken() throws Exception {
+        List<CompletableFuture<Integer>> results = List.of(
+            splunkBatcher.submit(TARGET_URL, "Splunk token-1", "{\"event\":1}"),
+            splunkBatcher.submit(TARGET_URL, "Splunk token-2", "{\"event\":2}"),
+            splunkBatcher.submit("https://other.example.com/services/collector/event", "Splunk token-1", "{\"event\":3}")
+        );
+
+        for (CompletableFuture<Integer> result : results) {
+            assertEquals(200, result.get(5, SECONDS));
+        }
+        verify(splunkRestClient, times(3)).post(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaiting() throws Exception {
+        int maxEvents = connectorConfig.getBatchMaxEvents();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < maxEvents + 1; i++) {
+            results.add(splunkBatcher.submit(TARGET_URL, "Splunk token", "{\"event\":" + i + "}"));
+        }
+
+        for (CompletableFuture<Integer> result : results) {
+            assertEquals(200, result.get(5, SECONDS));
+        }
+        // The last payload didn't fit in the first batch.
+        verify(splunkRestClient, times(2)).post(eq("Splunk token"), eq(TARGET_URL), anyString());
+    }
+
+    @Test
+    void testFailureIsReportedToEveryPayload() {
+        WebApplicationException failure = new WebApplicationException(403);
+        when(splunkRestClient.post(anyString(), anyString(), anyString())).thenThrow(failure);
+
+        List<CompletableFuture<Integer>> results = List.of(
+            splunkBatcher.submit(TARGET_URL, "Splunk token", "{\"event\":1}"),
+            splunkBatcher.submit(TARGET_URL, "Splunk token", "{\"event\":2}")
+        );
+
+        for (CompletableFuture<Integer> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        verify(splunkRestClient, times(1)).post(anyString(), anyString(), anyString());
+    }
+}
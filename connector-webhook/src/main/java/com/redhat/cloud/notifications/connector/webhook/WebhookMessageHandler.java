@@ -58,11 +58,17 @@ public class WebhookMessageHandler extends MessageHandler {
                 final String bearerToken = "Bearer " + authenticationResultOptional.get().password;
                 try (Response response = webhookRestClient.postWithBearer(bearerToken, notification.getEndpointProperties().getTargetUrl(), encodedPayload)) {
                     handledMessageDetails.httpStatus = response.getStatus();
+                } catch (WebApplicationException e) {
+                    authenticationLoader.evictIfRejected(notification.getOrgId(), notification.getAuthentication(), e);
+                    throw e;
                 }
             } else if (SECRET_TOKEN == authenticationResultOptional.get().authenticationType) {
                 final String insightToken = authenticationResultOptional.get().password;
                 try (Response response = webhookRestClient.postWithInsightToken(insightToken, notification.getEndpointProperties().getTargetUrl(), encodedPayload)) {
                     handledMessageDetails.httpStatus = response.getStatus();
+                } catch (WebApplicationException e) {
+                    authenticationLoader.evictIfRejected(notification.getOrgId(), notification.getAuthentication(), e);
+                    throw e;
                 }
             } else {
                 throw new RuntimeException("Unsupported authentication type: " + authenticationResultOptional.get().authenticationType);
@@ -0,0 +1,86 @@
+-- Change feed polled by the engine to invalidate its in-memory endpoint routing index.
+-- A NULL org_id means that the change affects all orgs (default behavior groups endpoints).
+-- A NULL event_type_id means that the change affects all event types.
+CREATE TABLE endpoint_routing_change_log (
+    id BIGSERIAL PRIMARY KEY,
+    org_id VARCHAR(50),
+    event_type_id UUID,
+    created TIMESTAMP NOT NULL DEFAULT (NOW() AT TIME ZONE 'utc')
+);
+
+CREATE INDEX ix_endpoint_routing_change_log_created ON endpoint_routing_change_log (created);
+
+-- Endpoints linked to or unlinked from an event type, usually because of a behavior group change.
+CREATE FUNCTION log_endpoint_event_type_change() RETURNS TRIGGER AS $$
+DECLARE
+    changed_endpoint_id UUID;
+    changed_event_type_id UUID;
+BEGIN
+    IF (TG_OP = 'DELETE') THEN
+        changed_endpoint_id := OLD.endpoint_id;
+        changed_event_type_id := OLD.event_type_id;
+    ELSE
+        changed_endpoint_id := NEW.endpoint_id;
+        changed_event_type_id := NEW.event_type_id;
+    END IF;
+    -- If the endpoint is being deleted, the endpoints trigger below already logged the change.
+    INSERT INTO endpoint_routing_change_log (org_id, event_type_id)
+        SELECT org_id, changed_event_type_id FROM endpoints WHERE id = changed_endpoint_id;
+    RETURN NULL;
+END
+$$ LANGUAGE PLPGSQL;
+
+CREATE TRIGGER endpoint_event_type_routing_change
+    AFTER INSERT OR DELETE ON endpoint_event_type
+    FOR EACH ROW EXECUTE PROCEDURE log_endpoint_event_type_change();
+
+-- Endpoints updated or deleted. The server errors counters are not part of the columns list on purpose, they are updated
+-- very frequently and they don't have any impact on the routing.
+CREATE FUNCTION log_endpoint_change() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO endpoint_routing_change_log (org_id, event_type_id) VALUES (OLD.org_id, NULL);
+    RETURN NULL;
+END
+$$ LANGUAGE PLPGSQL;
+
+CREATE TRIGGER endpoints_routing_change
+    AFTER UPDATE OF org_id, name, description, enabled, status, endpoint_type_v2, endpoint_sub_type OR DELETE ON endpoints
+    FOR EACH ROW EXECUTE PROCEDURE log_endpoint_change();
+
+-- Endpoints properties created, updated or deleted. The properties share their id with the endpoint they belong to.
+CREATE FUNCTION log_endpoint_properties_change() RETURNS TRIGGER AS $$
+DECLARE
+    changed_endpoint_id UUID;
+BEGIN
+    IF (TG_OP = 'DELETE') THEN
+        changed_endpoint_id := OLD.id;
+    ELSE
+        changed_endpoint_id := NEW.id;
+    END IF;
+    INSERT INTO endpoint_routing_change_log (org_id, event_type_id)
+        SELECT org_id, NULL FROM endpoints WHERE id = changed_endpoint_id;
+    RETURN NULL;
+END
+$$ LANGUAGE PLPGSQL;
+
+CREATE TRIGGER endpoint_webhooks_routing_change
+    AFTER INSERT OR UPDATE OR DELETE ON endpoint_webhooks
+    FOR EACH ROW EXECUTE PROCEDURE log_endpoint_properties_change();
+
+CREATE TRIGGER camel_properties_routing_change
+    AFTER INSERT OR UPDATE OR DELETE ON camel_properties
+    FOR EACH ROW EXECUTE PROCEDURE log_endpoint_properties_change();
+
+CREATE TRIGGER pagerduty_properties_routing_change
+    AFTER INSERT OR UPDATE OR DELETE ON pagerduty_properties
+    FOR EACH ROW EXECUTE PROCEDURE log_endpoint_properties_change();
+
+CREATE TRIGGER email_properties_routing_change
+    AFTER INSERT OR UPDATE OR DELETE ON email_properties
+    FOR EACH ROW EXECUTE PROCEDURE log_endpoint_properties_change();
+
+CREATE PROCEDURE cleanEndpointRoutingChangeLog() AS $$
+BEGIN
+    DELETE FROM endpoint_routing_change_log WHERE created < (NOW() AT TIME ZONE 'utc') - INTERVAL '1 day';
+END
+$$ LANGUAGE PLPGSQL;
@@ -0,0 +1,2 @@
+-- Matches the (created, id) order of the event log so that the cursor pagination seeks its position in the index.
+CREATE INDEX ix_event_org_id_created_id ON event (org_id, created DESC, id) INCLUDE (has_authorization_criterion);
@@ -0,0 +1,102 @@
+-- The event_deduplication table is range-partitioned by week of delete_after, so that the expired entries are removed
+-- by dropping whole partitions instead of deleting rows. The partitions are created ahead of time and dropped by the
+-- cleanEventDeduplication procedure, which is executed from an OpenShift CronJob.
+-- A partitioned table can only enforce the uniqueness of keys which contain the partition key, so the primary key
+-- includes delete_after. The uniqueness of (event_type_id, deduplication_key) across partitions is enforced by the
+-- insertEventDeduplication function.
+
+ALTER TABLE event_deduplication RENAME TO event_deduplication_old;
+ALTER TABLE event_deduplication_old RENAME CONSTRAINT pk_event_deduplication TO pk_event_deduplication_old;
+ALTER TABLE event_deduplication_old RENAME CONSTRAINT fk_event_deduplication_event_type_id TO fk_event_deduplication_old_event_type_id;
+DROP INDEX ix_event_deduplication_delete_after;
+
+CREATE TABLE event_deduplication (
+    event_type_id UUID NOT NULL,
+    deduplication_key TEXT NOT NULL,
+    delete_after TIMESTAMP NOT NULL,
+    CONSTRAINT pk_event_deduplication PRIMARY KEY (event_type_id, deduplication_key, delete_after),
+    CONSTRAINT fk_event_deduplication_event_type_id FOREIGN KEY (event_type_id) REFERENCES event_type(id) ON DELETE CASCADE
+) PARTITION BY RANGE (delete_after);
+
+-- Entries which don't belong to any weekly partition, e.g. because of an event timestamp far in the past or in the future.
+CREATE TABLE event_deduplication_default PARTITION OF event_deduplication DEFAULT;
+
+-- Creates the weekly partitions, from the week of reference_time to weeks_ahead weeks later. The entries of a new
+-- partition which were stored in the default partition are moved to the new partition.
+CREATE PROCEDURE createEventDeduplicationPartitions(reference_time TIMESTAMP DEFAULT (NOW() AT TIME ZONE 'UTC'), weeks_ahead INTEGER DEFAULT 8) AS $$
+DECLARE
+    partition_start TIMESTAMP;
+    partition_end TIMESTAMP;
+    partition_name TEXT;
+BEGIN
+    FOR week IN 0..weeks_ahead LOOP
+        partition_start := date_trunc('week', reference_time) + week * INTERVAL '1 week';
+        partition_end := partition_start + INTERVAL '1 week';
+        partition_name := 'event_deduplication_p' || to_char(partition_start, 'YYYYMMDD');
+        IF to_regclass(partition_name) IS NULL THEN
+            -- Prevents inserts into the default partition until the new partition is attached.
+            LOCK TABLE event_deduplication_default IN ACCESS EXCLUSIVE MODE;
+            EXECUTE format('CREATE TABLE %I (LIKE event_deduplication INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name);
+            EXECUTE format('INSERT INTO %I SELECT * FROM event_deduplication_default WHERE delete_after >= %L AND delete_after < %L',
+                partition_name, partition_start, partition_end);
+            DELETE FROM event_deduplication_default WHERE delete_after >= partition_start AND delete_after < partition_end;
+            EXECUTE format('ALTER TABLE event_deduplication ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                partition_name, partition_start, partition_end);
+            RAISE INFO '% Event deduplication partition % created.', NOW(), partition_name;
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE PLPGSQL;
+
+CALL createEventDeduplicationPartitions();
+
+INSERT INTO event_deduplication SELECT event_type_id, deduplication_key, delete_after FROM event_deduplication_old;
+DROP TABLE event_deduplication_old;
+
+-- Inserts a deduplication entry unless the key is already known, whatever the partition of the existing entry.
+-- Returns true if the entry was inserted.
+CREATE FUNCTION insertEventDeduplication(new_event_type_id UUID, new_deduplication_key TEXT, new_delete_after TIMESTAMP) RETURNS BOOLEAN AS $$
+BEGIN
+    -- Serializes the inserts of a key until the end of the transaction, so that two entries of the same key with
+    -- different delete_after values can't be inserted concurrently.
+    PERFORM pg_advisory_xact_lock(hashtextextended(new_event_type_id::TEXT || ':' || new_deduplication_key, 0));
+    IF EXISTS (SELECT 1 FROM event_deduplication WHERE event_type_id = new_event_type_id AND deduplication_key = new_deduplication_key) THEN
+        RETURN FALSE;
+    END IF;
+    INSERT INTO event_deduplication(event_type_id, deduplication_key, delete_after)
+        VALUES (new_event_type_id, new_deduplication_key, new_delete_after)
+        ON CONFLICT DO NOTHING;
+    RETURN FOUND;
+END;
+$$ LANGUAGE PLPGSQL;
+
+-- The procedure now takes an optional reference time, the existing one has to be dropped to avoid an ambiguous call.
+DROP PROCEDURE cleanEventDeduplication();
+
+-- This stored procedure drops the event deduplication partitions which only contain entries that are no longer needed,
+-- deletes the expired entries from the default partition and creates the next partitions.
+-- It is executed from an OpenShift CronJob.
+CREATE PROCEDURE cleanEventDeduplication(reference_time TIMESTAMP DEFAULT (NOW() AT TIME ZONE 'UTC')) AS $$
+DECLARE
+    expired_partition TEXT;
+    deleted INTEGER;
+BEGIN
+    RAISE INFO '% Event deduplication purge starting. All entries with a delete_after timestamp before % will be deleted.', NOW(), reference_time;
+    FOR expired_partition IN
+        SELECT child.relname
+        FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.relname = 'event_deduplication'
+        AND child.relname ~ '^event_deduplication_p[0-9]{8}$'
+        AND to_date(right(child.relname, 8), 'YYYYMMDD') + INTERVAL '1 week' <= reference_time
+    LOOP
+        EXECUTE format('DROP TABLE %I', expired_partition);
+        RAISE INFO '% Event deduplication partition % dropped.', NOW(), expired_partition;
+    END LOOP;
+    DELETE FROM event_deduplication_default WHERE reference_time > delete_after;
+    GET DIAGNOSTICS deleted = ROW_COUNT;
+    RAISE INFO '% Event deduplication purge ended. % entries were deleted from the default partition.', NOW(), deleted;
+    CALL createEventDeduplicationPartitions(reference_time);
+END;
+$$ LANGUAGE PLPGSQL;
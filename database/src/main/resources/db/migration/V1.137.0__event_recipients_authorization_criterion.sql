@@ -0,0 +1,3 @@
+-- The criterion is extracted from the payload at ingress, so that the backend doesn't need to parse the payload again.
+-- It remains NULL for the events persisted before this migration.
+ALTER TABLE event ADD COLUMN recipients_authorization_criterion JSONB;
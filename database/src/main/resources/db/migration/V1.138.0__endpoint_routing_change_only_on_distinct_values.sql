@@ -0,0 +1,21 @@
+-- The engine sets the enabled column in the same statement that increments the server errors counter of an endpoint,
+-- even when the endpoint stays enabled. An UPDATE OF trigger fires whenever one of its columns is a SET target, so the
+-- updates are now only logged when one of the routing columns actually changes. A WHEN condition can't reference NEW
+-- in a DELETE trigger, which is why the deletions are logged by a separate trigger.
+DROP TRIGGER endpoints_routing_change ON endpoints;
+
+CREATE TRIGGER endpoints_routing_change
+    AFTER UPDATE OF org_id, name, description, enabled, status, endpoint_type_v2, endpoint_sub_type ON endpoints
+    FOR EACH ROW
+    WHEN (OLD.org_id IS DISTINCT FROM NEW.org_id
+        OR OLD.name IS DISTINCT FROM NEW.name
+        OR OLD.description IS DISTINCT FROM NEW.description
+        OR OLD.enabled IS DISTINCT FROM NEW.enabled
+        OR OLD.status IS DISTINCT FROM NEW.status
+        OR OLD.endpoint_type_v2 IS DISTINCT FROM NEW.endpoint_type_v2
+        OR OLD.endpoint_sub_type IS DISTINCT FROM NEW.endpoint_sub_type)
+    EXECUTE PROCEDURE log_endpoint_change();
+
+CREATE TRIGGER endpoints_routing_delete
+    AFTER DELETE ON endpoints
+    FOR EACH ROW EXECUTE PROCEDURE log_endpoint_change();
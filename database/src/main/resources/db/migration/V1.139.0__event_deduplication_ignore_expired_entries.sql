@@ -0,0 +1,19 @@
+-- The expired entries used to be deleted by the cleanEventDeduplication procedure every 6 hours. Since the table is
+-- partitioned by week, they are only removed when their partition is dropped, up to a week after their delete_after
+-- date. They are now ignored as soon as they expire, so that a key isn't considered a duplicate for longer than
+-- before the partitioning.
+CREATE OR REPLACE FUNCTION insertEventDeduplication(new_event_type_id UUID, new_deduplication_key TEXT, new_delete_after TIMESTAMP) RETURNS BOOLEAN AS $$
+BEGIN
+    -- Serializes the inserts of a key until the end of the transaction, so that two entries of the same key with
+    -- different delete_after values can't be inserted concurrently.
+    PERFORM pg_advisory_xact_lock(hashtextextended(new_event_type_id::TEXT || ':' || new_deduplication_key, 0));
+    IF EXISTS (SELECT 1 FROM event_deduplication WHERE event_type_id = new_event_type_id AND deduplication_key = new_deduplication_key
+            AND delete_after > (NOW() AT TIME ZONE 'UTC')) THEN
+        RETURN FALSE;
+    END IF;
+    INSERT INTO event_deduplication(event_type_id, deduplication_key, delete_after)
+        VALUES (new_event_type_id, new_deduplication_key, new_delete_after)
+        ON CONFLICT DO NOTHING;
+    RETURN FOUND;
+END;
+$$ LANGUAGE PLPGSQL;
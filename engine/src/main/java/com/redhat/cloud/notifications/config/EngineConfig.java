@@ -25,16 +25,18 @@ public class EngineConfig {
      */
     private static final String DEFAULT_TEMPLATE = "notifications.use-default-template";
     private static final String EMAILS_ONLY_MODE = "notifications.emails-only-mode.enabled";
-    private static final String EVENT_CONSUMER_CORE_THREAD_POOL_SIZE = "notifications.event-consumer.core-thread-pool-size";
-    private static final String EVENT_CONSUMER_MAX_THREAD_POOL_SIZE = "notifications.event-consumer.max-thread-pool-size";
-    private static final String EVENT_CONSUMER_KEEP_ALIVE_TIME_SECONDS = "notifications.event-consumer.keep-alive-time-seconds";
-    private static final String EVENT_CONSUMER_QUEUE_CAPACITY = "notifications.event-consumer.queue-capacity";
+    private static final String EVENT_CONSUMER_LANES = "notifications.event-consumer.lanes";
+    private static final String EVENT_CONSUMER_LANE_CAPACITY = "notifications.event-consumer.lane-capacity";
+    private static final String EVENT_CONSUMER_MAX_IN_FLIGHT = "notifications.event-consumer.max-in-flight";
+    private static final String EVENT_CONSUMER_DRAIN_TIMEOUT = "notifications.event-consumer.drain-timeout";
     private static final String SECURED_EMAIL_TEMPLATES = "notifications.use-secured-email-templates.enabled";
     private static final String NOTIFICATIONS_KAFKA_OUTGOING_HIGH_VOLUME_TOPIC_ENABLED = "notifications.kafka.outgoing.high-volume.topic.enabled";
     private static final String KAFKA_TOCAMEL_MAXIMUM_REQUEST_SIZE = "mp.messaging.outgoing.tocamel.max.request.size";
     private static final String UNLEASH = "notifications.unleash.enabled";
     private static final String PROCESSOR_CONNECTORS_MAX_SERVER_ERRORS = "processor.connectors.max-server-errors";
     private static final String PROCESSOR_CONNECTORS_MIN_DELAY_SINCE_FIRST_SERVER_ERROR = "processor.connectors.min-delay-since-first-server-error";
+    private static final String PROCESSOR_CONNECTORS_SERVER_ERRORS_COALESCING = "processor.connectors.server-errors-coalescing.enabled";
+    private static final String PROCESSOR_ENDPOINT_TYPES_PARALLEL_DISPATCH = "processor.endpoint-types.parallel-dispatch.enabled";
     private static final String IN_MEMORY_DB_ENABLED = "in-memory-db.enabled";
 
     /**
@@ -66,6 +68,7 @@ public class EngineConfig {
     private String toggleSkipProcessingMessagesOnReplayService;
     private String toggleSubscriptionsDeduplicationWillBeNotified;
     private String normalizedQueriesToggle;
+    private String endpointRoutingIndexToggle;
 
     @ConfigProperty(name = UNLEASH, defaultValue = "false")
     @Deprecated(forRemoval = true, since = "To be removed when we're done migrating to Unleash in all environments")
@@ -107,17 +110,17 @@ public class EngineConfig {
     @ConfigProperty(name = EMAILS_ONLY_MODE, defaultValue = "false")
     boolean emailsOnlyModeEnabled;
 
-    @ConfigProperty(name = EVENT_CONSUMER_CORE_THREAD_POOL_SIZE, defaultValue = "10")
-    int eventConsumerCoreThreadPoolSize;
+    @ConfigProperty(name = EVENT_CONSUMER_LANES, defaultValue = "64")
+    int eventConsumerLanes;
 
-    @ConfigProperty(name = EVENT_CONSUMER_MAX_THREAD_POOL_SIZE, defaultValue = "10")
-    int eventConsumerMaxThreadPoolSize;
+    @ConfigProperty(name = EVENT_CONSUMER_LANE_CAPACITY, defaultValue = "5")
+    int eventConsumerLaneCapacity;
 
-    @ConfigProperty(name = EVENT_CONSUMER_KEEP_ALIVE_TIME_SECONDS, defaultValue = "60")
-    long eventConsumerKeepAliveTimeSeconds;
+    @ConfigProperty(name = EVENT_CONSUMER_MAX_IN_FLIGHT, defaultValue = "20")
+    int eventConsumerMaxInFlight;
 
-    @ConfigProperty(name = EVENT_CONSUMER_QUEUE_CAPACITY, defaultValue = "1")
-    int eventConsumerQueueCapacity;
+    @ConfigProperty(name = EVENT_CONSUMER_DRAIN_TIMEOUT, defaultValue = "30S")
+    Duration eventConsumerDrainTimeout;
 
     // Only used in special environments.
     @ConfigProperty(name = SECURED_EMAIL_TEMPLATES, defaultValue = "false")
@@ -129,6 +132,12 @@ public class EngineConfig {
     @ConfigProperty(name = PROCESSOR_CONNECTORS_MIN_DELAY_SINCE_FIRST_SERVER_ERROR, defaultValue = "2D")
     Duration minDelaySinceFirstServerErrorBeforeDisabling;
 
+    @ConfigProperty(name = PROCESSOR_CONNECTORS_SERVER_ERRORS_COALESCING, defaultValue = "false")
+    boolean serverErrorsCoalescingEnabled;
+
+    @ConfigProperty(name = PROCESSOR_ENDPOINT_TYPES_PARALLEL_DISPATCH, defaultValue = "false")
+    boolean endpointTypesParallelDispatchEnabled;
+
     @ConfigProperty(name = KAFKA_TOCAMEL_MAXIMUM_REQUEST_SIZE, defaultValue = "10485760")
     int kafkaToCamelMaximumRequestSize;
 
@@ -180,6 +189,7 @@ public class EngineConfig {
         toggleSkipProcessingMessagesOnReplayService = toggleRegistry.register("skip-processing-on-replay-service", true);
         toggleSubscriptionsDeduplicationWillBeNotified = toggleRegistry.register("subscriptions-deduplication-will-be-notified", true);
         normalizedQueriesToggle = toggleRegistry.register("normalized-queries", true);
+        endpointRoutingIndexToggle = toggleRegistry.register("endpoint-routing-index", true);
     }
 
     void logConfigAtStartup(@Observes Startup event) {
@@ -188,18 +198,21 @@ public class EngineConfig {
         config.put(asyncAggregationToggle, isAsyncAggregationEnabled());
         config.put(DEFAULT_TEMPLATE, isDefaultTemplateEnabled());
         config.put(drawerToggle, isDrawerEnabled(null));
+        config.put(endpointRoutingIndexToggle, isEndpointRoutingIndexEnabled());
         config.put(exportServiceHccClusterToggle, isExportServiceHccClusterEnabled(null));
         config.put(EMAILS_ONLY_MODE, isEmailsOnlyModeEnabled());
-        config.put(EVENT_CONSUMER_CORE_THREAD_POOL_SIZE, eventConsumerCoreThreadPoolSize);
-        config.put(EVENT_CONSUMER_MAX_THREAD_POOL_SIZE, eventConsumerMaxThreadPoolSize);
-        config.put(EVENT_CONSUMER_KEEP_ALIVE_TIME_SECONDS, eventConsumerKeepAliveTimeSeconds);
-        config.put(EVENT_CONSUMER_QUEUE_CAPACITY, eventConsumerQueueCapacity);
+        config.put(EVENT_CONSUMER_LANES, eventConsumerLanes);
+        config.put(EVENT_CONSUMER_LANE_CAPACITY, eventConsumerLaneCapacity);
+        config.put(EVENT_CONSUMER_MAX_IN_FLIGHT, eventConsumerMaxInFlight);
+        config.put(EVENT_CONSUMER_DRAIN_TIMEOUT, eventConsumerDrainTimeout);
         config.put(kafkaConsumedTotalCheckerToggle, isKafkaConsumedTotalCheckerEnabled());
         config.put(KAFKA_TOCAMEL_MAXIMUM_REQUEST_SIZE, getKafkaToCamelMaximumRequestSize());
         config.put(SECURED_EMAIL_TEMPLATES, isSecuredEmailTemplatesEnabled());
         config.put(UNLEASH, unleashEnabled);
         config.put(PROCESSOR_CONNECTORS_MAX_SERVER_ERRORS, maxServerErrors);
         config.put(PROCESSOR_CONNECTORS_MIN_DELAY_SINCE_FIRST_SERVER_ERROR, minDelaySinceFirstServerErrorBeforeDisabling);
+        config.put(PROCESSOR_CONNECTORS_SERVER_ERRORS_COALESCING, serverErrorsCoalescingEnabled);
+        config.put(PROCESSOR_ENDPOINT_TYPES_PARALLEL_DISPATCH, endpointTypesParallelDispatchEnabled);
         config.put(NOTIFICATIONS_EMAIL_SENDER_HYBRID_CLOUD_CONSOLE, rhHccSender);
         config.put(NOTIFICATIONS_EMAIL_SENDER_OPENSHIFT_STAGE, rhOpenshiftSenderStage);
         config.put(NOTIFICATIONS_EMAIL_SENDER_OPENSHIFT_PROD, rhOpenshiftSenderProd);
@@ -251,20 +264,20 @@ public class EngineConfig {
         return emailsOnlyModeEnabled;
     }
 
-    public int getEventConsumerCoreThreadPoolSize() {
-        return eventConsumerCoreThreadPoolSize;
+    public int getEventConsumerLanes() {
+        return eventConsumerLanes;
     }
 
-    public int getEventConsumerMaxThreadPoolSize() {
-        return eventConsumerMaxThreadPoolSize;
+    public int getEventConsumerLaneCapacity() {
+        return eventConsumerLaneCapacity;
     }
 
-    public long getEventConsumerKeepAliveTimeSeconds() {
-        return eventConsumerKeepAliveTimeSeconds;
+    public int getEventConsumerMaxInFlight() {
+        return eventConsumerMaxInFlight;
     }
 
-    public int getEventConsumerQueueCapacity() {
-        return eventConsumerQueueCapacity;
+    public Duration getEventConsumerDrainTimeout() {
+        return eventConsumerDrainTimeout;
     }
 
     public boolean isKafkaConsumedTotalCheckerEnabled() {
@@ -319,6 +332,14 @@ public class EngineConfig {
         return minDelaySinceFirstServerErrorBeforeDisabling;
     }
 
+    public boolean isServerErrorsCoalescingEnabled() {
+        return serverErrorsCoalescingEnabled;
+    }
+
+    public boolean isEndpointTypesParallelDispatchEnabled() {
+        return endpointTypesParallelDispatchEnabled;
+    }
+
     public String getRhHccSender() {
         return rhHccSender;
     }
@@ -399,6 +420,14 @@ public class EngineConfig {
         }
     }
 
+    public boolean isEndpointRoutingIndexEnabled() {
+        if (unleashEnabled) {
+            return unleash.isEnabled(endpointRoutingIndexToggle, false);
+        } else {
+            return false;
+        }
+    }
+
     public boolean isInMemoryDbEnabled() {
         return inMemoryDbEnabled;
     }
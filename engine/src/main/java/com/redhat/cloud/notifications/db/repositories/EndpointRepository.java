@@ -1,6 +1,7 @@
 package com.redhat.cloud.notifications.db.repositories;
 
 import com.redhat.cloud.notifications.config.EngineConfig;
+import com.redhat.cloud.notifications.events.EndpointRoutingChange;
 import com.redhat.cloud.notifications.models.CamelProperties;
 import com.redhat.cloud.notifications.models.CompositeEndpointType;
 import com.redhat.cloud.notifications.models.Endpoint;
@@ -18,7 +19,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.transaction.Transactional;
 
-import java.time.Duration;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
@@ -39,7 +40,6 @@ import static com.redhat.cloud.notifications.models.EndpointType.DRAWER;
 import static com.redhat.cloud.notifications.models.EndpointType.EMAIL_SUBSCRIPTION;
 import static com.redhat.cloud.notifications.models.EndpointType.PAGERDUTY;
 import static com.redhat.cloud.notifications.models.EndpointType.WEBHOOK;
-import static jakarta.persistence.LockModeType.PESSIMISTIC_WRITE;
 
 @ApplicationScoped
 public class EndpointRepository {
@@ -58,21 +58,23 @@ public class EndpointRepository {
      * event log. The recipients of the current email or drawer action have already been resolved before this step, possibly from
      * multiple endpoints and recipients settings. The properties created below have no impact on the resolution of the
      * action recipients.
+     * <p>
+     * Concurrent threads or pods may try to create the same endpoint. The creation is serialized by a transaction-level
+     * advisory lock on the org and endpoint type, then the lookup is repeated while the lock is held: it finds the
+     * endpoint created by the previous lock holder, if any, so the endpoint is never created twice.
      */
     @Transactional
     public Endpoint getOrCreateDefaultSystemSubscription(String accountId, String orgId, EndpointType endpointType) {
-        String query = "FROM Endpoint WHERE orgId = :orgId AND compositeType.type = :endpointType";
-        List<Endpoint> systemEndpoints = entityManager.createQuery(query, Endpoint.class)
-            .setParameter("orgId", orgId)
-            .setParameter("endpointType", endpointType)
-            .getResultList();
-        loadProperties(systemEndpoints);
-
         SystemSubscriptionProperties properties = new SystemSubscriptionProperties();
-        Optional<Endpoint> endpointOptional = systemEndpoints
-            .stream()
-            .filter(endpoint -> properties.hasSameProperties(endpoint.getProperties(SystemSubscriptionProperties.class)))
-            .findFirst();
+        Optional<Endpoint> endpointOptional = findDefaultSystemSubscription(orgId, endpointType, properties);
+        if (endpointOptional.isPresent()) {
+            return endpointOptional.get();
+        }
+
+        entityManager.createNativeQuery("SELECT COUNT(*) FROM pg_advisory_xact_lock(hashtextextended(:lockKey, 0))")
+            .setParameter("lockKey", "system-endpoint:" + orgId + ":" + endpointType.name())
+            .getSingleResult();
+        endpointOptional = findDefaultSystemSubscription(orgId, endpointType, properties);
         if (endpointOptional.isPresent()) {
             return endpointOptional.get();
         }
@@ -103,6 +105,20 @@ public class EndpointRepository {
         return endpoint;
     }
 
+    private Optional<Endpoint> findDefaultSystemSubscription(String orgId, EndpointType endpointType, SystemSubscriptionProperties properties) {
+        String query = "FROM Endpoint WHERE orgId = :orgId AND compositeType.type = :endpointType";
+        List<Endpoint> systemEndpoints = entityManager.createQuery(query, Endpoint.class)
+            .setParameter("orgId", orgId)
+            .setParameter("endpointType", endpointType)
+            .getResultList();
+        loadProperties(systemEndpoints);
+
+        return systemEndpoints
+            .stream()
+            .filter(endpoint -> properties.hasSameProperties(endpoint.getProperties(SystemSubscriptionProperties.class)))
+            .findFirst();
+    }
+
     public List<Endpoint> getTargetEndpointsWithoutUsingBgs(String orgId, EventType eventType) {
         final String query = "SELECT DISTINCT e FROM Endpoint e, EndpointEventType eet " +
             "WHERE e = eet.endpoint AND eet.eventType = :eventType AND (e.orgId = :orgId OR e.orgId IS NULL) AND e.enabled IS TRUE AND e.status = :status";
@@ -125,6 +141,32 @@ public class EndpointRepository {
         return endpoints;
     }
 
+    /**
+     * Returns the changes recorded by the DB triggers that may have modified the result of
+     * {@link #getTargetEndpointsWithoutUsingBgs(String, EventType)} since the given date.
+     * @param since the lower bound (inclusive) of the changes creation date, in UTC
+     * @return the changes, in no particular order
+     */
+    public List<EndpointRoutingChange> findRoutingChangesSince(LocalDateTime since) {
+        String query = "SELECT id, org_id, event_type_id, created FROM endpoint_routing_change_log WHERE created >= :since";
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(query)
+            .setParameter("since", since)
+            .getResultList();
+
+        List<EndpointRoutingChange> changes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            changes.add(new EndpointRoutingChange(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                (UUID) row[2],
+                ((Timestamp) row[3]).toLocalDateTime()
+            ));
+        }
+        return changes;
+    }
+
     @CacheResult(cacheName = "aggregation-target-email-subscription-endpoints")
     public List<Endpoint> getTargetEmailSubscriptionEndpoints(String orgId, UUID eventTypeId) {
         String query = "SELECT DISTINCT e FROM Endpoint e JOIN e.behaviorGroupActions bga JOIN bga.behaviorGroup.behaviors b " +
@@ -153,76 +195,41 @@ public class EndpointRepository {
         /*
          * This method must be an atomic operation from a DB perspective. Otherwise, we could send multiple email
          * notifications about the same disabled endpoint in case of failures happening on concurrent threads or pods.
-         */
-        Optional<Endpoint> endpointOptional = this.lockEndpoint(endpointId);
-        if (endpointOptional.isEmpty()) {
-            return false;
-        }
-
-        // Disabled endpoints should not see their "server errors" increased.
-        final Endpoint endpoint = endpointOptional.get();
-        if (!endpoint.isEnabled()) {
-            return false;
-        }
-
-        // Email and Drawer endpoints should not be disabled since they are considered
-        // internal.
-        if (INTERNAL_ENDPOINT_TYPES.contains(endpoint.getType())) {
-            return false;
-        }
-
-        /*
-         * The endpoint should always be present unless it's been deleted recently from another thread or pod.
-         * It may or may not have been disabled already from the frontend or because of a 4xx error.
+         * The endpoint row is read and updated by a single statement, so it is only locked while that statement runs.
+         * A concurrent statement waiting for the row lock evaluates the WHERE clause again against the updated row,
+         * which is why only one of them can see the endpoint switch from enabled to disabled.
+         *
+         * Disabled endpoints should not see their "server errors" increased and email and drawer endpoints should not
+         * be disabled since they are considered internal: neither are matched by the statement.
+         *
+         * If the endpoint exceeded the max server errors allowed from configuration and a reasonable duration was
+         * respected since its first server error to give a chance to customers to fix the issue, it is disabled and
+         * its counter is left unchanged. Otherwise, the errors counter is incremented. The initial error date is set
+         * when the counter was 0, or when it is missing because the endpoint already had some errors before that
+         * mechanism was introduced.
+         *
+         * The enabled column is set even when its value doesn't change. The routing change trigger of the endpoints
+         * table only logs the updates which change a routing column, so the routing index of the engine pods is only
+         * invalidated when the endpoint is disabled.
          */
         final LocalDateTime currentTime = LocalDateTime.now(ZoneId.of("UTC"));
-
-        if (endpoint.getServerErrors() + currentServerErrors > this.engineConfig.getMaxServerErrors()) {
-            if (endpoint.getServerErrorsSince() != null) {
-                final Duration spentDuration = Duration.between(endpoint.getServerErrorsSince(), currentTime);
-                if (spentDuration.compareTo(this.engineConfig.getMinDelaySinceFirstServerErrorBeforeDisabling()) > 0) {
-                    /*
-                     * The endpoint exceeded the max server errors allowed from configuration
-                     * and a reasonable duration was respected to give a chance to customers to fix the issue,
-                     * it is therefore disabled.
-                     */
-                    final String hql = "UPDATE Endpoint SET enabled = FALSE WHERE id = :id AND enabled IS TRUE";
-                    final int updated = entityManager.createQuery(hql)
-                        .setParameter("id", endpointId)
-                        .executeUpdate();
-                    return updated > 0;
-                }
-            }
-        }
-
-        /*
-         * The endpoint did NOT exceed the max server errors allowed from configuration.
-         * The errors counter is therefore incremented.
-         */
-        if (endpoint.getServerErrors() == 0) {
-            final String hql = "UPDATE Endpoint SET serverErrors = serverErrors + :currentServerErrors, serverErrorsSince = :currentDate WHERE id = :id";
-            entityManager.createQuery(hql)
+        final String disableCondition = "server_errors + :currentServerErrors > :maxServerErrors AND server_errors_since < :disableBefore";
+        final String sql = "UPDATE endpoints SET " +
+                "enabled = CASE WHEN " + disableCondition + " THEN FALSE ELSE enabled END, " +
+                "server_errors = CASE WHEN " + disableCondition + " THEN server_errors ELSE server_errors + :currentServerErrors END, " +
+                "server_errors_since = CASE WHEN " + disableCondition + " THEN server_errors_since " +
+                    "WHEN server_errors = 0 OR server_errors_since IS NULL THEN :currentDate ELSE server_errors_since END " +
+                "WHERE id = :id AND enabled IS TRUE AND endpoint_type_v2 NOT IN (:internalTypes) " +
+                "RETURNING enabled";
+        final List<?> enabled = entityManager.createNativeQuery(sql)
                 .setParameter("currentServerErrors", currentServerErrors)
+                .setParameter("maxServerErrors", this.engineConfig.getMaxServerErrors())
+                .setParameter("disableBefore", currentTime.minus(this.engineConfig.getMinDelaySinceFirstServerErrorBeforeDisabling()))
                 .setParameter("currentDate", currentTime)
                 .setParameter("id", endpointId)
-                .executeUpdate();
-        } else if (endpoint.getServerErrorsSince() == null) {
-            // this case it to cover migration phase, when an endpoint already had some errors before introducing initial error date mechanism
-            final String hql = "UPDATE Endpoint SET serverErrors = serverErrors + :currentServerErrors, serverErrorsSince = :currentDate WHERE id = :id";
-            entityManager.createQuery(hql)
-                .setParameter("currentServerErrors", currentServerErrors)
-                .setParameter("currentDate", currentTime)
-                .setParameter("id", endpointId)
-                .executeUpdate();
-        } else {
-            final String hql = "UPDATE Endpoint SET serverErrors = serverErrors + :currentServerErrors WHERE id = :id";
-            entityManager.createQuery(hql)
-                .setParameter("currentServerErrors", currentServerErrors)
-                .setParameter("id", endpointId)
-                .executeUpdate();
-        }
-
-        return false;
+                .setParameter("internalTypes", INTERNAL_ENDPOINT_TYPES.stream().map(EndpointType::name).toList())
+                .getResultList();
+        return !enabled.isEmpty() && Boolean.FALSE.equals(enabled.getFirst());
     }
 
     /**
@@ -264,23 +271,6 @@ public class EndpointRepository {
         return endpoint;
     }
 
-    private Optional<Endpoint> lockEndpoint(UUID endpointId) {
-        String hql = "FROM Endpoint WHERE id = :id";
-        try {
-            Endpoint endpoint = entityManager.createQuery(hql, Endpoint.class)
-                    .setParameter("id", endpointId)
-                    /*
-                     * The endpoint will be locked by a "SELECT FOR UPDATE", preventing other threads or pods
-                     * from updating it until the current transaction is complete.
-                     */
-                    .setLockMode(PESSIMISTIC_WRITE)
-                    .getSingleResult();
-            return Optional.of(endpoint);
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
-    }
-
     /**
      * Resets the server errors DB counter of the endpoint identified by the given ID.
      * @param endpointId the endpoint ID
@@ -7,6 +7,7 @@ import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import org.hibernate.Session;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
@@ -31,6 +32,22 @@ public class EventRepository {
         return event;
     }
 
+    /**
+     * Persists several events using JDBC batching, so that they are sent to the DB with as few round trips as possible.
+     * @param events the events to persist
+     */
+    @Transactional
+    public void create(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).setJdbcBatchSize(events.size());
+        for (Event event : events) {
+            entityManager.persist(event);
+        }
+        entityManager.flush();
+    }
+
     /**
      * Finds the events related to the provided org id in order to export them.
      * It is the caller's responsibility to provide valid "from" and "to"
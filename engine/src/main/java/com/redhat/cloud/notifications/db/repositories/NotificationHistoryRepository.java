@@ -1,6 +1,7 @@
 package com.redhat.cloud.notifications.db.repositories;
 
 import com.redhat.cloud.notifications.db.converters.NotificationHistoryDetailsConverter;
+import com.redhat.cloud.notifications.events.BatchConnectorReceiver;
 import com.redhat.cloud.notifications.events.ConnectorReceiver;
 import com.redhat.cloud.notifications.models.Endpoint;
 import com.redhat.cloud.notifications.models.Event;
@@ -9,13 +10,23 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.Query;
 import jakarta.transaction.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @ApplicationScoped
 public class NotificationHistoryRepository {
 
+    // Each row is bound to 10 parameters and PostgreSQL accepts at most 65535 parameters per statement.
+    private static final int MAX_HISTORIES_PER_STATEMENT = 1000;
+
     @Inject
     EntityManager entityManager;
 
@@ -44,6 +55,47 @@ public class NotificationHistoryRepository {
                 .executeUpdate();
     }
 
+    /**
+     * Creates the given history rows with one multi-row INSERT statement per
+     * {@value #MAX_HISTORIES_PER_STATEMENT} rows. The endpoint of each row is
+     * resolved the same way as in {@link #createNotificationHistory(NotificationHistory)}.
+     */
+    @Transactional
+    public void createNotificationHistories(List<NotificationHistory> histories) {
+        if (histories.size() == 1) {
+            createNotificationHistory(histories.getFirst());
+            return;
+        }
+        for (int start = 0; start < histories.size(); start += MAX_HISTORIES_PER_STATEMENT) {
+            List<NotificationHistory> chunk = histories.subList(start, Math.min(start + MAX_HISTORIES_PER_STATEMENT, histories.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO notification_history (id, invocation_time, invocation_result, status, details, event_id, endpoint_type_v2, endpoint_sub_type, created, endpoint_id) VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(String.format("(:id%1$d, :invocationTime%1$d, :invocationResult%1$d, :status%1$d, :details%1$d, :eventId%1$d, :endpointType%1$d, :endpointSubType%1$d, :created%1$d, " +
+                        "(SELECT id FROM endpoints WHERE id = :endpointId%1$d))", i));
+            }
+            Query query = entityManager.createNativeQuery(sql.toString());
+            NotificationHistoryDetailsConverter detailsConverter = new NotificationHistoryDetailsConverter();
+            for (int i = 0; i < chunk.size(); i++) {
+                NotificationHistory history = chunk.get(i);
+                history.prePersist();
+                query.setParameter("id" + i, history.getId())
+                        .setParameter("invocationTime" + i, history.getInvocationTime())
+                        .setParameter("invocationResult" + i, history.isInvocationResult())
+                        .setParameter("status" + i, history.getStatus().toString())
+                        .setParameter("details" + i, detailsConverter.convertToDatabaseColumn(history.getDetails()))
+                        .setParameter("eventId" + i, history.getEvent().getId())
+                        .setParameter("endpointType" + i, history.getEndpointType().name())
+                        .setParameter("endpointSubType" + i, history.getEndpointSubType())
+                        .setParameter("created" + i, history.getCreated())
+                        .setParameter("endpointId" + i, history.getEndpoint().getId());
+            }
+            query.executeUpdate();
+        }
+    }
+
     /**
      * Update a stub history item with data we have received from the Camel sender
      *
@@ -64,6 +116,44 @@ public class NotificationHistoryRepository {
         return count > 0;
     }
 
+    /**
+     * Bulk variant of {@link #updateHistoryItem(NotificationHistory)}: the given history items are updated with one
+     * {@code UPDATE ... FROM (VALUES ...)} statement per {@value #MAX_HISTORIES_PER_STATEMENT} items.
+     *
+     * @return the IDs of the history items which were found and updated
+     * @see BatchConnectorReceiver
+     */
+    @Transactional
+    public Set<UUID> updateHistoryItems(List<NotificationHistory> notificationHistories) {
+        Set<UUID> updated = new HashSet<>();
+        for (int start = 0; start < notificationHistories.size(); start += MAX_HISTORIES_PER_STATEMENT) {
+            List<NotificationHistory> chunk = notificationHistories.subList(start, Math.min(start + MAX_HISTORIES_PER_STATEMENT, notificationHistories.size()));
+            StringBuilder sql = new StringBuilder("UPDATE notification_history AS nh " +
+                    "SET details = v.details, invocation_result = v.invocation_result, status = v.status, invocation_time = v.invocation_time FROM (VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(String.format("(CAST(:id%1$d AS uuid), CAST(:details%1$d AS text), CAST(:result%1$d AS boolean), CAST(:status%1$d AS varchar), CAST(:invocationTime%1$d AS integer))", i));
+            }
+            sql.append(") AS v (id, details, invocation_result, status, invocation_time) WHERE nh.id = v.id RETURNING nh.id");
+            Query query = entityManager.createNativeQuery(sql.toString());
+            NotificationHistoryDetailsConverter detailsConverter = new NotificationHistoryDetailsConverter();
+            for (int i = 0; i < chunk.size(); i++) {
+                NotificationHistory history = chunk.get(i);
+                query.setParameter("id" + i, history.getId())
+                        .setParameter("details" + i, detailsConverter.convertToDatabaseColumn(history.getDetails()))
+                        .setParameter("result" + i, history.isInvocationResult())
+                        .setParameter("status" + i, history.getStatus().toString())
+                        .setParameter("invocationTime" + i, history.getInvocationTime());
+            }
+            for (Object id : query.getResultList()) {
+                updated.add((UUID) id);
+            }
+        }
+        return updated;
+    }
+
     public Endpoint getEndpointForHistoryId(String historyId) {
 
         String query = "SELECT e from Endpoint e, NotificationHistory h WHERE h.id = :id AND e.id = h.endpoint.id";
@@ -78,6 +168,23 @@ public class NotificationHistoryRepository {
         }
     }
 
+    /**
+     * Bulk variant of {@link #getEndpointForHistoryId(String)}.
+     *
+     * @return the endpoints of the given history items, keyed by history ID. The history items whose endpoint no
+     * longer exists are not part of the map.
+     */
+    public Map<UUID, Endpoint> getEndpointsForHistoryIds(Collection<UUID> historyIds) {
+        String query = "SELECT h.id, e FROM Endpoint e, NotificationHistory h WHERE h.id IN (:ids) AND e.id = h.endpoint.id";
+        Map<UUID, Endpoint> endpoints = new HashMap<>();
+        for (Object[] row : entityManager.createQuery(query, Object[].class)
+                .setParameter("ids", historyIds)
+                .getResultList()) {
+            endpoints.put((UUID) row[0], (Endpoint) row[1]);
+        }
+        return endpoints;
+    }
+
     public Event getEventIdFromHistoryId(UUID historyId) {
 
         String query = "SELECT e from Event e, NotificationHistory h WHERE h.id = :id AND e.id = h.event.id";
@@ -0,0 +1,238 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.db.repositories.NotificationHistoryRepository;
+import com.redhat.cloud.notifications.models.Endpoint;
+import com.redhat.cloud.notifications.models.NotificationHistory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.smallrye.reactive.messaging.annotations.Blocking;
+import io.smallrye.reactive.messaging.kafka.KafkaRecordBatch;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+import static com.redhat.cloud.notifications.events.ConnectorReceiver.MESSAGES_ERROR_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.ConnectorReceiver.MESSAGES_PROCESSED_COUNTER_NAME;
+
+/**
+ * Micro-batched alternative to {@link ConnectorReceiver#processAsync(String)}. Each reply of a batch is decoded once
+ * into a {@link ConnectorReply}, then the endpoints of the whole batch are looked up with one query and the history
+ * items are updated with one statement. The endpoint errors reported by the batch are aggregated per endpoint before
+ * they are applied: consecutive server errors of an endpoint are summed into one increment, consecutive successes
+ * result in one reset and consecutive client errors in one disabling. Every reply keeps the outcome and the metrics it
+ * would get from {@link ConnectorReceiver#processAsync(String)}.
+ */
+@ApplicationScoped
+public class BatchConnectorReceiver {
+
+    public static final String FROMCAMEL_BATCH_CHANNEL = "fromcamelbatch";
+    public static final String BATCH_SIZE_SUMMARY_NAME = "camel.messages.batch.size";
+    public static final String BATCH_FALLBACK_COUNTER_NAME = "camel.messages.batch.fallback";
+
+    @Inject
+    NotificationHistoryRepository notificationHistoryRepository;
+
+    @Inject
+    EndpointErrorFromConnectorHelper endpointErrorFromConnectorHelper;
+
+    @Inject
+    MeterRegistry registry;
+
+    private DistributionSummary batchSizeSummary;
+    private Counter batchFallbackCounter;
+    private Counter messagesProcessedCounter;
+    private Counter messagesErrorCounter;
+
+    @PostConstruct
+    void init() {
+        batchSizeSummary = registry.summary(BATCH_SIZE_SUMMARY_NAME);
+        batchFallbackCounter = registry.counter(BATCH_FALLBACK_COUNTER_NAME);
+        messagesProcessedCounter = registry.counter(MESSAGES_PROCESSED_COUNTER_NAME);
+        messagesErrorCounter = registry.counter(MESSAGES_ERROR_COUNTER_NAME);
+    }
+
+    @Incoming(FROMCAMEL_BATCH_CHANNEL)
+    @Blocking
+    public CompletionStage<Void> consume(KafkaRecordBatch<String, String> records) {
+        process(records.getPayload());
+        return records.ack();
+    }
+
+    @ActivateRequestContext
+    public void process(List<String> payloads) {
+        batchSizeSummary.record(payloads.size());
+        List<ConnectorReply> replies = new ArrayList<>(payloads.size());
+
+        for (String payload : payloads) {
+            Log.infof("Processing return from camel: %s", payload);
+            try {
+                replies.add(ConnectorReply.decode(payload));
+            } catch (Exception e) {
+                messagesErrorCounter.increment();
+                messagesProcessedCounter.increment();
+                Log.error("|  Failure to update the history", e);
+            }
+        }
+
+        if (replies.isEmpty()) {
+            return;
+        }
+
+        boolean[] failures = new boolean[replies.size()];
+        Map<UUID, Endpoint> endpoints = updateHistoryItems(replies, failures);
+        applyEndpointErrorChanges(replies, endpoints, failures);
+
+        for (boolean failure : failures) {
+            if (failure) {
+                messagesErrorCounter.increment();
+            }
+            messagesProcessedCounter.increment();
+        }
+    }
+
+    /*
+     * Looks up the endpoints and updates the history items of the replies, with one statement each or one reply at a
+     * time if the batched statements failed. The replies which could not be handled are flagged in the failures array.
+     */
+    private Map<UUID, Endpoint> updateHistoryItems(List<ConnectorReply> replies, boolean[] failures) {
+        try {
+            // If a history item was updated by several replies, the last one wins, as it would with one reply at a time.
+            Map<UUID, NotificationHistory> histories = new LinkedHashMap<>();
+            for (ConnectorReply reply : replies) {
+                histories.put(reply.history().getId(), reply.history());
+            }
+            Map<UUID, Endpoint> endpoints = notificationHistoryRepository.getEndpointsForHistoryIds(histories.keySet());
+            Set<UUID> updated = notificationHistoryRepository.updateHistoryItems(new ArrayList<>(histories.values()));
+            for (UUID historyId : histories.keySet()) {
+                if (!updated.contains(historyId)) {
+                    Log.warnf("Camel notification history update failed because no record was found with [id=%s]", historyId);
+                }
+            }
+            return endpoints;
+        } catch (Exception e) {
+            // The history updates are idempotent, so each reply can safely go through the per-message path instead.
+            Log.warnf(e, "Batched history update failed, falling back to per-message processing [batchSize=%d]", replies.size());
+            batchFallbackCounter.increment();
+            Map<UUID, Endpoint> endpoints = new HashMap<>();
+            for (int i = 0; i < replies.size(); i++) {
+                NotificationHistory history = replies.get(i).history();
+                try {
+                    Endpoint endpoint = notificationHistoryRepository.getEndpointForHistoryId(history.getId().toString());
+                    if (endpoint != null) {
+                        endpoints.put(history.getId(), endpoint);
+                    }
+                    if (!notificationHistoryRepository.updateHistoryItem(history)) {
+                        Log.warnf("Camel notification history update failed because no record was found with [id=%s]", history.getId());
+                    }
+                } catch (Exception ex) {
+                    failures[i] = true;
+                    Log.error("|  Failure to update the history", ex);
+                }
+            }
+            return endpoints;
+        }
+    }
+
+    private void applyEndpointErrorChanges(List<ConnectorReply> replies, Map<UUID, Endpoint> endpoints, boolean[] failures) {
+        Map<UUID, List<EndpointErrorChange>> changesByEndpoint = new LinkedHashMap<>();
+        Map<UUID, Endpoint> endpointsById = new HashMap<>();
+        for (int i = 0; i < replies.size(); i++) {
+            if (failures[i]) {
+                continue;
+            }
+            ConnectorReply reply = replies.get(i);
+            Endpoint endpoint = endpoints.get(reply.history().getId());
+            if (endpoint == null) {
+                Log.debugf("Unable to update endpoint data from history %s, because it no longer exists", reply.history().getId());
+                continue;
+            }
+
+            ChangeType changeType;
+            if (reply.successful()) {
+                changeType = ChangeType.RESET;
+            } else if (reply.httpErrorType().isPresent() && EndpointErrorFromConnectorHelper.isClientError(reply.httpErrorType().get())) {
+                changeType = ChangeType.DISABLE;
+            } else if (reply.httpErrorType().isPresent() && EndpointErrorFromConnectorHelper.isServerError(reply.httpErrorType().get())) {
+                changeType = ChangeType.INCREMENT;
+            } else {
+                continue;
+            }
+
+            endpointsById.putIfAbsent(endpoint.getId(), endpoint);
+            List<EndpointErrorChange> changes = changesByEndpoint.computeIfAbsent(endpoint.getId(), id -> new ArrayList<>());
+            EndpointErrorChange last = changes.isEmpty() ? null : changes.getLast();
+            if (last != null && last.type == changeType) {
+                last.merge(reply, i);
+            } else {
+                changes.add(new EndpointErrorChange(changeType, reply, i));
+            }
+        }
+
+        for (Map.Entry<UUID, List<EndpointErrorChange>> entry : changesByEndpoint.entrySet()) {
+            Endpoint endpoint = endpointsById.get(entry.getKey());
+            for (EndpointErrorChange change : entry.getValue()) {
+                try {
+                    switch (change.type) {
+                        case RESET -> endpointErrorFromConnectorHelper.resetServerErrors(endpoint);
+                        case DISABLE -> endpointErrorFromConnectorHelper.disableEndpoint(endpoint, change.httpErrorType, change.statusCode);
+                        case INCREMENT -> endpointErrorFromConnectorHelper.incrementServerErrors(endpoint, change.httpErrorType, change.statusCode, change.deliveryAttempts);
+                    }
+                } catch (Exception e) {
+                    for (int index : change.replyIndexes) {
+                        failures[index] = true;
+                    }
+                    Log.error("|  Failure to update the history", e);
+                }
+            }
+        }
+    }
+
+    private enum ChangeType {
+        RESET,
+        DISABLE,
+        INCREMENT
+    }
+
+    private static final class EndpointErrorChange {
+
+        private final ChangeType type;
+        private final List<Integer> replyIndexes = new ArrayList<>();
+        private HttpErrorType httpErrorType;
+        private Integer statusCode;
+        private int deliveryAttempts;
+
+        private EndpointErrorChange(ChangeType type, ConnectorReply reply, int replyIndex) {
+            this.type = type;
+            this.httpErrorType = reply.httpErrorType().orElse(null);
+            this.statusCode = reply.statusCode();
+            this.deliveryAttempts = reply.deliveryAttempts();
+            replyIndexes.add(replyIndex);
+        }
+
+        /*
+         * A disabling only happens once, so it keeps the error of its first reply. The server errors are summed and
+         * the last error is the one reported if the sum disables the endpoint.
+         */
+        private void merge(ConnectorReply reply, int replyIndex) {
+            if (type == ChangeType.INCREMENT) {
+                httpErrorType = reply.httpErrorType().orElse(null);
+                statusCode = reply.statusCode();
+                deliveryAttempts += reply.deliveryAttempts();
+            }
+            replyIndexes.add(replyIndex);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.models.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.smallrye.reactive.messaging.annotations.Blocking;
+import io.smallrye.reactive.messaging.kafka.KafkaRecordBatch;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Micro-batched alternative to {@link EventConsumer#consume(Message)}. The Kafka records are received in batches which
+ * are bounded by the {@code max.poll.records} (size) and {@code fetch.max.wait.ms} (linger) settings of the
+ * {@link #INGRESS_BATCH_CHANNEL} channel. The deduplication and event inserts of a whole batch are sent to the DB as a
+ * few batched statements within a single transaction, while every message keeps the outcome and the metrics it would
+ * get from {@link EventConsumer#process(Message)}.
+ */
+@ApplicationScoped
+public class BatchEventConsumer {
+
+    public static final String INGRESS_BATCH_CHANNEL = "ingressbatch";
+    public static final String BATCH_SIZE_SUMMARY_NAME = "input.batch.size";
+    public static final String BATCH_FALLBACK_COUNTER_NAME = "input.batch.fallback";
+
+    @Inject
+    EventConsumer eventConsumer;
+
+    @Inject
+    MeterRegistry registry;
+
+    private DistributionSummary batchSizeSummary;
+    private Counter batchFallbackCounter;
+
+    @PostConstruct
+    void init() {
+        batchSizeSummary = registry.summary(BATCH_SIZE_SUMMARY_NAME);
+        batchFallbackCounter = registry.counter(BATCH_FALLBACK_COUNTER_NAME);
+    }
+
+    @Incoming(INGRESS_BATCH_CHANNEL)
+    @Blocking
+    public CompletionStage<Void> consume(KafkaRecordBatch<String, String> records) {
+        // Each record keeps its own Kafka metadata, which is needed to read the message headers.
+        process(new ArrayList<>(records.getRecords()));
+        return records.ack();
+    }
+
+    @ActivateRequestContext
+    public void process(List<Message<String>> messages) {
+        batchSizeSummary.record(messages.size());
+        List<IngressBatchEntry> entries = new ArrayList<>(messages.size());
+
+        /*
+         * The payloads are parsed and the events are built one message at a time, exactly like in
+         * EventConsumer#process. Rejected and blacklisted messages are done at this point.
+         */
+        for (Message<String> message : messages) {
+            IngressBatchEntry entry = new IngressBatchEntry(message, Timer.start(registry));
+            try {
+                Event event = eventConsumer.buildEvent(message, entry.getTags());
+                if (event == null) {
+                    eventConsumer.stopConsumedTimer(entry.getConsumedTimer(), entry.getTags());
+                } else {
+                    entry.setEvent(event);
+                    entries.add(entry);
+                }
+            } catch (Exception e) {
+                eventConsumer.handleProcessingException(e, message.getPayload(), null);
+                eventConsumer.stopConsumedTimer(entry.getConsumedTimer(), entry.getTags());
+            }
+        }
+
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try {
+            eventConsumer.deduplicateAndPersist(entries);
+        } catch (Exception e) {
+            /*
+             * The whole batch transaction was rolled back. Nothing from this batch was persisted, so each event can
+             * safely go through the per-message path instead.
+             */
+            Log.warnf(e, "Batched persistence failed, falling back to per-message processing [batchSize=%d]", entries.size());
+            batchFallbackCounter.increment();
+            for (IngressBatchEntry entry : entries) {
+                processIndividually(entry);
+            }
+            return;
+        }
+
+        for (IngressBatchEntry entry : entries) {
+            try {
+                if (entry.isDuplicate()) {
+                    eventConsumer.incrementDuplicateCounter(entry.getTags());
+                } else if (entry.getFailure() != null) {
+                    eventConsumer.handleProcessingException(entry.getFailure(), entry.getMessage().getPayload(), entry.getEvent());
+                } else {
+                    eventConsumer.processEndpoints(entry.getEvent());
+                }
+            } catch (Exception e) {
+                eventConsumer.handleProcessingException(e, entry.getMessage().getPayload(), entry.getEvent());
+            } finally {
+                eventConsumer.stopConsumedTimer(entry.getConsumedTimer(), entry.getTags());
+            }
+        }
+    }
+
+    private void processIndividually(IngressBatchEntry entry) {
+        Event event = entry.getEvent();
+        // The identifier generated during the rolled back persistence has to be discarded.
+        event.setId(null);
+        try {
+            eventConsumer.processEvent(event, entry.getTags());
+        } catch (Exception e) {
+            eventConsumer.handleProcessingException(e, entry.getMessage().getPayload(), event);
+        } finally {
+            eventConsumer.stopConsumedTimer(entry.getConsumedTimer(), entry.getTags());
+        }
+    }
+}
@@ -23,6 +23,16 @@ public class CamelHistoryFillerHelper {
      * @see ConnectorReceiver
      */
     public boolean updateHistoryItem(Map<String, Object> jo) {
+        return notificationHistoryRepository.updateHistoryItem(buildHistoryItem(jo));
+    }
+
+    /**
+     * Builds the history item update from the data received from the Camel sender, without touching the DB.
+     *
+     * @param jo Map containing the returned data
+     * @return the history item with its ID and the fields to update
+     */
+    static NotificationHistory buildHistoryItem(Map<String, Object> jo) {
         String historyId = (String) jo.get("historyId");
 
         if (historyId == null || historyId.isBlank()) {
@@ -60,6 +70,6 @@ public class CamelHistoryFillerHelper {
         history.setDetails(details);
         history.setInvocationTime(duration);
 
-        return notificationHistoryRepository.updateHistoryItem(history);
+        return history;
     }
 }
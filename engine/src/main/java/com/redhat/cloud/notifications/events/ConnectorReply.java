@@ -0,0 +1,44 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.models.NotificationHistory;
+import io.vertx.core.json.Json;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A reply from a Camel sender, decoded once with everything {@link BatchConnectorReceiver} needs to update the history
+ * item and the endpoint errors. It carries the same data as the one {@link ConnectorReceiver} reads from the payload.
+ *
+ * @param history the history item with its ID and the fields to update
+ * @param successful whether the connector reported a successful delivery
+ * @param httpErrorType the type of the error reported by the connector, if any
+ * @param statusCode the HTTP status code of the error, if any
+ * @param deliveryAttempts the number of delivery attempts of the error
+ */
+record ConnectorReply(NotificationHistory history, boolean successful, Optional<HttpErrorType> httpErrorType, Integer statusCode, int deliveryAttempts) {
+
+    @SuppressWarnings("unchecked")
+    static ConnectorReply decode(String payload) {
+        Map<String, Object> cloudEvent = Json.decodeValue(payload, Map.class);
+        Map<String, Object> data = Json.decodeValue((String) cloudEvent.get("data"), Map.class);
+        // The id of the CloudEvent is the history id.
+        data.put("historyId", cloudEvent.get("id"));
+
+        NotificationHistory history = CamelHistoryFillerHelper.buildHistoryItem(data);
+        boolean successful = Boolean.TRUE.equals(data.get("successful"));
+        Optional<HttpErrorType> httpErrorType = Optional.empty();
+        Integer statusCode = null;
+        int deliveryAttempts = 1;
+        if (data.get("error") instanceof Map<?, ?> error) {
+            httpErrorType = EndpointErrorFromConnectorHelper.getHttpErrorType((String) error.get("error_type"));
+            if (error.get("http_status_code") instanceof Number number) {
+                statusCode = number.intValue();
+            }
+            if (error.get("delivery_attempts") instanceof Number number) {
+                deliveryAttempts = number.intValue();
+            }
+        }
+        return new ConnectorReply(history, successful, httpErrorType, statusCode, deliveryAttempts);
+    }
+}
@@ -1,17 +1,26 @@
 package com.redhat.cloud.notifications.events;
 
+import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.db.repositories.EndpointRepository;
 import com.redhat.cloud.notifications.models.Endpoint;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
 import io.vertx.core.json.JsonObject;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Shutdown;
 import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.redhat.cloud.notifications.events.HttpErrorType.CONNECTION_REFUSED;
 import static com.redhat.cloud.notifications.events.HttpErrorType.CONNECT_TIMEOUT;
@@ -36,6 +45,12 @@ public class EndpointErrorFromConnectorHelper {
     @Inject
     MeterRegistry registry;
 
+    @Inject
+    EngineConfig engineConfig;
+
+    // The server errors waiting for the next flush when they are coalesced, keyed by endpoint ID.
+    private final Map<UUID, PendingServerErrors> pendingServerErrors = new ConcurrentHashMap<>();
+
     private Counter disabledWebhooksServerErrorCount;
     private Counter disabledWebhooksClientErrorCount;
     public static final String CLIENT_TAG_VALUE = "client";
@@ -60,50 +75,122 @@ public class EndpointErrorFromConnectorHelper {
         if (strHistoryId != null) {
 
             if (data.getBoolean("successful", false)) {
-                boolean reset = endpointRepository.resetEndpointServerErrors(endpoint.getId());
-                if (reset) {
-                    Log.infof("The server errors counter of endpoint %s was just reset", endpoint.getId());
-                }
+                resetServerErrors(endpoint);
             } else if (data.containsKey("error")) {
                 JsonObject error = data.getJsonObject("error");
                 Optional<HttpErrorType> httpErrorType = getHttpErrorType(error);
                 if (httpErrorType.isPresent()) {
                     Integer statusCode = error.getInteger("http_status_code");
 
-                    if (httpErrorType.get() == HTTP_4XX || httpErrorType.get() == HTTP_3XX) {
-                        /*
-                         * The target endpoint returned a 4xx or 3xx status. That kind of error requires an update of the
-                         * endpoint settings (URL, secret token...). The endpoint will most likely never return a
-                         * successful status code with the current settings, so it is disabled immediately.
-                         */
-                        final boolean disabled = this.endpointRepository.disableEndpoint(endpoint);
-                        if (disabled) {
-                            disabledWebhooksClientErrorCount.increment();
-                            Log.infof("Endpoint %s was disabled because we received a %s status while calling it", endpoint.getId(), httpErrorType.get().name());
-                            integrationDisabledNotifier.notify(endpoint, httpErrorType.get(), statusCode, 1);
-                        }
-                    } else if (HTTP_SERVER_ERRORS.contains(httpErrorType.get())) {
-                        /*
-                         * The target endpoint returned a server error. That kind of error happens in case of remote
-                         * server failure, which is usually something temporary. Sending another notification to
-                         * the same endpoint may work in the future, so the endpoint is only disabled if the max
-                         * number of endpoint failures allowed from the configuration is exceeded.
-                         */
+                    if (isClientError(httpErrorType.get())) {
+                        disableEndpoint(endpoint, httpErrorType.get(), statusCode);
+                    } else if (isServerError(httpErrorType.get())) {
                         int deliveryAttempts = error.getInteger("delivery_attempts", 1);
-                        boolean disabled = endpointRepository.incrementEndpointServerErrors(endpoint.getId(), deliveryAttempts);
-                        if (disabled) {
-                            disabledWebhooksServerErrorCount.increment();
-                            Log.infof("Endpoint %s was disabled because it caused too many 5xx errors or IOExceptions while calling it", endpoint.getId());
-                            integrationDisabledNotifier.notify(endpoint, httpErrorType.get(), statusCode, endpoint.getServerErrors());
-                        }
+                        incrementServerErrors(endpoint, httpErrorType.get(), statusCode, deliveryAttempts);
                     }
                 }
             }
         }
     }
 
+    void resetServerErrors(Endpoint endpoint) {
+        /*
+         * The pending server errors happened before the success, the reset clears them. The reset runs while the pending
+         * entry of the endpoint is locked, so it can't be interleaved with a flush applying these errors.
+         */
+        pendingServerErrors.compute(endpoint.getId(), (endpointId, pending) -> {
+            boolean reset = endpointRepository.resetEndpointServerErrors(endpointId);
+            if (reset) {
+                Log.infof("The server errors counter of endpoint %s was just reset", endpointId);
+            }
+            return null;
+        });
+    }
+
+    /*
+     * The target endpoint returned a 4xx or 3xx status. That kind of error requires an update of the endpoint settings
+     * (URL, secret token...). The endpoint will most likely never return a successful status code with the current
+     * settings, so it is disabled immediately.
+     */
+    void disableEndpoint(Endpoint endpoint, HttpErrorType httpErrorType, Integer statusCode) {
+        final boolean disabled = this.endpointRepository.disableEndpoint(endpoint);
+        if (disabled) {
+            disabledWebhooksClientErrorCount.increment();
+            Log.infof("Endpoint %s was disabled because we received a %s status while calling it", endpoint.getId(), httpErrorType.name());
+            integrationDisabledNotifier.notify(endpoint, httpErrorType, statusCode, 1);
+        }
+    }
+
+    /*
+     * The target endpoint returned a server error. That kind of error happens in case of remote server failure, which
+     * is usually something temporary. Sending another notification to the same endpoint may work in the future, so the
+     * endpoint is only disabled if the max number of endpoint failures allowed from the configuration is exceeded.
+     * When the server errors are coalesced, they are summed per endpoint and applied by the next flush.
+     */
+    void incrementServerErrors(Endpoint endpoint, HttpErrorType httpErrorType, Integer statusCode, int deliveryAttempts) {
+        if (engineConfig.isServerErrorsCoalescingEnabled()) {
+            pendingServerErrors.merge(endpoint.getId(), new PendingServerErrors(endpoint, httpErrorType, statusCode, deliveryAttempts),
+                (pending, added) -> added.plus(pending.deliveryAttempts()));
+        } else {
+            applyServerErrors(endpoint, httpErrorType, statusCode, deliveryAttempts);
+        }
+    }
+
+    /**
+     * Applies the coalesced server errors. The disabling threshold is checked against the sum of the server errors of
+     * each endpoint and the last error is the one reported if the endpoint is disabled.
+     */
+    @Scheduled(every = "${processor.connectors.server-errors-coalescing.flush-period:1s}")
+    public synchronized void flushServerErrors() {
+        for (UUID endpointId : pendingServerErrors.keySet()) {
+            // The entry stays locked until the errors are applied, a concurrent success resets the endpoint afterward.
+            pendingServerErrors.computeIfPresent(endpointId, (id, pending) -> {
+                try {
+                    applyServerErrors(pending.endpoint(), pending.httpErrorType(), pending.statusCode(), pending.deliveryAttempts());
+                    return null;
+                } catch (Exception e) {
+                    // The server errors stay pending and will be applied during the next flush.
+                    Log.warnf(e, "Coalesced server errors update failed [endpointId=%s]", id);
+                    return pending;
+                }
+            });
+        }
+    }
+
+    // The reply consumers are stopped before the beans are destroyed, their pending server errors are flushed afterward.
+    void onShutdown(@Observes @Priority(Interceptor.Priority.LIBRARY_AFTER) Shutdown event) {
+        flushServerErrors();
+    }
+
+    private void applyServerErrors(Endpoint endpoint, HttpErrorType httpErrorType, Integer statusCode, int deliveryAttempts) {
+        boolean disabled = endpointRepository.incrementEndpointServerErrors(endpoint.getId(), deliveryAttempts);
+        if (disabled) {
+            disabledWebhooksServerErrorCount.increment();
+            Log.infof("Endpoint %s was disabled because it caused too many 5xx errors or IOExceptions while calling it", endpoint.getId());
+            integrationDisabledNotifier.notify(endpoint, httpErrorType, statusCode, endpoint.getServerErrors());
+        }
+    }
+
+    static boolean isClientError(HttpErrorType httpErrorType) {
+        return httpErrorType == HTTP_4XX || httpErrorType == HTTP_3XX;
+    }
+
+    static boolean isServerError(HttpErrorType httpErrorType) {
+        return HTTP_SERVER_ERRORS.contains(httpErrorType);
+    }
+
+    private record PendingServerErrors(Endpoint endpoint, HttpErrorType httpErrorType, Integer statusCode, int deliveryAttempts) {
+
+        private PendingServerErrors plus(int moreDeliveryAttempts) {
+            return new PendingServerErrors(endpoint, httpErrorType, statusCode, deliveryAttempts + moreDeliveryAttempts);
+        }
+    }
+
     private static Optional<HttpErrorType> getHttpErrorType(JsonObject error) {
-        String errorType = error.getString("error_type");
+        return getHttpErrorType(error.getString("error_type"));
+    }
+
+    static Optional<HttpErrorType> getHttpErrorType(String errorType) {
         if (errorType == null) {
             return Optional.empty();
         }
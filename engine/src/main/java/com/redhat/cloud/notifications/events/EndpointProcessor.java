@@ -4,10 +4,12 @@ import com.redhat.cloud.notifications.DelayedThrower;
 import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.db.repositories.EndpointRepository;
 import com.redhat.cloud.notifications.ingress.Action;
+import com.redhat.cloud.notifications.metrics.MeterCache;
 import com.redhat.cloud.notifications.models.Endpoint;
 import com.redhat.cloud.notifications.models.EndpointType;
 import com.redhat.cloud.notifications.models.Event;
 import com.redhat.cloud.notifications.models.event.TestEventHelper;
+import com.redhat.cloud.notifications.processors.ConnectorSender;
 import com.redhat.cloud.notifications.processors.camel.google.chat.GoogleChatProcessor;
 import com.redhat.cloud.notifications.processors.camel.slack.SlackProcessor;
 import com.redhat.cloud.notifications.processors.camel.teams.TeamsProcessor;
@@ -19,8 +21,11 @@ import com.redhat.cloud.notifications.processors.pagerduty.PagerDutyProcessor;
 import com.redhat.cloud.notifications.processors.webhooks.WebhookTypeProcessor;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.context.Context;
 import io.quarkus.logging.Log;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -28,6 +33,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static com.redhat.cloud.notifications.models.Endpoint.GOOGLE_CHAT_ENDPOINT_SUBTYPE;
@@ -40,6 +49,9 @@ public class EndpointProcessor {
     public static final String PROCESSED_MESSAGES_COUNTER_NAME = "processor.input.processed";
     public static final String PROCESSED_ENDPOINTS_COUNTER_NAME = "processor.input.endpoint.processed";
     public static final String DELAYED_EXCEPTION_MSG = "Exceptions were thrown during an event processing";
+    public static final String PROCESSOR_DURATION_TIMER_NAME = "processor.endpoint-type.duration";
+    public static final String TAG_KEY_PROCESSOR = "processor";
+    public static final String EMAIL_AGGREGATION_PROCESSOR_NAME = "email_aggregation";
 
     public static final String NOTIFICATIONS_APP_BUNDLE_NAME = "console";
     public static final String NOTIFICATIONS_APP_NAME = "notifications";
@@ -48,6 +60,9 @@ public class EndpointProcessor {
     @Inject
     EndpointRepository endpointRepository;
 
+    @Inject
+    EndpointRoutingIndex endpointRoutingIndex;
+
     @Inject
     WebhookTypeProcessor webhookProcessor;
 
@@ -75,6 +90,12 @@ public class EndpointProcessor {
     @Inject
     PagerDutyProcessor pagerDutyProcessor;
 
+    @Inject
+    ConnectorSender connectorSender;
+
+    @Inject
+    EndpointTypeBranchRunner endpointTypeBranchRunner;
+
     @Inject
     MeterRegistry registry;
 
@@ -83,11 +104,20 @@ public class EndpointProcessor {
 
     private Counter processedItems;
     private Counter endpointTargeted;
+    private MeterCache<Timer> processorTimers;
+    // The branches only wait for I/O, a virtual thread per branch is cheaper than a pool sized for the peak load.
+    private final ExecutorService branchExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     @PostConstruct
     void init() {
         processedItems = registry.counter(PROCESSED_MESSAGES_COUNTER_NAME);
         endpointTargeted = registry.counter(PROCESSED_ENDPOINTS_COUNTER_NAME);
+        processorTimers = MeterCache.timers(registry, PROCESSOR_DURATION_TIMER_NAME, TAG_KEY_PROCESSOR);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        branchExecutor.close();
     }
 
     public void process(Event event) {
@@ -106,11 +136,11 @@ public class EndpointProcessor {
         } else if (isAggregatorEvent(event)) {
             Log.debugf("[org_id: %s] Processing aggregation event: %s", event.getOrgId(), event);
 
-            endpoints.add(endpointRepository.getOrCreateDefaultSystemSubscription(event.getAccountId(), event.getOrgId(), EndpointType.EMAIL_SUBSCRIPTION));
+            endpoints.add(endpointRoutingIndex.getDefaultSystemSubscription(event.getAccountId(), event.getOrgId(), EndpointType.EMAIL_SUBSCRIPTION));
 
             Log.debugf("[org_id: %s] Found %s endpoints for the aggregation event: %s", event.getOrgId(), endpoints.size(), event);
         } else {
-            endpoints.addAll(endpointRepository.getTargetEndpointsWithoutUsingBgs(event.getOrgId(), event.getEventType()));
+            endpoints.addAll(endpointRoutingIndex.getTargetEndpoints(event.getOrgId(), event.getEventType()));
         }
 
         endpoints.removeIf(endpoint -> {
@@ -126,72 +156,135 @@ public class EndpointProcessor {
         endpointTargeted.increment(endpoints.size());
         Map<EndpointType, List<Endpoint>> endpointsByType = endpoints.stream().collect(Collectors.groupingBy(Endpoint::getType));
 
-        DelayedThrower.throwEventually(DELAYED_EXCEPTION_MSG, accumulator -> {
-            for (Map.Entry<EndpointType, List<Endpoint>> endpointsByTypeEntry : endpointsByType.entrySet()) {
-                try {
-                    if (replayOnly && endpointsByTypeEntry.getKey() != endpointTypeToReplay) {
-                        continue;
-                    }
-                    // For each endpoint type, the list of target endpoints is sent alongside with the event to the relevant processor.
-                    switch (endpointsByTypeEntry.getKey()) {
-                        // TODO Introduce EndpointType.SLACK?
-                        case CAMEL:
-                            if (!event.getEventType().isRestrictToRecipientsIntegrations()) {
-                                Map<String, List<Endpoint>> endpointsBySubType = endpointsByTypeEntry.getValue().stream().collect(Collectors.groupingBy(Endpoint::getSubType));
-                                for (Map.Entry<String, List<Endpoint>> endpointsBySubTypeEntry : endpointsBySubType.entrySet()) {
-                                    if (replayOnly &&
-                                        (endpointSubTypeToReplay == null || !endpointSubTypeToReplay.equals(endpointsBySubTypeEntry.getKey()))) {
-                                        continue;
-                                    }
-                                    try {
-                                        if (SLACK_ENDPOINT_SUBTYPE.equals(endpointsBySubTypeEntry.getKey())) {
-                                            slackProcessor.process(event, endpointsBySubTypeEntry.getValue());
-                                        } else if (TEAMS_ENDPOINT_SUBTYPE.equals(endpointsBySubTypeEntry.getKey())) {
-                                            teamsProcessor.process(event, endpointsBySubTypeEntry.getValue());
-                                        } else if (GOOGLE_CHAT_ENDPOINT_SUBTYPE.equals(endpointsBySubTypeEntry.getKey())) {
-                                            googleChatProcessor.process(event, endpointsBySubTypeEntry.getValue());
-                                        } else {
-                                            camelProcessor.process(event, endpointsBySubTypeEntry.getValue());
-                                        }
-                                    } catch (Exception e) {
-                                        accumulator.add(e);
-                                    }
+        List<Branch> branches = new ArrayList<>();
+        for (Map.Entry<EndpointType, List<Endpoint>> endpointsByTypeEntry : endpointsByType.entrySet()) {
+            if (replayOnly && endpointsByTypeEntry.getKey() != endpointTypeToReplay) {
+                continue;
+            }
+            String processorName = endpointsByTypeEntry.getKey().name().toLowerCase();
+            try {
+                // For each endpoint type, the list of target endpoints is sent alongside with the event to the relevant processor.
+                switch (endpointsByTypeEntry.getKey()) {
+                    // TODO Introduce EndpointType.SLACK?
+                    case CAMEL:
+                        if (!event.getEventType().isRestrictToRecipientsIntegrations()) {
+                            Map<String, List<Endpoint>> endpointsBySubType = endpointsByTypeEntry.getValue().stream().collect(Collectors.groupingBy(Endpoint::getSubType));
+                            for (Map.Entry<String, List<Endpoint>> endpointsBySubTypeEntry : endpointsBySubType.entrySet()) {
+                                if (replayOnly &&
+                                    (endpointSubTypeToReplay == null || !endpointSubTypeToReplay.equals(endpointsBySubTypeEntry.getKey()))) {
+                                    continue;
+                                }
+                                List<Endpoint> subTypeEndpoints = endpointsBySubTypeEntry.getValue();
+                                if (SLACK_ENDPOINT_SUBTYPE.equals(endpointsBySubTypeEntry.getKey())) {
+                                    branches.add(new Branch(SLACK_ENDPOINT_SUBTYPE, () -> slackProcessor.process(event, subTypeEndpoints)));
+                                } else if (TEAMS_ENDPOINT_SUBTYPE.equals(endpointsBySubTypeEntry.getKey())) {
+                                    branches.add(new Branch(TEAMS_ENDPOINT_SUBTYPE, () -> teamsProcessor.process(event, subTypeEndpoints)));
+                                } else if (GOOGLE_CHAT_ENDPOINT_SUBTYPE.equals(endpointsBySubTypeEntry.getKey())) {
+                                    branches.add(new Branch(GOOGLE_CHAT_ENDPOINT_SUBTYPE, () -> googleChatProcessor.process(event, subTypeEndpoints)));
+                                } else {
+                                    branches.add(new Branch(processorName, () -> camelProcessor.process(event, subTypeEndpoints)));
                                 }
                             }
-                            break;
-                        case EMAIL_SUBSCRIPTION:
-                            if (isAggregatorEvent(event)) {
+                        }
+                        break;
+                    case EMAIL_SUBSCRIPTION:
+                        if (isAggregatorEvent(event)) {
+                            branches.add(new Branch(EMAIL_AGGREGATION_PROCESSOR_NAME, () -> {
                                 Log.debugf("[org_id: %s] Sending event through the aggregator processor: %s", event.getOrgId(), event);
                                 emailAggregationProcessor.processAggregation(event);
-                            } else {
+                            }));
+                        } else {
+                            branches.add(new Branch(processorName, () -> {
                                 Log.debugf("[org_id: %s] Sending event through the email connector: %s", event.getOrgId(), event);
                                 emailConnectorProcessor.process(event, endpointsByTypeEntry.getValue());
-                            }
-                            break;
-                        case WEBHOOK:
-                        case ANSIBLE:
-                            if (!event.getEventType().isRestrictToRecipientsIntegrations()) {
-                                webhookProcessor.process(event, endpointsByTypeEntry.getValue());
-                            }
-                            break;
-                        case DRAWER:
-                            drawerProcessor.process(event, endpointsByTypeEntry.getValue());
-                            break;
-                        case PAGERDUTY:
-                            if (!event.getEventType().isRestrictToRecipientsIntegrations()) {
-                                pagerDutyProcessor.process(event, endpointsByTypeEntry.getValue());
-                            }
-                            break;
-                        default:
-                            throw new IllegalArgumentException("Unexpected endpoint type: " + endpointsByTypeEntry.getKey());
-                    }
-                } catch (Exception e) {
-                    accumulator.add(e);
+                            }));
+                        }
+                        break;
+                    case WEBHOOK:
+                    case ANSIBLE:
+                        if (!event.getEventType().isRestrictToRecipientsIntegrations()) {
+                            branches.add(new Branch(processorName, () -> webhookProcessor.process(event, endpointsByTypeEntry.getValue())));
+                        }
+                        break;
+                    case DRAWER:
+                        branches.add(new Branch(processorName, () -> drawerProcessor.process(event, endpointsByTypeEntry.getValue())));
+                        break;
+                    case PAGERDUTY:
+                        if (!event.getEventType().isRestrictToRecipientsIntegrations()) {
+                            branches.add(new Branch(processorName, () -> pagerDutyProcessor.process(event, endpointsByTypeEntry.getValue())));
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected endpoint type: " + endpointsByTypeEntry.getKey());
                 }
+            } catch (RuntimeException e) {
+                // The failure is reported at the position of the endpoint type, as if its processor had thrown it.
+                branches.add(new Branch(processorName, () -> {
+                    throw e;
+                }));
+            }
+        }
+
+        DelayedThrower.throwEventually(DELAYED_EXCEPTION_MSG, accumulator -> {
+            if (engineConfig.isEndpointTypesParallelDispatchEnabled() && branches.size() > 1) {
+                processInParallel(branches, accumulator);
+            } else {
+                /*
+                 * The notification history rows of all the endpoints are created with a single statement, before the
+                 * messages are sent to the connectors.
+                 */
+                connectorSender.sendInBatch(() -> {
+                    for (Branch branch : branches) {
+                        runBranch(branch, accumulator);
+                    }
+                }, accumulator);
             }
         });
     }
 
+    /*
+     * Each branch runs on its own virtual thread, so that the slowest processor sets the latency of the event instead of
+     * the sum of all of them. The history rows are created with one statement per branch. The exceptions are added to
+     * the accumulator in the order of the branches once they all completed, as they would with the sequential dispatch.
+     */
+    private void processInParallel(List<Branch> branches, List<Exception> accumulator) {
+        // The tracing context of the event is propagated to the branches, so that it ends up in the Kafka messages.
+        Context tracingContext = Context.current();
+        List<List<Exception>> branchAccumulators = new ArrayList<>(branches.size());
+        List<Future<?>> futures = new ArrayList<>(branches.size());
+        for (Branch branch : branches) {
+            List<Exception> branchAccumulator = new ArrayList<>();
+            branchAccumulators.add(branchAccumulator);
+            futures.add(branchExecutor.submit(tracingContext.wrap(() -> endpointTypeBranchRunner.run(
+                () -> connectorSender.sendInBatch(() -> runBranch(branch, branchAccumulator), branchAccumulator)
+            ))));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                branchAccumulators.get(i).add(e);
+            } catch (ExecutionException e) {
+                branchAccumulators.get(i).add(e.getCause() instanceof Exception cause ? cause : e);
+            }
+        }
+        for (List<Exception> branchAccumulator : branchAccumulators) {
+            accumulator.addAll(branchAccumulator);
+        }
+    }
+
+    private void runBranch(Branch branch, List<Exception> accumulator) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            branch.task().run();
+        } catch (Exception e) {
+            accumulator.add(e);
+        } finally {
+            sample.stop(processorTimers.get(branch.processor()));
+        }
+    }
+
     public static boolean isAggregatorEvent(final com.redhat.cloud.notifications.models.Event event) {
         if (event.getEventWrapper() instanceof EventWrapperAction) {
             Action action = ((EventWrapperAction) event.getEventWrapper()).getEvent();
@@ -202,4 +295,11 @@ public class EndpointProcessor {
         }
         return false;
     }
+
+    /**
+     * The call to the processor of one endpoint type, or of one subtype for the {@link EndpointType#CAMEL} endpoints.
+     * @param processor the name of the processor, used as the tag value of the processor timer
+     * @param task the call to the processor
+     */
+    private record Branch(String processor, Runnable task) { }
 }
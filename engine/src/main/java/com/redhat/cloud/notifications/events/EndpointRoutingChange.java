@@ -0,0 +1,14 @@
+package com.redhat.cloud.notifications.events;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A row from the {@code endpoint_routing_change_log} table.
+ * @param id the row identifier
+ * @param orgId the org affected by the change, or {@code null} if all orgs are affected
+ * @param eventTypeId the event type affected by the change, or {@code null} if all event types are affected
+ * @param created the date of the change, in UTC
+ */
+public record EndpointRoutingChange(long id, String orgId, UUID eventTypeId, LocalDateTime created) {
+}
@@ -0,0 +1,216 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.config.EngineConfig;
+import com.redhat.cloud.notifications.db.repositories.EndpointRepository;
+import com.redhat.cloud.notifications.models.Endpoint;
+import com.redhat.cloud.notifications.models.EndpointType;
+import com.redhat.cloud.notifications.models.EventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Per-pod index of the endpoints returned by {@link EndpointRepository#getTargetEndpointsWithoutUsingBgs(String, EventType)}
+ * and of the system endpoints returned by
+ * {@link EndpointRepository#getOrCreateDefaultSystemSubscription(String, String, EndpointType)}.
+ * The entries are loaded lazily and invalidated from the {@code endpoint_routing_change_log} table which is fed by DB
+ * triggers and polled periodically, so an endpoint, behavior group or event type link change is visible after at most
+ * one poll period. The entries also expire after a fixed delay in case the change feed could not be read.
+ */
+@ApplicationScoped
+public class EndpointRoutingIndex {
+
+    public static final String HIT_COUNTER_NAME = "endpoint.routing.index.hit";
+    public static final String MISS_COUNTER_NAME = "endpoint.routing.index.miss";
+    public static final String INVALIDATION_COUNTER_NAME = "endpoint.routing.index.invalidation";
+    public static final String SIZE_GAUGE_NAME = "endpoint.routing.index.size";
+    public static final String STALENESS_GAUGE_NAME = "endpoint.routing.index.staleness.seconds";
+    public static final String SYSTEM_ENDPOINT_HIT_COUNTER_NAME = "endpoint.routing.index.system-endpoint.hit";
+    public static final String SYSTEM_ENDPOINT_MISS_COUNTER_NAME = "endpoint.routing.index.system-endpoint.miss";
+
+    @Inject
+    EndpointRepository endpointRepository;
+
+    @Inject
+    EngineConfig engineConfig;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "notifications.endpoint-routing-index.max-size", defaultValue = "10000")
+    int maxSize;
+
+    @ConfigProperty(name = "notifications.endpoint-routing-index.expire-after-write", defaultValue = "PT5M")
+    Duration expireAfterWrite;
+
+    // Changes are committed in a different order than their creation date, the poll query has to look back that far.
+    @ConfigProperty(name = "notifications.endpoint-routing-index.poll-lookback", defaultValue = "PT30S")
+    Duration pollLookback;
+
+    private final Map<RoutingKey, RoutingEntry> entries = new ConcurrentHashMap<>();
+    private final Map<SystemEndpointKey, SystemEndpointEntry> systemEndpoints = new ConcurrentHashMap<>();
+    // Incremented on each invalidation, used to detect an invalidation that happened while an entry was being loaded.
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Long, LocalDateTime> processedChanges = new HashMap<>();
+    private LocalDateTime watermark;
+    private volatile Instant lastSuccessfulPoll;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter invalidationCounter;
+    private Counter systemEndpointHitCounter;
+    private Counter systemEndpointMissCounter;
+
+    @PostConstruct
+    void init() {
+        watermark = LocalDateTime.now(UTC);
+        lastSuccessfulPoll = Instant.now();
+        hitCounter = registry.counter(HIT_COUNTER_NAME);
+        missCounter = registry.counter(MISS_COUNTER_NAME);
+        invalidationCounter = registry.counter(INVALIDATION_COUNTER_NAME);
+        systemEndpointHitCounter = registry.counter(SYSTEM_ENDPOINT_HIT_COUNTER_NAME);
+        systemEndpointMissCounter = registry.counter(SYSTEM_ENDPOINT_MISS_COUNTER_NAME);
+        registry.gauge(SIZE_GAUGE_NAME, entries, Map::size);
+        registry.gauge(STALENESS_GAUGE_NAME, this, index -> Duration.between(index.lastSuccessfulPoll, Instant.now()).toSeconds());
+    }
+
+    /**
+     * Returns the endpoints targeted by an event of the given org and event type. The returned list can be modified by
+     * the caller but the endpoints it contains are shared and must not be modified.
+     */
+    public List<Endpoint> getTargetEndpoints(String orgId, EventType eventType) {
+        if (!engineConfig.isEndpointRoutingIndexEnabled()) {
+            return endpointRepository.getTargetEndpointsWithoutUsingBgs(orgId, eventType);
+        }
+
+        RoutingKey key = new RoutingKey(orgId, eventType.getId());
+        RoutingEntry entry = entries.get(key);
+        if (entry != null && entry.loaded().plus(expireAfterWrite).isAfter(Instant.now())) {
+            hitCounter.increment();
+            return new ArrayList<>(entry.endpoints());
+        }
+
+        missCounter.increment();
+        long loadGeneration = generation.get();
+        List<Endpoint> endpoints = endpointRepository.getTargetEndpointsWithoutUsingBgs(orgId, eventType);
+        if (entries.size() < maxSize || entries.containsKey(key)) {
+            entries.put(key, new RoutingEntry(List.copyOf(endpoints), Instant.now()));
+            if (generation.get() != loadGeneration) {
+                // The loaded endpoints may predate an invalidation, they can't be trusted.
+                entries.remove(key);
+            }
+        }
+        return new ArrayList<>(endpoints);
+    }
+
+    /**
+     * Returns the default system subscription endpoint of the given org and endpoint type, creating it if needed. The
+     * returned endpoint is shared and must not be modified.
+     */
+    public Endpoint getDefaultSystemSubscription(String accountId, String orgId, EndpointType endpointType) {
+        if (!engineConfig.isEndpointRoutingIndexEnabled()) {
+            return endpointRepository.getOrCreateDefaultSystemSubscription(accountId, orgId, endpointType);
+        }
+
+        SystemEndpointKey key = new SystemEndpointKey(orgId, endpointType);
+        SystemEndpointEntry entry = systemEndpoints.get(key);
+        if (entry != null && entry.loaded().plus(expireAfterWrite).isAfter(Instant.now())) {
+            systemEndpointHitCounter.increment();
+            return entry.endpoint();
+        }
+
+        systemEndpointMissCounter.increment();
+        long loadGeneration = generation.get();
+        Endpoint endpoint = endpointRepository.getOrCreateDefaultSystemSubscription(accountId, orgId, endpointType);
+        if (systemEndpoints.size() < maxSize || systemEndpoints.containsKey(key)) {
+            systemEndpoints.put(key, new SystemEndpointEntry(endpoint, Instant.now()));
+            if (generation.get() != loadGeneration) {
+                // The loaded endpoint may predate an invalidation, it can't be trusted.
+                systemEndpoints.remove(key);
+            }
+        }
+        return endpoint;
+    }
+
+    @Scheduled(every = "${notifications.endpoint-routing-index.poll-period:10s}")
+    public synchronized void poll() {
+        if (!engineConfig.isEndpointRoutingIndexEnabled()) {
+            // The change feed is not read while the index is disabled, so whatever it contains is stale.
+            if (!entries.isEmpty() || !systemEndpoints.isEmpty()) {
+                invalidateAll();
+            }
+            processedChanges.clear();
+            watermark = LocalDateTime.now(UTC);
+            lastSuccessfulPoll = Instant.now();
+            return;
+        }
+
+        try {
+            LocalDateTime since = watermark.minus(pollLookback);
+            for (EndpointRoutingChange change : endpointRepository.findRoutingChangesSince(since)) {
+                if (processedChanges.putIfAbsent(change.id(), change.created()) == null) {
+                    invalidate(change.orgId(), change.eventTypeId());
+                    if (change.created().isAfter(watermark)) {
+                        watermark = change.created();
+                    }
+                }
+            }
+            LocalDateTime pruneBefore = watermark.minus(pollLookback);
+            processedChanges.values().removeIf(created -> created.isBefore(pruneBefore));
+            lastSuccessfulPoll = Instant.now();
+        } catch (Exception e) {
+            Log.warn("Endpoint routing change log poll failed", e);
+        }
+    }
+
+    void invalidate(String orgId, UUID eventTypeId) {
+        generation.incrementAndGet();
+        invalidationCounter.increment();
+        if (orgId == null && eventTypeId == null) {
+            entries.clear();
+            systemEndpoints.clear();
+        } else {
+            entries.keySet().removeIf(key ->
+                (orgId == null || orgId.equals(key.orgId())) && (eventTypeId == null || eventTypeId.equals(key.eventTypeId()))
+            );
+            // The system endpoints are not linked to event types, they are only affected by the endpoint changes.
+            if (eventTypeId == null) {
+                systemEndpoints.keySet().removeIf(key -> orgId.equals(key.orgId()));
+            }
+        }
+    }
+
+    void invalidateAll() {
+        invalidate(null, null);
+    }
+
+    private record RoutingKey(String orgId, UUID eventTypeId) {
+    }
+
+    private record RoutingEntry(List<Endpoint> endpoints, Instant loaded) {
+    }
+
+    private record SystemEndpointKey(String orgId, EndpointType endpointType) {
+    }
+
+    private record SystemEndpointEntry(Endpoint endpoint, Instant loaded) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.redhat.cloud.notifications.events;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+
+/**
+ * Runs a processor branch of {@link EndpointProcessor} on a worker thread when the endpoint types are dispatched in
+ * parallel. Each branch gets its own request context, so it doesn't share the Hibernate session of the other branches
+ * and the DB operations of its processors run in their own transactions.
+ */
+@ApplicationScoped
+public class EndpointTypeBranchRunner {
+
+    @ActivateRequestContext
+    public void run(Runnable branch) {
+        branch.run();
+    }
+}
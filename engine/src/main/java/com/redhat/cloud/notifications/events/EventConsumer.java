@@ -10,6 +10,8 @@ import com.redhat.cloud.notifications.db.repositories.EventRepository;
 import com.redhat.cloud.notifications.db.repositories.EventTypeRepository;
 import com.redhat.cloud.notifications.events.deduplication.EventDeduplicator;
 import com.redhat.cloud.notifications.ingress.Action;
+import com.redhat.cloud.notifications.ingress.RecipientsAuthorizationCriterion;
+import com.redhat.cloud.notifications.metrics.MeterCache;
 import com.redhat.cloud.notifications.models.Event;
 import com.redhat.cloud.notifications.models.EventType;
 import com.redhat.cloud.notifications.models.NotificationsConsoleCloudEvent;
@@ -27,21 +29,20 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.control.ActivateRequestContext;
 import jakarta.inject.Inject;
 import jakarta.persistence.NoResultException;
+import jakarta.transaction.Transactional;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 import org.eclipse.microprofile.reactive.messaging.Message;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.redhat.cloud.notifications.events.KafkaMessageDeduplicator.MESSAGE_ID_HEADER;
-import static java.util.concurrent.TimeUnit.SECONDS;
 
 @ApplicationScoped
 public class EventConsumer {
@@ -104,52 +105,26 @@ public class EventConsumer {
     @Inject
     ValkeyService valkeyService;
 
+    @Inject
+    OrgLaneExecutor orgLaneExecutor;
+
     ConsoleCloudEventParser cloudEventParser = new ConsoleCloudEventParser();
 
     private Counter rejectedCounter;
     private Counter processingErrorCounter;
     private Counter processingExceptionCounter;
-    private ExecutorService executor;
+    private MeterCache<Counter> blacklistedCounters;
+    private MeterCache<Counter> duplicateEventCounters;
+    private MeterCache<Timer> consumedTimers;
 
     @PostConstruct
     public void init() {
         rejectedCounter = registry.counter(REJECTED_COUNTER_NAME);
         processingErrorCounter = registry.counter(PROCESSING_ERROR_COUNTER_NAME);
         processingExceptionCounter = registry.counter(PROCESSING_EXCEPTION_COUNTER_NAME);
-
-        /*
-         * The ThreadPoolExecutor#submit method from this executor is blocking. If it is called while all threads from
-         * the pool are busy, the calling thread will wait until a thread from the pool is available.
-         */
-        // TODO After we've confirmed the async processing works, additional code will be needed to shutdown the executor gracefully (wait until all threads are done with their work).
-        executor = new ThreadPoolExecutor(
-                config.getEventConsumerCoreThreadPoolSize(),
-                config.getEventConsumerMaxThreadPoolSize(),
-                config.getEventConsumerKeepAliveTimeSeconds(),
-                SECONDS,
-                buildBlockingQueue()
-        );
-    }
-
-    private BlockingQueue<Runnable> buildBlockingQueue() {
-        return new LinkedBlockingQueue<>(config.getEventConsumerQueueCapacity()) {
-            @Override
-            public boolean offer(Runnable runnable) {
-                try {
-                    /*
-                     * The ThreadPoolExecutor internal implementation can only insert elements in the queue by calling
-                     * the BlockingQueue#offer method, which is not a blocking method. Since we need a blocking behavior
-                     * to prevent Kafka messages from being consumed when all threads are busy, the call is delegated to
-                     * the BlockingQueue#put method.
-                     */
-                    put(runnable);
-                    return true;
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return false;
-                }
-            }
-        };
+        blacklistedCounters = MeterCache.counters(registry, PROCESSING_BLACKLISTED_COUNTER_NAME, TAG_KEY_BUNDLE, TAG_KEY_APPLICATION, TAG_KEY_EVENT_TYPE, TAG_KEY_EVENT_TYPE_FQN);
+        duplicateEventCounters = MeterCache.counters(registry, DUPLICATE_EVENT_COUNTER_NAME, TAG_KEY_BUNDLE, TAG_KEY_APPLICATION, TAG_KEY_EVENT_TYPE);
+        consumedTimers = MeterCache.timers(registry, CONSUMED_TIMER_NAME, TAG_KEY_BUNDLE, TAG_KEY_APPLICATION, TAG_KEY_EVENT_TYPE, TAG_KEY_EVENT_TYPE_FQN);
     }
 
     @Incoming(INGRESS_CHANNEL)
@@ -157,211 +132,331 @@ public class EventConsumer {
     public CompletionStage<Void> consume(Message<String> message) {
         if (config.isAsyncEventProcessing()) {
             /*
-             * Even though the processing will be asynchronous, this call will block the current thread until a thread
-             * from the pool is available.
+             * Even though the processing will be asynchronous, this call will block the current thread until there is
+             * room in the lane of the org. The message is only acked once it has been processed. The Kafka connector
+             * uses the throttled commit strategy, which means that the offset of the message will only be committed
+             * once all the previous messages from the same partition have been acked too.
              */
-            executor.submit(() -> process(message));
+            PayloadFormat.Sniffed sniffed = PayloadFormat.sniffWithOrgId(message.getPayload());
+            // The payloads without an org ID all share the same lane.
+            orgLaneExecutor.submit(sniffed.orgId(), () -> process(message, sniffed.format()))
+                .whenComplete((ignored, throwable) -> message.ack());
+            return CompletableFuture.completedFuture(null);
         } else {
             process(message);
+            return message.ack();
         }
-        return message.ack();
     }
 
-    @ActivateRequestContext
     public void process(Message<String> message) {
+        process(message, PayloadFormat.sniff(message.getPayload()));
+    }
+
+    /*
+     * The payload format is passed by the caller when it has already read the top-level keys of the payload, so that
+     * the payload isn't read once more before it is parsed.
+     */
+    @ActivateRequestContext
+    void process(Message<String> message, PayloadFormat format) {
         // This timer will have dynamic tag values based on the action parsed from the received message.
         Timer.Sample consumedTimer = Timer.start(registry);
         String payload = message.getPayload();
         Map<String, String> tags = new HashMap<>();
         Event event = null;
 
-        // The two following variables have to be final or effectively final. That why their type is String[] instead of String.
+        try {
+            event = buildEvent(message, tags, format);
+            if (event != null) {
+                processEvent(event, tags);
+            }
+        } catch (Exception e) {
+            handleProcessingException(e, payload, event);
+        } finally {
+            stopConsumedTimer(consumedTimer, tags);
+        }
+    }
+
+    /**
+     * Parses the Kafka message payload and builds the {@link Event} that will be deduplicated, persisted and processed.
+     * @param message the Kafka message
+     * @param tags the tags of the consumed timer, updated while the payload is parsed
+     * @return the event or {@code null} if the event type is blacklisted
+     */
+    Event buildEvent(Message<String> message, Map<String, String> tags) {
+        return buildEvent(message, tags, PayloadFormat.sniff(message.getPayload()));
+    }
+
+    private Event buildEvent(Message<String> message, Map<String, String> tags, PayloadFormat format) {
+        String payload = message.getPayload();
+
         /*
          * Step 1
          * The payload (JSON) is parsed into an Action.
          */
-        try {
-
-            final EventWrapper<?, ?> eventWrapper = parsePayload(payload, tags);
-            /*
-             * The event data was successfully parsed (either as an action or a cloud event). Depending on the situation
-             * we now have a bundle/app/eventType triplet or a fully qualified name for the event type.
-             */
+        final EventWrapper<?, ?> eventWrapper = parsePayload(payload, format, tags);
+        /*
+         * The event data was successfully parsed (either as an action or a cloud event). Depending on the situation
+         * we now have a bundle/app/eventType triplet or a fully qualified name for the event type.
+         */
 
-            Map<String, Optional<String>> kafkaHeaders = kafkaHeadersExtractor.extract(message,
-                    MESSAGE_ID_HEADER,
-                    SOURCE_ENVIRONMENT_HEADER
-            );
+        Map<String, Optional<String>> kafkaHeaders = kafkaHeadersExtractor.extract(message,
+                MESSAGE_ID_HEADER,
+                SOURCE_ENVIRONMENT_HEADER
+        );
 
-            /*
-             * Step 2
-             * The message ID is extracted from the event data - if it is not present we fallback to the kafka headers
-             * It can be null for now to give the onboarded
-             * apps time to change their integration and start sending the new header. The message ID will become
-             * mandatory with cloud events. We may want to throw an exception when it is null.
-             */
-            final UUID messageId = getMessageId(eventWrapper, kafkaHeaders.get(MESSAGE_ID_HEADER));
+        /*
+         * Step 2
+         * The message ID is extracted from the event data - if it is not present we fallback to the kafka headers
+         * It can be null for now to give the onboarded
+         * apps time to change their integration and start sending the new header. The message ID will become
+         * mandatory with cloud events. We may want to throw an exception when it is null.
+         */
+        final UUID messageId = getMessageId(eventWrapper, kafkaHeaders.get(MESSAGE_ID_HEADER));
 
-            String msgId = messageId == null ? "null" : messageId.toString();
-            Log.infof("Processing received event [id=%s, %s=%s, orgId=%s, %s]",
-                    eventWrapper.getId(), MESSAGE_ID_HEADER, msgId, eventWrapper.getOrgId(), eventWrapper.getKey());
+        String msgId = messageId == null ? "null" : messageId.toString();
+        Log.infof("Processing received event [id=%s, %s=%s, orgId=%s, %s]",
+                eventWrapper.getId(), MESSAGE_ID_HEADER, msgId, eventWrapper.getOrgId(), eventWrapper.getKey());
 
-            /*
-             * Step 3
-             * We need to retrieve an EventType from the DB using the bundle/app/eventType triplet from the
-             * parsed Action.
-             */
-            EventType eventType;
-            EventWrapper<?, ?> eventWrapperToProcess = eventWrapper;
-            try {
-                eventType = eventTypeRepository.getEventType(eventWrapperToProcess.getKey());
-
-                if (eventWrapperToProcess instanceof EventWrapperCloudEvent) {
-                    // We loaded a cloud event and identified the event-type it belongs to
-                    // At this point, lets check if we have a transformation available for this event
-                    // If we do, transform the event - Later this will be done on a by-integration basis
-                    Optional<CloudEventTransformer> transformer = cloudEventTransformerFactory.getTransformerIfSupported((EventWrapperCloudEvent) eventWrapperToProcess);
-                    if (transformer.isPresent()) {
-                        eventWrapperToProcess = new EventWrapperAction(
-                                transformer.get().toAction(
-                                        (EventWrapperCloudEvent) eventWrapperToProcess,
-                                        eventType.getApplication().getBundle().getName(),
-                                        eventType.getApplication().getName(),
-                                        eventType.getName()
-                        ));
-                    }
+        /*
+         * Step 3
+         * We need to retrieve an EventType from the DB using the bundle/app/eventType triplet from the
+         * parsed Action.
+         */
+        EventType eventType;
+        EventWrapper<?, ?> eventWrapperToProcess = eventWrapper;
+        try {
+            eventType = eventTypeRepository.getEventType(eventWrapperToProcess.getKey());
+
+            if (eventWrapperToProcess instanceof EventWrapperCloudEvent) {
+                // We loaded a cloud event and identified the event-type it belongs to
+                // At this point, lets check if we have a transformation available for this event
+                // If we do, transform the event - Later this will be done on a by-integration basis
+                Optional<CloudEventTransformer> transformer = cloudEventTransformerFactory.getTransformerIfSupported((EventWrapperCloudEvent) eventWrapperToProcess);
+                if (transformer.isPresent()) {
+                    eventWrapperToProcess = new EventWrapperAction(
+                            transformer.get().toAction(
+                                    (EventWrapperCloudEvent) eventWrapperToProcess,
+                                    eventType.getApplication().getBundle().getName(),
+                                    eventType.getApplication().getName(),
+                                    eventType.getName()
+                    ));
                 }
+            }
 
-                tags.computeIfAbsent(TAG_KEY_BUNDLE, key -> eventType.getApplication().getBundle().getName());
-                tags.computeIfAbsent(TAG_KEY_APPLICATION, key -> eventType.getApplication().getName());
-                tags.computeIfAbsent(TAG_KEY_EVENT_TYPE, key -> eventType.getName());
-
-                if (config.isBlacklistedEventType(eventType.getId())) {
-                    Log.debugf("Skipping event type [id=%s, name=%s] because it was blacklisted", eventType.getId(), eventType.getName());
-                    registry.counter(
-                        PROCESSING_BLACKLISTED_COUNTER_NAME,
-                        TAG_KEY_BUNDLE, tags.getOrDefault(TAG_KEY_BUNDLE, ""),
-                        TAG_KEY_APPLICATION, tags.getOrDefault(TAG_KEY_APPLICATION, ""),
-                        TAG_KEY_EVENT_TYPE, tags.getOrDefault(TAG_KEY_EVENT_TYPE, ""),
-                        TAG_KEY_EVENT_TYPE_FQN, tags.getOrDefault(TAG_KEY_EVENT_TYPE_FQN, ""))
-                        .increment();
-                    return;
-                }
-            } catch (NoResultException | IllegalArgumentException e) {
-                /*
-                 * A NoResultException was thrown because no EventType was found. The message is therefore
-                 * considered rejected.
-                 */
-                rejectedCounter.increment();
-                throw new NoResultException(String.format(EVENT_TYPE_NOT_FOUND_MSG, eventWrapperToProcess.getKey()));
+            tags.computeIfAbsent(TAG_KEY_BUNDLE, key -> eventType.getApplication().getBundle().getName());
+            tags.computeIfAbsent(TAG_KEY_APPLICATION, key -> eventType.getApplication().getName());
+            tags.computeIfAbsent(TAG_KEY_EVENT_TYPE, key -> eventType.getName());
+
+            if (config.isBlacklistedEventType(eventType.getId())) {
+                Log.debugf("Skipping event type [id=%s, name=%s] because it was blacklisted", eventType.getId(), eventType.getName());
+                blacklistedCounters.get(
+                    tags.get(TAG_KEY_BUNDLE),
+                    tags.get(TAG_KEY_APPLICATION),
+                    tags.get(TAG_KEY_EVENT_TYPE),
+                    tags.get(TAG_KEY_EVENT_TYPE_FQN)
+                ).increment();
+                return null;
             }
+        } catch (NoResultException | IllegalArgumentException e) {
             /*
-             * Step 4
-             * The EventType was found. It's time to create an Event from the current message.
+             * A NoResultException was thrown because no EventType was found. The message is therefore
+             * considered rejected.
              */
-            Optional<String> sourceEnvironmentHeader = kafkaHeaders.get(SOURCE_ENVIRONMENT_HEADER);
-            event = new Event(eventType, payload, eventWrapperToProcess, sourceEnvironmentHeader, messageId);
+            rejectedCounter.increment();
+            throw new NoResultException(String.format(EVENT_TYPE_NOT_FOUND_MSG, eventWrapperToProcess.getKey()));
+        }
+        /*
+         * Step 4
+         * The EventType was found. It's time to create an Event from the current message.
+         */
+        Optional<String> sourceEnvironmentHeader = kafkaHeaders.get(SOURCE_ENVIRONMENT_HEADER);
+        return new Event(eventType, payload, eventWrapperToProcess, sourceEnvironmentHeader, messageId);
+    }
+
+    void processEvent(Event event, Map<String, String> tags) {
+        /*
+         * Step 5
+         * Before we persist the event into the DB and process it, we need to check whether the event is
+         * a duplicate using the custom event deduplication logic tenants might have implemented.
+         */
+        boolean isNewEvent = eventDeduplicator.isNew(event);
+        if (!isNewEvent) {
+            // The event is already known and should therefore be ignored.
+            incrementDuplicateCounter(tags);
+        } else {
 
             /*
-             * Step 5
-             * Before we persist the event into the DB and process it, we need to check whether the event is
-             * a duplicate using the custom event deduplication logic tenants might have implemented.
+             * Step 6
+             * The event is not a duplicate. We can now persist it.
              */
-            boolean isNewEvent = eventDeduplicator.isNew(event);
-            if (!isNewEvent) {
-                // The event is already known and should therefore be ignored.
-                Log.debug("Duplicated event ignored");
-                registry.counter(DUPLICATE_EVENT_COUNTER_NAME,
-                    TAG_KEY_BUNDLE, tags.getOrDefault(TAG_KEY_BUNDLE, ""),
-                    TAG_KEY_APPLICATION, tags.getOrDefault(TAG_KEY_APPLICATION, ""),
-                    TAG_KEY_EVENT_TYPE, tags.getOrDefault(TAG_KEY_EVENT_TYPE, ""))
-                    .increment();
-            } else {
+            prepareForPersistence(event);
 
-                /*
-                 * Step 6
-                 * The event is not a duplicate. We can now persist it.
-                 */
-                event.setHasAuthorizationCriterion(null != recipientsAuthorizationCriterionExtractor.extract(event));
-                updateSeverity(event);
+            eventRepository.create(event);
 
-                eventRepository.create(event);
+            /*
+             * Step 7
+             * The Event and the Action it contains are processed by all relevant endpoint processors.
+             */
+            processEndpoints(event);
+        }
+    }
 
-                /*
-                 * Step 7
-                 * The Event and the Action it contains are processed by all relevant endpoint processors.
-                 */
+    /**
+     * Performs steps 5 and 6 of {@link #process(Message)} for a whole micro-batch: the deduplication inserts and the
+     * event inserts are sent to the DB as a few batched statements, within a single transaction. Entries which are
+     * duplicates or which can't be prepared for persistence are flagged, the other ones are persisted.
+     * @param entries the batch entries for which an event was successfully built
+     */
+    @Transactional
+    public void deduplicateAndPersist(List<IngressBatchEntry> entries) {
+        List<Event> events = entries.stream().map(IngressBatchEntry::getEvent).toList();
+        List<Boolean> newEvents = eventDeduplicator.isNew(events);
+
+        List<Event> eventsToPersist = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            IngressBatchEntry entry = entries.get(i);
+            if (!newEvents.get(i)) {
+                entry.setDuplicate(true);
+            } else {
                 try {
-                    endpointProcessor.process(event);
+                    prepareForPersistence(entry.getEvent());
+                    eventsToPersist.add(entry.getEvent());
                 } catch (Exception e) {
-                    /*
-                     * The Event processing failed.
-                     */
-                    processingErrorCounter.increment();
-                    throw e;
+                    // The deduplication row is kept, just like it would be with the per-message path.
+                    entry.setFailure(e);
                 }
             }
+        }
+
+        eventRepository.create(eventsToPersist);
+    }
+
+    void prepareForPersistence(Event event) {
+        // The severity is part of the JSON view of the event, which the criterion extraction computes and memoizes.
+        updateSeverity(event);
+        RecipientsAuthorizationCriterion recipientsAuthorizationCriterion = recipientsAuthorizationCriterionExtractor.extract(event);
+        event.setHasAuthorizationCriterion(null != recipientsAuthorizationCriterion);
+        // Persisted with the event so that the backend doesn't need to parse the payload to read it.
+        event.setRecipientsAuthorizationCriterion(recipientsAuthorizationCriterion);
+    }
+
+    void processEndpoints(Event event) {
+        try {
+            endpointProcessor.process(event);
         } catch (Exception e) {
             /*
-             * An exception was thrown at some point during the Kafka message processing,
-             * it is logged and added to the exception counter metric. Any deduplication
-             * events added in Valkey will be rolled back.
+             * The Event processing failed.
              */
-            processingExceptionCounter.increment();
-            Log.infof(e, "Could not process the payload: %s", payload);
-            if (event != null && engineConfig.isInMemoryDbEnabled() && engineConfig.isValkeyEventDeduplicatorEnabled()) {
-                Event finalEvent = event;
-                Optional<String> dedupKey = eventDeduplicator.getEventDeduplicationConfig(event).getDeduplicationKey(event);
-                dedupKey.ifPresent(key -> valkeyService.removeEventFromDeduplication(finalEvent.getEventType().getId(), key));
-            }
-        } finally {
-            consumedTimer.stop(registry.timer(
-                    CONSUMED_TIMER_NAME,
-                    TAG_KEY_BUNDLE, tags.getOrDefault(TAG_KEY_BUNDLE, ""),
-                    TAG_KEY_APPLICATION, tags.getOrDefault(TAG_KEY_APPLICATION, ""),
-                    TAG_KEY_EVENT_TYPE, tags.getOrDefault(TAG_KEY_EVENT_TYPE, ""),
-                    TAG_KEY_EVENT_TYPE_FQN, tags.getOrDefault(TAG_KEY_EVENT_TYPE_FQN, "")
-            ));
+            processingErrorCounter.increment();
+            throw e;
         }
     }
 
+    void incrementDuplicateCounter(Map<String, String> tags) {
+        Log.debug("Duplicated event ignored");
+        duplicateEventCounters.get(
+            tags.get(TAG_KEY_BUNDLE),
+            tags.get(TAG_KEY_APPLICATION),
+            tags.get(TAG_KEY_EVENT_TYPE)
+        ).increment();
+    }
+
+    void handleProcessingException(Exception e, String payload, Event event) {
+        /*
+         * An exception was thrown at some point during the Kafka message processing,
+         * it is logged and added to the exception counter metric. Any deduplication
+         * events added in Valkey will be rolled back.
+         */
+        processingExceptionCounter.increment();
+        Log.infof(e, "Could not process the payload: %s", payload);
+        if (event != null && engineConfig.isInMemoryDbEnabled() && engineConfig.isValkeyEventDeduplicatorEnabled()) {
+            Optional<String> dedupKey = eventDeduplicator.getEventDeduplicationConfig(event).getDeduplicationKey(event);
+            dedupKey.ifPresent(key -> {
+                if (valkeyService.isPipeliningEnabled()) {
+                    // The removal is sent after the pipelined check that inserted the key.
+                    valkeyService.removeEventFromDeduplicationAsync(event.getEventType().getId(), key).subscribe().with(removed -> { });
+                } else {
+                    valkeyService.removeEventFromDeduplication(event.getEventType().getId(), key);
+                }
+            });
+        }
+    }
+
+    void stopConsumedTimer(Timer.Sample consumedTimer, Map<String, String> tags) {
+        consumedTimer.stop(consumedTimers.get(
+                tags.get(TAG_KEY_BUNDLE),
+                tags.get(TAG_KEY_APPLICATION),
+                tags.get(TAG_KEY_EVENT_TYPE),
+                tags.get(TAG_KEY_EVENT_TYPE_FQN)
+        ));
+    }
+
     private void updateSeverity(Event event) {
         final Severity severity = severityTransformer.getSeverity(event);
-        event.setSeverity(severity);
 
         if (event.getEventWrapper() instanceof EventWrapperAction evtAction) {
             if (severity != null) {
                 evtAction.getEvent().setSeverity(severity.name());
             }
         }
+        // Also resets the memoized JSON view of the event, which carries the Action severity.
+        event.setSeverity(severity);
     }
 
-    private EventWrapper<?, ?> parsePayload(String payload, Map<String, String> tags) {
-        try {
-            Action action = actionParser.fromJsonString(payload);
-            tags.put(TAG_KEY_BUNDLE, action.getBundle());
-            tags.put(TAG_KEY_APPLICATION, action.getApplication());
-            tags.put(TAG_KEY_EVENT_TYPE, action.getEventType());
-            return new EventWrapperAction(action);
-        } catch (ActionParsingException actionParseException) {
-            // Try to load it as a CloudEvent
+    private EventWrapper<?, ?> parsePayload(String payload, PayloadFormat format, Map<String, String> tags) {
+        /*
+         * The payload format is guessed from its top-level keys so that a cloud event isn't parsed as an action first.
+         * The other parser is still tried if the guess was wrong, which keeps the routing of the payloads unchanged.
+         */
+        if (format == PayloadFormat.CLOUD_EVENT) {
             try {
-                EventWrapperCloudEvent eventWrapperCloudEvent = new EventWrapperCloudEvent(cloudEventParser.fromJsonString(payload, NotificationsConsoleCloudEvent.class));
-                tags.put(TAG_KEY_EVENT_TYPE_FQN, eventWrapperCloudEvent.getKey().getFullyQualifiedName());
-                return eventWrapperCloudEvent;
+                return parseCloudEvent(payload, tags);
             } catch (ConsoleCloudEventParsingException cloudEventParseException) {
-                /*
-                 * An exception (most likely UncheckedIOException) was thrown during the payload parsing. The message
-                 * is therefore considered rejected.
-                 */
-                rejectedCounter.increment();
-
-                actionParseException.addSuppressed(cloudEventParseException);
-                throw actionParseException;
+                try {
+                    return parseAction(payload, tags);
+                } catch (ActionParsingException actionParseException) {
+                    throw rejectPayload(actionParseException, cloudEventParseException);
+                }
+            }
+        } else {
+            try {
+                return parseAction(payload, tags);
+            } catch (ActionParsingException actionParseException) {
+                // Try to load it as a CloudEvent
+                try {
+                    return parseCloudEvent(payload, tags);
+                } catch (ConsoleCloudEventParsingException cloudEventParseException) {
+                    throw rejectPayload(actionParseException, cloudEventParseException);
+                }
             }
         }
     }
 
+    private EventWrapperAction parseAction(String payload, Map<String, String> tags) {
+        Action action = actionParser.fromJsonString(payload);
+        tags.put(TAG_KEY_BUNDLE, action.getBundle());
+        tags.put(TAG_KEY_APPLICATION, action.getApplication());
+        tags.put(TAG_KEY_EVENT_TYPE, action.getEventType());
+        return new EventWrapperAction(action);
+    }
+
+    private EventWrapperCloudEvent parseCloudEvent(String payload, Map<String, String> tags) {
+        EventWrapperCloudEvent eventWrapperCloudEvent = new EventWrapperCloudEvent(cloudEventParser.fromJsonString(payload, NotificationsConsoleCloudEvent.class));
+        tags.put(TAG_KEY_EVENT_TYPE_FQN, eventWrapperCloudEvent.getKey().getFullyQualifiedName());
+        return eventWrapperCloudEvent;
+    }
+
+    private ActionParsingException rejectPayload(ActionParsingException actionParseException, ConsoleCloudEventParsingException cloudEventParseException) {
+        /*
+         * An exception (most likely UncheckedIOException) was thrown during the payload parsing. The message
+         * is therefore considered rejected.
+         */
+        rejectedCounter.increment();
+
+        actionParseException.addSuppressed(cloudEventParseException);
+        return actionParseException;
+    }
+
     private UUID getMessageId(EventWrapper<?, ?> eventWrapper, Optional<String> messageIdHeader) {
         UUID messageId = eventWrapper.getId();
         if (messageId == null) {
@@ -0,0 +1,62 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.models.Event;
+import io.micrometer.core.instrument.Timer;
+import org.eclipse.microprofile.reactive.messaging.Message;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the processing state of a single Kafka message while it goes through the micro-batched ingress.
+ */
+public class IngressBatchEntry {
+
+    private final Message<String> message;
+    private final Timer.Sample consumedTimer;
+    private final Map<String, String> tags = new HashMap<>();
+    private Event event;
+    private boolean duplicate;
+    private Exception failure;
+
+    public IngressBatchEntry(Message<String> message, Timer.Sample consumedTimer) {
+        this.message = message;
+        this.consumedTimer = consumedTimer;
+    }
+
+    public Message<String> getMessage() {
+        return message;
+    }
+
+    public Timer.Sample getConsumedTimer() {
+        return consumedTimer;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+
+    public void setEvent(Event event) {
+        this.event = event;
+    }
+
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    public void setDuplicate(boolean duplicate) {
+        this.duplicate = duplicate;
+    }
+
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public void setFailure(Exception failure) {
+        this.failure = failure;
+    }
+}
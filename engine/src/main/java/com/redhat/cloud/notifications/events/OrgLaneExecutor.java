@@ -0,0 +1,169 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.config.EngineConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Shutdown;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Runs the asynchronous ingress processing on virtual threads. The orgs are spread across a fixed number of serial
+ * lanes, so the events of an org are processed one at a time and in the order they were received, while an org that
+ * sends a lot of events can only occupy its own lane. The number of events waiting or running in a lane and in all
+ * lanes is bounded: {@link #submit(String, Runnable)} blocks the calling thread until there is room for the event,
+ * which stops the Kafka consumption until the processing catches up.
+ */
+@ApplicationScoped
+public class OrgLaneExecutor {
+
+    public static final String IN_FLIGHT_GAUGE_NAME = "input.in-flight";
+
+    @Inject
+    EngineConfig config;
+
+    @Inject
+    MeterRegistry registry;
+
+    private Lane[] lanes;
+    private int maxInFlight;
+    private Semaphore inFlightPermits;
+    private volatile boolean accepting = true;
+
+    @PostConstruct
+    void init() {
+        lanes = new Lane[config.getEventConsumerLanes()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i, config.getEventConsumerLaneCapacity());
+        }
+        maxInFlight = config.getEventConsumerMaxInFlight();
+        inFlightPermits = new Semaphore(maxInFlight);
+        registry.gauge(IN_FLIGHT_GAUGE_NAME, this, OrgLaneExecutor::getInFlight);
+    }
+
+    void onShutdown(@Observes Shutdown event) {
+        // The in-flight events still need the other beans, so they are drained before the beans are destroyed.
+        drain(config.getEventConsumerDrainTimeout());
+    }
+
+    /**
+     * Queues a task in the lane of the given org.
+     * @param orgId the org ID, which may be {@code null} if the payload doesn't contain any
+     * @param task the task
+     * @return a future completed once the task ran
+     * @throws RejectedExecutionException if the executor is draining or if the calling thread was interrupted while it
+     * was waiting for room in the lane
+     */
+    public CompletableFuture<Void> submit(String orgId, Runnable task) {
+        if (!accepting) {
+            throw new RejectedExecutionException("The executor is draining");
+        }
+        Lane lane = lanes[Math.floorMod(Objects.hashCode(orgId), lanes.length)];
+
+        // The lane permit is acquired first, so a full lane doesn't hold a global permit while it waits.
+        try {
+            lane.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in lane " + lane.index, e);
+        }
+        try {
+            inFlightPermits.acquire();
+        } catch (InterruptedException e) {
+            lane.permits.release();
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in the executor", e);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        lane.enqueue(() -> {
+            try {
+                task.run();
+                result.complete(null);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                inFlightPermits.release();
+                lane.permits.release();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stops accepting new tasks and waits until the queued and running tasks are done.
+     * @param timeout the maximum time to wait
+     * @return {@code true} if all tasks were done before the timeout
+     */
+    public boolean drain(Duration timeout) {
+        accepting = false;
+        Log.infof("Draining the ingress executor [inFlight=%d]", getInFlight());
+        try {
+            // Each queued or running task holds a permit until it is done.
+            if (inFlightPermits.tryAcquire(maxInFlight, timeout.toMillis(), MILLISECONDS)) {
+                inFlightPermits.release(maxInFlight);
+                Log.info("The ingress executor was drained");
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Log.warnf("The ingress executor could not be drained, %d events will be consumed again after the restart", getInFlight());
+        return false;
+    }
+
+    int getInFlight() {
+        return maxInFlight - inFlightPermits.availablePermits();
+    }
+
+    private static final class Lane {
+
+        private final int index;
+        private final Semaphore permits;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        // Guarded by "this", true while a virtual thread is running the tasks of this lane.
+        private boolean running;
+
+        private Lane(int index, int capacity) {
+            this.index = index;
+            this.permits = new Semaphore(capacity);
+        }
+
+        private void enqueue(Runnable task) {
+            synchronized (this) {
+                tasks.add(task);
+                if (running) {
+                    return;
+                }
+                running = true;
+            }
+            Thread.ofVirtual().name("ingress-lane-" + index).start(this::runTasks);
+        }
+
+        private void runTasks() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        running = false;
+                        return;
+                    }
+                }
+                task.run();
+            }
+        }
+    }
+}
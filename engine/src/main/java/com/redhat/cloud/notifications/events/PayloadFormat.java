@@ -0,0 +1,104 @@
+package com.redhat.cloud.notifications.events;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Format of an ingress payload, guessed from its top-level keys without building a tree or validating the payload
+ * against any schema. It is only used to pick the parser that should be tried first: the guess is never trusted
+ * blindly, so a wrong guess costs a second parsing but doesn't change how the payload is routed.
+ */
+public enum PayloadFormat {
+
+    /**
+     * The payload contains the top-level keys which are required in an {@link com.redhat.cloud.notifications.ingress.Action}.
+     */
+    ACTION,
+    /**
+     * The payload contains a {@code specversion} top-level key and can't be a valid action.
+     */
+    CLOUD_EVENT,
+    /**
+     * The payload is not a JSON object or doesn't contain any of the top-level keys above.
+     */
+    UNKNOWN;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Result of a single reading of the top-level keys of a payload.
+     * @param format the guessed format of the payload
+     * @param orgId the first {@code org_id} or {@code redhatorgid} top-level string value, or {@code null}
+     */
+    public record Sniffed(PayloadFormat format, String orgId) {
+    }
+
+    /**
+     * Reads the top-level keys of the given payload. The nested objects and arrays are skipped without being decoded,
+     * and the reading stops as soon as the keys required in an action have all been found.
+     * @param payload the payload
+     * @return the guessed format of the payload
+     */
+    public static PayloadFormat sniff(String payload) {
+        return read(payload, false).format();
+    }
+
+    /**
+     * Reads the top-level keys of the given payload like {@link #sniff(String)}, and the org ID of the action or the
+     * cloud event in the same pass. The reading of an action only stops early once its org ID has been found too.
+     * @param payload the payload
+     * @return the guessed format and the org ID of the payload
+     */
+    public static Sniffed sniffWithOrgId(String payload) {
+        return read(payload, true);
+    }
+
+    private static Sniffed read(String payload, boolean withOrgId) {
+        boolean bundle = false;
+        boolean application = false;
+        boolean eventType = false;
+        boolean specVersion = false;
+        String orgId = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new Sniffed(UNKNOWN, null);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                switch (fieldName) {
+                    case "bundle" -> bundle = true;
+                    case "application" -> application = true;
+                    case "event_type" -> eventType = true;
+                    case "specversion" -> specVersion = true;
+                    default -> {
+                        // Any other key is ignored.
+                    }
+                }
+                if (bundle && application && eventType && (!withOrgId || orgId != null)) {
+                    return new Sniffed(ACTION, orgId);
+                }
+                if (parser.nextToken() == JsonToken.VALUE_STRING && orgId == null && isOrgIdKey(fieldName)) {
+                    orgId = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            // The payload is not valid JSON, the parsers will report the error.
+            return new Sniffed(bundle && application && eventType ? ACTION : UNKNOWN, orgId);
+        }
+
+        if (bundle && application && eventType) {
+            return new Sniffed(ACTION, orgId);
+        }
+        return new Sniffed(specVersion ? CLOUD_EVENT : UNKNOWN, orgId);
+    }
+
+    private static boolean isOrgIdKey(String fieldName) {
+        return "org_id".equals(fieldName) || "redhatorgid".equals(fieldName);
+    }
+}
@@ -1,10 +1,16 @@
 package com.redhat.cloud.notifications.events;
 
 import com.redhat.cloud.notifications.config.EngineConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
 import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.redis.client.Command;
 import io.vertx.mutiny.redis.client.Redis;
 import io.vertx.mutiny.redis.client.RedisAPI;
+import io.vertx.mutiny.redis.client.Request;
 import io.vertx.mutiny.redis.client.Response;
 import io.vertx.redis.client.RedisOptions;
 import jakarta.annotation.PostConstruct;
@@ -16,19 +22,31 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /** Stores and retrieves data from remote cache (i.e. Valkey). */
 @ApplicationScoped
 public class ValkeyService {
 
+    public static final String PIPELINE_BATCH_SIZE_SUMMARY_NAME = "valkey.pipeline.batch.size";
+
     private static final String EVENT_DEDUPLICATION_KEY = "engine:event-deduplication";
 
     @ConfigProperty(name = "valkey-service.ttl", defaultValue = "PT24H")
     Duration ttl;
 
+    @ConfigProperty(name = "valkey-service.pipelining.enabled", defaultValue = "false")
+    boolean pipeliningEnabled;
+
+    @ConfigProperty(name = "valkey-service.pipelining.max-batch-size", defaultValue = "100")
+    int pipeliningMaxBatchSize;
+
     @ConfigProperty(name = "quarkus.redis.hosts", defaultValue = "")
     Optional<String> valkeyHost;
 
@@ -41,14 +59,26 @@ public class ValkeyService {
     @Inject
     Vertx vertx;
 
+    @Inject
+    MeterRegistry registry;
+
     /** The underlying client connecting to Valkey. */
     private Redis valkeyClient;
 
     /** Implementation of the Redis/Valkey API, using {@link #valkeyClient} */
     private RedisAPI valkey;
 
+    /** Commands waiting to be sent to Valkey by the next pipelined batch. */
+    private final Queue<PipelinedCommand> pipeline = new ConcurrentLinkedQueue<>();
+
+    /** True while a pipelined batch is scheduled or waiting for its responses. */
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private DistributionSummary pipelineBatchSize;
+
     @PostConstruct
     void initialize() {
+        pipelineBatchSize = registry.summary(PIPELINE_BATCH_SIZE_SUMMARY_NAME);
         if (config.isInMemoryDbEnabled()) {
             if (valkeyHost.isEmpty() || valkeyHost.get().isEmpty()) {
                 throw new IllegalStateException("In-memory DB enabled, but Valkey connection string was not provided");
@@ -66,6 +96,10 @@ public class ValkeyService {
         return String.format("%s:%s:%s", EVENT_DEDUPLICATION_KEY, eventTypeId, deduplicationKey);
     }
 
+    public boolean isPipeliningEnabled() {
+        return pipeliningEnabled;
+    }
+
     public String runHealthCheck() throws Exception {
         if (config.isInMemoryDbEnabled()) {
             return valkey.ping(List.of()).await().atMost(Duration.ofSeconds(10)).toString();
@@ -83,7 +117,6 @@ public class ValkeyService {
     public boolean isNewEvent(UUID eventTypeId, String deduplicationKey, LocalDateTime deleteAfter) {
         String key = formatDeduplicationKey(eventTypeId, deduplicationKey);
         String deleteAfterIso = deleteAfter.format(DateTimeFormatter.ISO_DATE_TIME);
-        boolean isNew;
 
         Response valkeyResp = valkey.setAndAwait(List.of(
                 key,
@@ -93,6 +126,29 @@ public class ValkeyService {
                 String.valueOf(deleteAfter.toEpochSecond(ZoneOffset.UTC))
         ));
 
+        return isNewEvent(valkeyResp, eventTypeId, deduplicationKey, deleteAfterIso);
+    }
+
+    /**
+     * Pipelined counterpart of {@link #isNewEvent(UUID, String, LocalDateTime)}. The check is queued and sent to Valkey
+     * with the other checks and removals queued at the same time, in a single batch. Only one batch is sent at a time:
+     * the commands queued while a batch is waiting for its responses are sent together in the next one.
+     */
+    public Uni<Boolean> isNewEventAsync(UUID eventTypeId, String deduplicationKey, LocalDateTime deleteAfter) {
+        String deleteAfterIso = deleteAfter.format(DateTimeFormatter.ISO_DATE_TIME);
+        Request request = Request.cmd(Command.SET)
+                .arg(formatDeduplicationKey(eventTypeId, deduplicationKey))
+                .arg(deleteAfterIso)
+                .arg("NX")
+                .arg("EXAT")
+                .arg(deleteAfter.toEpochSecond(ZoneOffset.UTC));
+        return enqueue(request)
+                .map(valkeyResp -> isNewEvent(valkeyResp, eventTypeId, deduplicationKey, deleteAfterIso));
+    }
+
+    private static boolean isNewEvent(Response valkeyResp, UUID eventTypeId, String deduplicationKey, String deleteAfterIso) {
+        boolean isNew;
+
         if (valkeyResp == null) {
             isNew = false;
         } else {
@@ -121,4 +177,66 @@ public class ValkeyService {
             return false;
         }
     }
+
+    /**
+     * Pipelined counterpart of {@link #removeEventFromDeduplication(UUID, String)}. The removal is sent after the
+     * pipelined checks which were queued before it.
+     */
+    public Uni<Boolean> removeEventFromDeduplicationAsync(UUID eventTypeId, String deduplicationKey) {
+        return enqueue(Request.cmd(Command.DEL).arg(formatDeduplicationKey(eventTypeId, deduplicationKey)))
+                .map(Response::toBoolean)
+                .onFailure().recoverWithItem(failure -> {
+                    Log.warnf(
+                            "Failed to remove duplicate event from Valkey during rollback [event_type_id=%s, deduplication_key=%s]",
+                            eventTypeId, deduplicationKey);
+                    return false;
+                });
+    }
+
+    private Uni<Response> enqueue(Request request) {
+        return Uni.createFrom().emitter(emitter -> {
+            pipeline.add(new PipelinedCommand(request, emitter));
+            scheduleFlush();
+        });
+    }
+
+    private void scheduleFlush() {
+        if (!pipeline.isEmpty() && flushing.compareAndSet(false, true)) {
+            vertx.runOnContext(this::flush);
+        }
+    }
+
+    private void flush() {
+        List<PipelinedCommand> batch = new ArrayList<>();
+        PipelinedCommand command;
+        while (batch.size() < pipeliningMaxBatchSize && (command = pipeline.poll()) != null) {
+            batch.add(command);
+        }
+        if (batch.isEmpty()) {
+            flushing.set(false);
+            // A command may have been queued after the queue was found empty.
+            scheduleFlush();
+            return;
+        }
+
+        pipelineBatchSize.record(batch.size());
+        valkeyClient.batch(batch.stream().map(PipelinedCommand::request).toList())
+                .subscribe().with(
+                    responses -> {
+                        for (int i = 0; i < batch.size(); i++) {
+                            batch.get(i).emitter().complete(responses.get(i));
+                        }
+                        flushing.set(false);
+                        scheduleFlush();
+                    },
+                    failure -> {
+                        batch.forEach(pipelinedCommand -> pipelinedCommand.emitter().fail(failure));
+                        flushing.set(false);
+                        scheduleFlush();
+                    }
+                );
+    }
+
+    private record PipelinedCommand(Request request, UniEmitter<? super Response> emitter) {
+    }
 }
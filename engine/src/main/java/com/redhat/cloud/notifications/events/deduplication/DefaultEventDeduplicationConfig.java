@@ -2,12 +2,15 @@ package com.redhat.cloud.notifications.events.deduplication;
 
 import com.redhat.cloud.notifications.models.Event;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
 public class DefaultEventDeduplicationConfig implements EventDeduplicationConfig {
 
     private static final int DEFAULT_RETENTION_DELAY_IN_DAYS = 1;
+    // How long after the event timestamp the deduplication key is kept.
+    static final Duration MAX_RETENTION = Duration.ofDays(DEFAULT_RETENTION_DELAY_IN_DAYS);
 
     @Override
     public LocalDateTime getDeleteAfter(Event event) {
@@ -0,0 +1,245 @@
+package com.redhat.cloud.notifications.events.deduplication;
+
+import com.redhat.cloud.notifications.events.deduplication.EventDeduplicator.DeduplicationKey;
+import com.redhat.cloud.notifications.metrics.MeterCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * In-memory pre-filter of the deduplication keys, with one {@link TimeWindowedBloomFilter} per deduplication config.
+ * When the filter has definitely not seen a key, the event is considered new without waiting for the DB: the key is
+ * kept in memory and inserted into the {@code event_deduplication} table later, with other keys, by
+ * {@link EventDeduplicator#flushDeferredInserts()}. The keys which may have been seen are still checked against the DB.
+ * <p>
+ * The filter only knows the keys checked by this pod since it started and the keys which were in the DB when it
+ * started. It must only be enabled when all the occurrences of an event are consumed by the same pod, otherwise the
+ * duplicates sent to different pods can be accepted. Such duplicates are detected when the deferred keys are inserted
+ * and counted by {@link #LATE_DUPLICATE_COUNTER_NAME}.
+ */
+@ApplicationScoped
+public class EventDeduplicationFilter {
+
+    public static final String CHECK_COUNTER_NAME = "event.deduplication.filter.check";
+    public static final String FALSE_POSITIVE_COUNTER_NAME = "event.deduplication.filter.false-positive";
+    public static final String LATE_DUPLICATE_COUNTER_NAME = "event.deduplication.filter.late-duplicate";
+    public static final String ESTIMATED_FALSE_POSITIVE_RATE_GAUGE_NAME = "event.deduplication.filter.estimated-false-positive-rate";
+    public static final String PENDING_INSERTS_GAUGE_NAME = "event.deduplication.filter.pending-inserts";
+    public static final String TAG_KEY_FILTER = "filter";
+    public static final String TAG_KEY_RESULT = "result";
+    public static final String DEFAULT_FILTER = "default";
+    public static final String SUBSCRIPTIONS_FILTER = "subscriptions";
+
+    @ConfigProperty(name = "notifications.event-deduplication.filter.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "notifications.event-deduplication.filter.false-positive-rate", defaultValue = "0.01")
+    double falsePositiveRate;
+
+    @ConfigProperty(name = "notifications.event-deduplication.filter.max-generations", defaultValue = "4")
+    int maxGenerations;
+
+    @ConfigProperty(name = "notifications.event-deduplication.filter.default.expected-keys-per-day", defaultValue = "1000000")
+    long defaultExpectedKeysPerDay;
+
+    @ConfigProperty(name = "notifications.event-deduplication.filter.subscriptions.expected-keys-per-day", defaultValue = "100000")
+    long subscriptionsExpectedKeysPerDay;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, TimeWindowedBloomFilter> filters = new ConcurrentHashMap<>();
+    // Keys considered new by a filter which are not in the DB yet.
+    private final Map<DeduplicationKey, LocalDateTime> pendingInserts = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private MeterCache<Counter> checkCounters;
+    private MeterCache<Counter> falsePositiveCounters;
+    private Counter lateDuplicateCounter;
+
+    enum Result {
+        /** The key was never seen, it was added to the pending inserts. */
+        DEFINITELY_NEW("definitely-new"),
+        /** The key may have been seen, it has to be checked against the DB. */
+        MAYBE_SEEN("maybe-seen"),
+        /** The filter is disabled or not ready, the key has to be checked against the DB. */
+        UNAVAILABLE("unavailable");
+
+        private final String tagValue;
+
+        Result(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        checkCounters = MeterCache.counters(registry, CHECK_COUNTER_NAME, TAG_KEY_FILTER, TAG_KEY_RESULT);
+        falsePositiveCounters = MeterCache.counters(registry, FALSE_POSITIVE_COUNTER_NAME, TAG_KEY_FILTER);
+        lateDuplicateCounter = registry.counter(LATE_DUPLICATE_COUNTER_NAME);
+        registry.gauge(PENDING_INSERTS_GAUGE_NAME, pendingInserts, Map::size);
+        for (String filterName : List.of(DEFAULT_FILTER, SUBSCRIPTIONS_FILTER)) {
+            registry.gauge(ESTIMATED_FALSE_POSITIVE_RATE_GAUGE_NAME, Tags.of(TAG_KEY_FILTER, filterName), this,
+                filter -> filter.getEstimatedFalsePositiveRate(filterName));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Drops the filters and the pending inserts. The filters are created again by the next recorded or loaded key and
+     * they can't be used until {@link #markReady()} is called.
+     */
+    void reset() {
+        ready = false;
+        filters.clear();
+        pendingInserts.clear();
+    }
+
+    void markReady() {
+        ready = true;
+        Log.info("The event deduplication filter is ready");
+    }
+
+    /**
+     * Records a key loaded from the DB while the filters are not ready. The keys checked against the DB while the
+     * filters are loaded are recorded too, so the keys committed after the start of the load are not missed.
+     */
+    void load(String filterName, DeduplicationKey key, LocalDateTime deleteAfter) {
+        record(filterName, key, deleteAfter);
+    }
+
+    /**
+     * Adds the key to the pending inserts if the filter has definitely not seen it.
+     */
+    Result check(String filterName, DeduplicationKey key, LocalDateTime deleteAfter) {
+        if (!enabled || !ready) {
+            return Result.UNAVAILABLE;
+        }
+        // The filter may not exist yet if no key of that filter was loaded or recorded.
+        TimeWindowedBloomFilter filter = filters.computeIfAbsent(filterName, this::buildFilter);
+        Result result;
+        synchronized (filter) {
+            // The key is added to the pending inserts before any other thread can find it in the filter.
+            if (filter.putIfAbsent(toFilterKey(key), deleteAfter, LocalDateTime.now(UTC))) {
+                pendingInserts.put(key, deleteAfter);
+                result = Result.DEFINITELY_NEW;
+            } else {
+                result = Result.MAYBE_SEEN;
+            }
+        }
+        checkCounters.get(filterName, result.tagValue).increment();
+        return result;
+    }
+
+    /**
+     * Returns {@code true} if the key was considered new by a filter and is not in the DB yet.
+     */
+    boolean isPendingInsert(DeduplicationKey key) {
+        return pendingInserts.containsKey(key);
+    }
+
+    /**
+     * Records a key which was checked against the DB, so that the filter reports it as possibly seen from now on.
+     * @param result the result of {@link #check(String, DeduplicationKey, LocalDateTime)} for that key
+     * @param isNew {@code true} if the DB didn't know the key
+     */
+    void record(String filterName, DeduplicationKey key, LocalDateTime deleteAfter, Result result, boolean isNew) {
+        if (result == Result.MAYBE_SEEN && isNew) {
+            falsePositiveCounters.get(filterName).increment();
+        }
+        record(filterName, key, deleteAfter);
+    }
+
+    /**
+     * Returns up to {@code maxSize} pending inserts. They stay pending until {@link #onPendingInsertsFlushed(Map, Set)}
+     * is called, so that the keys are always either pending or in the DB.
+     */
+    Map<DeduplicationKey, LocalDateTime> getPendingInserts(int maxSize) {
+        Map<DeduplicationKey, LocalDateTime> batch = new LinkedHashMap<>();
+        for (Map.Entry<DeduplicationKey, LocalDateTime> entry : pendingInserts.entrySet()) {
+            if (batch.size() >= maxSize) {
+                break;
+            }
+            batch.put(entry.getKey(), entry.getValue());
+        }
+        return batch;
+    }
+
+    /**
+     * Removes the pending inserts once they were committed.
+     * @param flushed the pending inserts sent to the DB
+     * @param insertedKeys the keys which were not already in the DB
+     */
+    void onPendingInsertsFlushed(Map<DeduplicationKey, LocalDateTime> flushed, Set<DeduplicationKey> insertedKeys) {
+        int lateDuplicates = 0;
+        for (Map.Entry<DeduplicationKey, LocalDateTime> entry : flushed.entrySet()) {
+            pendingInserts.remove(entry.getKey(), entry.getValue());
+            if (!insertedKeys.contains(entry.getKey())) {
+                lateDuplicates++;
+            }
+        }
+        if (lateDuplicates > 0) {
+            // Another pod already inserted these keys, the events were processed twice.
+            lateDuplicateCounter.increment(lateDuplicates);
+            Log.warnf("%d events considered new by the deduplication filter were duplicates", lateDuplicates);
+        }
+    }
+
+    int getPendingInsertCount() {
+        return pendingInserts.size();
+    }
+
+    private void record(String filterName, DeduplicationKey key, LocalDateTime deleteAfter) {
+        if (!enabled) {
+            return;
+        }
+        TimeWindowedBloomFilter filter = filters.computeIfAbsent(filterName, this::buildFilter);
+        synchronized (filter) {
+            filter.put(toFilterKey(key), deleteAfter, LocalDateTime.now(UTC));
+        }
+    }
+
+    private double getEstimatedFalsePositiveRate(String filterName) {
+        TimeWindowedBloomFilter filter = filters.get(filterName);
+        if (filter == null) {
+            return 0;
+        }
+        synchronized (filter) {
+            return filter.getEstimatedFalsePositiveRate();
+        }
+    }
+
+    private static String toFilterKey(DeduplicationKey key) {
+        return key.eventTypeId() + ":" + key.deduplicationKey();
+    }
+
+    private TimeWindowedBloomFilter buildFilter(String filterName) {
+        LocalDateTime now = LocalDateTime.now(UTC);
+        if (SUBSCRIPTIONS_FILTER.equals(filterName)) {
+            return buildFilter(SubscriptionsDeduplicationConfig.MAX_RETENTION, subscriptionsExpectedKeysPerDay, now);
+        }
+        return buildFilter(DefaultEventDeduplicationConfig.MAX_RETENTION, defaultExpectedKeysPerDay, now);
+    }
+
+    private TimeWindowedBloomFilter buildFilter(Duration retention, long expectedKeysPerDay, LocalDateTime now) {
+        long expectedKeysPerWindow = Math.max(1, retention.toDays()) * expectedKeysPerDay;
+        return new TimeWindowedBloomFilter(retention, maxGenerations, expectedKeysPerWindow, falsePositiveRate, now);
+    }
+}
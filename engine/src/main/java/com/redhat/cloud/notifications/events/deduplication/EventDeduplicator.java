@@ -2,23 +2,63 @@ package com.redhat.cloud.notifications.events.deduplication;
 
 import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.events.ValkeyService;
+import com.redhat.cloud.notifications.events.deduplication.EventDeduplicationFilter.Result;
+import com.redhat.cloud.notifications.metrics.MeterCache;
 import com.redhat.cloud.notifications.models.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Shutdown;
+import jakarta.enterprise.event.Startup;
 import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicationFilter.DEFAULT_FILTER;
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicationFilter.SUBSCRIPTIONS_FILTER;
+import static java.time.ZoneOffset.UTC;
 
 @ApplicationScoped
 public class EventDeduplicator {
 
+    public static final String VALKEY_DISAGREEMENT_COUNTER_NAME = "event.deduplication.valkey.disagreement";
+    public static final String VALKEY_FAILURE_COUNTER_NAME = "event.deduplication.valkey.failure";
+    public static final String TAG_KEY_POSTGRES = "postgres";
+    public static final String TAG_KEY_VALKEY = "valkey";
+    public static final String TAG_VALUE_NEW = "new";
+    public static final String TAG_VALUE_DUPLICATE = "duplicate";
+
     private static final DefaultEventDeduplicationConfig DEFAULT_DEDUPLICATION_CONFIG = new DefaultEventDeduplicationConfig();
     private static final String SUBSCRIPTION_SERVICES_BUNDLE = "subscription-services";
     private static final String SUBSCRIPTIONS_APP = "subscriptions";
+    // Each row is bound to 3 parameters and PostgreSQL accepts at most 65535 parameters per statement.
+    private static final int MAX_DEFERRED_INSERTS_PER_STATEMENT = 1000;
 
     @Inject
     EntityManager entityManager;
@@ -32,17 +72,44 @@ public class EventDeduplicator {
     @Inject
     ValkeyService valkeyService;
 
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    EventDeduplicationFilter eventDeduplicationFilter;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private Counter valkeyFailureCounter;
+    private MeterCache<Counter> valkeyDisagreementCounters;
+
+    @PostConstruct
+    void postConstruct() {
+        valkeyFailureCounter = registry.counter(VALKEY_FAILURE_COUNTER_NAME);
+        valkeyDisagreementCounters = MeterCache.counters(registry, VALKEY_DISAGREEMENT_COUNTER_NAME, TAG_KEY_POSTGRES, TAG_KEY_VALKEY);
+    }
+
     public EventDeduplicationConfig getEventDeduplicationConfig(Event event) {
-        return switch (event.getEventType().getApplication().getBundle().getName()) {
-            case SUBSCRIPTION_SERVICES_BUNDLE ->
-                switch (event.getEventType().getApplication().getName()) {
-                    case SUBSCRIPTIONS_APP -> subscriptionsDeduplicationConfig;
-                    default -> DEFAULT_DEDUPLICATION_CONFIG;
-                };
+        return switch (getFilterName(event)) {
+            case SUBSCRIPTIONS_FILTER -> subscriptionsDeduplicationConfig;
             default -> DEFAULT_DEDUPLICATION_CONFIG;
         };
     }
 
+    private static String getFilterName(Event event) {
+        return getFilterName(event.getEventType().getApplication().getBundle().getName(), event.getEventType().getApplication().getName());
+    }
+
+    // There is one filter per deduplication config.
+    private static String getFilterName(String bundleName, String appName) {
+        if (SUBSCRIPTION_SERVICES_BUNDLE.equals(bundleName) && SUBSCRIPTIONS_APP.equals(appName)) {
+            return SUBSCRIPTIONS_FILTER;
+        } else {
+            return DEFAULT_FILTER;
+        }
+    }
+
     @Transactional
     public boolean isNew(Event event) {
 
@@ -56,35 +123,272 @@ public class EventDeduplicator {
 
         UUID eventTypeId = event.getEventType().getId();
         LocalDateTime deleteAfter = eventDeduplicationConfig.getDeleteAfter(event);
+        DeduplicationKey key = new DeduplicationKey(eventTypeId, deduplicationKey.get());
+        String filterName = getFilterName(event);
+
+        boolean isNewEvent;
+        Result filterResult = eventDeduplicationFilter.check(filterName, key, deleteAfter);
+        if (filterResult == Result.DEFINITELY_NEW) {
+            // The key will be inserted into the DB by flushDeferredInserts.
+            isNewEvent = true;
+        } else if (eventDeduplicationFilter.isPendingInsert(key)) {
+            isNewEvent = false;
+        } else {
+            isNewEvent = postgresEventDeduplication(eventTypeId, deduplicationKey, deleteAfter);
+            eventDeduplicationFilter.record(filterName, key, deleteAfter, filterResult, isNewEvent);
+        }
+        compareWithValkey(eventTypeId, deduplicationKey.get(), deleteAfter, isNewEvent);
+        return isNewEvent;
+    }
+
+    /**
+     * Batch counterpart of {@link #isNew(Event)} used by the micro-batched ingress. All deduplication keys from the
+     * batch are inserted with a single multi-row statement. When several events of the batch share the same
+     * deduplication key, only the first one can be considered new.
+     * @param events the events to deduplicate
+     * @return one flag per event, in the same order as {@code events}
+     */
+    @Transactional
+    public List<Boolean> isNew(List<Event> events) {
+
+        List<Boolean> results = new ArrayList<>(Collections.nCopies(events.size(), Boolean.TRUE));
+        List<DeduplicationKey> keys = new ArrayList<>(Collections.nCopies(events.size(), null));
+        List<LocalDateTime> deleteAfters = new ArrayList<>(Collections.nCopies(events.size(), null));
+        Map<DeduplicationKey, LocalDateTime> rows = new LinkedHashMap<>();
+
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            EventDeduplicationConfig eventDeduplicationConfig = getEventDeduplicationConfig(event);
+            Optional<String> deduplicationKey = eventDeduplicationConfig.getDeduplicationKey(event);
+
+            // Events are always considered new if no deduplication key is available.
+            if (deduplicationKey.isPresent()) {
+                DeduplicationKey key = new DeduplicationKey(event.getEventType().getId(), deduplicationKey.get());
+                keys.set(i, key);
+                deleteAfters.set(i, eventDeduplicationConfig.getDeleteAfter(event));
+                if (eventDeduplicationFilter.isPendingInsert(key)) {
+                    // The key was accepted by the deduplication filter and is not in the DB yet.
+                    results.set(i, Boolean.FALSE);
+                } else if (rows.putIfAbsent(key, deleteAfters.get(i)) != null) {
+                    // Another event from the same batch already uses that key.
+                    results.set(i, Boolean.FALSE);
+                }
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            Set<DeduplicationKey> insertedKeys = postgresEventDeduplication(rows);
+            Set<DeduplicationKey> firstOccurrences = new HashSet<>();
+            for (int i = 0; i < events.size(); i++) {
+                DeduplicationKey key = keys.get(i);
+                if (key != null && firstOccurrences.add(key)) {
+                    results.set(i, insertedKeys.contains(key));
+                }
+            }
+        }
+
+        for (int i = 0; i < events.size(); i++) {
+            DeduplicationKey key = keys.get(i);
+            if (key != null) {
+                if (rows.containsKey(key)) {
+                    eventDeduplicationFilter.record(getFilterName(events.get(i)), key, deleteAfters.get(i), Result.UNAVAILABLE, results.get(i));
+                }
+                compareWithValkey(key.eventTypeId(), key.deduplicationKey(), deleteAfters.get(i), results.get(i));
+            }
+        }
+
+        return results;
+    }
 
+    /**
+     * Inserts the keys which were considered new by {@link EventDeduplicationFilter} into the DB.
+     */
+    @Scheduled(every = "${notifications.event-deduplication.filter.flush-period:1s}")
+    public synchronized void flushDeferredInserts() {
+        if (!eventDeduplicationFilter.isEnabled()) {
+            return;
+        }
+
+        try {
+            Map<DeduplicationKey, LocalDateTime> rows;
+            while (!(rows = eventDeduplicationFilter.getPendingInserts(MAX_DEFERRED_INSERTS_PER_STATEMENT)).isEmpty()) {
+                Map<DeduplicationKey, LocalDateTime> batch = rows;
+                Set<DeduplicationKey> insertedKeys = QuarkusTransaction.requiringNew().call(() -> postgresEventDeduplication(batch));
+                eventDeduplicationFilter.onPendingInsertsFlushed(batch, insertedKeys);
+            }
+        } catch (Exception e) {
+            // The keys stay pending and will be inserted during the next flush.
+            Log.warnf(e, "Deferred event deduplication inserts failed [pending=%d]", eventDeduplicationFilter.getPendingInsertCount());
+        }
+    }
+
+    void onStartup(@Observes Startup event) {
+        if (eventDeduplicationFilter.isEnabled()) {
+            // The events are checked against the DB until all the existing keys have been loaded.
+            Thread.ofVirtual().name("event-deduplication-filter-loader").start(this::loadFilter);
+        }
+    }
+
+    // The ingress consumer drains its in-flight events on shutdown, their keys are flushed afterward.
+    void onShutdown(@Observes @Priority(Interceptor.Priority.LIBRARY_AFTER) Shutdown event) {
+        flushDeferredInserts();
+    }
+
+    /**
+     * Loads the keys of the {@code event_deduplication} table which did not expire into the deduplication filters.
+     * The filters are not reset: the keys recorded since the engine started may have been committed after the snapshot
+     * read by this method, they have to be kept.
+     */
+    void loadFilter() {
+        String sql = "SELECT d.event_type_id, d.deduplication_key, d.delete_after, b.name AS bundle_name, a.name AS app_name " +
+                "FROM event_deduplication d " +
+                "JOIN event_type et ON et.id = d.event_type_id " +
+                "JOIN applications a ON a.id = et.application_id " +
+                "JOIN bundles b ON b.id = a.bundle_id " +
+                "WHERE d.delete_after > :now";
+        try {
+            long loaded = QuarkusTransaction.requiringNew().call(() -> {
+                @SuppressWarnings("unchecked")
+                Stream<Object[]> rows = entityManager.createNativeQuery(sql)
+                        .setParameter("now", LocalDateTime.now(UTC))
+                        .getResultStream();
+                try (rows) {
+                    long count = 0;
+                    for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); count++) {
+                        Object[] row = it.next();
+                        eventDeduplicationFilter.load(
+                                getFilterName((String) row[3], (String) row[4]),
+                                new DeduplicationKey((UUID) row[0], (String) row[1]),
+                                toLocalDateTime(row[2])
+                        );
+                    }
+                    return count;
+                }
+            });
+            eventDeduplicationFilter.markReady();
+            Log.infof("Loaded %d keys into the event deduplication filter", loaded);
+        } catch (Exception e) {
+            // The filter stays unavailable and every event is checked against the DB.
+            Log.error("Could not load the event deduplication filter", e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object timestamp) {
+        if (timestamp instanceof Timestamp sqlTimestamp) {
+            return sqlTimestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) timestamp;
+    }
+
+    private void compareWithValkey(UUID eventTypeId, String deduplicationKey, LocalDateTime deleteAfter, boolean isNewEvent) {
         if (engineConfig.isInMemoryDbEnabled() && engineConfig.isValkeyEventDeduplicatorEnabled()) {
-            // RHCLOUD-35790: remove once Valkey deduplication is validated
-            boolean isNewEvent = postgresEventDeduplication(eventTypeId, deduplicationKey, deleteAfter);
-            boolean valkeyIsNewEvent = valkeyService.isNewEvent(eventTypeId, deduplicationKey.get(),
-                    deleteAfter);
-            if (valkeyIsNewEvent != isNewEvent) {
-                Log.warnf(
-                        "Valkey event deduplication (isNewEvent=%s) does not align with Postgres result (isNewEvent=%s) [event_type_id=%s, deduplication_key=%s]",
-                        valkeyIsNewEvent, isNewEvent, eventTypeId, deduplicationKey.get());
+            /*
+             * The Postgres result is only final once the transaction is committed. The isNew methods can join the
+             * transaction of a whole ingress batch, which may still be rolled back and replayed message by message.
+             * Comparing before the commit would then record the key in Valkey and count a false disagreement.
+             */
+            if (transactionSynchronizationRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+                transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+                    @Override
+                    public void beforeCompletion() {
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == Status.STATUS_COMMITTED) {
+                            queryValkey(eventTypeId, deduplicationKey, deleteAfter, isNewEvent);
+                        }
+                    }
+                });
+            } else {
+                queryValkey(eventTypeId, deduplicationKey, deleteAfter, isNewEvent);
             }
+        }
+    }
 
-            return isNewEvent;
+    // RHCLOUD-35790: remove once Valkey deduplication is validated
+    private void queryValkey(UUID eventTypeId, String deduplicationKey, LocalDateTime deleteAfter, boolean isNewEvent) {
+        try {
+            if (valkeyService.isPipeliningEnabled()) {
+                // The Valkey result is only compared with the Postgres one, so the consume thread doesn't wait for it.
+                valkeyService.isNewEventAsync(eventTypeId, deduplicationKey, deleteAfter)
+                        .subscribe().with(
+                            valkeyIsNewEvent -> compareResults(eventTypeId, deduplicationKey, isNewEvent, valkeyIsNewEvent),
+                            failure -> {
+                                valkeyFailureCounter.increment();
+                                Log.warnf(failure, "Valkey event deduplication failed [event_type_id=%s]", eventTypeId);
+                            }
+                        );
+            } else {
+                boolean valkeyIsNewEvent = valkeyService.isNewEvent(eventTypeId, deduplicationKey, deleteAfter);
+                compareResults(eventTypeId, deduplicationKey, isNewEvent, valkeyIsNewEvent);
+            }
+        } catch (RuntimeException e) {
+            // The transaction is already committed, a Valkey failure must not be reported as a processing failure.
+            valkeyFailureCounter.increment();
+            Log.warnf(e, "Valkey event deduplication failed [event_type_id=%s]", eventTypeId);
+        }
+    }
 
-        } else {
-            return postgresEventDeduplication(eventTypeId, deduplicationKey, deleteAfter);
+    private void compareResults(UUID eventTypeId, String deduplicationKey, boolean isNewEvent, boolean valkeyIsNewEvent) {
+        if (valkeyIsNewEvent != isNewEvent) {
+            valkeyDisagreementCounters.get(
+                    isNewEvent ? TAG_VALUE_NEW : TAG_VALUE_DUPLICATE,
+                    valkeyIsNewEvent ? TAG_VALUE_NEW : TAG_VALUE_DUPLICATE
+            ).increment();
+            Log.warnf(
+                    "Valkey event deduplication (isNewEvent=%s) does not align with Postgres result (isNewEvent=%s) [event_type_id=%s, deduplication_key=%s]",
+                    valkeyIsNewEvent, isNewEvent, eventTypeId, deduplicationKey);
         }
     }
 
+    /*
+     * The event_deduplication table is partitioned by delete_after, so its primary key can't prevent the insertion of a
+     * known key with a different delete_after value. The insertEventDeduplication function checks all partitions.
+     */
     private boolean postgresEventDeduplication(UUID eventTypeId, Optional<String> deduplicationKey, LocalDateTime deleteAfter) {
-        String sql = "INSERT INTO event_deduplication(event_type_id, deduplication_key, delete_after) " +
-                "VALUES (:eventTypeId, :deduplicationKey, :deleteAfter) " +
-                "ON CONFLICT (event_type_id, deduplication_key) DO NOTHING";
+        String sql = "SELECT insertEventDeduplication(CAST(:eventTypeId AS UUID), CAST(:deduplicationKey AS TEXT), CAST(:deleteAfter AS TIMESTAMP))";
 
-        int rowCount = entityManager.createNativeQuery(sql)
+        return (Boolean) entityManager.createNativeQuery(sql, Boolean.class)
                 .setParameter("eventTypeId", eventTypeId)
                 .setParameter("deduplicationKey", deduplicationKey.get())
                 .setParameter("deleteAfter", deleteAfter)
-                .executeUpdate();
-        return rowCount > 0;
+                .getSingleResult();
+    }
+
+    private Set<DeduplicationKey> postgresEventDeduplication(Map<DeduplicationKey, LocalDateTime> rows) {
+        StringBuilder sql = new StringBuilder("SELECT k.event_type_id, k.deduplication_key FROM (VALUES ");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:eventTypeId").append(i).append(", :deduplicationKey").append(i).append(", :deleteAfter").append(i).append(")");
+        }
+        sql.append(") AS k(event_type_id, deduplication_key, delete_after) ");
+        sql.append("WHERE insertEventDeduplication(CAST(k.event_type_id AS UUID), CAST(k.deduplication_key AS TEXT), CAST(k.delete_after AS TIMESTAMP))");
+
+        // The function locks each key until the end of the transaction, the keys are always locked in the same order to avoid deadlocks.
+        List<Map.Entry<DeduplicationKey, LocalDateTime>> sortedRows = new ArrayList<>(rows.entrySet());
+        sortedRows.sort(Map.Entry.comparingByKey(Comparator.comparing(DeduplicationKey::eventTypeId).thenComparing(DeduplicationKey::deduplicationKey)));
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        int i = 0;
+        for (Map.Entry<DeduplicationKey, LocalDateTime> row : sortedRows) {
+            query.setParameter("eventTypeId" + i, row.getKey().eventTypeId())
+                .setParameter("deduplicationKey" + i, row.getKey().deduplicationKey())
+                .setParameter("deleteAfter" + i, row.getValue());
+            i++;
+        }
+
+        Set<DeduplicationKey> insertedKeys = new HashSet<>();
+        @SuppressWarnings("unchecked")
+        List<Object[]> insertedRows = query.getResultList();
+        for (Object[] insertedRow : insertedRows) {
+            insertedKeys.add(new DeduplicationKey((UUID) insertedRow[0], (String) insertedRow[1]));
+        }
+        return insertedKeys;
+    }
+
+    record DeduplicationKey(UUID eventTypeId, String deduplicationKey) {
     }
 }
@@ -9,6 +9,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -25,6 +26,8 @@ public class SubscriptionsDeduplicationConfig implements EventDeduplicationConfi
 
     private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
     private static final List<EndpointType> RECIPIENTS_ENDPOINT_TYPES = List.of(DRAWER, EMAIL_SUBSCRIPTION);
+    // How long after the event timestamp the deduplication key is kept, at most: the key of an event sent at the start of a 31-day month.
+    static final Duration MAX_RETENTION = Duration.ofDays(31);
 
     @Inject
     EngineConfig engineConfig;
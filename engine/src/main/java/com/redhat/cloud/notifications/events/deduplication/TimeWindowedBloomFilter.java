@@ -0,0 +1,189 @@
+package com.redhat.cloud.notifications.events.deduplication;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Bloom filter of deduplication keys split into generations. A new generation is started every {@code window} and the
+ * old generations are dropped once all the keys they contain have passed their {@code delete_after} date, so a key is
+ * remembered at least as long as the {@code event_deduplication} table would remember it. The number of generations is
+ * bounded: when a generation has to be dropped before its keys expired, the filter can't tell that a key is new until
+ * these keys expired.
+ * <p>
+ * The filter never forgets a key it should remember, but it can claim that it has seen a key it has never seen. The
+ * methods of this class are not thread-safe.
+ */
+class TimeWindowedBloomFilter {
+
+    private final Duration window;
+    private final int maxGenerations;
+    private final long numBits;
+    private final int numHashes;
+    private final Deque<Generation> generations = new ArrayDeque<>();
+    private LocalDateTime untrustedUntil;
+
+    /**
+     * @param window how often a new generation is started, which should be the retention of the deduplication keys
+     * @param maxGenerations the maximum number of generations kept in memory
+     * @param expectedKeysPerWindow the expected number of keys added to each generation
+     * @param falsePositiveRate the expected false positive rate of each generation once it contains that many keys
+     * @param now the current time, in UTC
+     */
+    TimeWindowedBloomFilter(Duration window, int maxGenerations, long expectedKeysPerWindow, double falsePositiveRate, LocalDateTime now) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("The window must be positive");
+        }
+        if (maxGenerations < 2) {
+            throw new IllegalArgumentException("At least two generations are needed");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1");
+        }
+        long expectedKeys = Math.max(1, expectedKeysPerWindow);
+        this.window = window;
+        this.maxGenerations = maxGenerations;
+        // The optimal sizing of a Bloom filter, see https://en.wikipedia.org/wiki/Bloom_filter#Optimal_number_of_hash_functions
+        this.numBits = Math.max(Long.SIZE, (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedKeys * Math.log(2)));
+        this.untrustedUntil = now;
+        generations.addFirst(new Generation(numBits, now));
+    }
+
+    /**
+     * Adds the key to the filter unless the filter may already contain it.
+     * @return {@code true} if the key was definitely not in the filter, {@code false} if it may have been in it or if
+     * the filter can't be trusted at the moment
+     */
+    boolean putIfAbsent(String key, LocalDateTime deleteAfter, LocalDateTime now) {
+        rotate(now);
+        if (now.isBefore(untrustedUntil) || mightContain(key)) {
+            return false;
+        }
+        generations.getFirst().put(key, deleteAfter);
+        return true;
+    }
+
+    /**
+     * Adds the key to the filter.
+     */
+    void put(String key, LocalDateTime deleteAfter, LocalDateTime now) {
+        rotate(now);
+        generations.getFirst().put(key, deleteAfter);
+    }
+
+    boolean mightContain(String key) {
+        for (Generation generation : generations) {
+            if (generation.mightContain(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes the filter answer {@code false} from {@link #putIfAbsent(String, LocalDateTime, LocalDateTime)} until the
+     * given time, because the keys added until then may not all be in the filter.
+     */
+    void untrustUntil(LocalDateTime time) {
+        if (time.isAfter(untrustedUntil)) {
+            untrustedUntil = time;
+        }
+    }
+
+    /**
+     * The probability that a key which was never added is reported as possibly contained, given the current fill ratio
+     * of the generations.
+     */
+    double getEstimatedFalsePositiveRate() {
+        double trueNegativeRate = 1;
+        for (Generation generation : generations) {
+            trueNegativeRate *= 1 - Math.pow((double) generation.setBits / numBits, numHashes);
+        }
+        return 1 - trueNegativeRate;
+    }
+
+    int getGenerationCount() {
+        return generations.size();
+    }
+
+    private void rotate(LocalDateTime now) {
+        if (now.isBefore(generations.getFirst().created.plus(window))) {
+            return;
+        }
+        generations.addFirst(new Generation(numBits, now));
+        for (Iterator<Generation> it = generations.descendingIterator(); it.hasNext(); ) {
+            Generation generation = it.next();
+            if (generation == generations.getFirst()) {
+                break;
+            }
+            if (generation.maxDeleteAfter == null || generation.maxDeleteAfter.isBefore(now)) {
+                // All the keys of this generation expired, it can be dropped.
+                it.remove();
+            } else if (generations.size() > maxGenerations) {
+                // The keys of this generation are forgotten before they expired.
+                untrustUntil(generation.maxDeleteAfter);
+                it.remove();
+            }
+        }
+    }
+
+    private final class Generation {
+
+        private final long[] bits;
+        private final LocalDateTime created;
+        private long setBits;
+        private LocalDateTime maxDeleteAfter;
+
+        private Generation(long numBits, LocalDateTime created) {
+            this.bits = new long[(int) Math.ceilDiv(numBits, Long.SIZE)];
+            this.created = created;
+        }
+
+        private void put(String key, LocalDateTime deleteAfter) {
+            long hash1 = hash(key, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, numBits);
+                long mask = 1L << bit;
+                int index = (int) (bit >>> 6);
+                if ((bits[index] & mask) == 0) {
+                    bits[index] |= mask;
+                    setBits++;
+                }
+            }
+            if (maxDeleteAfter == null || deleteAfter.isAfter(maxDeleteAfter)) {
+                maxDeleteAfter = deleteAfter;
+            }
+        }
+
+        private boolean mightContain(String key) {
+            long hash1 = hash(key, 0x9E3779B97F4A7C15L);
+            long hash2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, numBits);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // FNV-1a over the UTF-16 chars of the key, followed by the MurmurHash3 finalizer to spread the bits.
+    private static long hash(String key, long seed) {
+        long hash = seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,191 @@
+package com.redhat.cloud.notifications.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache of the meters of one metric, keyed by the values of up to four tags, e.g. the bundle, application, event type
+ * and connector of a message. Looking up the {@link MeterRegistry} builds a meter ID and a list of tags on each call,
+ * looking up an existing meter from this cache doesn't allocate anything.
+ * <p>
+ * The number of meters is bounded: once {@code maxMeters} meters were created, the new tag values are recorded into an
+ * overflow meter whose tag values are all {@value #OVERFLOW_TAG_VALUE}. A {@code null} tag value is recorded as an
+ * empty string.
+ * <p>
+ * The cache is invalidated when a meter of the metric is removed from the registry.
+ */
+public class MeterCache<M extends Meter> {
+
+    public static final String OVERFLOW_TAG_VALUE = "overflow";
+    public static final int DEFAULT_MAX_METERS = 1000;
+
+    private static final String ABSENT_TAG_VALUE = "";
+
+    private final String name;
+    private final String[] tagKeys;
+    private final int maxMeters;
+    private final Function<Tags, M> meterFactory;
+    // One level of maps per tag key, the last level contains the meters.
+    private final Map<String, Object> meters = new ConcurrentHashMap<>();
+    private int meterCount;
+    private int entryCount;
+    private M overflowMeter;
+
+    /**
+     * @param registry the registry the meters are registered into
+     * @param name the name of the metric
+     * @param maxMeters the maximum number of meters, excluding the overflow meter
+     * @param meterFactory registers a meter of the metric with the given tags
+     * @param tagKeys the keys of the tags, in the order of the values given to the {@code get} methods
+     */
+    public MeterCache(MeterRegistry registry, String name, int maxMeters, Function<Tags, M> meterFactory, String... tagKeys) {
+        if (tagKeys.length < 1 || tagKeys.length > 4) {
+            throw new IllegalArgumentException("Between one and four tag keys are supported");
+        }
+        if (maxMeters < 1) {
+            throw new IllegalArgumentException("At least one meter must be allowed");
+        }
+        this.name = name;
+        this.tagKeys = tagKeys.clone();
+        this.maxMeters = maxMeters;
+        this.meterFactory = meterFactory;
+        registry.config().onMeterRemoved(meter -> {
+            if (name.equals(meter.getId().getName())) {
+                clear();
+            }
+        });
+    }
+
+    public static MeterCache<Counter> counters(MeterRegistry registry, String name, String... tagKeys) {
+        return new MeterCache<>(registry, name, DEFAULT_MAX_METERS, tags -> registry.counter(name, tags), tagKeys);
+    }
+
+    public static MeterCache<Timer> timers(MeterRegistry registry, String name, String... tagKeys) {
+        return new MeterCache<>(registry, name, DEFAULT_MAX_METERS, tags -> registry.timer(name, tags), tagKeys);
+    }
+
+    public static MeterCache<DistributionSummary> summaries(MeterRegistry registry, String name, String baseUnit, String... tagKeys) {
+        return new MeterCache<>(registry, name, DEFAULT_MAX_METERS, tags -> DistributionSummary.builder(name)
+            .baseUnit(baseUnit)
+            .tags(tags)
+            .register(registry), tagKeys);
+    }
+
+    public M get(String value1) {
+        checkArity(1);
+        return getOrCreate(value1, null, null, null);
+    }
+
+    public M get(String value1, String value2) {
+        checkArity(2);
+        return getOrCreate(value1, value2, null, null);
+    }
+
+    public M get(String value1, String value2, String value3) {
+        checkArity(3);
+        return getOrCreate(value1, value2, value3, null);
+    }
+
+    public M get(String value1, String value2, String value3, String value4) {
+        checkArity(4);
+        return getOrCreate(value1, value2, value3, value4);
+    }
+
+    int size() {
+        return meterCount;
+    }
+
+    private M getOrCreate(String value1, String value2, String value3, String value4) {
+        M meter = find(value1, value2, value3, value4);
+        if (meter == null) {
+            meter = create(value1, value2, value3, value4);
+        }
+        return meter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private M find(String value1, String value2, String value3, String value4) {
+        Object node = meters;
+        for (int i = 0; i < tagKeys.length; i++) {
+            node = ((Map<String, Object>) node).get(valueAt(i, value1, value2, value3, value4));
+            if (node == null) {
+                return null;
+            }
+        }
+        return (M) node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized M create(String value1, String value2, String value3, String value4) {
+        // Another thread may have created the meter while this one was waiting for the lock.
+        M meter = find(value1, value2, value3, value4);
+        if (meter != null) {
+            return meter;
+        }
+
+        if (meterCount < maxMeters) {
+            Tags tags = Tags.empty();
+            for (int i = 0; i < tagKeys.length; i++) {
+                tags = tags.and(tagKeys[i], valueAt(i, value1, value2, value3, value4));
+            }
+            meter = meterFactory.apply(tags);
+            meterCount++;
+        } else {
+            if (overflowMeter == null) {
+                Tags tags = Tags.empty();
+                for (String tagKey : tagKeys) {
+                    tags = tags.and(tagKey, OVERFLOW_TAG_VALUE);
+                }
+                overflowMeter = meterFactory.apply(tags);
+                Log.warnf("The %s metric reached %d meters, the next tag values will be recorded as '%s'", name, maxMeters, OVERFLOW_TAG_VALUE);
+            }
+            meter = overflowMeter;
+        }
+
+        /*
+         * The tag values recorded into the overflow meter are cached as well, so that they don't take the lock on each
+         * call. The number of entries is bounded too: beyond that, the overflow meter is looked up under the lock.
+         */
+        if (entryCount < 2 * maxMeters) {
+            Map<String, Object> node = meters;
+            for (int i = 0; i < tagKeys.length - 1; i++) {
+                node = (Map<String, Object>) node.computeIfAbsent(valueAt(i, value1, value2, value3, value4), key -> new ConcurrentHashMap<>());
+            }
+            node.put(valueAt(tagKeys.length - 1, value1, value2, value3, value4), meter);
+            entryCount++;
+        }
+        return meter;
+    }
+
+    private synchronized void clear() {
+        meters.clear();
+        meterCount = 0;
+        entryCount = 0;
+        overflowMeter = null;
+    }
+
+    private void checkArity(int valueCount) {
+        if (tagKeys.length != valueCount) {
+            throw new IllegalArgumentException("The " + name + " metric has " + tagKeys.length + " tags");
+        }
+    }
+
+    private static String valueAt(int index, String value1, String value2, String value3, String value4) {
+        String value = switch (index) {
+            case 0 -> value1;
+            case 1 -> value2;
+            case 2 -> value3;
+            default -> value4;
+        };
+        return value == null ? ABSENT_TAG_VALUE : value;
+    }
+}
@@ -3,13 +3,14 @@ package com.redhat.cloud.notifications.processors;
 import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.db.repositories.NotificationHistoryRepository;
 import com.redhat.cloud.notifications.db.repositories.PayloadDetailsRepository;
+import com.redhat.cloud.notifications.metrics.MeterCache;
 import com.redhat.cloud.notifications.models.Endpoint;
 import com.redhat.cloud.notifications.models.Event;
 import com.redhat.cloud.notifications.models.NotificationHistory;
 import com.redhat.cloud.notifications.processors.payload.PayloadDetails;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tags;
 import io.opentelemetry.context.Context;
 import io.quarkus.logging.Log;
 import io.smallrye.reactive.messaging.TracingMetadata;
@@ -17,6 +18,7 @@ import io.smallrye.reactive.messaging.ce.CloudEventMetadata;
 import io.smallrye.reactive.messaging.ce.OutgoingCloudEventMetadata;
 import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
 import io.vertx.core.json.JsonObject;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.apache.kafka.common.header.Headers;
@@ -25,6 +27,8 @@ import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.eclipse.microprofile.reactive.messaging.Message;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -75,6 +79,17 @@ public class ConnectorSender {
     @Inject
     PayloadDetailsRepository payloadDetailsRepository;
 
+    // The sends of the batch run by the current thread, see sendInBatch.
+    private final ThreadLocal<List<PendingSend>> pendingSends = new ThreadLocal<>();
+    private MeterCache<DistributionSummary> payloadSizeSummaries;
+    private MeterCache<Counter> payloadStoredInDatabaseCounters;
+
+    @PostConstruct
+    void postConstruct() {
+        payloadSizeSummaries = MeterCache.summaries(registry, "notifications.tocamel.payload.content.size", "bytes", TAG_KEY_CONNECTOR, TAG_KEY_APPLICATION, TAG_KEY_EVENT_TYPE);
+        payloadStoredInDatabaseCounters = MeterCache.counters(registry, NOTIFICATIONS_PAYLOAD_STORED_DATABASE_METRIC_NAME, TAG_KEY_CONNECTOR, TAG_KEY_APPLICATION, TAG_KEY_EVENT_TYPE);
+    }
+
     public void send(Event event, Endpoint endpoint, JsonObject payload) {
         payload.put("org_id", event.getOrgId());
         payload.put("endpoint_id", endpoint.getId());
@@ -87,30 +102,98 @@ public class ConnectorSender {
         Log.infof("Sending notification to connector [orgId=%s, eventId=%s, connector=%s, historyId=%s]",
                 event.getOrgId(), event.getId(), connector, history.getId());
 
-        notificationHistoryRepository.createNotificationHistory(history);
+        List<PendingSend> batch = pendingSends.get();
+        if (batch == null) {
+            notificationHistoryRepository.createNotificationHistory(history);
+        }
 
-        // Measure the payload size.
-        final int payloadSize = payload.toString().getBytes().length;
-        recordMetrics(event, connector, payloadSize);
+        /*
+         * The payload is encoded once for the size metric and the stored payload details. The Kafka record value is
+         * still encoded separately by the connector: the channels use the structured CloudEvents mode, which embeds the
+         * payload as a JSON value into the CloudEvent envelope. Sending the pre-encoded bytes would require the binary
+         * mode, which changes the records read by the connectors and by eventing-integrations.
+         */
+        try (SerializedPayload serializedPayload = SerializedPayload.of(payload)) {
+            final int payloadSize = serializedPayload.size();
+            recordMetrics(event, connector, payloadSize);
+
+            // When the payload to be sent is greater than the configured limit,
+            // store the payload in the database so that we can fetch it from the
+            // connectors themselves.
+            if (endpoint.getType() == EMAIL_SUBSCRIPTION && this.engineConfig.getKafkaToCamelMaximumRequestSize() <= payloadSize) {
+                final PayloadDetails payloadDetails = new PayloadDetails(event, serializedPayload.toString());
+                this.payloadDetailsRepository.save(payloadDetails);
+
+                payload = new JsonObject();
+                payload.put(PayloadDetails.PAYLOAD_DETAILS_ID_KEY, payloadDetails.getId());
+
+                this.payloadStoredInDatabaseCounters.get(connector, event.getApplicationDisplayName(), event.getEventTypeDisplayName()).increment();
+            }
+        }
 
-        // When the payload to be sent is greater than the configured limit,
-        // store the payload in the database so that we can fetch it from the
-        // connectors themselves.
-        if (endpoint.getType() == EMAIL_SUBSCRIPTION && this.engineConfig.getKafkaToCamelMaximumRequestSize() <= payloadSize) {
-            final PayloadDetails payloadDetails = new PayloadDetails(event, payload);
-            this.payloadDetailsRepository.save(payloadDetails);
+        PendingSend pendingSend = new PendingSend(event, connector, history, payload);
+        if (batch == null) {
+            emit(pendingSend);
+        } else {
+            batch.add(pendingSend);
+        }
+    }
 
-            payload = new JsonObject();
-            payload.put(PayloadDetails.PAYLOAD_DETAILS_ID_KEY, payloadDetails.getId());
+    /**
+     * Runs the given sends in a batch: the notification history rows of all the sends are created with a single
+     * statement once the sends have run, then the messages are sent to Kafka. The sends made from other threads are not
+     * part of the batch. The failures which are not related to a single send are added to the accumulator.
+     * @param sends the code which calls {@link #send(Event, Endpoint, JsonObject)}, usually for many endpoints
+     * @param accumulator the accumulator of the failures of the history rows creation
+     */
+    public void sendInBatch(Runnable sends, List<Exception> accumulator) {
+        if (pendingSends.get() != null) {
+            // The sends are already part of an outer batch.
+            sends.run();
+            return;
+        }
+        List<PendingSend> batch = new ArrayList<>();
+        pendingSends.set(batch);
+        try {
+            sends.run();
+        } finally {
+            pendingSends.remove();
+            flush(batch, accumulator);
+        }
+    }
 
-            this.registry.counter(
-                NOTIFICATIONS_PAYLOAD_STORED_DATABASE_METRIC_NAME,
-                Tags.of(TAG_KEY_CONNECTOR, connector, TAG_KEY_APPLICATION, event.getApplicationDisplayName(), TAG_KEY_EVENT_TYPE, event.getEventTypeDisplayName())
-            ).increment();
+    private void flush(List<PendingSend> batch, List<Exception> accumulator) {
+        if (batch.isEmpty()) {
+            return;
         }
+        List<PendingSend> persisted;
+        try {
+            notificationHistoryRepository.createNotificationHistories(batch.stream().map(PendingSend::history).toList());
+            persisted = batch;
+        } catch (Exception e) {
+            // The rows are created one at a time, so that a failure only prevents the send of its own endpoint.
+            Log.warnf(e, "Batched notification history creation failed, creating the %d rows one at a time", batch.size());
+            persisted = new ArrayList<>();
+            for (PendingSend pendingSend : batch) {
+                try {
+                    notificationHistoryRepository.createNotificationHistory(pendingSend.history());
+                    persisted.add(pendingSend);
+                } catch (Exception historyException) {
+                    accumulator.add(historyException);
+                }
+            }
+        }
+        for (PendingSend pendingSend : persisted) {
+            emit(pendingSend);
+        }
+    }
 
+    private void emit(PendingSend pendingSend) {
+        Event event = pendingSend.event();
+        String connector = pendingSend.connector();
+        NotificationHistory history = pendingSend.history();
         try {
-            Message<JsonObject> message = buildMessage(payload, history.getId(), connector);
+            Message<JsonObject> message = buildMessage(pendingSend.payload(), history.getId(), connector);
 
             if (this.engineConfig.isOutgoingKafkaHighVolumeTopicEnabled()
                 && this.isEventFromHighVolumeApplication(event)
@@ -130,6 +213,8 @@ public class ConnectorSender {
         }
     }
 
+    private record PendingSend(Event event, String connector, NotificationHistory history, JsonObject payload) { }
+
     private static Message<JsonObject> buildMessage(JsonObject payload, UUID historyId, String connector) {
 
         OutgoingKafkaRecordMetadata<String> kafkaMetadata = buildOutgoingKafkaRecordMetadata(connector);
@@ -188,12 +273,6 @@ public class ConnectorSender {
 
     private void recordMetrics(Event event, String connector, int payloadSize) {
         Log.debugf("Recording payload size metric: %d bytes for connector: %s", payloadSize, connector);
-        DistributionSummary.builder("notifications.tocamel.payload.content.size")
-            .baseUnit("bytes")
-            .tags(TAG_KEY_CONNECTOR, connector)
-            .tags(TAG_KEY_APPLICATION, event.getApplicationDisplayName())
-            .tags(TAG_KEY_EVENT_TYPE, event.getEventTypeDisplayName())
-            .register(registry)
-            .record(payloadSize);
+        payloadSizeSummaries.get(connector, event.getApplicationDisplayName(), event.getEventTypeDisplayName()).record(payloadSize);
     }
 }
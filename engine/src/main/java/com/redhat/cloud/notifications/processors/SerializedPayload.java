@@ -0,0 +1,86 @@
+package com.redhat.cloud.notifications.processors;
+
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The UTF-8 JSON encoding of a payload, written into a byte buffer taken from a small pool. The buffer is returned to
+ * the pool when this object is closed, so the bytes must not be used after that. The pool is shared by all threads
+ * because the events can be processed on virtual threads, which would not reuse a thread-local buffer.
+ * <p>
+ * These bytes are not the Kafka record value: the Kafka connector encodes the payload again into a structured CloudEvent.
+ */
+final class SerializedPayload implements AutoCloseable {
+
+    private static final int POOL_SIZE = 32;
+    // Bigger buffers are not returned to the pool, so that a few huge payloads don't keep memory forever.
+    private static final int MAX_POOLED_CAPACITY = 1024 * 1024;
+    private static final BlockingQueue<Buffer> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private Buffer buffer;
+
+    private SerializedPayload(Buffer buffer) {
+        this.buffer = buffer;
+    }
+
+    static SerializedPayload of(JsonObject payload) {
+        Buffer buffer = POOL.poll();
+        if (buffer == null) {
+            buffer = new Buffer();
+        }
+        try {
+            // The databind mapper supports the values which are not JSON types, such as the endpoint UUID.
+            DatabindCodec.mapper().writeValue(buffer, payload);
+        } catch (IOException e) {
+            buffer.reset();
+            POOL.offer(buffer);
+            throw new EncodeException("Failed to encode the payload: " + e.getMessage());
+        }
+        return new SerializedPayload(buffer);
+    }
+
+    /**
+     * The size of the payload, in bytes.
+     */
+    int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Decodes the payload bytes, e.g. to store them.
+     */
+    @Override
+    public String toString() {
+        return new String(buffer.bytes(), 0, buffer.size(), UTF_8);
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            if (buffer.bytes().length <= MAX_POOLED_CAPACITY) {
+                buffer.reset();
+                POOL.offer(buffer);
+            }
+            buffer = null;
+        }
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        private Buffer() {
+            super(8 * 1024);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+    }
+}
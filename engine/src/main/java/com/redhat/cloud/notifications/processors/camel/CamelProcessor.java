@@ -1,7 +1,5 @@
 package com.redhat.cloud.notifications.processors.camel;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.cloud.notifications.DelayedThrower;
 import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.models.CamelProperties;
@@ -35,9 +33,6 @@ public abstract class CamelProcessor extends EndpointTypeProcessor {
     @Inject
     InsightsUrlsBuilder insightsUrlsBuilder;
 
-    @Inject
-    ObjectMapper objectMapper;
-
     @Inject
     ConnectorSender connectorSender;
 
@@ -79,13 +74,8 @@ public abstract class CamelProcessor extends EndpointTypeProcessor {
         }
         data.put("context", context);
 
-        Map<String, Object> dataAsMap;
-        try {
-            dataAsMap = objectMapper.readValue(data.encode(), Map.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(getIntegrationName() + " notification data transformation failed", e);
-        }
-        return dataAsMap;
+        // The nested JSON values don't need to be converted, the whole notification is mapped to a JSON tree once.
+        return data.getMap();
     }
 
     protected CamelNotification getCamelNotification(Event event, Endpoint endpoint) {
@@ -1,7 +1,5 @@
 package com.redhat.cloud.notifications.processors.drawer;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.cloud.notifications.Severity;
 import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.db.repositories.BundleRepository;
@@ -21,6 +19,7 @@ import com.redhat.cloud.notifications.transformers.BaseTransformer;
 import com.redhat.cloud.notifications.utils.RecipientsAuthorizationCriterionExtractor;
 import io.quarkus.logging.Log;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.util.HashMap;
@@ -40,9 +39,6 @@ public class DrawerProcessor extends SystemEndpointTypeProcessor {
     @Inject
     BaseTransformer baseTransformer;
 
-    @Inject
-    ObjectMapper objectMapper;
-
     @Inject
     EventRepository eventRepository;
 
@@ -82,15 +78,12 @@ public class DrawerProcessor extends SystemEndpointTypeProcessor {
         }
 
         // build event thought qute template
-        JsonObject data = baseTransformer.toJsonObject(event);
+        JsonObject data = baseTransformer.toSharedJsonObject(event);
 
+        // The template needs plain maps, they are converted from the JSON tree without encoding it to a string.
         Map<String, Object> dataAsMap = new HashMap<>();
-        try {
-            dataAsMap.put("data", objectMapper.readValue(data.encode(), Map.class));
-            dataAsMap.put("environment", JsonObject.mapFrom(environment));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Drawer notification data transformation failed", e);
-        }
+        dataAsMap.put("data", DatabindCodec.mapper().convertValue(data, Map.class));
+        dataAsMap.put("environment", JsonObject.mapFrom(environment));
 
         String renderedData = buildNotificationMessage(dataAsMap);
 
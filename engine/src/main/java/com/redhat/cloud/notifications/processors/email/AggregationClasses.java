@@ -0,0 +1,103 @@
+package com.redhat.cloud.notifications.processors.email;
+
+import com.redhat.cloud.notifications.Severity;
+import com.redhat.cloud.notifications.models.EmailAggregation;
+import com.redhat.cloud.notifications.models.EventAggregationCriterion;
+import com.redhat.cloud.notifications.processors.email.aggregators.AbstractEmailPayloadAggregator;
+import com.redhat.cloud.notifications.processors.email.aggregators.EmailPayloadAggregatorFactory;
+import com.redhat.cloud.notifications.recipients.User;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Groups the recipients of an aggregation into classes of users who received exactly the same events, in the same
+ * order. The output of an {@link AbstractEmailPayloadAggregator} only depends on that sequence of events, so each
+ * class is aggregated once and its result is shared by all the users of the class.
+ */
+class AggregationClasses {
+
+    private final EventAggregationCriterion aggregationKey;
+    private final AggregationClass root = new AggregationClass(null, -1);
+    private final List<Supplier<EmailAggregation>> events = new ArrayList<>();
+    private final Map<User, AggregationClass> classByUser = new HashMap<>();
+
+    AggregationClasses(EventAggregationCriterion aggregationKey) {
+        this.aggregationKey = aggregationKey;
+    }
+
+    /**
+     * Adds an event to the aggregation.
+     * @param eventTypeId the event type identifier
+     * @param severity the event severity
+     * @param eventData supplies a new {@link EmailAggregation} each time the event is aggregated into a class
+     * @param recipients the event recipients
+     * @param userSeverities returns the severities a recipient subscribed to, or {@code null} if the severities are not
+     * taken into account
+     */
+    void add(UUID eventTypeId, Severity severity, Supplier<EmailAggregation> eventData, Set<User> recipients, Function<User, Set<SubscribedEventTypeSeverities>> userSeverities) {
+        int eventIndex = events.size();
+        events.add(eventData);
+
+        // The recipients from the same class who accept the event all move to the same child class.
+        Map<AggregationClass, AggregationClass> children = new HashMap<>();
+        for (User recipient : recipients) {
+            AggregationClass currentClass = classByUser.computeIfAbsent(recipient, unused -> root);
+            if (AbstractEmailPayloadAggregator.shouldAggregate(userSeverities.apply(recipient), eventTypeId, severity)) {
+                classByUser.put(recipient, children.computeIfAbsent(currentClass, parent -> new AggregationClass(parent, eventIndex)));
+            }
+        }
+    }
+
+    /**
+     * Aggregates the events once per class of users.
+     * @return the aggregated data of each user, the users from the same class share the same {@link Map} instance
+     */
+    Map<User, Map<String, Object>> getAggregated() {
+        Map<AggregationClass, Optional<Map<String, Object>>> aggregatedByClass = new HashMap<>();
+        Map<User, Map<String, Object>> aggregatedByUser = new HashMap<>();
+        for (Map.Entry<User, AggregationClass> entry : classByUser.entrySet()) {
+            aggregatedByClass.computeIfAbsent(entry.getValue(), this::aggregate)
+                .ifPresent(aggregated -> aggregatedByUser.put(entry.getKey(), aggregated));
+        }
+        return aggregatedByUser;
+    }
+
+    private Optional<Map<String, Object>> aggregate(AggregationClass aggregationClass) {
+        Deque<Integer> eventIndexes = new ArrayDeque<>();
+        for (AggregationClass current = aggregationClass; current != root; current = current.parent) {
+            eventIndexes.push(current.eventIndex);
+        }
+
+        // The users severities were already taken into account while the classes were built.
+        AbstractEmailPayloadAggregator aggregator = EmailPayloadAggregatorFactory.by(aggregationKey, null, null);
+        for (int eventIndex : eventIndexes) {
+            aggregator.aggregate(events.get(eventIndex).get());
+        }
+        return aggregator.isEmpty() ? Optional.empty() : Optional.of(aggregator.getContext());
+    }
+
+    /*
+     * A class is identified by the last event its users received and by the class they belonged to before that event.
+     * The classes don't reference their children, so the classes left without users can be garbage collected.
+     */
+    private static final class AggregationClass {
+
+        private final AggregationClass parent;
+        private final int eventIndex;
+
+        private AggregationClass(AggregationClass parent, int eventIndex) {
+            this.parent = parent;
+            this.eventIndex = eventIndex;
+        }
+    }
+}
@@ -5,9 +5,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.db.repositories.ApplicationRepository;
 import com.redhat.cloud.notifications.db.repositories.BundleRepository;
-import com.redhat.cloud.notifications.db.repositories.EndpointRepository;
 import com.redhat.cloud.notifications.db.repositories.EventRepository;
+import com.redhat.cloud.notifications.events.EndpointRoutingIndex;
 import com.redhat.cloud.notifications.ingress.Action;
+import com.redhat.cloud.notifications.metrics.MeterCache;
 import com.redhat.cloud.notifications.models.AggregationCommand;
 import com.redhat.cloud.notifications.models.Application;
 import com.redhat.cloud.notifications.models.Bundle;
@@ -88,7 +89,7 @@ public class EmailAggregationProcessor extends SystemEndpointTypeProcessor {
     ActionParser actionParser;
 
     @Inject
-    EndpointRepository endpointRepository;
+    EndpointRoutingIndex endpointRoutingIndex;
 
     @Inject
     ApplicationRepository applicationRepository;
@@ -113,6 +114,7 @@ public class EmailAggregationProcessor extends SystemEndpointTypeProcessor {
     private Counter rejectedAggregationCommandCount;
     private Counter processedAggregationCommandCount;
     private Counter failedAggregationCommandCount;
+    private MeterCache<Timer> consumedTimers;
 
     @Inject
     ConnectorSender connectorSender;
@@ -122,6 +124,7 @@ public class EmailAggregationProcessor extends SystemEndpointTypeProcessor {
         rejectedAggregationCommandCount = registry.counter(AGGREGATION_COMMAND_REJECTED_COUNTER_NAME);
         processedAggregationCommandCount = registry.counter(AGGREGATION_COMMAND_PROCESSED_COUNTER_NAME);
         failedAggregationCommandCount = registry.counter(AGGREGATION_COMMAND_ERROR_COUNTER_NAME);
+        consumedTimers = MeterCache.timers(registry, AGGREGATION_CONSUMED_TIMER_NAME, TAG_KEY_BUNDLE, TAG_KEY_ORG_ID);
     }
 
     @Override
@@ -199,11 +202,7 @@ public class EmailAggregationProcessor extends SystemEndpointTypeProcessor {
             Log.warn("Error while processing aggregation", e);
             failedAggregationCommandCount.increment();
         } finally {
-            consumedTimer.stop(registry.timer(
-                AGGREGATION_CONSUMED_TIMER_NAME,
-                TAG_KEY_BUNDLE, bundle,
-                TAG_KEY_ORG_ID, event.getOrgId()
-            ));
+            consumedTimer.stop(consumedTimers.get(bundle, event.getOrgId()));
         }
     }
 
@@ -221,7 +220,7 @@ public class EmailAggregationProcessor extends SystemEndpointTypeProcessor {
             bundle.getDisplayName());
         eventRepository.updateEventDisplayName(aggregatorEvent.getId(), eventTypeDisplayName);
 
-        Endpoint endpoint = endpointRepository.getOrCreateDefaultSystemSubscription(null, aggregatorEvent.getOrgId(), EndpointType.EMAIL_SUBSCRIPTION);
+        Endpoint endpoint = endpointRoutingIndex.getDefaultSystemSubscription(null, aggregatorEvent.getOrgId(), EndpointType.EMAIL_SUBSCRIPTION);
 
         //Store every aggregated application data for each user
         Map<User, List<ApplicationAggregatedData>> userData = new HashMap<>();
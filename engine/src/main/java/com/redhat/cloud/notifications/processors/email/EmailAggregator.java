@@ -19,8 +19,6 @@ import com.redhat.cloud.notifications.models.EventAggregationCriterion;
 import com.redhat.cloud.notifications.models.EventType;
 import com.redhat.cloud.notifications.models.NotificationsConsoleCloudEvent;
 import com.redhat.cloud.notifications.models.SubscriptionType;
-import com.redhat.cloud.notifications.processors.email.aggregators.AbstractEmailPayloadAggregator;
-import com.redhat.cloud.notifications.processors.email.aggregators.EmailPayloadAggregatorFactory;
 import com.redhat.cloud.notifications.recipients.User;
 import com.redhat.cloud.notifications.recipients.recipientsresolver.ExternalRecipientsResolver;
 import com.redhat.cloud.notifications.recipients.request.ActionRecipientSettings;
@@ -38,7 +36,6 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -46,8 +43,6 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
-import static java.util.Map.Entry;
-import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 
 @ApplicationScoped
@@ -87,7 +82,7 @@ public class EmailAggregator {
 
     public Map<User, Map<String, Object>> getAggregated(UUID appId, EventAggregationCriterion aggregationKey, SubscriptionType subscriptionType, LocalDateTime start, LocalDateTime end) {
 
-        Map<User, AbstractEmailPayloadAggregator> aggregated = new HashMap<>();
+        AggregationClasses aggregationClasses = new AggregationClasses(aggregationKey);
         Map<String, Set<String>> subscribersByEventType = subscriptionRepository
                 .getSubscribersByEventType(aggregationKey.getOrgId(), appId, subscriptionType);
         Map<String, Set<String>> unsubscribersByEventType = subscriptionRepository
@@ -98,14 +93,9 @@ public class EmailAggregator {
             subscribersWithSeverities = Optional.of(subscriptionRepository.getSubscriptionsByEventTypeWithSeverities(aggregationKey.getOrgId(), appId, subscriptionType));
         }
 
-        aggregationBasedOnEvent(aggregationKey, start, end, subscribersByEventType, unsubscribersByEventType, subscribersWithSeverities, aggregated);
+        aggregationBasedOnEvent(aggregationKey, start, end, subscribersByEventType, unsubscribersByEventType, subscribersWithSeverities, aggregationClasses);
 
-        return aggregated.entrySet().stream()
-                .filter(entry -> !entry.getValue().isEmpty())
-                .collect(toMap(
-                        Entry::getKey,
-                        entry -> entry.getValue().getContext()
-                ));
+        return aggregationClasses.getAggregated();
     }
 
     private void aggregationBasedOnEvent(EventAggregationCriterion eventAggregationCriteria,
@@ -114,7 +104,7 @@ public class EmailAggregator {
                                          Map<String, Set<String>> subscribersByEventType,
                                          Map<String, Set<String>> unsubscribersByEventType,
                                          Optional<Map<String, Set<SubscribedEventTypeSeverities>>> subscribersWithSeverities,
-                                         Map<User, AbstractEmailPayloadAggregator> aggregated) {
+                                         AggregationClasses aggregationClasses) {
         int offset = 0;
         int totalAggregatedElements = 0;
 
@@ -162,24 +152,16 @@ public class EmailAggregator {
 
                 /*
                  * We now have the final recipients list.
-                 * Let's populate the Map that will be returned by the method.
+                 * The event will be aggregated once for each class of recipients who received the same events.
                  */
-                recipients.forEach(recipient -> {
-                    final Set<SubscribedEventTypeSeverities> userSubscribedSeverities;
-                    if (subscribersWithSeverities.isPresent() && subscribersWithSeverities.get().containsKey(recipient.getUsername())) {
-                        userSubscribedSeverities = subscribersWithSeverities.get().get(recipient.getUsername());
-                    } else {
-                        userSubscribedSeverities = null;
-                    }
-
-                    // We may or may not have already initialized an aggregator for the recipient.
-                    AbstractEmailPayloadAggregator aggregator = aggregated
-                        .computeIfAbsent(recipient, notUsed -> EmailPayloadAggregatorFactory.by(eventAggregationCriteria, recipient.getUsername(), userSubscribedSeverities));
-
-                    // It's aggregation time!
-                    EmailAggregation eventDataToAggregate = new EmailAggregation(aggregation.getOrgId(), eventAggregationCriteria.getBundle(), eventAggregationCriteria.getApplication(), baseTransformer.toJsonObject(aggregation), aggregation.getSeverity(), aggregation.getEventType().getId());
-                    aggregator.aggregate(eventDataToAggregate);
-                });
+                aggregationClasses.add(
+                    aggregation.getEventType().getId(),
+                    aggregation.getSeverity(),
+                    // Each class gets its own copy of the event data because the aggregators may modify it.
+                    () -> new EmailAggregation(aggregation.getOrgId(), eventAggregationCriteria.getBundle(), eventAggregationCriteria.getApplication(), baseTransformer.toJsonObject(aggregation), aggregation.getSeverity(), aggregation.getEventType().getId()),
+                    recipients,
+                    recipient -> subscribersWithSeverities.map(severities -> severities.get(recipient.getUsername())).orElse(null)
+                );
             }
             totalAggregatedElements += aggregations.size();
         } while (maxPageSize == aggregations.size());
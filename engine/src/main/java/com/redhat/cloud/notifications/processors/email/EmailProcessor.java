@@ -1,11 +1,9 @@
 package com.redhat.cloud.notifications.processors.email;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.cloud.notifications.Severity;
 import com.redhat.cloud.notifications.config.EngineConfig;
-import com.redhat.cloud.notifications.db.repositories.EndpointRepository;
 import com.redhat.cloud.notifications.db.repositories.SubscriptionRepository;
+import com.redhat.cloud.notifications.events.EndpointRoutingIndex;
 import com.redhat.cloud.notifications.models.Endpoint;
 import com.redhat.cloud.notifications.models.Environment;
 import com.redhat.cloud.notifications.models.Event;
@@ -38,7 +36,7 @@ public class EmailProcessor extends SystemEndpointTypeProcessor {
     ConnectorSender connectorSender;
 
     @Inject
-    EndpointRepository endpointRepository;
+    EndpointRoutingIndex endpointRoutingIndex;
 
     @Inject
     EmailActorsResolver emailActorsResolver;
@@ -61,9 +59,6 @@ public class EmailProcessor extends SystemEndpointTypeProcessor {
     @Inject
     BaseTransformer baseTransformer;
 
-    @Inject
-    ObjectMapper objectMapper;
-
     @Inject
     EngineConfig engineConfig;
 
@@ -145,7 +140,7 @@ public class EmailProcessor extends SystemEndpointTypeProcessor {
 
         final JsonObject payload = JsonObject.mapFrom(emailNotification);
 
-        final Endpoint endpoint = endpointRepository.getOrCreateDefaultSystemSubscription(event.getAccountId(), event.getOrgId(), EMAIL_SUBSCRIPTION);
+        final Endpoint endpoint = endpointRoutingIndex.getDefaultSystemSubscription(event.getAccountId(), event.getOrgId(), EMAIL_SUBSCRIPTION);
 
         connectorSender.send(event, endpoint, payload);
     }
@@ -157,12 +152,7 @@ public class EmailProcessor extends SystemEndpointTypeProcessor {
         data.put("ignore_user_preferences", ignoreUserPreferences);
         data.put("orgId", event.getOrgId());
 
-        Map<String, Object> dataAsMap;
-        try {
-            dataAsMap = objectMapper.readValue(data.encode(), Map.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Instant email notification data transformation failed", e);
-        }
-        return dataAsMap;
+        // The nested JSON values don't need to be converted, the whole notification is mapped to a JSON tree once.
+        return data.getMap();
     }
 }
@@ -1,5 +1,6 @@
 package com.redhat.cloud.notifications.processors.email.aggregators;
 
+import com.redhat.cloud.notifications.Severity;
 import com.redhat.cloud.notifications.models.EmailAggregation;
 import com.redhat.cloud.notifications.processors.email.SubscribedEventTypeSeverities;
 import io.quarkus.logging.Log;
@@ -8,6 +9,7 @@ import io.vertx.core.json.JsonObject;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 public abstract class AbstractEmailPayloadAggregator {
 
@@ -26,22 +28,32 @@ public abstract class AbstractEmailPayloadAggregator {
             throw new RuntimeException("Invalid aggregation using different orgIds");
         }
 
-        boolean shouldAggregateThisEvent = true;
-        if (userSeverities != null) {
-            Optional<SubscribedEventTypeSeverities> userPrevForThisEventType = userSeverities.stream()
-                .filter(userSeverity -> aggregation.getEventTypeId().equals(userSeverity.eventTypeId())).findFirst();
+        if (shouldAggregate(userSeverities, aggregation.getEventTypeId(), aggregation.getSeverity())) {
+            processEmailAggregation(aggregation);
+        } else {
+            Log.debugf("Event will be skipped for user '%s' because they didn't subscribe to severity %s", userName, aggregation.getSeverity());
+        }
+    }
 
-            if (userPrevForThisEventType.isPresent() && userPrevForThisEventType.get().severities().containsKey(aggregation.getSeverity())) {
-                shouldAggregateThisEvent = userPrevForThisEventType.get().severities().get(aggregation.getSeverity());
-            } else {
-                shouldAggregateThisEvent = false;
-            }
+    /**
+     * Determines whether an event should be aggregated for a user, depending on the severities that user subscribed to.
+     * @param userSeverities the user subscribed severities, or {@code null} if the severities are not taken into account
+     * @param eventTypeId the event type identifier
+     * @param severity the event severity
+     * @return {@code true} if the event should be aggregated, {@code false} otherwise
+     */
+    public static boolean shouldAggregate(Set<SubscribedEventTypeSeverities> userSeverities, UUID eventTypeId, Severity severity) {
+        if (userSeverities == null) {
+            return true;
         }
 
-        if (shouldAggregateThisEvent) {
-            processEmailAggregation(aggregation);
+        Optional<SubscribedEventTypeSeverities> userPrevForThisEventType = userSeverities.stream()
+            .filter(userSeverity -> eventTypeId.equals(userSeverity.eventTypeId())).findFirst();
+
+        if (userPrevForThisEventType.isPresent() && userPrevForThisEventType.get().severities().containsKey(severity)) {
+            return userPrevForThisEventType.get().severities().get(severity);
         } else {
-            Log.debugf("Event will be skipped for user '%s' because they didn't subscribe to severity %s", userName, aggregation.getSeverity());
+            return false;
         }
     }
 
@@ -2,6 +2,7 @@ package com.redhat.cloud.notifications.processors.eventing;
 
 import com.redhat.cloud.notifications.DelayedThrower;
 import com.redhat.cloud.notifications.config.EngineConfig;
+import com.redhat.cloud.notifications.metrics.MeterCache;
 import com.redhat.cloud.notifications.models.CamelProperties;
 import com.redhat.cloud.notifications.models.Endpoint;
 import com.redhat.cloud.notifications.models.Environment;
@@ -10,9 +11,11 @@ import com.redhat.cloud.notifications.processors.ConnectorSender;
 import com.redhat.cloud.notifications.processors.EndpointTypeProcessor;
 import com.redhat.cloud.notifications.processors.InsightsUrlsBuilder;
 import com.redhat.cloud.notifications.transformers.BaseTransformer;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.logging.Log;
 import io.vertx.core.json.JsonObject;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -45,6 +48,13 @@ public class EventingProcessor extends EndpointTypeProcessor {
     @Inject
     ConnectorSender connectorSender;
 
+    private MeterCache<Counter> processedCounters;
+
+    @PostConstruct
+    void postConstruct() {
+        processedCounters = MeterCache.counters(registry, PROCESSED_COUNTER_NAME, "subType");
+    }
+
     @Override
     public void process(Event event, List<Endpoint> endpoints) {
         if (engineConfig.isEmailsOnlyModeEnabled()) {
@@ -63,7 +73,7 @@ public class EventingProcessor extends EndpointTypeProcessor {
     }
 
     private void process(Event event, Endpoint endpoint) {
-        registry.counter(PROCESSED_COUNTER_NAME, "subType", endpoint.getSubType()).increment();
+        processedCounters.get(endpoint.getSubType()).increment();
 
         JsonObject payload = buildPayload(event, endpoint);
 
@@ -37,8 +37,12 @@ public class PayloadDetails extends CreationTimestamped {
     }
 
     public PayloadDetails(final Event event, final JsonObject contents) {
+        this(event, contents.encode());
+    }
+
+    public PayloadDetails(final Event event, final String contents) {
         this.eventId = event.getId();
-        this.contents = contents.encode();
+        this.contents = contents;
     }
 
     public UUID getId() {
@@ -69,7 +69,7 @@ public class WebhookTypeProcessor extends EndpointTypeProcessor {
 
         WebhookProperties properties = endpoint.getProperties(WebhookProperties.class);
 
-        final JsonObject payload = transformer.toJsonObject(event);
+        final JsonObject payload = transformer.toSharedJsonObject(event);
 
         final JsonObject connectorData = new JsonObject();
 
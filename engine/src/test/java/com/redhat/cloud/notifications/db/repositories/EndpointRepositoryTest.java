@@ -36,6 +36,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.redhat.cloud.notifications.TestConstants.DEFAULT_ORG_ID;
 import static com.redhat.cloud.notifications.db.repositories.EndpointRepository.INTERNAL_ENDPOINT_TYPES;
@@ -90,6 +95,21 @@ public class EndpointRepositoryTest {
         }
     }
 
+    @Test
+    void testIncrementEndpointServerErrorsRoutingChanges() {
+        Endpoint endpoint = resourceHelpers.createEndpoint(WEBHOOK, null, true, 0);
+        when(engineConfig.getMinDelaySinceFirstServerErrorBeforeDisabling()).thenReturn(Duration.ofNanos(1));
+
+        // The endpoint stays enabled, so the routing of the events is unchanged.
+        long routingChanges = countRoutingChanges();
+        assertFalse(endpointRepository.incrementEndpointServerErrors(endpoint.getId(), 1));
+        assertEquals(routingChanges, countRoutingChanges());
+
+        // The endpoint is disabled, the engine pods have to evict it from their routing index.
+        assertTrue(endpointRepository.incrementEndpointServerErrors(endpoint.getId(), MAX_SERVER_ERRORS));
+        assertEquals(routingChanges + 1, countRoutingChanges());
+    }
+
     @ParameterizedTest
     @ValueSource(ints = {0, 5}) // to test cases when endpoint have already some servers error or not
     void testIncrementEndpointServerErrorsAndWaitForMinDelay(int initialServerErrors) throws InterruptedException {
@@ -115,6 +135,95 @@ public class EndpointRepositoryTest {
         assertFalse(ep.isEnabled());
     }
 
+    @Test
+    void testConcurrentIncrementEndpointServerErrors() throws Exception {
+        final int threads = 16;
+        final int incrementsPerThread = 25;
+        Endpoint endpoint = resourceHelpers.createEndpoint(WEBHOOK, null, true, 0);
+        when(engineConfig.getMaxServerErrors()).thenReturn(threads * incrementsPerThread);
+        when(engineConfig.getMinDelaySinceFirstServerErrorBeforeDisabling()).thenReturn(Duration.ofNanos(1));
+
+        // Every increment is counted and none of them reaches the max server errors.
+        assertEquals(0, incrementConcurrently(endpoint.getId(), threads, incrementsPerThread));
+        entityManager.clear(); // The Hibernate L1 cache contains outdated data and needs to be cleared.
+        Endpoint ep = getEndpoint(endpoint.getId());
+        assertTrue(ep.isEnabled());
+        assertEquals(threads * incrementsPerThread, ep.getServerErrors());
+
+        // Each of the next increments exceeds the max server errors, but the endpoint is only disabled once.
+        assertEquals(1, incrementConcurrently(endpoint.getId(), threads, 1));
+        entityManager.clear();
+        ep = getEndpoint(endpoint.getId());
+        assertFalse(ep.isEnabled());
+        assertEquals(threads * incrementsPerThread, ep.getServerErrors());
+    }
+
+    /*
+     * Increments the server errors of the endpoint from the given number of threads, which all start at the same time.
+     * Returns the number of increments which disabled the endpoint.
+     */
+    private long countRoutingChanges() {
+        return ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM endpoint_routing_change_log").getSingleResult()).longValue();
+    }
+
+    private int incrementConcurrently(UUID endpointId, int threads, int incrementsPerThread) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int disabled = 0;
+                    for (int j = 0; j < incrementsPerThread; j++) {
+                        if (endpointRepository.incrementEndpointServerErrors(endpointId, 1)) {
+                            disabled++;
+                        }
+                    }
+                    return disabled;
+                }));
+            }
+            start.countDown();
+            int disabled = 0;
+            for (Future<Integer> future : futures) {
+                disabled += future.get(1, TimeUnit.MINUTES);
+            }
+            return disabled;
+        }
+    }
+
+    /*
+     * The threads call the repository directly, without the per-pod index in front of it, so each of them behaves like
+     * a different pod creating the default system subscription of the same org at the same time.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"EMAIL_SUBSCRIPTION", "DRAWER"})
+    void testConcurrentGetOrCreateDefaultSystemSubscription(EndpointType endpointType) throws Exception {
+        final int threads = 16;
+        final String orgId = "system-subscription-org-" + UUID.randomUUID();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UUID>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return endpointRepository.getOrCreateDefaultSystemSubscription(null, orgId, endpointType).getId();
+                }));
+            }
+            start.countDown();
+            Set<UUID> endpointIds = new HashSet<>();
+            for (Future<UUID> future : futures) {
+                endpointIds.add(future.get(1, TimeUnit.MINUTES));
+            }
+            assertEquals(1, endpointIds.size());
+        }
+
+        long count = entityManager.createQuery("SELECT COUNT(*) FROM Endpoint WHERE orgId = :orgId AND compositeType.type = :endpointType", Long.class)
+                .setParameter("orgId", orgId)
+                .setParameter("endpointType", endpointType)
+                .getSingleResult();
+        assertEquals(1L, count);
+    }
+
     @Test
     void testIncrementEndpointServerErrorsWithUnknownId() {
         when(engineConfig.getMinDelaySinceFirstServerErrorBeforeDisabling()).thenReturn(Duration.ofSeconds(1));
@@ -15,9 +15,13 @@ import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -77,6 +81,45 @@ public class NotificationHistoryRepositoryTest {
         assertEquals(history.getDetails(), persistedHistory.getDetails());
     }
 
+    @Test
+    void testCreateHistoriesWithOneStatement() {
+        Event event = initData(789L, NotificationStatus.PROCESSING, WEBHOOK, null, null).getEvent();
+        List<NotificationHistory> histories = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Endpoint endpoint = resourceHelpers.createEndpoint(i % 2 == 0 ? WEBHOOK : CAMEL, i % 2 == 0 ? null : "slack", true, 0);
+            Map<String, Object> details = i % 3 == 0 ? null : Map.of("index", i);
+            histories.add(buildNotificationHistory((long) i, NotificationStatus.PROCESSING, event, endpoint, details));
+        }
+        deleteEndpoint(histories.getLast().getEndpoint().getId());
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            repository.createNotificationHistories(histories);
+            assertEquals(1L, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+
+        for (NotificationHistory history : histories) {
+            NotificationHistory persistedHistory = entityManager.find(NotificationHistory.class, history.getId());
+            assertEquals(history.getInvocationTime(), persistedHistory.getInvocationTime());
+            assertEquals(history.isInvocationResult(), persistedHistory.isInvocationResult());
+            assertEquals(history.getStatus(), persistedHistory.getStatus());
+            assertEquals(history.getEvent(), persistedHistory.getEvent());
+            assertEquals(history.getEndpointType(), persistedHistory.getEndpointType());
+            assertEquals(history.getEndpointSubType(), persistedHistory.getEndpointSubType());
+            assertEquals(history.getDetails(), persistedHistory.getDetails());
+            if (history == histories.getLast()) {
+                assertNull(persistedHistory.getEndpoint());
+            } else {
+                assertEquals(history.getEndpoint(), persistedHistory.getEndpoint());
+            }
+        }
+    }
+
     @Transactional
     NotificationHistory initData(Long invocationTime, NotificationStatus status, EndpointType endpointType,
             String endpointSubType, Map<String, Object> details) {
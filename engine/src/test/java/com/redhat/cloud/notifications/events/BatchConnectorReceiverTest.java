@@ -0,0 +1,235 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.MicrometerAssertionHelper;
+import com.redhat.cloud.notifications.TestLifecycleManager;
+import com.redhat.cloud.notifications.db.ResourceHelpers;
+import com.redhat.cloud.notifications.db.repositories.NotificationHistoryRepository;
+import com.redhat.cloud.notifications.models.Application;
+import com.redhat.cloud.notifications.models.Endpoint;
+import com.redhat.cloud.notifications.models.Event;
+import com.redhat.cloud.notifications.models.EventType;
+import com.redhat.cloud.notifications.models.NotificationHistory;
+import com.redhat.cloud.notifications.models.NotificationStatus;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.redhat.cloud.notifications.events.BatchConnectorReceiver.BATCH_FALLBACK_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.ConnectorReceiver.MESSAGES_ERROR_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.ConnectorReceiver.MESSAGES_PROCESSED_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.EndpointErrorFromConnectorHelper.CLIENT_TAG_VALUE;
+import static com.redhat.cloud.notifications.events.EndpointErrorFromConnectorHelper.DISABLED_WEBHOOKS_COUNTER;
+import static com.redhat.cloud.notifications.events.EndpointErrorFromConnectorHelper.ERROR_TYPE_TAG_KEY;
+import static com.redhat.cloud.notifications.events.HttpErrorType.HTTP_4XX;
+import static com.redhat.cloud.notifications.events.HttpErrorType.HTTP_5XX;
+import static com.redhat.cloud.notifications.events.HttpErrorType.SOCKET_TIMEOUT;
+import static com.redhat.cloud.notifications.models.EndpointType.WEBHOOK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@QuarkusTest
+@QuarkusTestResource(TestLifecycleManager.class)
+public class BatchConnectorReceiverTest {
+
+    private static final String BUNDLE = "batch-camel-bundle";
+    private static final String APP = "batch-camel-app";
+    private static final String EVENT_TYPE = "batch-camel-event-type";
+
+    @Inject
+    BatchConnectorReceiver batchConnectorReceiver;
+
+    @Inject
+    ConnectorReceiver connectorReceiver;
+
+    @Inject
+    NotificationHistoryRepository notificationHistoryRepository;
+
+    @InjectMock
+    IntegrationDisabledNotifier integrationDisabledNotifier;
+
+    @Inject
+    MicrometerAssertionHelper micrometerAssertionHelper;
+
+    @Inject
+    ResourceHelpers resourceHelpers;
+
+    @Inject
+    EntityManager entityManager;
+
+    private Event event;
+
+    @BeforeEach
+    void beforeEach() {
+        Application app = resourceHelpers.findOrCreateApplication(BUNDLE, APP);
+        EventType eventType = resourceHelpers.findOrCreateEventType(app.getId(), EVENT_TYPE);
+        event = resourceHelpers.createEvent(eventType);
+    }
+
+    @AfterEach
+    void afterEach() {
+        micrometerAssertionHelper.clearSavedValues();
+        resourceHelpers.deleteBundle(BUNDLE);
+    }
+
+    @Test
+    void testFinalStatesAreUnchanged() {
+        Scenario perMessageScenario = new Scenario();
+        saveCounterValues();
+        for (String payload : perMessageScenario.payloads) {
+            connectorReceiver.processAsync(payload);
+        }
+        assertCounterIncrements();
+        verify(integrationDisabledNotifier, times(1)).notify(argThat(endpoint -> endpoint.getId().equals(perMessageScenario.disabledEndpoint.getId())), eq(HTTP_4XX), eq(404), eq(1));
+        clearInvocations(integrationDisabledNotifier);
+        micrometerAssertionHelper.clearSavedValues();
+
+        Scenario batchScenario = new Scenario();
+        saveCounterValues();
+        batchConnectorReceiver.process(batchScenario.payloads);
+        assertCounterIncrements();
+        micrometerAssertionHelper.assertCounterIncrement(BATCH_FALLBACK_COUNTER_NAME, 0);
+        verify(integrationDisabledNotifier, times(1)).notify(argThat(endpoint -> endpoint.getId().equals(batchScenario.disabledEndpoint.getId())), eq(HTTP_4XX), eq(404), eq(1));
+        verify(integrationDisabledNotifier, times(1)).notify(any(Endpoint.class), any(HttpErrorType.class), any(), anyInt());
+
+        for (int i = 0; i < perMessageScenario.histories.size(); i++) {
+            NotificationHistory expected = entityManager.find(NotificationHistory.class, perMessageScenario.histories.get(i).getId());
+            NotificationHistory actual = entityManager.find(NotificationHistory.class, batchScenario.histories.get(i).getId());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.isInvocationResult(), actual.isInvocationResult());
+            assertEquals(expected.getInvocationTime(), actual.getInvocationTime());
+            assertEquals(expected.getDetails(), actual.getDetails());
+        }
+        for (int i = 0; i < perMessageScenario.endpoints.size(); i++) {
+            Endpoint expected = entityManager.find(Endpoint.class, perMessageScenario.endpoints.get(i).getId());
+            Endpoint actual = entityManager.find(Endpoint.class, batchScenario.endpoints.get(i).getId());
+            assertEquals(expected.isEnabled(), actual.isEnabled());
+            assertEquals(expected.getServerErrors(), actual.getServerErrors());
+        }
+
+        Endpoint recoveredEndpoint = entityManager.find(Endpoint.class, batchScenario.endpoints.get(0).getId());
+        assertTrue(recoveredEndpoint.isEnabled());
+        assertEquals(0, recoveredEndpoint.getServerErrors());
+        Endpoint failingEndpoint = entityManager.find(Endpoint.class, batchScenario.endpoints.get(1).getId());
+        assertTrue(failingEndpoint.isEnabled());
+        assertEquals(5, failingEndpoint.getServerErrors());
+        assertFalse(entityManager.find(Endpoint.class, batchScenario.disabledEndpoint.getId()).isEnabled());
+        assertEquals(NotificationStatus.FAILED_EXTERNAL, entityManager.find(NotificationHistory.class, batchScenario.histories.get(0).getId()).getStatus());
+        assertEquals(NotificationStatus.SUCCESS, entityManager.find(NotificationHistory.class, batchScenario.histories.get(1).getId()).getStatus());
+    }
+
+    private void saveCounterValues() {
+        micrometerAssertionHelper.saveCounterValuesBeforeTest(MESSAGES_PROCESSED_COUNTER_NAME, MESSAGES_ERROR_COUNTER_NAME, BATCH_FALLBACK_COUNTER_NAME);
+        micrometerAssertionHelper.saveCounterValueFilteredByTagsBeforeTest(DISABLED_WEBHOOKS_COUNTER, ERROR_TYPE_TAG_KEY, CLIENT_TAG_VALUE);
+    }
+
+    private void assertCounterIncrements() {
+        micrometerAssertionHelper.assertCounterIncrement(MESSAGES_PROCESSED_COUNTER_NAME, 9);
+        micrometerAssertionHelper.assertCounterIncrement(MESSAGES_ERROR_COUNTER_NAME, 1);
+        micrometerAssertionHelper.assertCounterValueFilteredByTagsIncrement(DISABLED_WEBHOOKS_COUNTER, ERROR_TYPE_TAG_KEY, CLIENT_TAG_VALUE, 1);
+    }
+
+    /*
+     * The scenario contains, in this order:
+     * - a server error then a success from an endpoint which already had server errors
+     * - two server errors from another endpoint
+     * - a client error, which disables a third endpoint
+     * - a success then a failure without error details from a fourth endpoint which already had server errors
+     * - a reply for an unknown history item
+     * - an invalid payload
+     */
+    private final class Scenario {
+
+        private final List<Endpoint> endpoints = new ArrayList<>();
+        private final List<NotificationHistory> histories = new ArrayList<>();
+        private final List<String> payloads = new ArrayList<>();
+        private final Endpoint disabledEndpoint;
+
+        private Scenario() {
+            Endpoint recoveredEndpoint = createEndpoint(3);
+            addReply(recoveredEndpoint, false, HTTP_5XX, 503, 2);
+            addReply(recoveredEndpoint, true, null, 200, 1);
+
+            Endpoint failingEndpoint = createEndpoint(0);
+            addReply(failingEndpoint, false, SOCKET_TIMEOUT, null, 4);
+            addReply(failingEndpoint, false, HTTP_5XX, 500, 1);
+
+            disabledEndpoint = createEndpoint(0);
+            addReply(disabledEndpoint, false, HTTP_4XX, 404, 1);
+
+            Endpoint flakyEndpoint = createEndpoint(1);
+            addReply(flakyEndpoint, true, null, 200, 1);
+            addReply(flakyEndpoint, false, null, null, 1);
+
+            payloads.add(buildPayload(UUID.randomUUID(), true, null, 200, 1));
+            payloads.add("I am not valid!");
+        }
+
+        private Endpoint createEndpoint(int serverErrors) {
+            Endpoint endpoint = resourceHelpers.createEndpoint(WEBHOOK, null, true, serverErrors);
+            endpoints.add(endpoint);
+            return endpoint;
+        }
+
+        private void addReply(Endpoint endpoint, boolean successful, HttpErrorType httpErrorType, Integer httpStatusCode, int deliveryAttempts) {
+            NotificationHistory history = new NotificationHistory();
+            history.setId(UUID.randomUUID());
+            history.setInvocationTime(0L);
+            history.setStatus(NotificationStatus.PROCESSING);
+            history.setEvent(event);
+            history.setEndpoint(endpoint);
+            history.setEndpointType(WEBHOOK);
+            notificationHistoryRepository.createNotificationHistory(history);
+            histories.add(history);
+            payloads.add(buildPayload(history.getId(), successful, httpErrorType, httpStatusCode, deliveryAttempts));
+        }
+    }
+
+    private static String buildPayload(UUID historyId, boolean successful, HttpErrorType httpErrorType, Integer httpStatusCode, int deliveryAttempts) {
+        JsonObject data = JsonObject.of(
+            "duration", 1234,
+            "finishTime", 1639476503209L,
+            "details", JsonObject.of(
+                "type", "com.redhat.console.notification.toCamel.webhook",
+                "target", "https://example.com"
+            ),
+            "successful", successful,
+            "outcome", "this is a test"
+        );
+
+        if (httpErrorType != null) {
+            data.put("error", JsonObject.of(
+                "error_type", httpErrorType.name(),
+                "delivery_attempts", deliveryAttempts,
+                "http_status_code", httpStatusCode
+            ));
+        }
+
+        return JsonObject.of(
+            "specversion", "1.0",
+            "source", "demo-log",
+            "type", "com.redhat.cloud.notifications.history",
+            "time", "2021-12-14T10:08:23.217Z",
+            "id", historyId.toString(),
+            "content-type", "application/json",
+            "data", data.encode()
+        ).encode();
+    }
+}
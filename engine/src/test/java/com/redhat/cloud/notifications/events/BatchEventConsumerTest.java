@@ -0,0 +1,225 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.EventPayloadTestHelper;
+import com.redhat.cloud.notifications.TestLifecycleManager;
+import com.redhat.cloud.notifications.config.EngineConfig;
+import com.redhat.cloud.notifications.db.ResourceHelpers;
+import com.redhat.cloud.notifications.ingress.Action;
+import com.redhat.cloud.notifications.models.Application;
+import com.redhat.cloud.notifications.models.Event;
+import com.redhat.cloud.notifications.models.EventType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import jakarta.inject.Inject;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.redhat.cloud.notifications.TestConstants.DEFAULT_ORG_ID;
+import static com.redhat.cloud.notifications.TestHelpers.serializeAction;
+import static com.redhat.cloud.notifications.events.EventConsumer.CONSUMED_TIMER_NAME;
+import static com.redhat.cloud.notifications.events.EventConsumer.DUPLICATE_EVENT_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.EventConsumer.PROCESSING_BLACKLISTED_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.EventConsumer.PROCESSING_ERROR_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.EventConsumer.PROCESSING_EXCEPTION_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.EventConsumer.REJECTED_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.EventConsumer.TAG_KEY_APPLICATION;
+import static com.redhat.cloud.notifications.events.EventConsumer.TAG_KEY_BUNDLE;
+import static com.redhat.cloud.notifications.events.EventConsumer.TAG_KEY_EVENT_TYPE;
+import static com.redhat.cloud.notifications.events.EventConsumer.TAG_KEY_EVENT_TYPE_FQN;
+import static com.redhat.cloud.notifications.events.KafkaMessageDeduplicator.MESSAGE_ID_HEADER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+@QuarkusTestResource(TestLifecycleManager.class)
+public class BatchEventConsumerTest {
+
+    private static final String BUNDLE = "batch-bundle";
+    private static final String APP = "batch-app";
+    private static final String EVENT_TYPE = "batch-event-type";
+    private static final String BLACKLISTED_EVENT_TYPE = "batch-blacklisted-event-type";
+    private static final String FAILING_ORG_ID = "batch-failing-org";
+
+    @Inject
+    BatchEventConsumer batchEventConsumer;
+
+    @Inject
+    EventConsumer eventConsumer;
+
+    @InjectMock
+    EndpointProcessor endpointProcessor;
+
+    @InjectSpy
+    EngineConfig config;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    ResourceHelpers resourceHelpers;
+
+    private EventType blacklistedEventType;
+    private UUID alreadyKnownMessageId;
+
+    @BeforeEach
+    void beforeEach() {
+        Application app = resourceHelpers.findOrCreateApplication(BUNDLE, APP);
+        resourceHelpers.findOrCreateEventType(app.getId(), EVENT_TYPE);
+        blacklistedEventType = resourceHelpers.findOrCreateEventType(app.getId(), BLACKLISTED_EVENT_TYPE);
+
+        when(config.isBlacklistedEventType(any())).thenReturn(false);
+        when(config.isBlacklistedEventType(eq(blacklistedEventType.getId()))).thenReturn(true);
+        doThrow(new RuntimeException("I am a forced exception!"))
+            .when(endpointProcessor).process(argThat((Event event) -> event != null && FAILING_ORG_ID.equals(event.getOrgId())));
+    }
+
+    @AfterEach
+    void afterEach() {
+        resourceHelpers.deleteBundle(BUNDLE);
+    }
+
+    @Test
+    void testPerMessageOutcomesAreUnchanged() {
+        Map<String, Double> before = snapshot();
+        alreadyKnownMessageId = UUID.randomUUID();
+        eventConsumer.process(buildMessage(DEFAULT_ORG_ID, EVENT_TYPE, alreadyKnownMessageId));
+        // The setup message above is not part of the measured scenario.
+        clearInvocations(endpointProcessor);
+        Map<String, Double> afterSetup = snapshot();
+        assertEquals(1D, afterSetup.get(CONSUMED_TIMER_NAME) - before.get(CONSUMED_TIMER_NAME));
+
+        List<Message<String>> scenario = buildScenario();
+        for (Message<String> message : scenario) {
+            eventConsumer.process(message);
+        }
+        Map<String, Double> perMessageOutcomes = diff(afterSetup, snapshot());
+        List<Event> perMessageProcessedEvents = captureProcessedEvents(2);
+        clearInvocations(endpointProcessor);
+
+        Map<String, Double> beforeBatch = snapshot();
+        List<Message<String>> batchScenario = buildScenario();
+        batchEventConsumer.process(batchScenario);
+        Map<String, Double> batchOutcomes = diff(beforeBatch, snapshot());
+        List<Event> batchProcessedEvents = captureProcessedEvents(2);
+
+        assertEquals(perMessageOutcomes, batchOutcomes);
+        assertEquals(7D, batchOutcomes.get(CONSUMED_TIMER_NAME));
+        assertEquals(2D, batchOutcomes.get(REJECTED_COUNTER_NAME));
+        assertEquals(1D, batchOutcomes.get(PROCESSING_ERROR_COUNTER_NAME));
+        assertEquals(3D, batchOutcomes.get(PROCESSING_EXCEPTION_COUNTER_NAME));
+        assertEquals(2D, batchOutcomes.get(DUPLICATE_EVENT_COUNTER_NAME));
+        assertEquals(1D, batchOutcomes.get(PROCESSING_BLACKLISTED_COUNTER_NAME));
+
+        for (int i = 0; i < batchProcessedEvents.size(); i++) {
+            assertEquals(perMessageProcessedEvents.get(i).getOrgId(), batchProcessedEvents.get(i).getOrgId());
+            assertEquals(perMessageProcessedEvents.get(i).getSeverity(), batchProcessedEvents.get(i).getSeverity());
+            assertEquals(perMessageProcessedEvents.get(i).hasAuthorizationCriterion(), batchProcessedEvents.get(i).hasAuthorizationCriterion());
+            // The events were persisted before being processed.
+            assertNotNull(batchProcessedEvents.get(i).getId());
+        }
+    }
+
+    @Test
+    void testBlacklistedOnlyBatch() {
+        Map<String, Double> before = snapshot();
+        batchEventConsumer.process(List.of(buildMessage(DEFAULT_ORG_ID, BLACKLISTED_EVENT_TYPE, UUID.randomUUID())));
+        Map<String, Double> outcomes = diff(before, snapshot());
+
+        assertEquals(1D, outcomes.get(CONSUMED_TIMER_NAME));
+        assertEquals(1D, outcomes.get(PROCESSING_BLACKLISTED_COUNTER_NAME));
+        verify(endpointProcessor, never()).process(any(Event.class));
+    }
+
+    /*
+     * The scenario contains, in this order:
+     * - a new event
+     * - a duplicate of that new event
+     * - a duplicate of an event received before the scenario
+     * - an event with a blacklisted event type
+     * - an invalid payload
+     * - an event with an unknown event type
+     * - an event whose processing fails
+     */
+    private List<Message<String>> buildScenario() {
+        UUID newEventId = UUID.randomUUID();
+        return List.of(
+            buildMessage(DEFAULT_ORG_ID, EVENT_TYPE, newEventId),
+            buildMessage(DEFAULT_ORG_ID, EVENT_TYPE, newEventId),
+            buildMessage(DEFAULT_ORG_ID, EVENT_TYPE, alreadyKnownMessageId),
+            buildMessage(DEFAULT_ORG_ID, BLACKLISTED_EVENT_TYPE, UUID.randomUUID()),
+            buildMessageWithId(UUID.randomUUID(), "I am not a valid payload!"),
+            buildMessage(DEFAULT_ORG_ID, "unknown-event-type", UUID.randomUUID()),
+            buildMessage(FAILING_ORG_ID, EVENT_TYPE, UUID.randomUUID())
+        );
+    }
+
+    private List<Event> captureProcessedEvents(int expectedCount) {
+        ArgumentCaptor<Event> argumentCaptor = ArgumentCaptor.forClass(Event.class);
+        verify(endpointProcessor, times(expectedCount)).process(argumentCaptor.capture());
+        return argumentCaptor.getAllValues();
+    }
+
+    private Map<String, Double> snapshot() {
+        Map<String, Double> values = new HashMap<>();
+        values.put(REJECTED_COUNTER_NAME, registry.counter(REJECTED_COUNTER_NAME).count());
+        values.put(PROCESSING_ERROR_COUNTER_NAME, registry.counter(PROCESSING_ERROR_COUNTER_NAME).count());
+        values.put(PROCESSING_EXCEPTION_COUNTER_NAME, registry.counter(PROCESSING_EXCEPTION_COUNTER_NAME).count());
+        values.put(DUPLICATE_EVENT_COUNTER_NAME, registry.counter(DUPLICATE_EVENT_COUNTER_NAME,
+            TAG_KEY_BUNDLE, BUNDLE,
+            TAG_KEY_APPLICATION, APP,
+            TAG_KEY_EVENT_TYPE, EVENT_TYPE
+        ).count());
+        values.put(PROCESSING_BLACKLISTED_COUNTER_NAME, registry.counter(PROCESSING_BLACKLISTED_COUNTER_NAME,
+            TAG_KEY_BUNDLE, BUNDLE,
+            TAG_KEY_APPLICATION, APP,
+            TAG_KEY_EVENT_TYPE, BLACKLISTED_EVENT_TYPE,
+            TAG_KEY_EVENT_TYPE_FQN, ""
+        ).count());
+        values.put(CONSUMED_TIMER_NAME, (double) registry.find(CONSUMED_TIMER_NAME).timers().stream()
+            .mapToLong(Timer::count)
+            .sum());
+        return values;
+    }
+
+    private static Map<String, Double> diff(Map<String, Double> before, Map<String, Double> after) {
+        Map<String, Double> increments = new HashMap<>();
+        after.forEach((key, value) -> increments.put(key, value - before.get(key)));
+        return increments;
+    }
+
+    private static Message<String> buildMessage(String orgId, String eventType, UUID messageId) {
+        Action action = EventPayloadTestHelper.buildValidAction(orgId, BUNDLE, APP, eventType);
+        return buildMessageWithId(messageId, serializeAction(action));
+    }
+
+    private static Message<String> buildMessageWithId(UUID messageId, String payload) {
+        OutgoingKafkaRecordMetadata<?> metadata = OutgoingKafkaRecordMetadata.builder()
+            .withHeaders(new RecordHeaders().add(MESSAGE_ID_HEADER, messageId.toString().getBytes(UTF_8)))
+            .build();
+        return Message.of(payload).addMetadata(metadata);
+    }
+}
@@ -1,20 +1,26 @@
 package com.redhat.cloud.notifications.events;
 
 import com.redhat.cloud.notifications.MicrometerAssertionHelper;
+import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.db.repositories.EndpointRepository;
 import com.redhat.cloud.notifications.models.Endpoint;
 import com.redhat.cloud.notifications.models.EndpointType;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
 import io.vertx.core.json.JsonObject;
 import jakarta.inject.Inject;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
 
 import static com.redhat.cloud.notifications.events.EndpointErrorFromConnectorHelper.CLIENT_TAG_VALUE;
 import static com.redhat.cloud.notifications.events.EndpointErrorFromConnectorHelper.DISABLED_WEBHOOKS_COUNTER;
@@ -22,8 +28,15 @@ import static com.redhat.cloud.notifications.events.EndpointErrorFromConnectorHe
 import static com.redhat.cloud.notifications.events.EndpointErrorFromConnectorHelper.SERVER_TAG_VALUE;
 import static com.redhat.cloud.notifications.events.HttpErrorType.HTTP_4XX;
 import static com.redhat.cloud.notifications.events.HttpErrorType.HTTP_5XX;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -43,6 +56,9 @@ class EndpointErrorFromConnectorHelperTest {
     @Inject
     EndpointErrorFromConnectorHelper endpointErrorFromConnectorHelper;
 
+    @InjectSpy
+    EngineConfig engineConfig;
+
     @BeforeEach
     void beforeEach() {
         micrometerAssertionHelper.saveCounterValueFilteredByTagsBeforeTest(DISABLED_WEBHOOKS_COUNTER, ERROR_TYPE_TAG_KEY, SERVER_TAG_VALUE);
@@ -101,6 +117,75 @@ class EndpointErrorFromConnectorHelperTest {
         assertMetrics(0, 1);
     }
 
+    @Test
+    void testCoalescedServerErrors() {
+        Mockito.when(engineConfig.isServerErrorsCoalescingEnabled()).thenReturn(true);
+        final Endpoint endpoint = mockEndpointFromNotificationHistorySearch();
+        Mockito.when(endpointRepository.incrementEndpointServerErrors(eq(endpoint.getId()), anyInt())).thenReturn(true);
+
+        for (int i = 0; i < 3; i++) {
+            endpointErrorFromConnectorHelper.manageEndpointDisablingIfNeeded(endpoint, buildTestPayload(false, HTTP_5XX, 503));
+        }
+        verify(endpointRepository, never()).incrementEndpointServerErrors(any(), anyInt());
+
+        endpointErrorFromConnectorHelper.flushServerErrors();
+        verify(endpointRepository, times(1)).incrementEndpointServerErrors(eq(endpoint.getId()), eq(12));
+        verify(integrationDisabledNotifier, times(1)).notify(endpoint, HTTP_5XX, 503, 0);
+        assertMetrics(1, 0);
+
+        // Nothing is left to flush.
+        endpointErrorFromConnectorHelper.flushServerErrors();
+        verify(endpointRepository, times(1)).incrementEndpointServerErrors(any(), anyInt());
+    }
+
+    @Test
+    void testResetDiscardsCoalescedServerErrors() {
+        Mockito.when(engineConfig.isServerErrorsCoalescingEnabled()).thenReturn(true);
+        final Endpoint endpoint = mockEndpointFromNotificationHistorySearch();
+
+        endpointErrorFromConnectorHelper.manageEndpointDisablingIfNeeded(endpoint, buildTestPayload(false, HTTP_5XX, 503));
+        endpointErrorFromConnectorHelper.manageEndpointDisablingIfNeeded(endpoint, buildTestPayload(true, null, 200));
+        endpointErrorFromConnectorHelper.flushServerErrors();
+
+        verify(endpointRepository, times(1)).resetEndpointServerErrors(endpoint.getId());
+        verify(endpointRepository, never()).incrementEndpointServerErrors(any(), anyInt());
+        verifyNoInteractions(integrationDisabledNotifier);
+        assertMetrics(0, 0);
+    }
+
+    @Test
+    void testSuccessDuringFlushResetsAfterTheCoalescedServerErrors() throws InterruptedException {
+        Mockito.when(engineConfig.isServerErrorsCoalescingEnabled()).thenReturn(true);
+        final Endpoint endpoint = mockEndpointFromNotificationHistorySearch();
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch flushReleased = new CountDownLatch(1);
+        Mockito.when(endpointRepository.incrementEndpointServerErrors(eq(endpoint.getId()), anyInt())).thenAnswer(invocation -> {
+            flushStarted.countDown();
+            flushReleased.await(10, SECONDS);
+            return false;
+        });
+
+        endpointErrorFromConnectorHelper.manageEndpointDisablingIfNeeded(endpoint, buildTestPayload(false, HTTP_5XX, 503));
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(endpointErrorFromConnectorHelper::flushServerErrors);
+        assertTrue(flushStarted.await(10, SECONDS));
+
+        // The success is received after the flush took the pending server errors and before it applied them.
+        CompletableFuture<Void> success = CompletableFuture.runAsync(() ->
+            endpointErrorFromConnectorHelper.manageEndpointDisablingIfNeeded(endpoint, buildTestPayload(true, null, 200)));
+        assertThrows(TimeoutException.class, () -> success.get(500, MILLISECONDS));
+        verify(endpointRepository, never()).resetEndpointServerErrors(any());
+
+        flushReleased.countDown();
+        flush.join();
+        success.join();
+
+        // The errors which happened before the success are cleared by the reset.
+        InOrder inOrder = inOrder(endpointRepository);
+        inOrder.verify(endpointRepository).incrementEndpointServerErrors(endpoint.getId(), 4);
+        inOrder.verify(endpointRepository).resetEndpointServerErrors(endpoint.getId());
+        verifyNoInteractions(integrationDisabledNotifier);
+    }
+
     @NotNull
     private Endpoint mockEndpointFromNotificationHistorySearch() {
         // Create an Endpoint which will be simulated to be fetched from the database.
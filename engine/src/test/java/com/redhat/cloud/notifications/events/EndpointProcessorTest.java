@@ -1,5 +1,6 @@
 package com.redhat.cloud.notifications.events;
 
+import com.redhat.cloud.notifications.DelayedException;
 import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.db.repositories.EndpointRepository;
 import com.redhat.cloud.notifications.ingress.Action;
@@ -20,6 +21,8 @@ import com.redhat.cloud.notifications.processors.email.EmailProcessor;
 import com.redhat.cloud.notifications.processors.eventing.EventingProcessor;
 import com.redhat.cloud.notifications.processors.pagerduty.PagerDutyProcessor;
 import com.redhat.cloud.notifications.processors.webhooks.WebhookTypeProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectSpy;
@@ -29,20 +32,31 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
+import static com.redhat.cloud.notifications.events.EndpointProcessor.PROCESSOR_DURATION_TIMER_NAME;
+import static com.redhat.cloud.notifications.events.EndpointProcessor.TAG_KEY_PROCESSOR;
 import static com.redhat.cloud.notifications.models.Endpoint.GOOGLE_CHAT_ENDPOINT_SUBTYPE;
 import static com.redhat.cloud.notifications.models.Endpoint.SLACK_ENDPOINT_SUBTYPE;
 import static com.redhat.cloud.notifications.models.Endpoint.TEAMS_ENDPOINT_SUBTYPE;
 import static java.time.ZoneOffset.UTC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 
 @QuarkusTest
 public class EndpointProcessorTest {
 
+    private static final long SLOW_PROCESSOR_MILLIS = 500;
+    private static final long SLOWEST_PROCESSOR_MILLIS = 1000;
+
     @Inject
     EndpointProcessor endpointProcessor;
 
@@ -80,6 +94,9 @@ public class EndpointProcessorTest {
     @InjectMock
     PagerDutyProcessor pagerDutyProcessor;
 
+    @Inject
+    MeterRegistry registry;
+
     /**
      * Tests that when an "integration customer test" event is processed, the
      * corresponding endpoint is fetched by the UUID that gets set in the
@@ -331,6 +348,93 @@ public class EndpointProcessorTest {
         Mockito.verify(this.engineConfig, Mockito.times(2)).isBlacklistedEndpoint(any(UUID.class));
     }
 
+    @Test
+    void testParallelDispatchLatency() {
+        Mockito.when(engineConfig.isEndpointTypesParallelDispatchEnabled()).thenReturn(true);
+        Mockito.when(engineConfig.isEmailsOnlyModeEnabled()).thenReturn(Boolean.FALSE);
+        Mockito.when(endpointRepository.getTargetEndpointsWithoutUsingBgs(Mockito.anyString(), Mockito.any(EventType.class)))
+            .thenReturn(buildEndpointsOfIndependentTypes());
+
+        Mockito.doAnswer(invocation -> sleep(SLOW_PROCESSOR_MILLIS)).when(webhookProcessor).process(any(), any());
+        Mockito.doAnswer(invocation -> sleep(SLOW_PROCESSOR_MILLIS)).when(drawerProcessor).process(any(), any());
+        Mockito.doAnswer(invocation -> sleep(SLOW_PROCESSOR_MILLIS)).when(emailConnectorProcessor).process(any(), any());
+        Mockito.doAnswer(invocation -> sleep(SLOWEST_PROCESSOR_MILLIS)).when(pagerDutyProcessor).process(any(), any());
+
+        long webhookTimerCount = getProcessorTimerCount("webhook");
+        long start = System.nanoTime();
+        endpointProcessor.process(buildEvent());
+        long durationMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // The sequential dispatch would take at least the sum of the processors latency.
+        assertTrue(durationMillis >= SLOWEST_PROCESSOR_MILLIS);
+        assertTrue(durationMillis < SLOWEST_PROCESSOR_MILLIS + SLOW_PROCESSOR_MILLIS, "Duration: " + durationMillis + " ms");
+        Mockito.verify(webhookProcessor, Mockito.times(1)).process(any(), any());
+        Mockito.verify(drawerProcessor, Mockito.times(1)).process(any(), any());
+        Mockito.verify(emailConnectorProcessor, Mockito.times(1)).process(any(), any());
+        Mockito.verify(pagerDutyProcessor, Mockito.times(1)).process(any(), any());
+        assertEquals(webhookTimerCount + 1, getProcessorTimerCount("webhook"));
+    }
+
+    @Test
+    void testParallelDispatchErrorsOrder() {
+        Mockito.when(engineConfig.isEmailsOnlyModeEnabled()).thenReturn(Boolean.FALSE);
+        Mockito.when(endpointRepository.getTargetEndpointsWithoutUsingBgs(Mockito.anyString(), Mockito.any(EventType.class)))
+            .thenReturn(buildEndpointsOfIndependentTypes());
+
+        // The processors fail in the reverse order of their latency, so the completion order is not the dispatch order.
+        Mockito.doAnswer(invocation -> {
+            sleep(SLOWEST_PROCESSOR_MILLIS);
+            throw new IllegalStateException("webhook");
+        }).when(webhookProcessor).process(any(), any());
+        Mockito.doAnswer(invocation -> {
+            sleep(SLOW_PROCESSOR_MILLIS);
+            throw new IllegalStateException("drawer");
+        }).when(drawerProcessor).process(any(), any());
+        Mockito.doThrow(new IllegalStateException("email")).when(emailConnectorProcessor).process(any(), any());
+
+        List<String> sequentialErrors = getSuppressedMessages(assertThrows(DelayedException.class, () -> endpointProcessor.process(buildEvent())));
+
+        Mockito.when(engineConfig.isEndpointTypesParallelDispatchEnabled()).thenReturn(true);
+        List<String> parallelErrors = getSuppressedMessages(assertThrows(DelayedException.class, () -> endpointProcessor.process(buildEvent())));
+
+        assertEquals(3, sequentialErrors.size());
+        assertEquals(sequentialErrors, parallelErrors);
+    }
+
+    private static List<Endpoint> buildEndpointsOfIndependentTypes() {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (EndpointType endpointType : List.of(EndpointType.WEBHOOK, EndpointType.DRAWER, EndpointType.EMAIL_SUBSCRIPTION, EndpointType.PAGERDUTY)) {
+            Endpoint endpoint = new Endpoint();
+            endpoint.setId(UUID.randomUUID());
+            endpoint.setType(endpointType);
+            endpoints.add(endpoint);
+        }
+        return endpoints;
+    }
+
+    private static Event buildEvent() {
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        event.setEventWrapper(new EventWrapperAction(buildAction("test-org-id")));
+        event.setOrgId("test-org-id");
+        event.setEventType(new EventType());
+        return event;
+    }
+
+    private long getProcessorTimerCount(String processor) {
+        Timer timer = registry.find(PROCESSOR_DURATION_TIMER_NAME).tag(TAG_KEY_PROCESSOR, processor).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private static List<String> getSuppressedMessages(DelayedException e) {
+        return Arrays.stream(e.getSuppressed()).map(Throwable::getMessage).toList();
+    }
+
+    private static Void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return null;
+    }
+
     private static Action buildAction(String orgId) {
         Action action = new Action.ActionBuilder()
             .withBundle("rhel")
@@ -0,0 +1,286 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.MicrometerAssertionHelper;
+import com.redhat.cloud.notifications.TestLifecycleManager;
+import com.redhat.cloud.notifications.config.EngineConfig;
+import com.redhat.cloud.notifications.db.ResourceHelpers;
+import com.redhat.cloud.notifications.db.repositories.EndpointRepository;
+import com.redhat.cloud.notifications.models.Application;
+import com.redhat.cloud.notifications.models.BehaviorGroup;
+import com.redhat.cloud.notifications.models.BehaviorGroupAction;
+import com.redhat.cloud.notifications.models.BehaviorGroupActionId;
+import com.redhat.cloud.notifications.models.Bundle;
+import com.redhat.cloud.notifications.models.Endpoint;
+import com.redhat.cloud.notifications.models.EventType;
+import com.redhat.cloud.notifications.models.EventTypeBehavior;
+import com.redhat.cloud.notifications.models.EventTypeBehaviorId;
+import com.redhat.cloud.notifications.models.HttpType;
+import com.redhat.cloud.notifications.models.WebhookProperties;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.redhat.cloud.notifications.TestConstants.DEFAULT_ORG_ID;
+import static com.redhat.cloud.notifications.events.EndpointRoutingIndex.HIT_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.EndpointRoutingIndex.MISS_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.EndpointRoutingIndex.SYSTEM_ENDPOINT_HIT_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.EndpointRoutingIndex.SYSTEM_ENDPOINT_MISS_COUNTER_NAME;
+import static com.redhat.cloud.notifications.models.EndpointStatus.READY;
+import static com.redhat.cloud.notifications.models.EndpointType.EMAIL_SUBSCRIPTION;
+import static com.redhat.cloud.notifications.models.EndpointType.WEBHOOK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+@QuarkusTestResource(TestLifecycleManager.class)
+public class EndpointRoutingIndexTest {
+
+    private static final String BUNDLE = "routing-index-bundle";
+    private static final String APP = "routing-index-app";
+    private static final String EVENT_TYPE = "routing-index-event-type";
+    private static final String SYSTEM_ENDPOINT_ORG_ID = "routing-index-system-org";
+
+    @Inject
+    EndpointRoutingIndex endpointRoutingIndex;
+
+    @InjectSpy
+    EndpointRepository endpointRepository;
+
+    @InjectSpy
+    EngineConfig engineConfig;
+
+    @Inject
+    ResourceHelpers resourceHelpers;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    MicrometerAssertionHelper micrometerAssertionHelper;
+
+    private final List<UUID> createdEndpoints = new ArrayList<>();
+    private EventType eventType;
+    private BehaviorGroup behaviorGroup;
+
+    @BeforeEach
+    void beforeEach() {
+        when(engineConfig.isEndpointRoutingIndexEnabled()).thenReturn(true);
+        Application app = resourceHelpers.findOrCreateApplication(BUNDLE, APP);
+        eventType = resourceHelpers.findOrCreateEventType(app.getId(), EVENT_TYPE);
+        behaviorGroup = createBehaviorGroup(app.getBundleId());
+        addEventTypeBehavior(eventType.getId(), behaviorGroup.getId());
+        addBehaviorGroupAction(behaviorGroup.getId(), createWebhookEndpoint().getId());
+        // The changes made by the setup are consumed before the tests start.
+        endpointRoutingIndex.poll();
+        micrometerAssertionHelper.saveCounterValuesBeforeTest(HIT_COUNTER_NAME, MISS_COUNTER_NAME, SYSTEM_ENDPOINT_HIT_COUNTER_NAME, SYSTEM_ENDPOINT_MISS_COUNTER_NAME);
+        clearInvocations(endpointRepository);
+    }
+
+    @AfterEach
+    void afterEach() {
+        resourceHelpers.deleteBundle(BUNDLE);
+        createdEndpoints.forEach(resourceHelpers::deleteEndpoint);
+        createdEndpoints.clear();
+        endpointRoutingIndex.invalidateAll();
+        micrometerAssertionHelper.clearSavedValues();
+    }
+
+    @Test
+    void testMissThenHit() {
+        assertEquals(1, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+        assertEquals(1, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+        endpointRoutingIndex.poll();
+        assertEquals(1, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+
+        verify(endpointRepository, times(1)).getTargetEndpointsWithoutUsingBgs(eq(DEFAULT_ORG_ID), any(EventType.class));
+        micrometerAssertionHelper.assertCounterIncrement(MISS_COUNTER_NAME, 1);
+        micrometerAssertionHelper.assertCounterIncrement(HIT_COUNTER_NAME, 2);
+    }
+
+    @Test
+    void testInvalidationAfterEndpointChange() {
+        Endpoint endpoint = endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).getFirst();
+
+        setEndpointEnabled(endpoint.getId(), false);
+        // The change is not visible until the change log is polled.
+        assertEquals(1, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+        endpointRoutingIndex.poll();
+        assertEquals(0, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+
+        setEndpointEnabled(endpoint.getId(), true);
+        endpointRoutingIndex.poll();
+        assertEquals(1, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+
+        verify(endpointRepository, times(3)).getTargetEndpointsWithoutUsingBgs(eq(DEFAULT_ORG_ID), any(EventType.class));
+        micrometerAssertionHelper.assertCounterIncrement(MISS_COUNTER_NAME, 3);
+        micrometerAssertionHelper.assertCounterIncrement(HIT_COUNTER_NAME, 1);
+    }
+
+    @Test
+    void testInvalidationAfterBehaviorGroupChange() {
+        assertEquals(1, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+
+        addBehaviorGroupAction(behaviorGroup.getId(), createWebhookEndpoint().getId());
+        endpointRoutingIndex.poll();
+        assertEquals(2, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+
+        verify(endpointRepository, times(2)).getTargetEndpointsWithoutUsingBgs(eq(DEFAULT_ORG_ID), any(EventType.class));
+        micrometerAssertionHelper.assertCounterIncrement(MISS_COUNTER_NAME, 2);
+    }
+
+    @Test
+    void testInvalidationAfterEventTypeLinkChange() {
+        assertEquals(1, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+
+        clearEventTypeBehaviors(eventType.getId());
+        endpointRoutingIndex.poll();
+        assertEquals(0, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+
+        verify(endpointRepository, times(2)).getTargetEndpointsWithoutUsingBgs(eq(DEFAULT_ORG_ID), any(EventType.class));
+        micrometerAssertionHelper.assertCounterIncrement(MISS_COUNTER_NAME, 2);
+    }
+
+    @Test
+    void testOtherOrgChangeDoesNotInvalidate() {
+        assertEquals(1, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+
+        endpointRoutingIndex.invalidate("another-org-id", null);
+        assertEquals(1, endpointRoutingIndex.getTargetEndpoints(DEFAULT_ORG_ID, eventType).size());
+
+        verify(endpointRepository, times(1)).getTargetEndpointsWithoutUsingBgs(eq(DEFAULT_ORG_ID), any(EventType.class));
+        micrometerAssertionHelper.assertCounterIncrement(HIT_COUNTER_NAME, 1);
+    }
+
+    @Test
+    void testSystemEndpointMissThenHit() {
+        Endpoint systemEndpoint = createSystemEndpoint();
+
+        assertEquals(systemEndpoint.getId(), endpointRoutingIndex.getDefaultSystemSubscription(null, SYSTEM_ENDPOINT_ORG_ID, EMAIL_SUBSCRIPTION).getId());
+        Endpoint cachedEndpoint = endpointRoutingIndex.getDefaultSystemSubscription(null, SYSTEM_ENDPOINT_ORG_ID, EMAIL_SUBSCRIPTION);
+        assertSame(cachedEndpoint, endpointRoutingIndex.getDefaultSystemSubscription(null, SYSTEM_ENDPOINT_ORG_ID, EMAIL_SUBSCRIPTION));
+        // A change of the routing of one event type doesn't affect the system endpoints.
+        endpointRoutingIndex.invalidate(SYSTEM_ENDPOINT_ORG_ID, eventType.getId());
+        assertSame(cachedEndpoint, endpointRoutingIndex.getDefaultSystemSubscription(null, SYSTEM_ENDPOINT_ORG_ID, EMAIL_SUBSCRIPTION));
+
+        verify(endpointRepository, times(1)).getOrCreateDefaultSystemSubscription(any(), eq(SYSTEM_ENDPOINT_ORG_ID), eq(EMAIL_SUBSCRIPTION));
+        micrometerAssertionHelper.assertCounterIncrement(SYSTEM_ENDPOINT_MISS_COUNTER_NAME, 1);
+        micrometerAssertionHelper.assertCounterIncrement(SYSTEM_ENDPOINT_HIT_COUNTER_NAME, 3);
+    }
+
+    @Test
+    void testSystemEndpointInvalidationAfterEndpointDeletion() {
+        Endpoint systemEndpoint = createSystemEndpoint();
+        assertEquals(systemEndpoint.getId(), endpointRoutingIndex.getDefaultSystemSubscription(null, SYSTEM_ENDPOINT_ORG_ID, EMAIL_SUBSCRIPTION).getId());
+
+        resourceHelpers.deleteEndpoint(systemEndpoint.getId());
+        // The change is not visible until the change log is polled.
+        assertEquals(systemEndpoint.getId(), endpointRoutingIndex.getDefaultSystemSubscription(null, SYSTEM_ENDPOINT_ORG_ID, EMAIL_SUBSCRIPTION).getId());
+        endpointRoutingIndex.poll();
+        Endpoint recreatedEndpoint = endpointRoutingIndex.getDefaultSystemSubscription(null, SYSTEM_ENDPOINT_ORG_ID, EMAIL_SUBSCRIPTION);
+        createdEndpoints.add(recreatedEndpoint.getId());
+        assertNotEquals(systemEndpoint.getId(), recreatedEndpoint.getId());
+
+        verify(endpointRepository, times(2)).getOrCreateDefaultSystemSubscription(any(), eq(SYSTEM_ENDPOINT_ORG_ID), eq(EMAIL_SUBSCRIPTION));
+        micrometerAssertionHelper.assertCounterIncrement(SYSTEM_ENDPOINT_MISS_COUNTER_NAME, 2);
+        micrometerAssertionHelper.assertCounterIncrement(SYSTEM_ENDPOINT_HIT_COUNTER_NAME, 1);
+    }
+
+    /*
+     * Creates the system endpoint directly from the repository, then consumes the change logged by its creation, so
+     * that the tests start with an empty index.
+     */
+    private Endpoint createSystemEndpoint() {
+        Endpoint systemEndpoint = endpointRepository.getOrCreateDefaultSystemSubscription(null, SYSTEM_ENDPOINT_ORG_ID, EMAIL_SUBSCRIPTION);
+        createdEndpoints.add(systemEndpoint.getId());
+        endpointRoutingIndex.poll();
+        clearInvocations(endpointRepository);
+        return systemEndpoint;
+    }
+
+    @Transactional
+    BehaviorGroup createBehaviorGroup(UUID bundleId) {
+        BehaviorGroup behaviorGroup = new BehaviorGroup();
+        behaviorGroup.setOrgId(DEFAULT_ORG_ID);
+        behaviorGroup.setDisplayName(UUID.randomUUID().toString());
+        behaviorGroup.setBundleId(bundleId);
+        behaviorGroup.setBundle(entityManager.find(Bundle.class, bundleId));
+        entityManager.persist(behaviorGroup);
+        return behaviorGroup;
+    }
+
+    @Transactional
+    Endpoint createWebhookEndpoint() {
+        WebhookProperties properties = new WebhookProperties();
+        properties.setMethod(HttpType.POST);
+        properties.setDisableSslVerification(false);
+        properties.setUrl("https://localhost/routing-index");
+
+        Endpoint endpoint = new Endpoint();
+        endpoint.setType(WEBHOOK);
+        endpoint.setOrgId(DEFAULT_ORG_ID);
+        endpoint.setEnabled(true);
+        endpoint.setName(UUID.randomUUID().toString());
+        endpoint.setDescription("Endpoint");
+        endpoint.setProperties(properties);
+        endpoint.setStatus(READY);
+        properties.setEndpoint(endpoint);
+
+        entityManager.persist(endpoint);
+        entityManager.persist(endpoint.getProperties());
+        createdEndpoints.add(endpoint.getId());
+        return endpoint;
+    }
+
+    @Transactional
+    void addBehaviorGroupAction(UUID behaviorGroupId, UUID endpointId) {
+        BehaviorGroupAction action = new BehaviorGroupAction();
+        action.setId(new BehaviorGroupActionId());
+        action.setBehaviorGroup(entityManager.find(BehaviorGroup.class, behaviorGroupId));
+        action.setEndpoint(entityManager.find(Endpoint.class, endpointId));
+        entityManager.persist(action);
+        resourceHelpers.refreshEndpointLinksToEventType(DEFAULT_ORG_ID, List.of(endpointId));
+    }
+
+    @Transactional
+    void addEventTypeBehavior(UUID eventTypeId, UUID behaviorGroupId) {
+        EventTypeBehavior behavior = new EventTypeBehavior();
+        behavior.setId(new EventTypeBehaviorId());
+        behavior.setEventType(entityManager.find(EventType.class, eventTypeId));
+        behavior.setBehaviorGroup(entityManager.find(BehaviorGroup.class, behaviorGroupId));
+        entityManager.persist(behavior);
+    }
+
+    @Transactional
+    void clearEventTypeBehaviors(UUID eventTypeId) {
+        entityManager.createQuery("DELETE FROM EventTypeBehavior WHERE eventType.id = :eventTypeId")
+            .setParameter("eventTypeId", eventTypeId)
+            .executeUpdate();
+        resourceHelpers.refreshEndpointLinksToEventTypeFromBehaviorGroup(DEFAULT_ORG_ID, Set.of(behaviorGroup.getId()));
+    }
+
+    @Transactional
+    void setEndpointEnabled(UUID endpointId, boolean enabled) {
+        entityManager.createQuery("UPDATE Endpoint SET enabled = :enabled WHERE id = :id")
+            .setParameter("enabled", enabled)
+            .setParameter("id", endpointId)
+            .executeUpdate();
+    }
+}
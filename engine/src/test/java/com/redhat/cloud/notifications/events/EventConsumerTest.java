@@ -13,6 +13,7 @@ import com.redhat.cloud.notifications.models.Application;
 import com.redhat.cloud.notifications.models.Bundle;
 import com.redhat.cloud.notifications.models.Event;
 import com.redhat.cloud.notifications.models.EventType;
+import com.redhat.cloud.notifications.transformers.BaseTransformer;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.common.QuarkusTestResource;
@@ -52,6 +53,7 @@ import static com.redhat.cloud.notifications.events.KafkaMessageDeduplicator.MES
 import static com.redhat.cloud.notifications.events.KafkaMessageDeduplicator.MESSAGE_ID_INVALID_COUNTER_NAME;
 import static com.redhat.cloud.notifications.events.KafkaMessageDeduplicator.MESSAGE_ID_MISSING_COUNTER_NAME;
 import static com.redhat.cloud.notifications.events.KafkaMessageDeduplicator.MESSAGE_ID_VALID_COUNTER_NAME;
+import static com.redhat.cloud.notifications.transformers.BaseTransformer.SEVERITY;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -95,6 +97,9 @@ public class EventConsumerTest {
     @Inject
     ResourceHelpers resourceHelpers;
 
+    @Inject
+    BaseTransformer baseTransformer;
+
     @BeforeEach
     void beforeEach() {
         micrometerAssertionHelper.saveCounterValuesBeforeTest(
@@ -244,6 +249,24 @@ public class EventConsumerTest {
         verifySeverity(action, severityIgnored);
     }
 
+    @Test
+    void testProcessorPayloadCarriesComputedSeverity() {
+        // The event type default severity is used because the action doesn't have any.
+        mockGetEventTypeAndCreateEvent(true);
+        Action action = buildValidAction(true);
+        action.setSeverity(null);
+        String payload = serializeAction(action);
+        Message<String> message = buildMessageWithId(UUID.randomUUID().toString().getBytes(UTF_8), payload);
+        inMemoryConnector.source(INGRESS_CHANNEL).send(message);
+
+        micrometerAssertionHelper.awaitAndAssertTimerIncrement(CONSUMED_TIMER_NAME, 1);
+        ArgumentCaptor<Event> argumentCaptor = ArgumentCaptor.forClass(Event.class);
+        verify(endpointProcessor, times(1)).process(argumentCaptor.capture());
+        assertEquals(Severity.MODERATE, argumentCaptor.getValue().getSeverity());
+        assertEquals(Severity.MODERATE.name(), baseTransformer.toSharedJsonObject(argumentCaptor.getValue()).getString(SEVERITY));
+        assertEquals(Severity.MODERATE.name(), baseTransformer.toJsonObject(argumentCaptor.getValue()).getString(SEVERITY));
+    }
+
     @Test
     void testInvalidPayloadWithMessageId() {
         Message<String> message = buildMessageWithId(UUID.randomUUID().toString().getBytes(UTF_8), "I am not a valid payload!");
@@ -0,0 +1,230 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.notifications.EventPayloadTestHelper;
+import com.redhat.cloud.notifications.TestLifecycleManager;
+import com.redhat.cloud.notifications.config.EngineConfig;
+import com.redhat.cloud.notifications.db.ResourceHelpers;
+import com.redhat.cloud.notifications.ingress.Action;
+import com.redhat.cloud.notifications.models.Application;
+import com.redhat.cloud.notifications.models.Bundle;
+import com.redhat.cloud.notifications.models.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import io.smallrye.reactive.messaging.memory.InMemoryConnector;
+import jakarta.enterprise.inject.Any;
+import jakarta.inject.Inject;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.redhat.cloud.notifications.TestHelpers.serializeAction;
+import static com.redhat.cloud.notifications.events.EventConsumer.INGRESS_CHANNEL;
+import static com.redhat.cloud.notifications.events.KafkaMessageDeduplicator.MESSAGE_ID_HEADER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+@QuarkusTestResource(TestLifecycleManager.class)
+public class OrgLaneExecutorTest {
+
+    private static final String BUNDLE = "lanes-bundle";
+    private static final String APP = "lanes-app";
+    private static final String EVENT_TYPE = "lanes-event-type";
+    private static final String NOISY_ORG_ID = "noisy-org";
+
+    @Inject
+    @Any
+    InMemoryConnector inMemoryConnector;
+
+    @InjectMock
+    EndpointProcessor endpointProcessor;
+
+    @InjectSpy
+    EngineConfig config;
+
+    @Inject
+    ResourceHelpers resourceHelpers;
+
+    // The message IDs of the processed events, per org.
+    private final Map<String, List<UUID>> processed = new ConcurrentHashMap<>();
+    private final AtomicInteger acks = new AtomicInteger();
+
+    @BeforeEach
+    void beforeEach() {
+        Bundle bundle = resourceHelpers.findOrCreateBundle(BUNDLE);
+        Application app = resourceHelpers.findOrCreateApplication(bundle.getName(), APP);
+        resourceHelpers.findOrCreateEventType(app.getId(), EVENT_TYPE);
+
+        when(config.isAsyncEventProcessing()).thenReturn(true);
+        when(config.isBlacklistedEventType(any())).thenReturn(false);
+    }
+
+    @AfterEach
+    void afterEach() {
+        resourceHelpers.deleteBundle(BUNDLE);
+    }
+
+    @Test
+    void testEventsOfAnOrgAreProcessedInOrder() {
+        doAnswer(invocation -> {
+            // The random delay makes the lanes complete their events in an unpredictable order.
+            Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+            recordProcessing(invocation.getArgument(0));
+            return null;
+        }).when(endpointProcessor).process(any(Event.class));
+
+        List<String> orgIds = List.of("org-1", "org-2", "org-3", "org-4");
+        Map<String, List<UUID>> sent = new ConcurrentHashMap<>();
+        for (int i = 0; i < 25; i++) {
+            for (String orgId : orgIds) {
+                sent.computeIfAbsent(orgId, key -> new ArrayList<>()).add(send(orgId));
+            }
+        }
+
+        await().atMost(30, SECONDS).until(() -> acks.get() == 100);
+        assertEquals(sent, processed);
+    }
+
+    @Test
+    void testBusyOrgDoesNotBlockOtherOrgs() {
+        String otherOrgId = findOrgIdInAnotherLane(NOISY_ORG_ID);
+        CountDownLatch noisyOrgLatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            if (NOISY_ORG_ID.equals(event.getOrgId())) {
+                noisyOrgLatch.await(30, SECONDS);
+            }
+            recordProcessing(event);
+            return null;
+        }).when(endpointProcessor).process(any(Event.class));
+
+        // The noisy org fills its lane but doesn't exceed its capacity, so the consumption isn't blocked.
+        int laneCapacity = config.getEventConsumerLaneCapacity();
+        for (int i = 0; i < laneCapacity; i++) {
+            send(NOISY_ORG_ID);
+        }
+        UUID otherOrgMessageId = send(otherOrgId);
+
+        await().atMost(10, SECONDS).until(() -> processed.containsKey(otherOrgId));
+        assertEquals(List.of(otherOrgMessageId), processed.get(otherOrgId));
+        assertFalse(processed.containsKey(NOISY_ORG_ID));
+        // The messages of the noisy org are not acked until they have been processed.
+        assertEquals(1, acks.get());
+
+        noisyOrgLatch.countDown();
+        await().atMost(10, SECONDS).until(() -> acks.get() == laneCapacity + 1);
+        assertEquals(laneCapacity, processed.get(NOISY_ORG_ID).size());
+    }
+
+    @Test
+    void testDrainWaitsForInFlightTasks() throws Exception {
+        OrgLaneExecutor executor = buildExecutor();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger done = new AtomicInteger();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit("org-" + i % 2, () -> {
+                awaitQuietly(latch);
+                done.incrementAndGet();
+            }));
+        }
+        assertEquals(4, executor.getInFlight());
+
+        CompletableFuture<Boolean> drained = CompletableFuture.supplyAsync(() -> executor.drain(Duration.ofSeconds(30)));
+        // New tasks are rejected as soon as the drain starts.
+        await().atMost(10, SECONDS).untilAsserted(() ->
+            assertThrows(RejectedExecutionException.class, () -> executor.submit("org-0", () -> { }))
+        );
+        assertFalse(drained.isDone());
+
+        latch.countDown();
+        assertTrue(drained.get(10, SECONDS));
+        assertEquals(4, done.get());
+        results.forEach(result -> assertTrue(result.isDone()));
+        assertEquals(0, executor.getInFlight());
+    }
+
+    @Test
+    void testDrainTimeout() {
+        OrgLaneExecutor executor = buildExecutor();
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.submit("org-0", () -> awaitQuietly(latch));
+
+        assertFalse(executor.drain(Duration.ofMillis(100)));
+        assertEquals(1, executor.getInFlight());
+        latch.countDown();
+    }
+
+    private OrgLaneExecutor buildExecutor() {
+        OrgLaneExecutor executor = new OrgLaneExecutor();
+        executor.config = config;
+        executor.registry = new SimpleMeterRegistry();
+        executor.init();
+        return executor;
+    }
+
+    private String findOrgIdInAnotherLane(String orgId) {
+        int lanes = config.getEventConsumerLanes();
+        int i = 0;
+        while (Math.floorMod(Objects.hashCode("org-" + i), lanes) == Math.floorMod(Objects.hashCode(orgId), lanes)) {
+            i++;
+        }
+        return "org-" + i;
+    }
+
+    private UUID send(String orgId) {
+        Action action = EventPayloadTestHelper.buildValidAction(orgId, BUNDLE, APP, EVENT_TYPE);
+        UUID messageId = UUID.randomUUID();
+        OutgoingKafkaRecordMetadata<?> metadata = OutgoingKafkaRecordMetadata.builder()
+            .withHeaders(new RecordHeaders().add(MESSAGE_ID_HEADER, messageId.toString().getBytes(UTF_8)))
+            .build();
+        Message<String> message = Message.of(serializeAction(action))
+            .addMetadata(metadata)
+            .withAck(() -> {
+                acks.incrementAndGet();
+                return CompletableFuture.completedFuture(null);
+            });
+        inMemoryConnector.source(INGRESS_CHANNEL).send(message);
+        return messageId;
+    }
+
+    private void recordProcessing(Event event) {
+        processed.computeIfAbsent(event.getOrgId(), key -> new CopyOnWriteArrayList<>()).add(event.getExternalId());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
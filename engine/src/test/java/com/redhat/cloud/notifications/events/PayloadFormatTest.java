@@ -0,0 +1,227 @@
+package com.redhat.cloud.notifications.events;
+
+import com.redhat.cloud.event.parser.ConsoleCloudEventParser;
+import com.redhat.cloud.event.parser.exceptions.ConsoleCloudEventParsingException;
+import com.redhat.cloud.notifications.models.NotificationsConsoleCloudEvent;
+import com.redhat.cloud.notifications.utils.ActionParser;
+import com.redhat.cloud.notifications.utils.ActionParsingException;
+import io.vertx.core.json.JsonObject;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.redhat.cloud.notifications.TestConstants.DEFAULT_ORG_ID;
+import static com.redhat.cloud.notifications.TestHelpers.createPoliciesAction;
+import static com.redhat.cloud.notifications.TestHelpers.serializeAction;
+import static com.redhat.cloud.notifications.events.PayloadFormat.ACTION;
+import static com.redhat.cloud.notifications.events.PayloadFormat.CLOUD_EVENT;
+import static com.redhat.cloud.notifications.events.PayloadFormat.UNKNOWN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PayloadFormatTest {
+
+    private static final ActionParser ACTION_PARSER = new ActionParser();
+    private static final ConsoleCloudEventParser CLOUD_EVENT_PARSER = new ConsoleCloudEventParser();
+
+    private enum Route {
+        ACTION,
+        CLOUD_EVENT,
+        REJECTED
+    }
+
+    @ParameterizedTest
+    @MethodSource("payloads")
+    void testSniff(String description, String payload, PayloadFormat expectedFormat, Route expectedRoute) {
+        assertEquals(expectedFormat, PayloadFormat.sniff(payload), description);
+    }
+
+    // Only the top-level keys are taken into account.
+    @ParameterizedTest
+    @MethodSource("mixedPayloads")
+    void testSniffMixedPayload(String description, String payload, PayloadFormat expectedFormat) {
+        assertEquals(expectedFormat, PayloadFormat.sniff(payload), description);
+    }
+
+    // Reading the org ID in the same pass doesn't change the guessed format.
+    @ParameterizedTest
+    @MethodSource("payloads")
+    void testSniffWithOrgIdFormat(String description, String payload, PayloadFormat expectedFormat, Route expectedRoute) {
+        assertEquals(expectedFormat, PayloadFormat.sniffWithOrgId(payload).format(), description);
+    }
+
+    @ParameterizedTest
+    @MethodSource("orgIdPayloads")
+    void testSniffWithOrgId(String description, String payload, String expectedOrgId) {
+        assertEquals(expectedOrgId, PayloadFormat.sniffWithOrgId(payload).orgId(), description);
+    }
+
+    /*
+     * The payloads used to be parsed as actions first, then as cloud events. The sniffer changes the order in which
+     * the parsers are tried, but each payload must still be routed to the same parser.
+     */
+    @ParameterizedTest
+    @MethodSource("payloads")
+    void testRoutingIsUnchanged(String description, String payload, PayloadFormat expectedFormat, Route expectedRoute) {
+        assertEquals(expectedRoute, routeWithActionFirst(payload), description);
+        assertEquals(expectedRoute, routeWithSniffer(payload), description);
+    }
+
+    private static Stream<Arguments> payloads() throws IOException {
+        String action = serializeAction(createPoliciesAction("123456", "rhel", "policies", "host"));
+        String cloudEvent = readCloudEvent();
+        JsonObject actionJson = new JsonObject(action);
+        JsonObject cloudEventJson = new JsonObject(cloudEvent);
+
+        List<Arguments> payloads = new ArrayList<>();
+        payloads.add(Arguments.of("action", action, ACTION, Route.ACTION));
+        payloads.add(Arguments.of("pretty-printed action", actionJson.encodePrettily(), ACTION, Route.ACTION));
+        payloads.add(Arguments.of("action with the required keys last", moveKeysLast(actionJson, "bundle", "application", "event_type").encode(), ACTION, Route.ACTION));
+        payloads.add(Arguments.of("action without bundle", without(actionJson, "bundle").encode(), UNKNOWN, Route.REJECTED));
+        payloads.add(Arguments.of("action without event_type", without(actionJson, "event_type").encode(), UNKNOWN, Route.REJECTED));
+        payloads.add(Arguments.of("action with an invalid timestamp", actionJson.copy().put("timestamp", "yesterday").encode(), ACTION, Route.REJECTED));
+
+        payloads.add(Arguments.of("cloud event", cloudEvent, CLOUD_EVENT, Route.CLOUD_EVENT));
+        payloads.add(Arguments.of("compact cloud event", cloudEventJson.encode(), CLOUD_EVENT, Route.CLOUD_EVENT));
+        payloads.add(Arguments.of("cloud event with the specversion key first", moveKeysFirst(cloudEventJson, "specversion").encode(), CLOUD_EVENT, Route.CLOUD_EVENT));
+        payloads.add(Arguments.of("cloud event without specversion", without(cloudEventJson, "specversion").encode(), UNKNOWN, Route.REJECTED));
+        payloads.add(Arguments.of("cloud event without id", without(cloudEventJson, "id").encode(), CLOUD_EVENT, Route.REJECTED));
+
+        payloads.add(Arguments.of("empty object", "{}", UNKNOWN, Route.REJECTED));
+        payloads.add(Arguments.of("array", "[" + action + "]", UNKNOWN, Route.REJECTED));
+        payloads.add(Arguments.of("string", "\"bundle\"", UNKNOWN, Route.REJECTED));
+        payloads.add(Arguments.of("empty payload", "", UNKNOWN, Route.REJECTED));
+        payloads.add(Arguments.of("truncated action", action.substring(0, action.length() / 2), UNKNOWN, Route.REJECTED));
+        payloads.add(Arguments.of("truncated cloud event", cloudEvent.substring(0, cloudEvent.length() - 10), UNKNOWN, Route.REJECTED));
+        payloads.add(Arguments.of("not JSON", "bundle=rhel&application=policies&event_type=policy-triggered", UNKNOWN, Route.REJECTED));
+        return payloads.stream();
+    }
+
+    private static Stream<Arguments> mixedPayloads() throws IOException {
+        JsonObject actionJson = new JsonObject(serializeAction(createPoliciesAction("123456", "rhel", "policies", "host")));
+        JsonObject cloudEventJson = new JsonObject(readCloudEvent());
+
+        return Stream.of(
+            Arguments.of("action with a specversion key", actionJson.copy().put("specversion", "1.0").encode(), ACTION),
+            Arguments.of("action with a specversion key first", moveKeysFirst(actionJson.copy().put("specversion", "1.0"), "specversion").encode(), ACTION),
+            Arguments.of("cloud event with action keys in its data", withActionKeysInData(cloudEventJson).encode(), CLOUD_EVENT),
+            Arguments.of("cloud event with a bundle key", cloudEventJson.copy().put("bundle", "rhel").encode(), CLOUD_EVENT)
+        );
+    }
+
+    private static Stream<Arguments> orgIdPayloads() throws IOException {
+        JsonObject actionJson = new JsonObject(serializeAction(createPoliciesAction("123456", "rhel", "policies", "host")));
+        JsonObject cloudEventJson = new JsonObject(readCloudEvent());
+
+        return Stream.of(
+            Arguments.of("action", actionJson.encode(), DEFAULT_ORG_ID),
+            Arguments.of("action with the org_id key last", moveKeysLast(actionJson, "org_id").encode(), DEFAULT_ORG_ID),
+            Arguments.of("action with the org_id key first", moveKeysFirst(actionJson, "org_id").encode(), DEFAULT_ORG_ID),
+            Arguments.of("action without org_id", without(actionJson, "org_id").encode(), null),
+            Arguments.of("action with a numeric org_id", actionJson.copy().put("org_id", 123456).encode(), null),
+            Arguments.of("cloud event", cloudEventJson.encode(), "11789772"),
+            Arguments.of("cloud event with an org_id key in its data", withOrgIdInData(without(cloudEventJson, "redhatorgid")).encode(), null),
+            Arguments.of("truncated action", actionJson.encode().substring(0, 20), null),
+            Arguments.of("not JSON", "org_id=123456", null)
+        );
+    }
+
+    // This is how EventConsumer used to route the payloads.
+    private static Route routeWithActionFirst(String payload) {
+        try {
+            ACTION_PARSER.fromJsonString(payload);
+            return Route.ACTION;
+        } catch (ActionParsingException e) {
+            return tryCloudEvent(payload) ? Route.CLOUD_EVENT : Route.REJECTED;
+        }
+    }
+
+    // This is how EventConsumer routes the payloads now.
+    private static Route routeWithSniffer(String payload) {
+        if (PayloadFormat.sniff(payload) == CLOUD_EVENT) {
+            if (tryCloudEvent(payload)) {
+                return Route.CLOUD_EVENT;
+            }
+            return tryAction(payload) ? Route.ACTION : Route.REJECTED;
+        } else {
+            if (tryAction(payload)) {
+                return Route.ACTION;
+            }
+            return tryCloudEvent(payload) ? Route.CLOUD_EVENT : Route.REJECTED;
+        }
+    }
+
+    private static boolean tryAction(String payload) {
+        try {
+            ACTION_PARSER.fromJsonString(payload);
+            return true;
+        } catch (ActionParsingException e) {
+            return false;
+        }
+    }
+
+    private static boolean tryCloudEvent(String payload) {
+        try {
+            CLOUD_EVENT_PARSER.fromJsonString(payload, NotificationsConsoleCloudEvent.class);
+            return true;
+        } catch (ConsoleCloudEventParsingException e) {
+            return false;
+        }
+    }
+
+    private static String readCloudEvent() throws IOException {
+        try (InputStream cloudEventStream = PayloadFormatTest.class.getClassLoader().getResourceAsStream("cloudevents/cloudevent.json")) {
+            return IOUtils.toString(cloudEventStream, UTF_8);
+        }
+    }
+
+    private static JsonObject without(JsonObject json, String key) {
+        JsonObject copy = json.copy();
+        copy.remove(key);
+        return copy;
+    }
+
+    private static JsonObject moveKeysFirst(JsonObject json, String... keys) {
+        JsonObject moved = new JsonObject();
+        for (String key : keys) {
+            moved.put(key, json.getValue(key));
+        }
+        json.forEach(entry -> {
+            if (!moved.containsKey(entry.getKey())) {
+                moved.put(entry.getKey(), entry.getValue());
+            }
+        });
+        return moved;
+    }
+
+    private static JsonObject moveKeysLast(JsonObject json, String... keys) {
+        JsonObject moved = json.copy();
+        for (String key : keys) {
+            Object value = moved.remove(key);
+            moved.put(key, value);
+        }
+        return moved;
+    }
+
+    private static JsonObject withActionKeysInData(JsonObject cloudEvent) {
+        JsonObject copy = cloudEvent.copy();
+        copy.getJsonObject("data")
+            .put("bundle", "rhel")
+            .put("application", "policies")
+            .put("event_type", "policy-triggered");
+        return copy;
+    }
+
+    private static JsonObject withOrgIdInData(JsonObject cloudEvent) {
+        JsonObject copy = cloudEvent.copy();
+        copy.getJsonObject("data").put("org_id", "654321");
+        return copy;
+    }
+}
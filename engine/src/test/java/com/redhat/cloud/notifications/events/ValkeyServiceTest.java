@@ -1,16 +1,23 @@
 package com.redhat.cloud.notifications.events;
 
 import com.redhat.cloud.notifications.TestLifecycleManager;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+import static com.redhat.cloud.notifications.events.ValkeyService.PIPELINE_BATCH_SIZE_SUMMARY_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -21,6 +28,9 @@ class ValkeyServiceTest {
     @Inject
     ValkeyService valkeyService;
 
+    @Inject
+    MeterRegistry registry;
+
     @Test
     void testAddNewEntries() {
         UUID eventTypeId1 = UUID.randomUUID();
@@ -76,4 +86,32 @@ class ValkeyServiceTest {
         Thread.sleep(Duration.ofSeconds(5));
         assertTrue(valkeyService.isNewEvent(eventTypeId, deduplicationKey, deleteAfter));
     }
+
+    @Test
+    void testPipelinedChecks() {
+        UUID eventTypeId = UUID.randomUUID();
+        LocalDateTime deleteAfter = LocalDateTime.now(ZoneOffset.UTC).plusDays(7);
+        DistributionSummary batchSize = registry.summary(PIPELINE_BATCH_SIZE_SUMMARY_NAME);
+        long batchesBefore = batchSize.count();
+        double commandsBefore = batchSize.totalAmount();
+
+        // The checks are queued at the same time, so they are coalesced into fewer batches.
+        List<Uni<Boolean>> checks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            checks.add(valkeyService.isNewEventAsync(eventTypeId, "dedup-key-pipelined-" + i, deleteAfter).memoize().indefinitely());
+        }
+        checks.forEach(check -> check.subscribe().with(ignored -> { }));
+        checks.forEach(check -> assertTrue(check.await().atMost(Duration.ofSeconds(10))));
+
+        assertEquals(50, batchSize.totalAmount() - commandsBefore);
+        assertTrue(batchSize.count() - batchesBefore < 50, "The checks were not pipelined");
+
+        // The pipelined checks see the keys inserted by the synchronous ones and vice versa.
+        assertFalse(valkeyService.isNewEventAsync(eventTypeId, "dedup-key-pipelined-0", deleteAfter).await().atMost(Duration.ofSeconds(10)));
+        assertFalse(valkeyService.isNewEvent(eventTypeId, "dedup-key-pipelined-1", deleteAfter));
+
+        // A removed key can be inserted again.
+        assertTrue(valkeyService.removeEventFromDeduplicationAsync(eventTypeId, "dedup-key-pipelined-2").await().atMost(Duration.ofSeconds(10)));
+        assertTrue(valkeyService.isNewEventAsync(eventTypeId, "dedup-key-pipelined-2", deleteAfter).await().atMost(Duration.ofSeconds(10)));
+    }
 }
@@ -0,0 +1,236 @@
+package com.redhat.cloud.notifications.events.deduplication;
+
+import com.redhat.cloud.notifications.TestLifecycleManager;
+import com.redhat.cloud.notifications.events.EventWrapperAction;
+import com.redhat.cloud.notifications.models.Application;
+import com.redhat.cloud.notifications.models.Bundle;
+import com.redhat.cloud.notifications.models.Event;
+import com.redhat.cloud.notifications.models.EventType;
+import io.quarkus.logging.Log;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(TestLifecycleManager.class)
+class EventDeduplicationPartitioningTest {
+
+    private static final String BUNDLE_NAME = "partitioning-bundle";
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int EVENTS_PER_WEEK = 200;
+
+    @Inject
+    EventDeduplicator eventDeduplicator;
+
+    @Inject
+    EntityManager entityManager;
+
+    private EventType eventType;
+
+    @BeforeEach
+    void beforeEach() {
+        deleteAllEntries();
+        eventType = createEventType();
+    }
+
+    @AfterEach
+    void afterEach() {
+        deleteAllEntries();
+        deleteBundle();
+        // The tests move the clock forward, the partitions of the current weeks may have been dropped.
+        callProcedure("CALL createEventDeduplicationPartitions()");
+    }
+
+    @Test
+    void testDuplicateInAnotherPartition() {
+        // The key is first stored with a delete_after date on Saturday, then checked with a delete_after date on Monday.
+        // Next week is used so that the entries are not expired, whatever the current day.
+        LocalDateTime friday = currentWeek().plusWeeks(1).plusDays(4).plusHours(12);
+        UUID eventId = UUID.randomUUID();
+
+        assertTrue(eventDeduplicator.isNew(buildEvent(eventId, friday)));
+        assertEquals(partitionName(currentWeek().plusWeeks(1)), findPartition(eventId));
+
+        assertFalse(eventDeduplicator.isNew(buildEvent(eventId, friday.plusDays(2))));
+        assertEquals(List.of(false), eventDeduplicator.isNew(List.of(buildEvent(eventId, friday.plusDays(3)))));
+        assertEquals(1L, countEntries());
+    }
+
+    @Test
+    void testEntriesOutsideOfThePartitionsAreMoved() {
+        LocalDateTime farFuture = currentWeek().plusWeeks(20).plusDays(2);
+        UUID eventId = UUID.randomUUID();
+
+        assertTrue(eventDeduplicator.isNew(buildEvent(eventId, farFuture)));
+        assertEquals("event_deduplication_default", findPartition(eventId));
+
+        callProcedure("CALL createEventDeduplicationPartitions(CAST(:referenceTime AS TIMESTAMP), 0)", farFuture);
+        assertEquals(partitionName(farFuture.truncatedTo(DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))), findPartition(eventId));
+        assertFalse(eventDeduplicator.isNew(buildEvent(eventId, farFuture)));
+    }
+
+    @Test
+    void testExpiredEntryIsIgnored() {
+        // The entry expired yesterday but it is only deleted when its partition is dropped.
+        UUID eventId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        assertTrue(eventDeduplicator.isNew(buildEvent(eventId, now.minusDays(2))));
+        assertEquals(1L, countEntries());
+
+        assertTrue(eventDeduplicator.isNew(buildEvent(eventId, now)));
+        assertFalse(eventDeduplicator.isNew(buildEvent(eventId, now)));
+        assertEquals(List.of(false), eventDeduplicator.isNew(List.of(buildEvent(eventId, now))));
+    }
+
+    /*
+     * Moves the clock forward one week at a time. Each week, the expired partition is dropped, the next partitions are
+     * created and new entries are inserted. The insert latency must not grow as the partitions are rotated.
+     */
+    @Test
+    void testPartitionRotation() {
+        List<Double> meanLatencies = new ArrayList<>();
+        List<UUID> previousWeekEventIds = List.of();
+
+        for (int week = 0; week < 5; week++) {
+            // The rotation starts next week, the entries of the current week may already be expired.
+            LocalDateTime referenceTime = currentWeek().plusWeeks(week + 1);
+            callProcedure("CALL cleanEventDeduplication(CAST(:referenceTime AS TIMESTAMP))", referenceTime);
+
+            if (week > 0) {
+                // The entries of the previous week expired and their partition was dropped.
+                assertFalse(partitionExists(partitionName(referenceTime.minusWeeks(1))));
+                assertEquals(0L, countEntries());
+                assertTrue(eventDeduplicator.isNew(buildEvent(previousWeekEventIds.getFirst(), referenceTime.plusHours(1))));
+                deleteAllEntries();
+            }
+            assertTrue(partitionExists(partitionName(referenceTime.plusWeeks(8))));
+
+            List<UUID> eventIds = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < EVENTS_PER_WEEK; i++) {
+                UUID eventId = UUID.randomUUID();
+                eventIds.add(eventId);
+                assertTrue(eventDeduplicator.isNew(buildEvent(eventId, referenceTime.plusHours(1))));
+            }
+            double meanLatency = (double) Duration.ofNanos(System.nanoTime() - start).toMillis() / EVENTS_PER_WEEK;
+            meanLatencies.add(meanLatency);
+
+            assertEquals(partitionName(referenceTime), findPartition(eventIds.getFirst()));
+            for (UUID eventId : eventIds.subList(0, 10)) {
+                // The duplicates are detected whatever their delete_after date.
+                assertFalse(eventDeduplicator.isNew(buildEvent(eventId, referenceTime.plusDays(6))));
+            }
+            assertEquals((long) EVENTS_PER_WEEK, countEntries());
+            previousWeekEventIds = eventIds;
+        }
+
+        Log.infof("Mean event deduplication insert latency per week (ms): %s", meanLatencies);
+        for (double meanLatency : meanLatencies) {
+            assertTrue(meanLatency < meanLatencies.getFirst() * 3 + 5, "The insert latency grew with the partitions rotation: " + meanLatencies);
+        }
+    }
+
+    private Event buildEvent(UUID eventId, LocalDateTime timestamp) {
+        Event event = new Event();
+        event.setId(eventId);
+        event.setEventType(eventType);
+        event.setEventWrapper(new EventWrapperAction(ActionBuilder.build(timestamp)));
+        return event;
+    }
+
+    private static LocalDateTime currentWeek() {
+        return LocalDateTime.now(ZoneOffset.UTC).truncatedTo(DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static String partitionName(LocalDateTime weekStart) {
+        return "event_deduplication_p" + weekStart.format(PARTITION_SUFFIX_FORMATTER);
+    }
+
+    @Transactional
+    void callProcedure(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+
+    @Transactional
+    void callProcedure(String sql, LocalDateTime referenceTime) {
+        entityManager.createNativeQuery(sql)
+                .setParameter("referenceTime", referenceTime)
+                .executeUpdate();
+    }
+
+    @Transactional
+    String findPartition(UUID eventId) {
+        return (String) entityManager.createNativeQuery("SELECT CAST(CAST(tableoid AS REGCLASS) AS TEXT) FROM event_deduplication WHERE deduplication_key = :deduplicationKey")
+                .setParameter("deduplicationKey", eventId.toString())
+                .getSingleResult();
+    }
+
+    @Transactional
+    boolean partitionExists(String partitionName) {
+        return (Boolean) entityManager.createNativeQuery("SELECT to_regclass(:partitionName) IS NOT NULL", Boolean.class)
+                .setParameter("partitionName", partitionName)
+                .getSingleResult();
+    }
+
+    @Transactional
+    long countEntries() {
+        return ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM event_deduplication")
+                .getSingleResult()).longValue();
+    }
+
+    @Transactional
+    void deleteAllEntries() {
+        entityManager.createNativeQuery("DELETE FROM event_deduplication").executeUpdate();
+    }
+
+    @Transactional
+    void deleteBundle() {
+        entityManager.createQuery("DELETE FROM Bundle WHERE name = :bundleName")
+                .setParameter("bundleName", BUNDLE_NAME)
+                .executeUpdate();
+    }
+
+    @Transactional
+    EventType createEventType() {
+        Bundle bundle = new Bundle();
+        bundle.setName(BUNDLE_NAME);
+        bundle.setDisplayName(BUNDLE_NAME);
+        entityManager.persist(bundle);
+
+        Application app = new Application();
+        app.setName("partitioning-app");
+        app.setDisplayName("partitioning-app");
+        app.setBundle(bundle);
+        app.setBundleId(bundle.getId());
+        entityManager.persist(app);
+
+        EventType eventType = new EventType();
+        eventType.setName("partitioning-event-type");
+        eventType.setDisplayName("partitioning-event-type");
+        eventType.setApplication(app);
+        eventType.setApplicationId(app.getId());
+        entityManager.persist(eventType);
+
+        return eventType;
+    }
+}
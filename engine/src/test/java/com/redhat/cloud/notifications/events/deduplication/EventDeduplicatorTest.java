@@ -3,10 +3,14 @@ package com.redhat.cloud.notifications.events.deduplication;
 import com.redhat.cloud.notifications.TestLifecycleManager;
 import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.events.EventWrapperAction;
+import com.redhat.cloud.notifications.events.ValkeyService;
 import com.redhat.cloud.notifications.models.Application;
 import com.redhat.cloud.notifications.models.Bundle;
 import com.redhat.cloud.notifications.models.Event;
 import com.redhat.cloud.notifications.models.EventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectSpy;
@@ -16,15 +20,33 @@ import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.UUID;
 
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicationFilter.CHECK_COUNTER_NAME;
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicationFilter.DEFAULT_FILTER;
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicationFilter.TAG_KEY_FILTER;
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicationFilter.TAG_KEY_RESULT;
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicator.TAG_KEY_POSTGRES;
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicator.TAG_KEY_VALKEY;
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicator.TAG_VALUE_DUPLICATE;
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicator.TAG_VALUE_NEW;
+import static com.redhat.cloud.notifications.events.deduplication.EventDeduplicator.VALKEY_DISAGREEMENT_COUNTER_NAME;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @QuarkusTest
@@ -45,6 +67,15 @@ class EventDeduplicatorTest {
     @InjectSpy
     EngineConfig config;
 
+    @InjectSpy
+    ValkeyService valkeyService;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    EventDeduplicationFilter eventDeduplicationFilter;
+
     @BeforeEach
     @Transactional
     void beforeEach() {
@@ -184,6 +215,130 @@ class EventDeduplicatorTest {
         assertTrue(eventDeduplicator.isNew(event7), "Event with different billing_account_id should return true");
     }
 
+    @Test
+    void testPipelinedValkeyDisagreement() {
+        when(config.isValkeyEventDeduplicatorEnabled()).thenReturn(true);
+        when(config.isInMemoryDbEnabled()).thenReturn(true);
+        when(valkeyService.isPipeliningEnabled()).thenReturn(true);
+
+        EventType eventType = createEventType(TEST_BUNDLE_NAME, "test-app");
+        Event event = new Event();
+        event.setId(UUID.randomUUID());
+        event.setEventType(eventType);
+        event.setEventWrapper(new EventWrapperAction(ActionBuilder.build(LocalDateTime.now(UTC_ZONE))));
+
+        // The key is only known by Valkey, so both stores disagree.
+        EventDeduplicationConfig deduplicationConfig = eventDeduplicator.getEventDeduplicationConfig(event);
+        valkeyService.isNewEvent(eventType.getId(), deduplicationConfig.getDeduplicationKey(event).get(), deduplicationConfig.getDeleteAfter(event));
+
+        Counter disagreements = registry.counter(VALKEY_DISAGREEMENT_COUNTER_NAME,
+            TAG_KEY_POSTGRES, TAG_VALUE_NEW,
+            TAG_KEY_VALKEY, TAG_VALUE_DUPLICATE);
+        double disagreementsBefore = disagreements.count();
+
+        // The Postgres result is returned without waiting for the Valkey one.
+        assertTrue(eventDeduplicator.isNew(event), "New event should return true");
+        await().atMost(10, SECONDS).until(() -> disagreements.count() == disagreementsBefore + 1);
+    }
+
+    @Test
+    void testValkeyComparisonWaitsForTheCommit() {
+        when(config.isValkeyEventDeduplicatorEnabled()).thenReturn(true);
+        when(config.isInMemoryDbEnabled()).thenReturn(true);
+        when(valkeyService.isPipeliningEnabled()).thenReturn(false);
+
+        EventType eventType = createEventType(TEST_BUNDLE_NAME, "test-app");
+        Event event = buildEvent(UUID.randomUUID(), eventType, LocalDateTime.now(UTC_ZONE));
+        String deduplicationKey = eventDeduplicator.getEventDeduplicationConfig(event).getDeduplicationKey(event).get();
+
+        Counter disagreements = registry.counter(VALKEY_DISAGREEMENT_COUNTER_NAME,
+            TAG_KEY_POSTGRES, TAG_VALUE_NEW,
+            TAG_KEY_VALKEY, TAG_VALUE_DUPLICATE);
+        double disagreementsBefore = disagreements.count();
+
+        // The batch transaction is rolled back, so Valkey must not be queried.
+        QuarkusTransaction.requiringNew().run(() -> {
+            assertEquals(List.of(true), eventDeduplicator.isNew(List.of(event)));
+            verify(valkeyService, never()).isNewEvent(any(), any(), any());
+            QuarkusTransaction.setRollbackOnly();
+        });
+        verify(valkeyService, never()).isNewEvent(any(), any(), any());
+
+        // The event is replayed and its transaction is committed this time, both stores agree.
+        QuarkusTransaction.requiringNew().run(() -> assertEquals(List.of(true), eventDeduplicator.isNew(List.of(event))));
+        verify(valkeyService, times(1)).isNewEvent(eventType.getId(), deduplicationKey, eventDeduplicator.getEventDeduplicationConfig(event).getDeleteAfter(event));
+        assertEquals(disagreementsBefore, disagreements.count());
+    }
+
+    @Test
+    void testDeduplicationFilter() {
+        eventDeduplicationFilter.enabled = true;
+        try {
+            EventType eventType = createEventType(TEST_BUNDLE_NAME, "test-app");
+            LocalDateTime dateTime = LocalDateTime.now(UTC_ZONE);
+
+            // The filter is not loaded yet, the event is checked against the DB.
+            UUID knownEventId = UUID.randomUUID();
+            assertTrue(eventDeduplicator.isNew(buildEvent(knownEventId, eventType, dateTime)), "New event should return true");
+
+            // The keys from the DB are loaded into the filter.
+            eventDeduplicator.loadFilter();
+            assertFalse(eventDeduplicator.isNew(buildEvent(knownEventId, eventType, dateTime)), "Duplicate event should return false");
+
+            Counter definitelyNew = registry.counter(CHECK_COUNTER_NAME, TAG_KEY_FILTER, DEFAULT_FILTER, TAG_KEY_RESULT, "definitely-new");
+            double definitelyNewBefore = definitelyNew.count();
+
+            // The filter has never seen that key, the DB insert is deferred.
+            UUID eventId = UUID.randomUUID();
+            assertTrue(eventDeduplicator.isNew(buildEvent(eventId, eventType, dateTime)), "New event should return true");
+            assertEquals(definitelyNewBefore + 1, definitelyNew.count());
+            assertFalse(eventDeduplicator.isNew(buildEvent(eventId, eventType, dateTime)), "Duplicate event should return false");
+
+            eventDeduplicator.flushDeferredInserts();
+            assertEquals(1L, countDeduplicationRows(eventId.toString()));
+            assertFalse(eventDeduplicator.isNew(buildEvent(eventId, eventType, dateTime)), "Duplicate event should return false");
+        } finally {
+            eventDeduplicationFilter.enabled = false;
+            eventDeduplicationFilter.reset();
+        }
+    }
+
+    @Test
+    void testDeduplicationFilterKeepsTheKeysRecordedWhileLoading() {
+        eventDeduplicationFilter.enabled = true;
+        try {
+            eventDeduplicationFilter.reset();
+            LocalDateTime deleteAfter = LocalDateTime.now(UTC_ZONE).plusDays(1);
+
+            // The key was checked against the DB before the load but its transaction committed after the load snapshot.
+            EventDeduplicator.DeduplicationKey key = new EventDeduplicator.DeduplicationKey(UUID.randomUUID(), UUID.randomUUID().toString());
+            eventDeduplicationFilter.record(DEFAULT_FILTER, key, deleteAfter, EventDeduplicationFilter.Result.UNAVAILABLE, true);
+            eventDeduplicator.loadFilter();
+
+            assertEquals(EventDeduplicationFilter.Result.MAYBE_SEEN, eventDeduplicationFilter.check(DEFAULT_FILTER, key, deleteAfter));
+            assertFalse(eventDeduplicationFilter.isPendingInsert(key));
+        } finally {
+            eventDeduplicationFilter.enabled = false;
+            eventDeduplicationFilter.reset();
+        }
+    }
+
+    @Transactional
+    long countDeduplicationRows(String deduplicationKey) {
+        return ((Number) entityManager
+                .createNativeQuery("SELECT COUNT(*) FROM event_deduplication WHERE deduplication_key = :deduplicationKey")
+                .setParameter("deduplicationKey", deduplicationKey)
+                .getSingleResult()).longValue();
+    }
+
+    private static Event buildEvent(UUID eventId, EventType eventType, LocalDateTime dateTime) {
+        Event event = new Event();
+        event.setId(eventId);
+        event.setEventType(eventType);
+        event.setEventWrapper(new EventWrapperAction(ActionBuilder.build(dateTime)));
+        return event;
+    }
+
     @Transactional
     EventType createEventType(String bundleName, String appName) {
         Bundle bundle = new Bundle();
@@ -0,0 +1,117 @@
+package com.redhat.cloud.notifications.events.deduplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimeWindowedBloomFilterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final Duration WINDOW = Duration.ofDays(1);
+
+    /*
+     * Property: whatever the sequence of keys, delete_after dates and clock moves, a key accepted by the filter is
+     * never accepted again before its delete_after date. The keys are drawn from a small pool so that duplicates are
+     * frequent, and the filter is undersized so that it rotates and gets saturated.
+     */
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void testDuplicateIsNeverAccepted(long seed) {
+        Random random = new Random(seed);
+        TimeWindowedBloomFilter filter = new TimeWindowedBloomFilter(WINDOW, 2 + random.nextInt(3), 50 + random.nextInt(500), 0.01, START);
+
+        // The latest delete_after date of each accepted key, either by the filter or by the "DB".
+        Map<String, LocalDateTime> accepted = new HashMap<>();
+        LocalDateTime now = START;
+        for (int i = 0; i < 20_000; i++) {
+            now = now.plusSeconds(random.nextInt(60));
+            String key = "key-" + random.nextInt(2_000);
+            // Most keys expire within the window, some long after it.
+            LocalDateTime deleteAfter = random.nextInt(20) == 0 ? now.plusDays(1 + random.nextInt(10)) : now.plusMinutes(random.nextInt(24 * 60));
+            LocalDateTime previousDeleteAfter = accepted.get(key);
+            boolean isDuplicate = previousDeleteAfter != null && now.isBefore(previousDeleteAfter);
+
+            if (filter.putIfAbsent(key, deleteAfter, now)) {
+                assertFalse(isDuplicate, "Duplicate accepted [seed=" + seed + ", iteration=" + i + ", key=" + key + "]");
+                accepted.put(key, deleteAfter);
+            } else if (!isDuplicate) {
+                // The key is checked against the DB, which accepts it and records it in the filter.
+                filter.put(key, deleteAfter, now);
+                accepted.put(key, deleteAfter);
+            }
+        }
+    }
+
+    @Test
+    void testKeyIsRememberedUntilItExpires() {
+        TimeWindowedBloomFilter filter = new TimeWindowedBloomFilter(WINDOW, 2, 1000, 0.01, START);
+        assertTrue(filter.putIfAbsent("short", START.plusHours(12), START));
+        assertTrue(filter.putIfAbsent("long", START.plusDays(3), START));
+        assertFalse(filter.putIfAbsent("short", START.plusHours(12), START.plusHours(1)));
+
+        // The first generation contains a key which hasn't expired, it is kept.
+        LocalDateTime later = START.plusDays(2);
+        filter.put("other", later.plusHours(1), later);
+        assertTrue(filter.mightContain("long"));
+
+        // All the keys of the first generation expired.
+        LocalDateTime muchLater = START.plusDays(4);
+        filter.put("other", muchLater.plusHours(1), muchLater);
+        assertFalse(filter.mightContain("long"));
+        assertFalse(filter.mightContain("short"));
+    }
+
+    @Test
+    void testFilterIsUntrustedWhenUnexpiredKeysAreDropped() {
+        TimeWindowedBloomFilter filter = new TimeWindowedBloomFilter(WINDOW, 2, 1000, 0.01, START);
+        LocalDateTime longDeleteAfter = START.plusDays(10);
+        assertTrue(filter.putIfAbsent("long", longDeleteAfter, START));
+
+        // Each put starts a new generation, the third one forces the first one out before "long" expired.
+        filter.put("day-1", START.plusDays(1).plusHours(1), START.plusDays(1));
+        filter.put("day-2", START.plusDays(2).plusHours(1), START.plusDays(2));
+        assertEquals(1, filter.getGenerationCount());
+        assertFalse(filter.mightContain("long"));
+
+        // The filter doesn't know anymore whether "long" was seen, so it can't claim that a key is new.
+        assertFalse(filter.putIfAbsent("long", longDeleteAfter, START.plusDays(3)));
+        assertFalse(filter.putIfAbsent("never-seen", START.plusDays(4), START.plusDays(3)));
+        assertTrue(filter.putIfAbsent("never-seen", START.plusDays(11), longDeleteAfter));
+    }
+
+    @Test
+    void testEstimatedFalsePositiveRate() {
+        int expectedKeys = 10_000;
+        TimeWindowedBloomFilter filter = new TimeWindowedBloomFilter(WINDOW, 2, expectedKeys, 0.01, START);
+        assertEquals(0, filter.getEstimatedFalsePositiveRate());
+
+        for (int i = 0; i < expectedKeys; i++) {
+            filter.put("inserted-" + i, START.plusHours(1), START);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < expectedKeys; i++) {
+            if (filter.mightContain("never-inserted-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        double measuredRate = (double) falsePositives / expectedKeys;
+        assertEquals(0.01, filter.getEstimatedFalsePositiveRate(), 0.005);
+        assertEquals(0.01, measuredRate, 0.005);
+    }
+
+    private static LongStream seeds() {
+        return new Random(42).longs(20);
+    }
+}
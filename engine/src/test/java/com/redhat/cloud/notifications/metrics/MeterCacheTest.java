@@ -0,0 +1,107 @@
+package com.redhat.cloud.notifications.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static com.redhat.cloud.notifications.metrics.MeterCache.OVERFLOW_TAG_VALUE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MeterCacheTest {
+
+    private static final String COUNTER_NAME = "test.counter";
+    private static final int LOOKUPS = 100_000;
+
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void beforeEach() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testMeterIsReused() {
+        MeterCache<Counter> counters = MeterCache.counters(registry, COUNTER_NAME, "bundle", "application", "event_type", "connector");
+        Counter counter = counters.get("rhel", "policies", "policy-triggered", "webhook");
+        assertSame(counter, counters.get("rhel", "policies", "policy-triggered", "webhook"));
+        assertSame(counter, registry.counter(COUNTER_NAME, "bundle", "rhel", "application", "policies", "event_type", "policy-triggered", "connector", "webhook"));
+        assertNotSame(counter, counters.get("rhel", "policies", "policy-triggered", "email_subscription"));
+    }
+
+    @Test
+    void testNullTagValue() {
+        MeterCache<Counter> counters = MeterCache.counters(registry, COUNTER_NAME, "bundle", "application");
+        counters.get("rhel", null).increment();
+        assertEquals(1, registry.counter(COUNTER_NAME, "bundle", "rhel", "application", "").count());
+    }
+
+    @Test
+    void testOverflow() {
+        MeterCache<Counter> counters = new MeterCache<>(registry, COUNTER_NAME, 2, tags -> registry.counter(COUNTER_NAME, tags), "org_id");
+        counters.get("org-1").increment();
+        counters.get("org-2").increment();
+        counters.get("org-3").increment();
+        counters.get("org-4").increment();
+        counters.get("org-1").increment();
+
+        assertEquals(2, counters.size());
+        assertEquals(2, registry.counter(COUNTER_NAME, "org_id", "org-1").count());
+        assertEquals(2, registry.counter(COUNTER_NAME, "org_id", OVERFLOW_TAG_VALUE).count());
+        assertEquals(3, registry.find(COUNTER_NAME).counters().size());
+    }
+
+    @Test
+    void testMeterRemovedFromRegistry() {
+        MeterCache<Counter> counters = MeterCache.counters(registry, COUNTER_NAME, "org_id");
+        Counter counter = counters.get("org-1");
+        registry.remove(counter);
+
+        Counter newCounter = counters.get("org-1");
+        assertNotSame(counter, newCounter);
+        newCounter.increment();
+        assertEquals(1, registry.counter(COUNTER_NAME, "org_id", "org-1").count());
+    }
+
+    @Test
+    void testWrongNumberOfTagValues() {
+        MeterCache<Counter> counters = MeterCache.counters(registry, COUNTER_NAME, "bundle", "application");
+        assertThrows(IllegalArgumentException.class, () -> counters.get("rhel"));
+    }
+
+    /*
+     * Once the meter exists, a lookup doesn't allocate anything while a lookup from the registry allocates a meter ID
+     * and its tags. Any object takes more than one byte, so less than one byte per lookup means no allocation at all.
+     */
+    @Test
+    void testNoAllocationAtSteadyState() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        MeterCache<Counter> counters = MeterCache.counters(registry, COUNTER_NAME, "bundle", "application", "event_type", "connector");
+        String[] connectors = {"webhook", "email_subscription", "slack"};
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            counters.get("rhel", "policies", "policy-triggered", connectors[i % connectors.length]).increment();
+        }
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < LOOKUPS; i++) {
+            counters.get("rhel", "policies", "policy-triggered", connectors[i % connectors.length]).increment();
+        }
+        long cacheAllocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+
+        before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < LOOKUPS; i++) {
+            registry.counter(COUNTER_NAME, "bundle", "rhel", "application", "policies", "event_type", "policy-triggered", "connector", connectors[i % connectors.length]).increment();
+        }
+        long registryAllocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(cacheAllocatedBytes < LOOKUPS, "The cache allocated " + cacheAllocatedBytes + " bytes");
+        assertTrue(registryAllocatedBytes > cacheAllocatedBytes);
+    }
+}
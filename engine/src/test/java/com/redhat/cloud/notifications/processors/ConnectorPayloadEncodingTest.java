@@ -0,0 +1,347 @@
+package com.redhat.cloud.notifications.processors;
+
+import com.redhat.cloud.notifications.Severity;
+import com.redhat.cloud.notifications.config.EngineConfig;
+import com.redhat.cloud.notifications.db.repositories.BundleRepository;
+import com.redhat.cloud.notifications.db.repositories.EventRepository;
+import com.redhat.cloud.notifications.db.repositories.NotificationHistoryRepository;
+import com.redhat.cloud.notifications.db.repositories.SubscriptionRepository;
+import com.redhat.cloud.notifications.events.EndpointRoutingIndex;
+import com.redhat.cloud.notifications.events.EventWrapperAction;
+import com.redhat.cloud.notifications.ingress.Action;
+import com.redhat.cloud.notifications.ingress.Context;
+import com.redhat.cloud.notifications.ingress.Metadata;
+import com.redhat.cloud.notifications.ingress.Payload;
+import com.redhat.cloud.notifications.models.Application;
+import com.redhat.cloud.notifications.models.Bundle;
+import com.redhat.cloud.notifications.models.CamelProperties;
+import com.redhat.cloud.notifications.models.Endpoint;
+import com.redhat.cloud.notifications.models.EndpointProperties;
+import com.redhat.cloud.notifications.models.EndpointType;
+import com.redhat.cloud.notifications.models.Event;
+import com.redhat.cloud.notifications.models.EventType;
+import com.redhat.cloud.notifications.models.HttpType;
+import com.redhat.cloud.notifications.models.PagerDutyProperties;
+import com.redhat.cloud.notifications.models.PagerDutySeverity;
+import com.redhat.cloud.notifications.models.SystemSubscriptionProperties;
+import com.redhat.cloud.notifications.models.WebhookProperties;
+import com.redhat.cloud.notifications.processors.camel.google.chat.GoogleChatProcessor;
+import com.redhat.cloud.notifications.processors.camel.slack.SlackProcessor;
+import com.redhat.cloud.notifications.processors.camel.teams.TeamsProcessor;
+import com.redhat.cloud.notifications.processors.drawer.DrawerProcessor;
+import com.redhat.cloud.notifications.processors.email.EmailActorsResolver;
+import com.redhat.cloud.notifications.processors.email.EmailPendoResolver;
+import com.redhat.cloud.notifications.processors.email.EmailProcessor;
+import com.redhat.cloud.notifications.processors.eventing.EventingProcessor;
+import com.redhat.cloud.notifications.processors.pagerduty.PagerDutyProcessor;
+import com.redhat.cloud.notifications.processors.webhooks.WebhookTypeProcessor;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import io.smallrye.reactive.messaging.ce.CloudEventMetadata;
+import io.smallrye.reactive.messaging.kafka.api.KafkaMessageMetadata;
+import io.smallrye.reactive.messaging.memory.InMemoryConnector;
+import io.smallrye.reactive.messaging.memory.InMemorySink;
+import io.vertx.core.json.JsonObject;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.inject.Any;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static com.redhat.cloud.notifications.TestConstants.DEFAULT_ORG_ID;
+import static com.redhat.cloud.notifications.models.Endpoint.GOOGLE_CHAT_ENDPOINT_SUBTYPE;
+import static com.redhat.cloud.notifications.models.Endpoint.SERVICE_NOW_ENDPOINT_SUBTYPE;
+import static com.redhat.cloud.notifications.models.Endpoint.SLACK_ENDPOINT_SUBTYPE;
+import static com.redhat.cloud.notifications.models.Endpoint.SPLUNK_ENDPOINT_SUBTYPE;
+import static com.redhat.cloud.notifications.models.Endpoint.TEAMS_ENDPOINT_SUBTYPE;
+import static com.redhat.cloud.notifications.processors.ConnectorSender.CLOUD_EVENT_TYPE_PREFIX;
+import static com.redhat.cloud.notifications.processors.ConnectorSender.TOCAMEL_CHANNEL;
+import static com.redhat.cloud.notifications.processors.ConnectorSender.X_RH_NOTIFICATIONS_CONNECTOR_HEADER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/*
+ * The processors used to encode the event data to a string and to decode it back into a map before building the
+ * connector payloads. These tests run the real processors and compare the encoded payloads sent to the "tocamel" topic,
+ * byte for byte, with the golden files from src/test/resources/connector-payloads. The golden files hold the payloads
+ * of the processors which still did the string round trip.
+ *
+ * The golden files can be rewritten from the current processors with -Dconnector-payloads.update=true, the diff of
+ * the files then shows the changes of the payloads.
+ */
+@QuarkusTest
+public class ConnectorPayloadEncodingTest {
+
+    private static final String GOLDEN_FILES_FOLDER = "connector-payloads/";
+    private static final String UPDATE_GOLDEN_FILES_PROPERTY = "connector-payloads.update";
+    private static final String GENERATED_ID = "<generated-id>";
+    private static final Pattern UUID_PATTERN = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private static final UUID EVENT_ID = UUID.fromString("9b4d6f2e-7a1c-4f3b-8e5d-2c6a1b0f9e84");
+    private static final UUID ENDPOINT_ID = UUID.fromString("c1a3e5f7-0b2d-4e6f-8a1c-3e5f7a9b1d2f");
+    private static final String INVENTORY_ID = "6ad30f3e-0497-4e74-99f1-b3f9a6120a6f";
+    private static final Set<String> FIXTURE_IDS = Set.of(EVENT_ID.toString(), ENDPOINT_ID.toString(), INVENTORY_ID);
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 5, 17, 10, 8, 23);
+    private static final String URL = "https://foo.bar";
+
+    @Inject
+    WebhookTypeProcessor webhookProcessor;
+
+    @Inject
+    SlackProcessor slackProcessor;
+
+    @Inject
+    TeamsProcessor teamsProcessor;
+
+    @Inject
+    GoogleChatProcessor googleChatProcessor;
+
+    @Inject
+    EventingProcessor eventingProcessor;
+
+    @Inject
+    PagerDutyProcessor pagerDutyProcessor;
+
+    @Inject
+    DrawerProcessor drawerProcessor;
+
+    @Inject
+    EmailProcessor emailProcessor;
+
+    @InjectMock
+    NotificationHistoryRepository notificationHistoryRepository;
+
+    @InjectMock
+    EventRepository eventRepository;
+
+    @InjectMock
+    BundleRepository bundleRepository;
+
+    @InjectMock
+    SubscriptionRepository subscriptionRepository;
+
+    @InjectMock
+    EndpointRoutingIndex endpointRoutingIndex;
+
+    @InjectMock
+    EmailActorsResolver emailActorsResolver;
+
+    @InjectMock
+    EmailPendoResolver emailPendoResolver;
+
+    @InjectSpy
+    EngineConfig engineConfig;
+
+    @Inject
+    @Any
+    InMemoryConnector inMemoryConnector;
+
+    private InMemorySink<JsonObject> inMemorySink;
+
+    @PostConstruct
+    void postConstruct() {
+        inMemorySink = inMemoryConnector.sink(TOCAMEL_CHANNEL);
+    }
+
+    @BeforeEach
+    @AfterEach
+    void clearInMemorySink() {
+        inMemorySink.clear();
+    }
+
+    @Test
+    void testWebhookPayload() throws IOException {
+        webhookProcessor.process(buildEvent(), List.of(buildEndpoint(EndpointType.WEBHOOK, null, buildWebhookProperties())));
+        assertPayloadMatchesGoldenFile("webhook");
+    }
+
+    @Test
+    void testAnsiblePayload() throws IOException {
+        webhookProcessor.process(buildEvent(), List.of(buildEndpoint(EndpointType.ANSIBLE, null, buildWebhookProperties())));
+        assertPayloadMatchesGoldenFile("ansible");
+    }
+
+    @Test
+    void testSlackPayload() throws IOException {
+        CamelProperties properties = buildCamelProperties();
+        properties.setExtras(Map.of("channel", "#notifications"));
+        slackProcessor.process(buildEvent(), List.of(buildEndpoint(EndpointType.CAMEL, SLACK_ENDPOINT_SUBTYPE, properties)));
+        assertPayloadMatchesGoldenFile(SLACK_ENDPOINT_SUBTYPE);
+    }
+
+    @Test
+    void testTeamsPayload() throws IOException {
+        teamsProcessor.process(buildEvent(), List.of(buildEndpoint(EndpointType.CAMEL, TEAMS_ENDPOINT_SUBTYPE, buildCamelProperties())));
+        assertPayloadMatchesGoldenFile(TEAMS_ENDPOINT_SUBTYPE);
+    }
+
+    @Test
+    void testGoogleChatPayload() throws IOException {
+        googleChatProcessor.process(buildEvent(), List.of(buildEndpoint(EndpointType.CAMEL, GOOGLE_CHAT_ENDPOINT_SUBTYPE, buildCamelProperties())));
+        assertPayloadMatchesGoldenFile(GOOGLE_CHAT_ENDPOINT_SUBTYPE);
+    }
+
+    @Test
+    void testSplunkPayload() throws IOException {
+        eventingProcessor.process(buildEvent(), List.of(buildEndpoint(EndpointType.CAMEL, SPLUNK_ENDPOINT_SUBTYPE, buildCamelProperties())));
+        assertPayloadMatchesGoldenFile(SPLUNK_ENDPOINT_SUBTYPE);
+    }
+
+    @Test
+    void testServiceNowPayload() throws IOException {
+        eventingProcessor.process(buildEvent(), List.of(buildEndpoint(EndpointType.CAMEL, SERVICE_NOW_ENDPOINT_SUBTYPE, buildCamelProperties())));
+        assertPayloadMatchesGoldenFile(SERVICE_NOW_ENDPOINT_SUBTYPE);
+    }
+
+    @Test
+    void testPagerDutyPayload() throws IOException {
+        PagerDutyProperties properties = new PagerDutyProperties();
+        properties.setSeverity(PagerDutySeverity.WARNING);
+        pagerDutyProcessor.process(buildEvent(), List.of(buildEndpoint(EndpointType.PAGERDUTY, null, properties)));
+        assertPayloadMatchesGoldenFile("pagerduty");
+    }
+
+    @Test
+    void testDrawerPayload() throws IOException {
+        when(engineConfig.isDrawerEnabled(anyString())).thenReturn(true);
+        when(bundleRepository.getBundle(any())).thenReturn(new Bundle("rhel", "Red Hat Enterprise Linux"));
+        when(subscriptionRepository.getUnsubscribers(any(), any(), any(), any())).thenReturn(List.of("bob"));
+
+        drawerProcessor.process(buildEvent(), List.of(buildEndpoint(EndpointType.DRAWER, null, new SystemSubscriptionProperties())));
+        assertPayloadMatchesGoldenFile("drawer");
+    }
+
+    @Test
+    void testEmailPayload() throws IOException {
+        when(emailActorsResolver.getEmailSender(any())).thenReturn("\"Red Hat Hybrid Cloud Console\" noreply@redhat.com");
+        when(subscriptionRepository.getSubscribers(any(), any(), any(), any())).thenReturn(List.of("alice"));
+        Endpoint endpoint = buildEndpoint(EndpointType.EMAIL_SUBSCRIPTION, null, new SystemSubscriptionProperties());
+        when(endpointRoutingIndex.getDefaultSystemSubscription(any(), eq(DEFAULT_ORG_ID), eq(EndpointType.EMAIL_SUBSCRIPTION))).thenReturn(endpoint);
+
+        emailProcessor.process(buildEvent(), List.of(endpoint));
+        assertPayloadMatchesGoldenFile("email_subscription");
+    }
+
+    private void assertPayloadMatchesGoldenFile(String connector) throws IOException {
+        await().until(() -> inMemorySink.received().size() == 1);
+        Message<JsonObject> message = inMemorySink.received().getFirst();
+
+        byte[] connectorHeader = message.getMetadata(KafkaMessageMetadata.class).get()
+            .getHeaders().headers(X_RH_NOTIFICATIONS_CONNECTOR_HEADER)
+            .iterator().next().value();
+        assertEquals(connector, new String(connectorHeader, UTF_8));
+        CloudEventMetadata<?> cloudEventMetadata = message.getMetadata(CloudEventMetadata.class).get();
+        assertNotNull(UUID.fromString(cloudEventMetadata.getId()));
+        assertEquals(CLOUD_EVENT_TYPE_PREFIX + connector, cloudEventMetadata.getType());
+
+        // The payload is encoded the way it is written into the Kafka record and compared byte for byte.
+        String actual = normalize(message.getPayload().encode()) + "\n";
+
+        String goldenFile = GOLDEN_FILES_FOLDER + connector + ".json";
+        if (Boolean.getBoolean(UPDATE_GOLDEN_FILES_PROPERTY)) {
+            Files.writeString(Path.of("src/test/resources", goldenFile), actual, UTF_8);
+        }
+
+        String expected;
+        try (InputStream goldenFileStream = getClass().getClassLoader().getResourceAsStream(goldenFile)) {
+            assertNotNull(goldenFileStream, "the golden file " + goldenFile + " was not located");
+            expected = new String(goldenFileStream.readAllBytes(), UTF_8);
+        }
+        assertEquals(expected, actual, "unexpected payload sent to the " + connector + " connector");
+    }
+
+    // The identifiers generated while the payload is built or sent are replaced with a placeholder.
+    private static String normalize(String encodedPayload) {
+        return UUID_PATTERN.matcher(encodedPayload).replaceAll(match -> FIXTURE_IDS.contains(match.group()) ? match.group() : GENERATED_ID);
+    }
+
+    private static Event buildEvent() {
+        Action action = new Action.ActionBuilder()
+            .withBundle("rhel")
+            .withApplication("advisor")
+            .withEventType("new-recommendation")
+            .withOrgId(DEFAULT_ORG_ID)
+            .withTimestamp(TIMESTAMP)
+            .withSeverity(Severity.MODERATE.name())
+            .withContext(new Context.ContextBuilder()
+                .withAdditionalProperty("inventory_id", INVENTORY_ID)
+                .withAdditionalProperty("display_name", "my-computer")
+                .build())
+            .withEvents(List.of(
+                new com.redhat.cloud.notifications.ingress.Event.EventBuilder()
+                    .withMetadata(new Metadata.MetadataBuilder().build())
+                    .withPayload(new Payload.PayloadBuilder()
+                        .withAdditionalProperty("rule_id", "insights-rule-1")
+                        .withAdditionalProperty("total_risk", 3)
+                        .withAdditionalProperty("description", "Line 1\nLine \"2\" à l'heure")
+                        .build())
+                    .build()
+            ))
+            .build();
+        action.setRecipients(List.of());
+
+        Bundle bundle = new Bundle("rhel", "Red Hat Enterprise Linux");
+        Application application = new Application();
+        application.setBundle(bundle);
+        application.setName("advisor");
+        EventType eventType = new EventType();
+        eventType.setApplication(application);
+        eventType.setName("new-recommendation");
+        eventType.setIncludedInDrawer(true);
+
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setOrgId(DEFAULT_ORG_ID);
+        event.setCreated(TIMESTAMP);
+        event.setEventType(eventType);
+        event.setEventWrapper(new EventWrapperAction(action));
+        event.setSeverity(Severity.MODERATE);
+        event.setBundleDisplayName("Red Hat Enterprise Linux");
+        event.setApplicationDisplayName("Advisor");
+        event.setEventTypeDisplayName("New recommendation");
+        return event;
+    }
+
+    private static Endpoint buildEndpoint(EndpointType type, String subType, EndpointProperties properties) {
+        Endpoint endpoint = new Endpoint();
+        endpoint.setId(ENDPOINT_ID);
+        endpoint.setOrgId(DEFAULT_ORG_ID);
+        endpoint.setType(type);
+        endpoint.setSubType(subType);
+        endpoint.setProperties(properties);
+        return endpoint;
+    }
+
+    private static WebhookProperties buildWebhookProperties() {
+        WebhookProperties properties = new WebhookProperties();
+        properties.setUrl(URL);
+        properties.setMethod(HttpType.POST);
+        return properties;
+    }
+
+    private static CamelProperties buildCamelProperties() {
+        CamelProperties properties = new CamelProperties();
+        properties.setUrl(URL);
+        return properties;
+    }
+}
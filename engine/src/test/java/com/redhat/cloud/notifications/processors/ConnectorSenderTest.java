@@ -3,6 +3,7 @@ package com.redhat.cloud.notifications.processors;
 import com.redhat.cloud.notifications.TestLifecycleManager;
 import com.redhat.cloud.notifications.config.EngineConfig;
 import com.redhat.cloud.notifications.db.ResourceHelpers;
+import com.redhat.cloud.notifications.db.repositories.NotificationHistoryRepository;
 import com.redhat.cloud.notifications.db.repositories.PayloadDetailsRepository;
 import com.redhat.cloud.notifications.models.Application;
 import com.redhat.cloud.notifications.models.Bundle;
@@ -10,24 +11,35 @@ import com.redhat.cloud.notifications.models.Endpoint;
 import com.redhat.cloud.notifications.models.EndpointType;
 import com.redhat.cloud.notifications.models.Event;
 import com.redhat.cloud.notifications.models.EventType;
+import com.redhat.cloud.notifications.models.NotificationHistory;
+import com.redhat.cloud.notifications.models.NotificationStatus;
 import com.redhat.cloud.notifications.processors.payload.PayloadDetails;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectSpy;
+import io.smallrye.reactive.messaging.ce.OutgoingCloudEventMetadata;
 import io.smallrye.reactive.messaging.memory.InMemoryConnector;
 import io.smallrye.reactive.messaging.memory.InMemorySink;
 import io.vertx.core.json.JsonObject;
 import jakarta.enterprise.inject.Any;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.awaitility.Awaitility;
 import org.eclipse.microprofile.reactive.messaging.Message;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 @QuarkusTest
 @QuarkusTestResource(TestLifecycleManager.class)
 public class ConnectorSenderTest {
@@ -44,6 +56,12 @@ public class ConnectorSenderTest {
     @InjectMock
     PayloadDetailsRepository payloadDetailsRepository;
 
+    @InjectSpy
+    NotificationHistoryRepository notificationHistoryRepository;
+
+    @Inject
+    EntityManager entityManager;
+
     @Inject
     ResourceHelpers resourceHelpers;
 
@@ -151,4 +169,131 @@ public class ConnectorSenderTest {
 
         Assertions.assertEquals(expectedPayload.encode(), receivedPayload.encode(), "the received payload should only contain the payload's identifier");
     }
+
+    /**
+     * Tests that the size of the payloads is measured in UTF-8 bytes and
+     * that only the EMAIL_SUBSCRIPTION payloads which reach the configured
+     * maximum Kafka message size are stored in the database, with the same
+     * contents as the payload that would have been sent.
+     */
+    @Test
+    @Transactional
+    void testOversizedEmailSubscriptionPayloads() {
+        final Bundle bundle = this.resourceHelpers.createBundle("bundle-test-oversized-payload");
+        final Application application = this.resourceHelpers.createApp(bundle.getId(), "app-test-oversized-payload");
+        final EventType eventType = this.resourceHelpers.createEventType(application.getId(), "event-test-oversized-payload");
+        final Event event = this.resourceHelpers.createEvent(eventType);
+        final Endpoint emailEndpoint = this.resourceHelpers.createEndpoint(EndpointType.EMAIL_SUBSCRIPTION, null, true, 0);
+        final Endpoint webhookEndpoint = this.resourceHelpers.createEndpoint(EndpointType.WEBHOOK, null, true, 0);
+
+        final int maximumRequestSize = 10_000;
+        Mockito.when(this.engineConfig.getKafkaToCamelMaximumRequestSize()).thenReturn(maximumRequestSize);
+
+        // Each "é" takes two bytes in UTF-8, the payload is under the limit in characters but not in bytes.
+        final JsonObject multiByteOversized = new JsonObject().put("text", "é".repeat(maximumRequestSize / 2));
+        final JsonObject oversized = new JsonObject().put("text", "a".repeat(3 * maximumRequestSize));
+        final JsonObject undersized = new JsonObject().put("text", "a".repeat(maximumRequestSize / 2));
+
+        this.connectorSender.send(event, emailEndpoint, multiByteOversized);
+        this.connectorSender.send(event, emailEndpoint, oversized);
+        this.connectorSender.send(event, emailEndpoint, undersized);
+        this.connectorSender.send(event, webhookEndpoint, oversized.copy());
+
+        Assertions.assertTrue(multiByteOversized.encode().length() < maximumRequestSize);
+        Assertions.assertTrue(multiByteOversized.encode().getBytes(UTF_8).length >= maximumRequestSize);
+
+        final ArgumentCaptor<PayloadDetails> payloadDetails = ArgumentCaptor.forClass(PayloadDetails.class);
+        Mockito.verify(this.payloadDetailsRepository, Mockito.times(2)).save(payloadDetails.capture());
+        Assertions.assertEquals(List.of(multiByteOversized.encode(), oversized.encode()), payloadDetails.getAllValues().stream().map(PayloadDetails::getContents).toList());
+
+        final InMemorySink<JsonObject> messages = this.inMemoryConnector.sink(ConnectorSender.TOCAMEL_CHANNEL);
+        Awaitility.await().until(
+            () -> messages.received().size() == 4
+        );
+
+        // The stored payloads are replaced with their identifier, the other payloads are sent as is.
+        final List<JsonObject> receivedPayloads = messages.received().stream().map(Message::getPayload).toList();
+        Assertions.assertTrue(receivedPayloads.get(0).containsKey(PayloadDetails.PAYLOAD_DETAILS_ID_KEY));
+        Assertions.assertTrue(receivedPayloads.get(1).containsKey(PayloadDetails.PAYLOAD_DETAILS_ID_KEY));
+        Assertions.assertEquals(undersized.encode(), receivedPayloads.get(2).encode());
+        Assertions.assertEquals(oversized.getString("text"), receivedPayloads.get(3).getString("text"));
+    }
+
+    /**
+     * Tests that the notification history rows of a batch of sends are
+     * created with a single call to the repository, before the messages are
+     * sent to Kafka.
+     */
+    @Test
+    void testBatchedSendsCreateTheHistoryRowsAtOnce() {
+        final Event event = this.createEvent("bundle-test-batched-sends");
+        final List<Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            endpoints.add(this.resourceHelpers.createEndpoint(EndpointType.WEBHOOK, null, true, 0));
+        }
+
+        final InMemorySink<JsonObject> messages = this.inMemoryConnector.sink(ConnectorSender.TOCAMEL_CHANNEL);
+        final List<Exception> accumulator = new ArrayList<>();
+        this.connectorSender.sendInBatch(() -> {
+            for (Endpoint endpoint : endpoints) {
+                this.connectorSender.send(event, endpoint, new JsonObject());
+            }
+            // Nothing is created nor sent until the batch is flushed.
+            Assertions.assertEquals(0, messages.received().size());
+        }, accumulator);
+
+        Assertions.assertTrue(accumulator.isEmpty());
+        Mockito.verify(this.notificationHistoryRepository, Mockito.times(1)).createNotificationHistories(Mockito.argThat(histories -> histories.size() == endpoints.size()));
+        Mockito.verify(this.notificationHistoryRepository, Mockito.never()).createNotificationHistory(Mockito.any());
+        Assertions.assertEquals(endpoints.size(), messages.received().size());
+
+        for (Message<JsonObject> message : messages.received()) {
+            final NotificationHistory history = this.findHistory(message);
+            Assertions.assertEquals(NotificationStatus.PROCESSING, history.getStatus());
+            Assertions.assertEquals(event.getId(), history.getEvent().getId());
+            Assertions.assertEquals(UUID.fromString(message.getPayload().getString("endpoint_id")), history.getEndpoint().getId());
+        }
+    }
+
+    /**
+     * Tests that when the batched creation of the history rows fails, the
+     * rows are created one at a time and only the sends whose row could not
+     * be created are skipped.
+     */
+    @Test
+    void testBatchedSendsFailureIsLimitedToItsEndpoint() {
+        final Event event = this.createEvent("bundle-test-batched-sends-failure");
+        final Endpoint failingEndpoint = this.resourceHelpers.createEndpoint(EndpointType.WEBHOOK, null, true, 0);
+        final Endpoint endpoint = this.resourceHelpers.createEndpoint(EndpointType.WEBHOOK, null, true, 0);
+
+        Mockito.doThrow(new IllegalStateException("Batch failure")).when(this.notificationHistoryRepository).createNotificationHistories(Mockito.any());
+        Mockito.doThrow(new IllegalStateException("Row failure")).when(this.notificationHistoryRepository)
+            .createNotificationHistory(Mockito.argThat(history -> history.getEndpoint().getId().equals(failingEndpoint.getId())));
+
+        final List<Exception> accumulator = new ArrayList<>();
+        this.connectorSender.sendInBatch(() -> {
+            this.connectorSender.send(event, failingEndpoint, new JsonObject());
+            this.connectorSender.send(event, endpoint, new JsonObject());
+        }, accumulator);
+
+        Assertions.assertEquals(1, accumulator.size());
+        Assertions.assertEquals("Row failure", accumulator.getFirst().getMessage());
+
+        final InMemorySink<JsonObject> messages = this.inMemoryConnector.sink(ConnectorSender.TOCAMEL_CHANNEL);
+        Assertions.assertEquals(1, messages.received().size());
+        Assertions.assertEquals(endpoint.getId().toString(), messages.received().getFirst().getPayload().getString("endpoint_id"));
+        Assertions.assertNotNull(this.findHistory(messages.received().getFirst()));
+    }
+
+    private Event createEvent(final String bundleName) {
+        final Bundle bundle = this.resourceHelpers.createBundle(bundleName);
+        final Application application = this.resourceHelpers.createApp(bundle.getId(), "app-" + bundleName);
+        final EventType eventType = this.resourceHelpers.createEventType(application.getId(), "event-" + bundleName);
+        return this.resourceHelpers.createEvent(eventType);
+    }
+
+    private NotificationHistory findHistory(final Message<JsonObject> message) {
+        final String historyId = message.getMetadata(OutgoingCloudEventMetadata.class).orElseThrow().getId();
+        return this.entityManager.find(NotificationHistory.class, UUID.fromString(historyId));
+    }
 }
@@ -0,0 +1,187 @@
+package com.redhat.cloud.notifications.processors.email;
+
+import com.redhat.cloud.notifications.AdvisorTestHelpers;
+import com.redhat.cloud.notifications.ApplicationServicesTestHelpers;
+import com.redhat.cloud.notifications.ComplianceTestHelpers;
+import com.redhat.cloud.notifications.ErrataTestHelpers;
+import com.redhat.cloud.notifications.InventoryTestHelpers;
+import com.redhat.cloud.notifications.PatchTestHelpers;
+import com.redhat.cloud.notifications.Severity;
+import com.redhat.cloud.notifications.TestHelpers;
+import com.redhat.cloud.notifications.VulnerabilityTestHelpers;
+import com.redhat.cloud.notifications.models.EmailAggregation;
+import com.redhat.cloud.notifications.models.EventAggregationCriterion;
+import com.redhat.cloud.notifications.processors.email.aggregators.AbstractEmailPayloadAggregator;
+import com.redhat.cloud.notifications.processors.email.aggregators.EmailPayloadAggregatorFactory;
+import com.redhat.cloud.notifications.recipients.User;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.redhat.cloud.notifications.TestConstants.DEFAULT_ORG_ID;
+import static com.redhat.cloud.notifications.processors.email.aggregators.AdvisorEmailAggregator.DEACTIVATED_RECOMMENDATION;
+import static com.redhat.cloud.notifications.processors.email.aggregators.AdvisorEmailAggregator.NEW_RECOMMENDATION;
+import static com.redhat.cloud.notifications.processors.email.aggregators.AdvisorEmailAggregator.RESOLVED_RECOMMENDATION;
+import static com.redhat.cloud.notifications.processors.email.aggregators.AdvisorEmailAggregatorTest.TEST_RULE_1;
+import static com.redhat.cloud.notifications.processors.email.aggregators.AdvisorEmailAggregatorTest.TEST_RULE_2;
+import static com.redhat.cloud.notifications.processors.email.aggregators.ErrataEmailPayloadAggregator.EVENT_TYPE_BUGFIX;
+import static com.redhat.cloud.notifications.processors.email.aggregators.ErrataEmailPayloadAggregator.EVENT_TYPE_ENHANCEMENT;
+import static com.redhat.cloud.notifications.processors.email.aggregators.ErrataEmailPayloadAggregator.EVENT_TYPE_SECURITY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/*
+ * The Ansible aggregator is not tested here because it does not support aggregation yet.
+ */
+public class AggregationClassesTest {
+
+    private static final int USERS_COUNT = 25;
+    private static final int EVENTS_COUNT = 40;
+    private static final UUID EVENT_TYPE_ID_1 = UUID.randomUUID();
+    private static final UUID EVENT_TYPE_ID_2 = UUID.randomUUID();
+
+    static Stream<Arguments> aggregations() {
+        return Stream.of(
+            Arguments.of("rhel", "advisor", List.of(
+                AdvisorTestHelpers.createEmailAggregation(NEW_RECOMMENDATION, TEST_RULE_1),
+                AdvisorTestHelpers.createEmailAggregation(RESOLVED_RECOMMENDATION, TEST_RULE_2),
+                AdvisorTestHelpers.createEmailAggregation(DEACTIVATED_RECOMMENDATION, TEST_RULE_1)
+            )),
+            Arguments.of("rhel", "compliance", List.of(
+                ComplianceTestHelpers.createEmailAggregation("rhel", "compliance", "report-upload-failed", "policy-1", "host-1"),
+                ComplianceTestHelpers.createEmailAggregation("rhel", "compliance", "compliance-below-threshold", "policy-2", "host-2")
+            )),
+            Arguments.of("rhel", "inventory", List.of(
+                InventoryTestHelpers.createEmailAggregation("tenant", "rhel", "inventory", "Host Validation Failure")
+            )),
+            Arguments.of("rhel", "patch", List.of(
+                PatchTestHelpers.createEmailAggregation("rhel", "patch", "advisory-1", "synopsis-1", "security", "host-1"),
+                PatchTestHelpers.createEmailAggregation("rhel", "patch", "advisory-2", "synopsis-2", "bugfix", "host-2")
+            )),
+            Arguments.of("rhel", "vulnerability", List.of(
+                VulnerabilityTestHelpers.createEmailAggregation("rhel", "vulnerability", "new-cve-cvss", "CVE-2024-0001"),
+                VulnerabilityTestHelpers.createEmailAggregation("rhel", "vulnerability", "new-cve-severity", "CVE-2024-0002"),
+                VulnerabilityTestHelpers.createEmailAggregation("rhel", "vulnerability", "any-cve-known-exploit", "CVE-2024-0003")
+            )),
+            Arguments.of("rhel", "resource-optimization", List.of(
+                TestHelpers.createEmailAggregationFromAction(TestHelpers.createResourceOptimizationAction())
+            )),
+            Arguments.of("subscription-services", "errata-notifications", List.of(
+                TestHelpers.createEmailAggregationFromAction(ErrataTestHelpers.createErrataAction(EVENT_TYPE_BUGFIX)),
+                TestHelpers.createEmailAggregationFromAction(ErrataTestHelpers.createErrataAction(EVENT_TYPE_ENHANCEMENT)),
+                TestHelpers.createEmailAggregationFromAction(ErrataTestHelpers.createErrataAction(EVENT_TYPE_SECURITY))
+            )),
+            Arguments.of("subscription-services", "application-services", List.of(
+                TestHelpers.createEmailAggregationFromAction(ApplicationServicesTestHelpers.createKeycloakReleasesAction(), "Red Hat build of Keycloak"),
+                TestHelpers.createEmailAggregationFromAction(ApplicationServicesTestHelpers.createEapReleasesAction(), "Red Hat JBoss Enterprise Application Platform")
+            ))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("aggregations")
+    void testSameOutputAsPerUserAggregation(String bundle, String application, List<EmailAggregation> templates) {
+        EventAggregationCriterion aggregationKey = new EventAggregationCriterion(DEFAULT_ORG_ID, UUID.randomUUID(), UUID.randomUUID(), bundle, application);
+        Random random = new Random(application.hashCode());
+
+        List<User> users = new ArrayList<>();
+        Map<User, Set<SubscribedEventTypeSeverities>> severitiesByUser = new HashMap<>();
+        for (int i = 0; i < USERS_COUNT; i++) {
+            User user = new User();
+            user.setUsername("user-" + i);
+            users.add(user);
+            // One user out of three doesn't have any severity preferences.
+            if (i % 3 != 0) {
+                severitiesByUser.put(user, Set.of(
+                    new SubscribedEventTypeSeverities(EVENT_TYPE_ID_1, randomSeverities(random)),
+                    new SubscribedEventTypeSeverities(EVENT_TYPE_ID_2, randomSeverities(random))
+                ));
+            }
+        }
+
+        AggregationClasses aggregationClasses = new AggregationClasses(aggregationKey);
+        Map<User, AbstractEmailPayloadAggregator> perUserAggregators = new HashMap<>();
+        for (int i = 0; i < EVENTS_COUNT; i++) {
+            EmailAggregation template = templates.get(random.nextInt(templates.size()));
+            Severity severity = Severity.values()[random.nextInt(Severity.values().length)];
+            UUID eventTypeId = random.nextBoolean() ? EVENT_TYPE_ID_1 : EVENT_TYPE_ID_2;
+            Set<User> recipients = new HashSet<>();
+            for (User user : users) {
+                if (random.nextInt(4) != 0) {
+                    recipients.add(user);
+                }
+            }
+
+            aggregationClasses.add(eventTypeId, severity,
+                () -> new EmailAggregation(DEFAULT_ORG_ID, bundle, application, template.getPayload().copy(), severity, eventTypeId),
+                recipients, severitiesByUser::get);
+
+            // This is how the aggregation was performed before the recipients were grouped into classes.
+            for (User recipient : recipients) {
+                perUserAggregators.computeIfAbsent(recipient, user -> EmailPayloadAggregatorFactory.by(aggregationKey, user.getUsername(), severitiesByUser.get(user)))
+                    .aggregate(new EmailAggregation(DEFAULT_ORG_ID, bundle, application, template.getPayload().copy(), severity, eventTypeId));
+            }
+        }
+
+        Map<User, Map<String, Object>> expected = new HashMap<>();
+        perUserAggregators.forEach((user, aggregator) -> {
+            if (!aggregator.isEmpty()) {
+                expected.put(user, aggregator.getContext());
+            }
+        });
+        Map<User, Map<String, Object>> actual = aggregationClasses.getAggregated();
+
+        assertEquals(expected.keySet(), actual.keySet());
+        for (User user : expected.keySet()) {
+            assertEquals(JsonObject.mapFrom(expected.get(user)).encode(), JsonObject.mapFrom(actual.get(user)).encode(), user.getUsername());
+        }
+    }
+
+    @Test
+    void testUsersWithSameEventsShareAggregatedData() {
+        EventAggregationCriterion aggregationKey = new EventAggregationCriterion(DEFAULT_ORG_ID, UUID.randomUUID(), UUID.randomUUID(), "rhel", "inventory");
+        EmailAggregation template = InventoryTestHelpers.createEmailAggregation("tenant", "rhel", "inventory", "Host Validation Failure");
+        User user1 = new User();
+        user1.setUsername("user-1");
+        User user2 = new User();
+        user2.setUsername("user-2");
+        User user3 = new User();
+        user3.setUsername("user-3");
+
+        AggregationClasses aggregationClasses = new AggregationClasses(aggregationKey);
+        aggregationClasses.add(EVENT_TYPE_ID_1, Severity.LOW, () -> copy(template), Set.of(user1, user2, user3), user -> null);
+        aggregationClasses.add(EVENT_TYPE_ID_1, Severity.LOW, () -> copy(template), Set.of(user1, user2), user -> null);
+        Map<User, Map<String, Object>> aggregated = aggregationClasses.getAggregated();
+
+        assertEquals(3, aggregated.size());
+        assertSame(aggregated.get(user1), aggregated.get(user2));
+        assertNotSame(aggregated.get(user1), aggregated.get(user3));
+    }
+
+    private static EmailAggregation copy(EmailAggregation template) {
+        return new EmailAggregation(DEFAULT_ORG_ID, template.getBundleName(), template.getApplicationName(), template.getPayload().copy(), Severity.LOW, EVENT_TYPE_ID_1);
+    }
+
+    private static Map<Severity, Boolean> randomSeverities(Random random) {
+        Map<Severity, Boolean> severities = new HashMap<>();
+        for (Severity severity : Severity.values()) {
+            if (random.nextBoolean()) {
+                severities.put(severity, random.nextBoolean());
+            }
+        }
+        return severities;
+    }
+}
@@ -19,7 +19,10 @@ import java.util.List;
 
 import static com.redhat.cloud.notifications.transformers.BaseTransformer.SEVERITY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
 class BaseTransformerTest {
@@ -191,4 +194,44 @@ class BaseTransformerTest {
             }
         }
     }
+
+    /**
+     * Tests that the transformation is computed once per event and that the copies returned to the callers don't share
+     * any state with the memoized transformation.
+     */
+    @Test
+    void toJsonObjectMemoizationTest() {
+        final Action action = new Action();
+        action.setAccountId(FIXTURE_ACCOUNT_ID);
+        action.setApplication(FIXTURE_APPLICATION);
+        action.setBundle(FIXTURE_BUNDLE);
+        action.setContext(FIXTURE_CONTEXT);
+        action.setEventType(FIXTURE_EVENT_TYPE);
+        action.setEvents(FIXTURE_EVENTS);
+        action.setOrgId(FIXTURE_ORG_ID);
+        action.setTimestamp(FIXTURE_TIMESTAMP);
+
+        com.redhat.cloud.notifications.models.Event event = new com.redhat.cloud.notifications.models.Event();
+        event.setEventWrapper(new EventWrapperAction(action));
+
+        final JsonObject shared = this.baseTransformer.toSharedJsonObject(event);
+        assertSame(shared, this.baseTransformer.toSharedJsonObject(event), "the transformation should be memoized");
+
+        final JsonObject copy = this.baseTransformer.toJsonObject(event);
+        assertNotSame(shared, copy);
+        assertEquals(shared.encode(), copy.encode());
+
+        // Modifying a copy, including its nested objects, must not alter the memoized transformation.
+        copy.put("application_url", "https://example.com");
+        copy.getJsonObject(BaseTransformer.CONTEXT).put("environment_url", "https://example.com");
+        copy.getJsonArray(BaseTransformer.EVENTS).getJsonObject(0).getJsonObject(BaseTransformer.PAYLOAD).put("foo", "bar");
+        assertEquals(this.baseTransformer.toJsonObject(event).encode(), shared.encode());
+        assertFalse(shared.containsKey("application_url"));
+
+        // Changing a transformed field resets the memoized transformation.
+        event.setBundleDisplayName(FIXTURE_BUNDLE_DISPLAY_NAME);
+        final JsonObject updated = this.baseTransformer.toSharedJsonObject(event);
+        assertNotSame(shared, updated);
+        assertEquals(FIXTURE_BUNDLE_DISPLAY_NAME, updated.getJsonObject(BaseTransformer.SOURCE).getJsonObject(BaseTransformer.BUNDLE).getString(BaseTransformer.DISPLAY_NAME));
+    }
 }
@@ -0,0 +1,135 @@
+package com.redhat.cloud.notifications.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.cloud.event.parser.ConsoleCloudEventParser;
+import com.redhat.cloud.notifications.EventPayloadTestHelper;
+import com.redhat.cloud.notifications.TestLifecycleManager;
+import com.redhat.cloud.notifications.events.EventWrapper;
+import com.redhat.cloud.notifications.events.EventWrapperAction;
+import com.redhat.cloud.notifications.events.EventWrapperCloudEvent;
+import com.redhat.cloud.notifications.ingress.Action;
+import com.redhat.cloud.notifications.ingress.Parser;
+import com.redhat.cloud.notifications.ingress.RecipientsAuthorizationCriterion;
+import com.redhat.cloud.notifications.models.Event;
+import com.redhat.cloud.notifications.models.NotificationsConsoleCloudEvent;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.redhat.cloud.notifications.TestConstants.DEFAULT_ORG_ID;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * The criterion of a persisted event used to be extracted by parsing its payload and transforming it into a JSON
+ * object. These tests compare that path with the streaming read of the payload and with the memoized criterion.
+ */
+@QuarkusTest
+public class RecipientsAuthorizationCriterionExtractorTest {
+
+    @Inject
+    RecipientsAuthorizationCriterionExtractor extractor;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Test
+    void testActionWithCriterion() {
+        Action action = EventPayloadTestHelper.buildValidAction(DEFAULT_ORG_ID, "rhel", "advisor", "new-recommendation");
+        action.setRecipientsAuthorizationCriterion(EventPayloadTestHelper.buildRecipientsAuthorizationCriterion());
+        String payload = Parser.encode(action);
+
+        RecipientsAuthorizationCriterion expected = extractFromParsedPayload(payload, new EventWrapperAction(Parser.decode(payload)));
+        assertNotNull(expected);
+        assertSameCriterion(expected, extractFromRawPayload(payload));
+    }
+
+    @Test
+    void testActionWithoutCriterion() {
+        Action action = EventPayloadTestHelper.buildValidAction(DEFAULT_ORG_ID, "rhel", "advisor", "new-recommendation");
+        String payload = Parser.encode(action);
+
+        assertNull(extractFromParsedPayload(payload, new EventWrapperAction(Parser.decode(payload))));
+        assertNull(extractFromRawPayload(payload));
+    }
+
+    @Test
+    void testCloudEvent() throws IOException {
+        String payload = readCloudEventFixture();
+
+        assertNull(extractFromParsedPayload(payload, parseCloudEvent(payload)));
+        assertNull(extractFromRawPayload(payload));
+    }
+
+    @Test
+    void testCriterionIsMemoized() {
+        Action action = EventPayloadTestHelper.buildValidAction(DEFAULT_ORG_ID, "rhel", "advisor", "new-recommendation");
+        action.setRecipientsAuthorizationCriterion(EventPayloadTestHelper.buildRecipientsAuthorizationCriterion());
+
+        Event event = new Event();
+        event.setPayload(Parser.encode(action));
+        RecipientsAuthorizationCriterion criterion = extractor.extract(event);
+        assertNotNull(criterion);
+        assertTrue(event.isAuthorizationCriterionExtracted());
+        assertSame(criterion, event.getExtractedAuthorizationCriterion());
+        assertSame(criterion, extractor.extract(event));
+
+        // A new payload resets the memoized criterion.
+        action.setRecipientsAuthorizationCriterion(null);
+        event.setPayload(Parser.encode(action));
+        assertFalse(event.isAuthorizationCriterionExtracted());
+        assertNull(extractor.extract(event));
+        assertTrue(event.isAuthorizationCriterionExtracted());
+        assertNull(event.getExtractedAuthorizationCriterion());
+    }
+
+    @Test
+    void testPreExtractedCriterion() {
+        RecipientsAuthorizationCriterion preExtractedCriterion = EventPayloadTestHelper.buildRecipientsAuthorizationCriterion();
+
+        // The payload doesn't carry the criterion, so it can only come from the event row.
+        Event event = new Event();
+        event.setPayload(Parser.encode(EventPayloadTestHelper.buildValidAction(DEFAULT_ORG_ID, "rhel", "advisor", "new-recommendation")));
+        event.setRecipientsAuthorizationCriterion(preExtractedCriterion);
+
+        assertSame(preExtractedCriterion, extractor.extract(event));
+    }
+
+    private RecipientsAuthorizationCriterion extractFromRawPayload(String payload) {
+        Event event = new Event();
+        event.setPayload(payload);
+        return extractor.extract(event);
+    }
+
+    // The event wrapper is already set, so the criterion is read from the transformed event.
+    private RecipientsAuthorizationCriterion extractFromParsedPayload(String payload, EventWrapper<?, ?> eventWrapper) {
+        Event event = new Event();
+        event.setPayload(payload);
+        event.setEventWrapper(eventWrapper);
+        return extractor.extract(event);
+    }
+
+    private void assertSameCriterion(RecipientsAuthorizationCriterion expected, RecipientsAuthorizationCriterion actual) {
+        assertNotNull(actual);
+        assertEquals(objectMapper.valueToTree(expected), objectMapper.valueToTree(actual));
+    }
+
+    private static EventWrapperCloudEvent parseCloudEvent(String payload) {
+        return new EventWrapperCloudEvent(new ConsoleCloudEventParser().fromJsonString(payload, NotificationsConsoleCloudEvent.class));
+    }
+
+    private static String readCloudEventFixture() throws IOException {
+        try (InputStream cloudEventStream = TestLifecycleManager.class.getClassLoader().getResourceAsStream("cloudevents/cloudevent.json")) {
+            return IOUtils.toString(cloudEventStream, UTF_8);
+        }
+    }
+}